@@ -0,0 +1,103 @@
+package com.example.consumer.benchmark;
+
+import com.example.consumer.streams.model.DebeziumChange;
+import com.example.consumer.streams.model.OrderData;
+import com.example.consumer.streams.serde.JsonCodecs;
+import com.example.consumer.streams.util.DebeziumExtractor;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-record JSON cost on the two hot paths. CDC extraction: {@code treeExtraction} is the former
+ * {@code readTree} + {@code treeToValue} of both row images on a plain mapper, {@code envelopeExtraction}
+ * the {@link DebeziumExtractor} binding the envelope with a cached reader. State store reads:
+ * {@code mapperRead} is {@code ObjectMapper.readValue} on a plain mapper, {@code codecsRead} the cached
+ * reader of the shared {@link JsonCodecs} (Blackbird). Run with {@code -prof gc} for bytes allocated
+ * per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonCodecsBenchmark {
+
+    private static final String CHANGE_EVENT = """
+            {"before": {"id": 7, "user_id": 1, "status": "PENDING", "total_price": "99.90",
+                        "ordered_at": 1714558530000000, "updated_at": 1714558530000000},
+             "after": {"id": 7, "user_id": 1, "status": "PAID", "total_price": "99.90",
+                       "ordered_at": 1714558530000000, "updated_at": 1714558590000000},
+             "source": {"version": "2.5.0.Final", "connector": "postgresql", "name": "dbserver1",
+                        "ts_ms": 1714558590000, "snapshot": "false", "db": "orders", "schema": "public",
+                        "table": "orders", "txId": 771, "lsn": 24023128},
+             "transaction": {"id": "771:24023128", "total_order": 1, "data_collection_order": 1},
+             "op": "u", "ts_ms": 1714558590123}
+            """;
+
+    private ObjectMapper plainDebeziumMapper;
+    private ObjectMapper plainMapper;
+    private ObjectReader codecsReader;
+    private byte[] storedOrder;
+
+    @Setup
+    public void setUp() throws Exception {
+        plainDebeziumMapper = new ObjectMapper()
+                .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+                .registerModule(new JavaTimeModule());
+        plainMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+        JsonCodecs codecs = new JsonCodecs(JsonCodecs.configure(new ObjectMapper())).warmUp(OrderData.class);
+        codecsReader = codecs.reader(OrderData.class);
+
+        OrderData order = new OrderData();
+        order.setId(7L);
+        order.setUserId(1L);
+        order.setStatus("PAID");
+        order.setTotalPrice(new BigDecimal("99.90"));
+        order.setOrderedAt(LocalDateTime.of(2024, 5, 1, 10, 15, 30));
+        order.setUpdatedAt(LocalDateTime.of(2024, 5, 1, 10, 16, 30));
+        storedOrder = codecs.writer(OrderData.class).writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public OrderData treeExtraction() throws Exception {
+        JsonNode envelope = plainDebeziumMapper.readTree(CHANGE_EVENT);
+        plainDebeziumMapper.treeToValue(envelope.get("before"), OrderData.class);
+        OrderData after = plainDebeziumMapper.treeToValue(envelope.get("after"), OrderData.class);
+        after.setTransactionId(envelope.path("transaction").path("id").asText(null));
+        return after;
+    }
+
+    @Benchmark
+    public DebeziumChange<OrderData> envelopeExtraction() {
+        return DebeziumExtractor.extractChange(CHANGE_EVENT, OrderData.class);
+    }
+
+    @Benchmark
+    public OrderData mapperRead() throws Exception {
+        return plainMapper.readValue(storedOrder, OrderData.class);
+    }
+
+    @Benchmark
+    public OrderData codecsRead() throws Exception {
+        return codecsReader.readValue(storedOrder);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.consumer.benchmark;
+
+import com.example.consumer.dto.OrderDocument;
+import com.example.consumer.streams.model.DocumentFingerprint;
+import com.example.consumer.streams.model.EnrichedOrderItem;
+import com.example.consumer.streams.model.OrderData;
+import com.example.consumer.streams.model.OrderItemsAggregate;
+import com.example.consumer.streams.serde.OrderDocumentWriter;
+import com.example.consumer.streams.topology.OrderDocumentAssembler;
+import com.example.consumer.streams.util.ContentHash;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-event cost of the stage 6 document path: assemble the document, serialize it for the final
+ * documents store and fingerprint it in the sink. {@code jackson} is the {@code ObjectMapper} path
+ * (store serde plus a {@code JsonNode} tree serialized per field for the fingerprint), {@code writer}
+ * the {@link OrderDocumentWriter} path. Run with {@code -prof gc} for bytes allocated per operation
+ * ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderDocumentBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int items;
+
+    private ObjectMapper objectMapper;
+    private OrderItemsAggregate aggregate;
+    private OrderData order;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        order = new OrderData();
+        order.setId(100L);
+        order.setUserId(200L);
+        order.setStatus("PENDING");
+        order.setTotalPrice(new BigDecimal("1234.56"));
+        order.setOrderedAt(LocalDateTime.of(2024, 5, 1, 10, 15, 30));
+
+        aggregate = new OrderItemsAggregate();
+        for (long i = 0; i < items; i++) {
+            EnrichedOrderItem item = new EnrichedOrderItem();
+            item.setOrderItemId(1000 + i);
+            item.setOrderId(100L);
+            item.setProductId(i % 20);
+            item.setProductName("Product " + i);
+            item.setUnitPrice(new BigDecimal("12.34"));
+            item.setQuantity(2);
+            aggregate.addItem(item);
+        }
+    }
+
+    @Benchmark
+    public void jackson(Blackhole blackhole) throws Exception {
+        OrderDocument document = OrderDocumentAssembler.assemble(aggregate, order);
+        blackhole.consume(objectMapper.writeValueAsBytes(document));
+        blackhole.consume(treeFingerprint(document));
+    }
+
+    @Benchmark
+    public void writer(Blackhole blackhole) throws Exception {
+        OrderDocument document = OrderDocumentAssembler.assemble(aggregate, order);
+        OrderDocumentWriter writer = OrderDocumentWriter.forCurrentThread();
+        blackhole.consume(writer.write(document).toByteArray());
+        blackhole.consume(writer.write(document).fingerprint());
+    }
+
+    /**
+     * The sink's fingerprint before {@link OrderDocumentWriter}: a tree, one serialization per field
+     * and one of the whole tree.
+     */
+    private DocumentFingerprint treeFingerprint(OrderDocument document) throws Exception {
+        ObjectNode tree = objectMapper.valueToTree(document);
+        DocumentFingerprint fingerprint = new DocumentFingerprint();
+        Iterator<Map.Entry<String, JsonNode>> fields = tree.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            byte[] bytes = objectMapper.writeValueAsBytes(field.getValue());
+            fingerprint.putField(field.getKey(), ContentHash.of(bytes), bytes.length);
+        }
+        byte[] bytes = objectMapper.writeValueAsBytes(tree);
+        fingerprint.setHash(ContentHash.of(bytes));
+        fingerprint.setSize(bytes.length);
+        return fingerprint;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.consumer.analytics;
+
+import com.example.consumer.streams.util.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Units and revenue of one product within one window.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ProductSales {
+    private Long productId;
+    private String productName;
+    private long units;
+
+    // Revenue in cents ({@link Money}); read and written as the "revenue" amount
+    @JsonIgnore
+    private long revenueCents;
+
+    public ProductSales add(Long productId, SaleDelta delta) {
+        this.productId = productId;
+        if (delta.getProductName() != null) {
+            this.productName = delta.getProductName();
+        }
+        this.units += delta.getUnits();
+        this.revenueCents = Math.addExact(this.revenueCents, delta.getRevenueCents());
+        return this;
+    }
+
+    @JsonProperty("revenue")
+    public BigDecimal getRevenue() {
+        return Money.toBigDecimal(revenueCents);
+    }
+
+    @JsonProperty("revenue")
+    public void setRevenue(BigDecimal revenue) {
+        this.revenueCents = Money.toCents(revenue);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.consumer.analytics;
+
+import com.example.consumer.streams.model.DebeziumChange;
+import com.example.consumer.streams.model.OrderItemData;
+import com.example.consumer.streams.util.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.apache.kafka.streams.KeyValue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Change in units sold and revenue of one product caused by one order item change.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SaleDelta {
+    private Long productId;
+    private String productName;
+    private long units;
+
+    // Revenue in cents ({@link Money}); read and written as the "revenue" amount
+    @JsonIgnore
+    private long revenueCents;
+
+    /**
+     * Deltas of an order item change keyed by productId: the after image counts positive, the before
+     * image negative, so updates and deletes correct what was counted before. An item moved to another
+     * product yields one delta per product. Relies on {@code REPLICA IDENTITY FULL} for the before image.
+     */
+    public static List<KeyValue<Long, SaleDelta>> of(DebeziumChange<OrderItemData> change) {
+        List<KeyValue<Long, SaleDelta>> deltas = new ArrayList<>(2);
+        OrderItemData before = change.getBefore();
+        OrderItemData after = change.isDelete() ? null : change.getAfter();
+        if (after != null && after.getProductId() != null) {
+            SaleDelta delta = new SaleDelta(after.getProductId(), null, units(after), revenueCents(after));
+            if (before != null && after.getProductId().equals(before.getProductId())) {
+                delta.units -= units(before);
+                delta.revenueCents -= revenueCents(before);
+                before = null;
+            }
+            if (!delta.isZero()) {
+                deltas.add(KeyValue.pair(delta.productId, delta));
+            }
+        }
+        if (before != null && before.getProductId() != null) {
+            deltas.add(KeyValue.pair(before.getProductId(),
+                    new SaleDelta(before.getProductId(), null, -units(before), -revenueCents(before))));
+        }
+        return deltas;
+    }
+
+    private boolean isZero() {
+        return units == 0 && revenueCents == 0;
+    }
+
+    @JsonProperty("revenue")
+    public BigDecimal getRevenue() {
+        return Money.toBigDecimal(revenueCents);
+    }
+
+    @JsonProperty("revenue")
+    public void setRevenue(BigDecimal revenue) {
+        this.revenueCents = Money.toCents(revenue);
+    }
+
+    private static long units(OrderItemData item) {
+        return item.getQuantity() != null ? item.getQuantity() : 0;
+    }
+
+    private static long revenueCents(OrderItemData item) {
+        return Money.times(Money.toCents(item.getUnitPrice()), units(item));
+    }
+}
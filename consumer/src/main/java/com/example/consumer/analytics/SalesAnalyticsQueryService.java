@@ -0,0 +1,177 @@
+package com.example.consumer.analytics;
+
+import com.example.consumer.config.AnalyticsProperties;
+import com.example.consumer.streams.query.QueryRouting;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyQueryMetadata;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.QueryableStoreType;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Reads the sales analytics stores with interactive queries. Per-product sales are partitioned by
+ * productId, rankings by window size and start; either is fetched from the instance that owns it (see
+ * {@link QueryRouting}). Empty means the stores cannot be queried right now (analytics disabled or
+ * not running, rebalancing, owner unreachable); there is no table copy to fall back to.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SalesAnalyticsQueryService {
+
+    private final SalesAnalyticsStreams salesAnalyticsStreams;
+    private final QueryRouting queryRouting;
+    private final AnalyticsProperties properties;
+
+    /**
+     * Sales of a product in the windows of {@code window} size that start within {@code [from, to]},
+     * oldest first. Products without sales in a window have no entry for it.
+     *
+     * @throws IllegalArgumentException if {@code window} is not {@code 1m} or {@code 1h}
+     */
+    public Optional<List<WindowedSales>> productSales(Long productId, String window, Instant from, Instant to,
+                                                      boolean localOnly) {
+        String store = salesStore(window);
+        Duration size = SalesAnalyticsTopology.MINUTE_WINDOW.equals(window)
+                ? SalesAnalyticsTopology.MINUTE : SalesAnalyticsTopology.HOUR;
+        return query(store, productId, Serdes.Long().serializer(), localOnly,
+                QueryableStoreTypes.<Long, ProductSales>windowStore(),
+                windowStore -> {
+                    List<WindowedSales> sales = new ArrayList<>();
+                    try (WindowStoreIterator<ProductSales> iterator = windowStore.fetch(productId, from, to)) {
+                        while (iterator.hasNext()) {
+                            KeyValue<Long, ProductSales> next = iterator.next();
+                            Instant start = Instant.ofEpochMilli(next.key);
+                            sales.add(new WindowedSales(start, start.plus(size), next.value));
+                        }
+                    }
+                    return sales;
+                },
+                "/api/analytics/products/{productId}/sales?window={window}&from={from}&to={to}&local=true",
+                new ParameterizedTypeReference<List<WindowedSales>>() { },
+                productId, window, from, to);
+    }
+
+    /**
+     * Top-N rankings of the {@code count} most recent windows of {@code window} size, newest first.
+     * Minute rankings cover closed windows only (the newest minute probed is the last one past its
+     * grace); the current hourly windows are ranked as they fill. Windows without sales have no ranking.
+     * Each window is its own record, so every one is fetched from the instance that owns it.
+     *
+     * @throws IllegalArgumentException if {@code window} is not {@code 1m} or {@code 1h}
+     */
+    public Optional<List<TopProducts>> topProducts(String window, int count, boolean localOnly) {
+        Duration step = rankingStep(window);
+        Instant now = Instant.now();
+        if (SalesAnalyticsTopology.MINUTE_WINDOW.equals(window)) {
+            now = now.minus(properties.getGrace()).minus(SalesAnalyticsTopology.MINUTE);
+        }
+        long newest = Math.floorDiv(now.toEpochMilli(), step.toMillis()) * step.toMillis();
+
+        List<TopProducts> rankings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Optional<List<TopProducts>> ranking = topProducts(window,
+                    Instant.ofEpochMilli(newest - i * step.toMillis()), localOnly);
+            if (ranking.isEmpty()) {
+                return Optional.empty();
+            }
+            rankings.addAll(ranking.get());
+        }
+        return Optional.of(rankings);
+    }
+
+    /**
+     * The top-N ranking of the window of {@code window} size starting at {@code windowStart}: one entry,
+     * or none if the window had no sales (or is not ranked yet).
+     *
+     * @throws IllegalArgumentException if {@code window} is not {@code 1m} or {@code 1h}
+     */
+    public Optional<List<TopProducts>> topProducts(String window, Instant windowStart, boolean localOnly) {
+        String store = rankingStore(window);
+        String key = SalesAnalyticsTopology.rankingKey(window, windowStart);
+        return query(store, key, Serdes.String().serializer(), localOnly,
+                QueryableStoreTypes.<String, TopProducts>windowStore(),
+                rankingStore -> {
+                    TopProducts ranking = rankingStore.fetch(key, windowStart.toEpochMilli());
+                    return ranking != null ? List.of(ranking) : List.<TopProducts>of();
+                },
+                "/api/analytics/top-products?window={window}&start={start}&local=true",
+                new ParameterizedTypeReference<List<TopProducts>>() { },
+                window, windowStart);
+    }
+
+    private <K, S, T> Optional<T> query(String storeName, K key, Serializer<K> keySerializer, boolean localOnly,
+                                        QueryableStoreType<S> storeType, Function<S, T> localQuery,
+                                        String remotePath, ParameterizedTypeReference<T> remoteType,
+                                        Object... uriVariables) {
+        KafkaStreams kafkaStreams = salesAnalyticsStreams.getKafkaStreams();
+        if (kafkaStreams == null || !kafkaStreams.state().isRunningOrRebalancing()) {
+            return Optional.empty();
+        }
+
+        KeyQueryMetadata metadata = kafkaStreams.queryMetadataForKey(storeName, key, keySerializer);
+        if (localOnly || queryRouting.isLocal(metadata)) {
+            StoreQueryParameters<S> parameters = StoreQueryParameters.fromNameAndType(storeName, storeType);
+            if (!KeyQueryMetadata.NOT_AVAILABLE.equals(metadata)) {
+                parameters = parameters.withPartition(metadata.partition());
+            }
+            try {
+                return Optional.of(localQuery.apply(kafkaStreams.store(parameters)));
+            } catch (InvalidStateStoreException e) {
+                log.debug("Analytics store {} not queryable for key {}: {}", storeName, key, e.getMessage());
+                return Optional.empty();
+            }
+        }
+        try {
+            return queryRouting.get(metadata.activeHost(), remotePath, remoteType, uriVariables);
+        } catch (RestClientException e) {
+            log.warn("Analytics query of {} for key {} to {} failed: {}", storeName, key, metadata.activeHost(),
+                    e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private Duration rankingStep(String window) {
+        rankingStore(window);
+        return SalesAnalyticsTopology.MINUTE_WINDOW.equals(window)
+                ? SalesAnalyticsTopology.MINUTE : properties.getHourAdvance();
+    }
+
+    private static String rankingStore(String window) {
+        if (SalesAnalyticsTopology.MINUTE_WINDOW.equals(window)) {
+            return SalesAnalyticsTopology.TOP_PRODUCTS_1M_STORE;
+        }
+        if (SalesAnalyticsTopology.HOUR_WINDOW.equals(window)) {
+            return SalesAnalyticsTopology.TOP_PRODUCTS_1H_STORE;
+        }
+        throw new IllegalArgumentException("Unknown window: " + window);
+    }
+
+    private static String salesStore(String window) {
+        if (SalesAnalyticsTopology.MINUTE_WINDOW.equals(window)) {
+            return SalesAnalyticsTopology.MINUTE_SALES_STORE;
+        }
+        if (SalesAnalyticsTopology.HOUR_WINDOW.equals(window)) {
+            return SalesAnalyticsTopology.HOUR_SALES_STORE;
+        }
+        throw new IllegalArgumentException("Unknown window: " + window);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.consumer.analytics;
+
+import com.example.consumer.config.AnalyticsProperties;
+import com.example.consumer.streams.topics.CoPartitioningValidator;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.errors.StreamsUncaughtExceptionHandler;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.KafkaStreamsConfiguration;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Properties;
+
+/**
+ * Runs the {@link SalesAnalyticsTopology} as a Kafka Streams application of its own
+ * ({@code order-analytics-app}), next to the denormalization one.
+ * <p>
+ * A separate application keeps its consumer group, threads and state out of the denormalization
+ * pipeline: a slow window or a rebalance here never delays documents. It shares the connection
+ * settings of the default streams configuration but runs at-least-once on one thread; a duplicate
+ * delta after a crash only skews a live counter.
+ */
+@Component
+@Slf4j
+public class SalesAnalyticsStreams implements SmartLifecycle {
+
+    public static final String APPLICATION_ID = "order-analytics-app";
+
+    // Same phase as the StreamsBuilderFactoryBean: after the snapshot bootstrap, stopped with the other streams
+    private static final int LIFECYCLE_PHASE = Integer.MAX_VALUE - 1000;
+
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(30);
+
+    private final SalesAnalyticsTopology topology;
+    private final KafkaStreamsConfiguration streamsConfiguration;
+    private final AnalyticsProperties properties;
+    private final CoPartitioningValidator coPartitioningValidator;
+
+    private volatile KafkaStreams kafkaStreams;
+
+    public SalesAnalyticsStreams(
+            SalesAnalyticsTopology topology,
+            KafkaStreamsConfiguration streamsConfiguration,
+            AnalyticsProperties properties,
+            CoPartitioningValidator coPartitioningValidator) {
+        this.topology = topology;
+        this.streamsConfiguration = streamsConfiguration;
+        this.properties = properties;
+        this.coPartitioningValidator = coPartitioningValidator;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!properties.isEnabled() || kafkaStreams != null) {
+            return;
+        }
+        Properties props = streamsConfiguration.asProperties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, APPLICATION_ID);
+        props.put(StreamsConfig.PROCESSING_GUARANTEE_CONFIG, StreamsConfig.AT_LEAST_ONCE);
+        props.put(StreamsConfig.NUM_STREAM_THREADS_CONFIG, 1);
+
+        Topology analyticsTopology = topology.build();
+        coPartitioningValidator.validate(analyticsTopology, APPLICATION_ID);
+        KafkaStreams streams = new KafkaStreams(analyticsTopology, props);
+        streams.setUncaughtExceptionHandler(e -> {
+            log.error("Sales analytics stream thread failed, replacing it", e);
+            return StreamsUncaughtExceptionHandler.StreamThreadExceptionResponse.REPLACE_THREAD;
+        });
+        streams.start();
+        kafkaStreams = streams;
+        log.info("Sales analytics streams started: applicationId={}", APPLICATION_ID);
+    }
+
+    @Override
+    public synchronized void stop() {
+        KafkaStreams streams = kafkaStreams;
+        if (streams != null) {
+            streams.close(CLOSE_TIMEOUT);
+            kafkaStreams = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return kafkaStreams != null;
+    }
+
+    @Override
+    public int getPhase() {
+        return LIFECYCLE_PHASE;
+    }
+
+    /**
+     * The running instance, or null when analytics is disabled or not started yet.
+     */
+    public KafkaStreams getKafkaStreams() {
+        return kafkaStreams;
+    }
+}
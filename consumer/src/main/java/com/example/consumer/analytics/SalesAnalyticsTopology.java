@@ -0,0 +1,220 @@
+package com.example.consumer.analytics;
+
+import com.example.consumer.config.AnalyticsProperties;
+import com.example.consumer.config.TopologyProperties;
+import com.example.consumer.streams.model.DebeziumChange;
+import com.example.consumer.streams.model.OrderItemData;
+import com.example.consumer.streams.model.ProductData;
+import com.example.consumer.streams.serde.JsonCodecs;
+import com.example.consumer.streams.serde.SerdeFactory;
+import com.example.consumer.streams.util.DebeziumExtractionException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.kstream.*;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.WindowStore;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static com.example.consumer.streams.topology.OrderDenormalizationTopology.ORDER_ITEMS_TOPIC;
+import static com.example.consumer.streams.topology.OrderDenormalizationTopology.PRODUCTS_TOPIC;
+
+/**
+ * Live sales per product: units and revenue in per-minute tumbling windows and hourly hopping
+ * windows, plus a top-N ranking per window.
+ * <p>
+ * Runs as its own Kafka Streams application ({@link SalesAnalyticsStreams}) on the CDC topics, so
+ * it never holds up the denormalization threads. Order items are enriched with the product name from
+ * its own products table. Snapshot reads are skipped: they are historical orders, not live sales.
+ * Malformed records are dropped here; the denormalization topology already dead-letters them.
+ */
+@Component
+@Slf4j
+public class SalesAnalyticsTopology {
+
+        public static final String MINUTE_SALES_STORE = "analytics-product-sales-1m-store";
+        public static final String HOUR_SALES_STORE = "analytics-product-sales-1h-store";
+        public static final String TOP_PRODUCTS_1M_STORE = "analytics-top-products-1m-store";
+        public static final String TOP_PRODUCTS_1H_STORE = "analytics-top-products-1h-store";
+
+        public static final Duration MINUTE = Duration.ofMinutes(1);
+        public static final Duration HOUR = Duration.ofHours(1);
+
+        public static final String MINUTE_WINDOW = "1m";
+        public static final String HOUR_WINDOW = "1h";
+
+        // Hourly updates held back between rankings; a fuller buffer is flushed early
+        private static final long HOURLY_BUFFER_RECORDS = 10_000;
+
+        private final JsonCodecs codecs;
+        private final AnalyticsProperties properties;
+        private final TopologyProperties topologyProperties;
+
+        public SalesAnalyticsTopology(
+                        JsonCodecs codecs,
+                        AnalyticsProperties properties,
+                        TopologyProperties topologyProperties) {
+                this.codecs = codecs;
+                this.properties = properties;
+                this.topologyProperties = topologyProperties;
+        }
+
+        public Topology build() {
+                log.info("Building Sales Analytics Topology: topN={}, grace={}", properties.getTopN(),
+                                properties.getGrace());
+                StreamsBuilder streamsBuilder = new StreamsBuilder();
+
+                Serde<ProductData> productSerde = SerdeFactory.createJsonSerde(ProductData.class, codecs);
+                Serde<SaleDelta> deltaSerde = SerdeFactory.createJsonSerde(SaleDelta.class, codecs);
+                Serde<ProductSales> salesSerde = SerdeFactory.createJsonSerde(ProductSales.class, codecs);
+                Serde<WindowedSales> windowedSerde = SerdeFactory.createJsonSerde(WindowedSales.class, codecs);
+                Serde<TopProducts> rankingSerde = SerdeFactory.createJsonSerde(TopProducts.class, codecs);
+
+                // ===================================================================
+                // STAGE 1: Products table (for product names)
+                // ===================================================================
+                KTable<Long, ProductData> products = streamsBuilder
+                                .stream(PRODUCTS_TOPIC, Consumed.with(Serdes.String(), Serdes.ByteArray()))
+                                .mapValues(value -> extract(value, PRODUCTS_TOPIC, ProductData.class))
+                                .filter((key, change) -> change != null && change.row() != null)
+                                .map((key, change) -> KeyValue.pair(change.row().getId(), change.getAfter()))
+                                .repartition(repartitioned(productSerde))
+                                .toTable(Materialized.<Long, ProductData, KeyValueStore<Bytes, byte[]>>as(
+                                                                "analytics-products-store")
+                                                .withKeySerde(Serdes.Long())
+                                                .withValueSerde(productSerde));
+
+                // ===================================================================
+                // STAGE 2: Order item changes as sale deltas, RE-KEYED BY PRODUCT_ID and enriched
+                // ===================================================================
+                KStream<Long, SaleDelta> deltas = streamsBuilder
+                                .stream(ORDER_ITEMS_TOPIC, Consumed.with(Serdes.String(), Serdes.ByteArray()))
+                                .mapValues(value -> extract(value, ORDER_ITEMS_TOPIC, OrderItemData.class))
+                                .filter((key, change) -> change != null && change.row() != null
+                                                && !"r".equals(change.getOp()))
+                                .flatMap((key, change) -> SaleDelta.of(change))
+                                .repartition(repartitioned(deltaSerde))
+                                .leftJoin(products,
+                                                (delta, product) -> {
+                                                        if (product != null) {
+                                                                delta.setProductName(product.getName());
+                                                        }
+                                                        return delta;
+                                                },
+                                                Joined.with(Serdes.Long(), deltaSerde, productSerde));
+
+                KGroupedStream<Long, SaleDelta> byProduct = deltas.groupByKey(
+                                Grouped.with(Serdes.Long(), deltaSerde));
+
+                // ===================================================================
+                // STAGE 3: Windowed aggregates (1m tumbling, 1h hopping)
+                // ===================================================================
+                KTable<Windowed<Long>, ProductSales> perMinute = byProduct
+                                .windowedBy(TimeWindows.ofSizeAndGrace(MINUTE, properties.getGrace()))
+                                .aggregate(ProductSales::new,
+                                                (productId, delta, sales) -> sales.add(productId, delta),
+                                                Materialized.<Long, ProductSales, WindowStore<Bytes, byte[]>>as(
+                                                                MINUTE_SALES_STORE)
+                                                                .withKeySerde(Serdes.Long())
+                                                                .withValueSerde(salesSerde)
+                                                                .withRetention(properties.getMinuteRetention()));
+
+                KTable<Windowed<Long>, ProductSales> perHour = byProduct
+                                .windowedBy(TimeWindows.ofSizeAndGrace(HOUR, properties.getGrace())
+                                                .advanceBy(properties.getHourAdvance()))
+                                .aggregate(ProductSales::new,
+                                                (productId, delta, sales) -> sales.add(productId, delta),
+                                                Materialized.<Long, ProductSales, WindowStore<Bytes, byte[]>>as(
+                                                                HOUR_SALES_STORE)
+                                                                .withKeySerde(Serdes.Long())
+                                                                .withValueSerde(salesSerde)
+                                                                .withRetention(properties.getHourRetention()));
+
+                // ===================================================================
+                // STAGE 4: Top-N per window (suppressed updates, bounded heap per window)
+                // ===================================================================
+                // Minutes are ranked once, from their final totals; hours stay open for an hour, so
+                // their rankings are refreshed at a bounded rate instead.
+                KStream<String, WindowedSales> minuteFinals = windowedSales(MINUTE_WINDOW, perMinute
+                                .suppress(Suppressed.untilWindowCloses(Suppressed.BufferConfig.unbounded())
+                                                .withName("analytics-1m-final")));
+                KStream<String, WindowedSales> hourUpdates = windowedSales(HOUR_WINDOW, perHour
+                                .suppress(Suppressed.untilTimeLimit(properties.getHourlyRankingInterval(),
+                                                                Suppressed.BufferConfig.maxRecords(HOURLY_BUFFER_RECORDS)
+                                                                                .emitEarlyWhenFull())
+                                                .withName("analytics-1h-updates")));
+
+                rank(streamsBuilder, minuteFinals, TOP_PRODUCTS_1M_STORE, properties.getMinuteRetention(), MINUTE,
+                                windowedSerde, rankingSerde);
+                rank(streamsBuilder, hourUpdates, TOP_PRODUCTS_1H_STORE, properties.getHourRetention(), HOUR,
+                                windowedSerde, rankingSerde);
+
+                log.info("Sales Analytics Topology built successfully");
+                return streamsBuilder.build();
+        }
+
+        /**
+         * Key of one window's ranking. Each window is its own record, so the rankings are spread over
+         * all partitions instead of piling up under the window size.
+         */
+        public static String rankingKey(String window, Instant windowStart) {
+                return window + "@" + windowStart.toEpochMilli();
+        }
+
+        /**
+         * Re-keys a windowed table's updates by {@link #rankingKey}.
+         */
+        private static KStream<String, WindowedSales> windowedSales(
+                        String window,
+                        KTable<Windowed<Long>, ProductSales> sales) {
+                return sales.toStream()
+                                .filter((windowed, productSales) -> productSales != null)
+                                .map((windowed, productSales) -> KeyValue.pair(
+                                                rankingKey(window, windowed.window().startTime()),
+                                                new WindowedSales(windowed.window().startTime(),
+                                                                windowed.window().endTime(), productSales)));
+        }
+
+        /**
+         * Ranks the updates of one window size into a window store that keeps them as long as the sales.
+         */
+        private void rank(
+                        StreamsBuilder streamsBuilder,
+                        KStream<String, WindowedSales> updates,
+                        String storeName,
+                        Duration retention,
+                        Duration windowSize,
+                        Serde<WindowedSales> windowedSerde,
+                        Serde<TopProducts> rankingSerde) {
+                streamsBuilder.addStateStore(Stores.windowStoreBuilder(
+                                Stores.persistentWindowStore(storeName, retention, windowSize, false),
+                                Serdes.String(),
+                                rankingSerde));
+                int topN = properties.getTopN();
+                updates.repartition(Repartitioned.with(Serdes.String(), windowedSerde)
+                                                .withNumberOfPartitions(topologyProperties.getTopics().getPartitions()))
+                                .process(() -> new TopProductsProcessor(storeName, topN), storeName);
+        }
+
+        private <V> Repartitioned<Long, V> repartitioned(Serde<V> valueSerde) {
+                return Repartitioned.with(Serdes.Long(), valueSerde)
+                                .withNumberOfPartitions(topologyProperties.getTopics().getPartitions());
+        }
+
+        private <T> DebeziumChange<T> extract(byte[] value, String topic, Class<T> type) {
+                try {
+                        return topologyProperties.sourceFormat(topic).decode(value, type);
+                } catch (DebeziumExtractionException e) {
+                        log.debug("Skipping malformed {} change in analytics", type.getSimpleName());
+                        return null;
+                }
+        }
+}
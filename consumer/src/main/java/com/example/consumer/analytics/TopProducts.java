@@ -0,0 +1,52 @@
+package com.example.consumer.analytics;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * The best-selling products (by revenue) of one window, highest first.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TopProducts {
+
+    private static final Comparator<ProductSales> BY_REVENUE = Comparator
+            .comparingLong(ProductSales::getRevenueCents)
+            .thenComparing(ProductSales::getProductId, Comparator.reverseOrder());
+
+    private Instant windowStart;
+    private Instant windowEnd;
+    private List<ProductSales> products = new ArrayList<>();
+
+    /**
+     * Replaces the product's entry with {@code sales} and keeps the {@code limit} best through a
+     * min-heap of that size. A product pushed out is only ranked again when its next update arrives,
+     * so after revenue drops (cancelled items) the ranking can miss a product that would now qualify.
+     */
+    public TopProducts offer(ProductSales sales, int limit) {
+        PriorityQueue<ProductSales> heap = new PriorityQueue<>(limit + 1, BY_REVENUE);
+        for (ProductSales entry : products) {
+            if (!entry.getProductId().equals(sales.getProductId())) {
+                heap.add(entry);
+            }
+        }
+        heap.add(sales);
+        while (heap.size() > limit) {
+            heap.poll();
+        }
+        List<ProductSales> ranked = new ArrayList<>(heap);
+        ranked.sort(BY_REVENUE.reversed());
+        this.products = ranked;
+        return this;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.consumer.analytics;
+
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.WindowStore;
+
+import java.util.ArrayList;
+
+/**
+ * Keeps the top-N ranking of each window in a window store, one record per window: keyed by
+ * {@link SalesAnalyticsTopology#rankingKey} at the window's start. Rankings expire with the store's
+ * retention, like the sales they were built from.
+ */
+public class TopProductsProcessor implements Processor<String, WindowedSales, Void, Void> {
+
+    private final String storeName;
+    private final int limit;
+
+    private WindowStore<String, TopProducts> rankingStore;
+
+    public TopProductsProcessor(String storeName, int limit) {
+        this.storeName = storeName;
+        this.limit = limit;
+    }
+
+    @Override
+    public void init(ProcessorContext<Void, Void> context) {
+        this.rankingStore = context.getStateStore(storeName);
+    }
+
+    @Override
+    public void process(Record<String, WindowedSales> record) {
+        WindowedSales windowed = record.value();
+        long start = windowed.getWindowStart().toEpochMilli();
+        TopProducts ranking = rankingStore.fetch(record.key(), start);
+        if (ranking == null) {
+            ranking = new TopProducts(windowed.getWindowStart(), windowed.getWindowEnd(), new ArrayList<>());
+        }
+        rankingStore.put(record.key(), ranking.offer(windowed.getSales(), limit), start);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.consumer.analytics;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A product's sales in a window, as fed into the top-N ranking of that window's size.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class WindowedSales {
+    private Instant windowStart;
+    private Instant windowEnd;
+    private ProductSales sales;
+}
@@ -0,0 +1,514 @@
+package com.example.consumer.bootstrap;
+
+import com.example.consumer.config.BootstrapProperties;
+import com.example.consumer.dto.OrderDocument;
+import com.example.consumer.rebuild.DocumentStagingTable;
+import com.example.consumer.streams.model.OrderData;
+import com.example.consumer.streams.model.OrderItemData;
+import com.example.consumer.streams.model.ProductData;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads {@code document_store} directly from the source tables instead of waiting for the connector
+ * snapshot to travel through Kafka and the topology.
+ * <p>
+ * A coordinator transaction exports a snapshot and reads the current WAL position. Workers import the
+ * same snapshot, scan {@code orders} and {@code order_items} by order id range in parallel, hash-join
+ * each range with the products read once by the coordinator, and {@code COPY} the documents into the
+ * staging table, which is then indexed and swapped in like a rebuild.
+ * <p>
+ * The WAL position is recorded in {@code document_bootstrap} as the switch-over point. Kafka Streams
+ * still consumes the connector snapshot and joins it to fill its state stores, but the sink skips
+ * documents triggered by snapshot reads at or before that position; everything streamed after it is
+ * written. What it saves is the time until every document is readable and the sink's PostgreSQL writes
+ * for snapshot reads processed after the hand-off; the Kafka traffic and the topology's work stay the same.
+ * <p>
+ * The bootstrap on startup runs in the background, so the application and Kafka Streams start right
+ * away. Documents the sink writes during the load are merged into the staging table by the swap.
+ */
+@Service
+@Slf4j
+public class SnapshotBootstrapService implements SnapshotHandoff, SmartLifecycle {
+
+    // Reads the hand-off position before the StreamsBuilderFactoryBean (phase Integer.MAX_VALUE - 1000) starts
+    private static final int LIFECYCLE_PHASE = Integer.MAX_VALUE - 1001;
+
+    // Session-level advisory lock so only one instance bootstraps at a time
+    private static final long ADVISORY_LOCK_KEY = 0x646f635f626f6f74L;
+
+    private static final long NO_HANDOFF = -1;
+
+    public enum Phase { IDLE, SCANNING, INDEXING, SWAPPING, COMPLETED, FAILED }
+
+    private final DataSource dataSource;
+    private final DataSourceProperties dataSourceProperties;
+    private final DocumentStagingTable stagingTable;
+    private final BootstrapProperties properties;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "snapshot-bootstrap");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong loaded = new AtomicLong();
+    private final AtomicInteger rangesDone = new AtomicInteger();
+    private volatile long handoffLsn = NO_HANDOFF;
+    private volatile boolean running;
+    private volatile boolean startupPending;
+    private volatile Phase phase = Phase.IDLE;
+    private volatile int ranges;
+    private volatile String snapshotLsn;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    public SnapshotBootstrapService(
+            DataSource dataSource,
+            DataSourceProperties dataSourceProperties,
+            DocumentStagingTable stagingTable,
+            BootstrapProperties properties) {
+        this.dataSource = dataSource;
+        this.dataSourceProperties = dataSourceProperties;
+        this.stagingTable = stagingTable;
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean isCovered(Headers headers) {
+        long lsn = handoffLsn;
+        return lsn != NO_HANDOFF && SourcePositionHeaders.isSnapshotReadAtOrBefore(headers, lsn);
+    }
+
+    /**
+     * Reads the recorded switch-over point and, if configured and none is recorded yet, starts a
+     * bootstrap in the background. A failed bootstrap is logged; the documents then arrive through the
+     * stream as before.
+     */
+    @Override
+    public void start() {
+        running = true;
+        try (Connection control = dataSource.getConnection()) {
+            createBootstrapTable(control);
+            handoffLsn = latestHandoffLsn(control);
+        } catch (Exception e) {
+            log.error("Could not read the snapshot bootstrap hand-off position", e);
+            return;
+        }
+        if (handoffLsn != NO_HANDOFF) {
+            log.info("Snapshot bootstrap hand-off position: lsn={}", handoffLsn);
+            return;
+        }
+        if (properties.isRunOnStartup()) {
+            startupPending = true;
+            executor.submit(this::bootstrapOnStartup);
+        }
+    }
+
+    private void bootstrapOnStartup() {
+        try (Connection control = dataSource.getConnection()) {
+            // Waits while another instance bootstraps, then re-checks
+            lock(control, true);
+            try {
+                handoffLsn = latestHandoffLsn(control);
+                if (handoffLsn == NO_HANDOFF) {
+                    prepare();
+                    try {
+                        run(control);
+                    } catch (Exception e) {
+                        fail(e);
+                    }
+                }
+            } finally {
+                unlock(control);
+            }
+        } catch (Exception e) {
+            log.error("Snapshot bootstrap on startup could not run", e);
+        } finally {
+            startupPending = false;
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return LIFECYCLE_PHASE;
+    }
+
+    /**
+     * Starts a bootstrap in the background.
+     *
+     * @throws IllegalStateException if a bootstrap or rebuild is running here or on another instance
+     */
+    public synchronized Map<String, Object> startBootstrap(boolean force) {
+        if (isBootstrapping()) {
+            throw new IllegalStateException("A bootstrap is already running");
+        }
+        if (!force && handoffLsn != NO_HANDOFF) {
+            throw new IllegalStateException("A bootstrap is already recorded at lsn " + handoffLsn);
+        }
+        prepare();
+        executor.submit(() -> {
+            try (Connection control = dataSource.getConnection()) {
+                if (!lock(control, false)) {
+                    throw new IllegalStateException("A bootstrap is running on another instance");
+                }
+                try {
+                    run(control);
+                } finally {
+                    unlock(control);
+                }
+            } catch (Exception e) {
+                fail(e);
+            }
+            return null;
+        });
+        return status();
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("phase", phase);
+        status.put("loaded", loaded.get());
+        status.put("ranges", ranges);
+        status.put("rangesDone", rangesDone.get());
+        status.put("parallelism", properties.effectiveParallelism());
+        if (snapshotLsn != null) {
+            status.put("snapshotLsn", snapshotLsn);
+        }
+        if (handoffLsn != NO_HANDOFF) {
+            status.put("handoffLsn", handoffLsn);
+        }
+        if (startedAt != null) {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            long elapsedMs = Math.max(1, Duration.between(startedAt, end).toMillis());
+            status.put("startedAt", startedAt.toString());
+            status.put("elapsedMs", elapsedMs);
+            status.put("documentsPerSecond", loaded.get() * 1000 / elapsedMs);
+        }
+        if (finishedAt != null) {
+            status.put("finishedAt", finishedAt.toString());
+        }
+        if (error != null) {
+            status.put("error", error);
+        }
+        return status;
+    }
+
+    public boolean isBootstrapping() {
+        return startupPending || phase == Phase.SCANNING || phase == Phase.INDEXING || phase == Phase.SWAPPING;
+    }
+
+    private void prepare() {
+        stagingTable.begin("bootstrap");
+        loaded.set(0);
+        rangesDone.set(0);
+        ranges = 0;
+        snapshotLsn = null;
+        startedAt = Instant.now();
+        finishedAt = null;
+        error = null;
+        phase = Phase.SCANNING;
+    }
+
+    private void fail(Exception e) {
+        log.error("Snapshot bootstrap failed", e);
+        error = e.toString();
+        phase = Phase.FAILED;
+        finishedAt = Instant.now();
+        stagingTable.end();
+    }
+
+    private void run(Connection control) throws Exception {
+        LocalDateTime loadStartedAt = LocalDateTime.now();
+        int parallelism = properties.effectiveParallelism();
+        log.info("Snapshot bootstrap started: parallelism={}, rangeSize={}", parallelism, properties.getRangeSize());
+
+        // Dedicated connections, so long scans do not starve the sink of pooled connections
+        DataSource scanSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(SimpleDriverDataSource.class)
+                .build();
+        try (Connection coordinator = scanSource.getConnection()) {
+            coordinator.setAutoCommit(false);
+            String snapshotId;
+            long lsn;
+            try (Statement statement = coordinator.createStatement()) {
+                statement.execute("SET TRANSACTION ISOLATION LEVEL REPEATABLE READ, READ ONLY");
+                try (ResultSet rs = statement.executeQuery("SELECT pg_export_snapshot(), "
+                        + "pg_current_wal_lsn()::text, (pg_current_wal_lsn() - '0/0'::pg_lsn)::bigint")) {
+                    rs.next();
+                    snapshotId = rs.getString(1);
+                    snapshotLsn = rs.getString(2);
+                    lsn = rs.getLong(3);
+                }
+            }
+            log.info("Snapshot exported: snapshotId={}, lsn={}", snapshotId, snapshotLsn);
+
+            Map<Long, ProductData> products = readProducts(coordinator);
+            Queue<long[]> pending = new ConcurrentLinkedQueue<>(orderIdRanges(coordinator));
+            ranges = pending.size();
+            stagingTable.create(control);
+
+            // The exporting transaction must stay open until every worker has imported the snapshot
+            scanInParallel(scanSource, snapshotId, products, pending, parallelism);
+            coordinator.commit();
+
+            phase = Phase.INDEXING;
+            stagingTable.buildIndexes(control);
+
+            phase = Phase.SWAPPING;
+            stagingTable.swap(control, loadStartedAt);
+            recordHandoff(control, snapshotLsn);
+            handoffLsn = lsn;
+
+            phase = Phase.COMPLETED;
+            finishedAt = Instant.now();
+            stagingTable.end();
+            log.info("Snapshot bootstrap finished: {}", status());
+        }
+    }
+
+    private void scanInParallel(
+            DataSource scanSource,
+            String snapshotId,
+            Map<Long, ProductData> products,
+            Queue<long[]> pending,
+            int parallelism) throws Exception {
+        AtomicInteger workerIds = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-bootstrap-worker-" + workerIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < parallelism; i++) {
+                futures.add(workers.submit(() -> {
+                    scanRanges(scanSource, snapshotId, products, pending);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception cause ? cause : e;
+                }
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private void scanRanges(
+            DataSource scanSource,
+            String snapshotId,
+            Map<Long, ProductData> products,
+            Queue<long[]> pending) throws Exception {
+        try (Connection connection = scanSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET TRANSACTION ISOLATION LEVEL REPEATABLE READ");
+                statement.execute("SET TRANSACTION SNAPSHOT '" + snapshotId + "'");
+            }
+
+            long[] range;
+            while ((range = pending.poll()) != null) {
+                List<OrderDocument> documents = SnapshotDocuments.join(
+                        readOrders(connection, range), readOrderItems(connection, range), products);
+
+                DocumentStagingTable.Copy copy = stagingTable.openCopy(connection);
+                try {
+                    for (OrderDocument document : documents) {
+                        copy.write(document);
+                    }
+                    copy.finish();
+                } catch (Exception e) {
+                    copy.cancel();
+                    throw e;
+                }
+
+                loaded.addAndGet(documents.size());
+                int done = rangesDone.incrementAndGet();
+                log.debug("Snapshot range loaded: from={}, to={}, documents={}, rangesDone={}/{}",
+                        range[0], range[1], documents.size(), done, ranges);
+            }
+            connection.commit();
+        }
+    }
+
+    private List<long[]> orderIdRanges(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT min(id), max(id) FROM orders")) {
+            rs.next();
+            long minId = rs.getLong(1);
+            if (rs.wasNull()) {
+                return List.of();
+            }
+            return SnapshotDocuments.splitRanges(minId, rs.getLong(2), properties.getRangeSize());
+        }
+    }
+
+    private Map<Long, ProductData> readProducts(Connection connection) throws SQLException {
+        Map<Long, ProductData> products = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT id, name, price, description, created_at, updated_at FROM products")) {
+            statement.setFetchSize(properties.getFetchSize());
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    ProductData product = new ProductData(
+                            rs.getLong("id"),
+                            rs.getString("name"),
+                            rs.getBigDecimal("price"),
+                            rs.getString("description"),
+                            rs.getObject("created_at", LocalDateTime.class),
+                            rs.getObject("updated_at", LocalDateTime.class));
+                    products.put(product.getId(), product);
+                }
+            }
+        }
+        return products;
+    }
+
+    private List<OrderData> readOrders(Connection connection, long[] range) throws SQLException {
+        List<OrderData> orders = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT id, user_id, status, total_price, ordered_at, updated_at FROM orders "
+                        + "WHERE id BETWEEN ? AND ?")) {
+            statement.setFetchSize(properties.getFetchSize());
+            statement.setLong(1, range[0]);
+            statement.setLong(2, range[1]);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    orders.add(new OrderData(
+                            rs.getLong("id"),
+                            rs.getLong("user_id"),
+                            rs.getString("status"),
+                            rs.getBigDecimal("total_price"),
+                            rs.getObject("ordered_at", LocalDateTime.class),
+                            rs.getObject("updated_at", LocalDateTime.class)));
+                }
+            }
+        }
+        return orders;
+    }
+
+    private List<OrderItemData> readOrderItems(Connection connection, long[] range) throws SQLException {
+        List<OrderItemData> items = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT id, order_id, product_id, quantity, unit_price, created_at FROM order_items "
+                        + "WHERE order_id BETWEEN ? AND ? ORDER BY id")) {
+            statement.setFetchSize(properties.getFetchSize());
+            statement.setLong(1, range[0]);
+            statement.setLong(2, range[1]);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    OrderItemData item = new OrderItemData();
+                    item.setId(rs.getLong("id"));
+                    item.setOrderId(rs.getLong("order_id"));
+                    item.setProductId(rs.getLong("product_id"));
+                    item.setQuantity(rs.getInt("quantity"));
+                    item.setUnitPrice(rs.getBigDecimal("unit_price"));
+                    item.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+                    items.add(item);
+                }
+            }
+        }
+        return items;
+    }
+
+    private void createBootstrapTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS document_bootstrap ("
+                    + "id BIGSERIAL PRIMARY KEY, "
+                    + "snapshot_lsn PG_LSN NOT NULL, "
+                    + "documents BIGINT NOT NULL, "
+                    + "started_at TIMESTAMP NOT NULL, "
+                    + "completed_at TIMESTAMP NOT NULL)");
+        }
+    }
+
+    private long latestHandoffLsn(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT (snapshot_lsn - '0/0'::pg_lsn)::bigint "
+                     + "FROM document_bootstrap ORDER BY id DESC LIMIT 1")) {
+            return rs.next() ? rs.getLong(1) : NO_HANDOFF;
+        }
+    }
+
+    private void recordHandoff(Connection connection, String lsn) throws SQLException {
+        createBootstrapTable(connection);
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO document_bootstrap (snapshot_lsn, documents, started_at, completed_at) "
+                        + "VALUES (?::pg_lsn, ?, ?, ?)")) {
+            statement.setString(1, lsn);
+            statement.setLong(2, loaded.get());
+            statement.setTimestamp(3, Timestamp.from(startedAt));
+            statement.setTimestamp(4, Timestamp.from(Instant.now()));
+            statement.executeUpdate();
+        }
+        log.info("Snapshot bootstrap hand-off recorded: lsn={}, documents={}", lsn, loaded.get());
+    }
+
+    private boolean lock(Connection connection, boolean wait) throws SQLException {
+        String function = wait ? "pg_advisory_lock" : "pg_try_advisory_lock";
+        try (PreparedStatement statement = connection.prepareStatement("SELECT " + function + "(?)")) {
+            statement.setLong(1, ADVISORY_LOCK_KEY);
+            try (ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                return wait || rs.getBoolean(1);
+            }
+        }
+    }
+
+    private void unlock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            statement.setLong(1, ADVISORY_LOCK_KEY);
+            statement.execute();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
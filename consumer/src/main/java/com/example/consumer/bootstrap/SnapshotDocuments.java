@@ -0,0 +1,63 @@
+package com.example.consumer.bootstrap;
+
+import com.example.consumer.dto.OrderDocument;
+import com.example.consumer.streams.model.OrderData;
+import com.example.consumer.streams.model.OrderItemData;
+import com.example.consumer.streams.model.OrderItemsAggregate;
+import com.example.consumer.streams.model.ProductData;
+import com.example.consumer.streams.topology.OrderDocumentAssembler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The in-memory side of the snapshot bootstrap: splitting the order id space into scan ranges and
+ * hash-joining one range of rows into documents.
+ */
+final class SnapshotDocuments {
+
+    private SnapshotDocuments() {
+    }
+
+    /**
+     * Splits {@code [minId, maxId]} into consecutive inclusive ranges of at most {@code rangeSize} ids.
+     */
+    static List<long[]> splitRanges(long minId, long maxId, int rangeSize) {
+        List<long[]> ranges = new ArrayList<>();
+        for (long from = minId; from <= maxId; from += rangeSize) {
+            long to = Math.min(maxId, from + rangeSize - 1);
+            ranges.add(new long[]{from, to});
+            if (to == Long.MAX_VALUE) {
+                break;
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Builds the documents of one range, with the same semantics as the streaming topology: items are
+     * left-joined with products and aggregated per order, and only orders with items get a document.
+     * Items must be ordered by id so the item order matches the one built from the change stream.
+     */
+    static List<OrderDocument> join(
+            List<OrderData> orders,
+            List<OrderItemData> items,
+            Map<Long, ProductData> products) {
+        Map<Long, OrderItemsAggregate> aggregates = new HashMap<>();
+        for (OrderItemData item : items) {
+            aggregates.computeIfAbsent(item.getOrderId(), orderId -> new OrderItemsAggregate())
+                    .addItem(OrderDocumentAssembler.enrich(item, products.get(item.getProductId())));
+        }
+
+        List<OrderDocument> documents = new ArrayList<>(orders.size());
+        for (OrderData order : orders) {
+            OrderItemsAggregate aggregate = aggregates.get(order.getId());
+            if (aggregate != null) {
+                documents.add(OrderDocumentAssembler.assemble(aggregate, order));
+            }
+        }
+        return documents;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.consumer.bootstrap;
+
+import org.apache.kafka.common.header.Headers;
+
+/**
+ * Decides whether a document may be skipped by the sink because the snapshot bootstrap already
+ * loaded the same state.
+ */
+@FunctionalInterface
+public interface SnapshotHandoff {
+
+    SnapshotHandoff NONE = headers -> false;
+
+    boolean isCovered(Headers headers);
+}
@@ -0,0 +1,47 @@
+package com.example.consumer.bootstrap;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Record headers carrying the Debezium operation and WAL position of the change that triggered a record.
+ * They are set when a change is extracted and travel with the record through repartitions and joins,
+ * so the sink can tell snapshot reads from streamed changes.
+ */
+public final class SourcePositionHeaders {
+
+    public static final String OPERATION = "cdc.op";
+    public static final String LSN = "cdc.lsn";
+
+    private static final String SNAPSHOT_READ = "r";
+
+    private SourcePositionHeaders() {
+    }
+
+    public static void put(Headers headers, String operation, Long lsn) {
+        headers.remove(OPERATION);
+        headers.remove(LSN);
+        if (operation != null) {
+            headers.add(OPERATION, operation.getBytes(StandardCharsets.UTF_8));
+        }
+        if (lsn != null) {
+            headers.add(LSN, String.valueOf(lsn).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * True for a snapshot read taken at or before {@code lsn}: its rows are already in a bootstrap
+     * that was read at {@code lsn}. Records without position headers are never covered.
+     */
+    public static boolean isSnapshotReadAtOrBefore(Headers headers, long lsn) {
+        Header operation = headers.lastHeader(OPERATION);
+        Header position = headers.lastHeader(LSN);
+        if (operation == null || position == null) {
+            return false;
+        }
+        return SNAPSHOT_READ.equals(new String(operation.value(), StandardCharsets.UTF_8))
+                && Long.parseLong(new String(position.value(), StandardCharsets.UTF_8)) <= lsn;
+    }
+}
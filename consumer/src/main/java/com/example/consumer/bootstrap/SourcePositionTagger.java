@@ -0,0 +1,34 @@
+package com.example.consumer.bootstrap;
+
+import com.example.consumer.streams.model.DebeziumChange;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+
+/**
+ * Copies the operation and LSN of an extracted change into the {@link SourcePositionHeaders}.
+ */
+public class SourcePositionTagger<T>
+        implements FixedKeyProcessor<String, DebeziumChange<T>, DebeziumChange<T>> {
+
+    private FixedKeyProcessorContext<String, DebeziumChange<T>> context;
+
+    @Override
+    public void init(FixedKeyProcessorContext<String, DebeziumChange<T>> context) {
+        this.context = context;
+    }
+
+    @Override
+    public void process(FixedKeyRecord<String, DebeziumChange<T>> record) {
+        DebeziumChange<T> change = record.value();
+        if (change == null) {
+            context.forward(record);
+            return;
+        }
+        Headers headers = new RecordHeaders(record.headers().toArray());
+        SourcePositionHeaders.put(headers, change.getOp(), change.getLsn());
+        context.forward(record.withHeaders(headers));
+    }
+}
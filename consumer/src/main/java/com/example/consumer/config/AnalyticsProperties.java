@@ -0,0 +1,47 @@
+package com.example.consumer.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "consumer.analytics")
+public class AnalyticsProperties {
+
+    /**
+     * Run the sales analytics topology (its own Kafka Streams instance next to the denormalization one).
+     */
+    private boolean enabled = true;
+
+    /**
+     * Products kept per window in the top-N ranking.
+     */
+    private int topN = 10;
+
+    /**
+     * How long a window accepts late order item changes after it ends.
+     */
+    private Duration grace = Duration.ofSeconds(30);
+
+    /**
+     * Step of the hourly hopping windows (each change counts towards size / advance windows).
+     */
+    private Duration hourAdvance = Duration.ofMinutes(5);
+
+    /**
+     * Longest an hourly window's change is held back before the top-N ranking sees it. Hourly windows
+     * stay open for an hour, so their ranking is refreshed at this rate instead of on close.
+     */
+    private Duration hourlyRankingInterval = Duration.ofSeconds(10);
+
+    /**
+     * How long per-minute windows stay queryable.
+     */
+    private Duration minuteRetention = Duration.ofHours(2);
+
+    /**
+     * How long hourly windows stay queryable.
+     */
+    private Duration hourRetention = Duration.ofHours(25);
+}
@@ -0,0 +1,34 @@
+package com.example.consumer.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "consumer.bootstrap")
+public class BootstrapProperties {
+
+    /**
+     * Load {@code document_store} straight from the source tables in the background at startup, when no
+     * completed bootstrap is recorded yet.
+     */
+    private boolean runOnStartup = false;
+
+    /**
+     * Parallel scan workers; 0 uses the number of available processors.
+     */
+    private int parallelism = 0;
+
+    /**
+     * Order ids per scan range. Each range is joined in memory, so this bounds a worker's heap use.
+     */
+    private int rangeSize = 10_000;
+
+    /**
+     * JDBC fetch size of the scans.
+     */
+    private int fetchSize = 5_000;
+
+    public int effectiveParallelism() {
+        return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+}
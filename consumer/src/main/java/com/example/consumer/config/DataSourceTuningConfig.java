@@ -0,0 +1,43 @@
+package com.example.consumer.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Applies {@link DataSourceTuningProperties} to the Hikari pool before it opens its first connection.
+ * They take precedence over the same settings under {@code spring.datasource.hikari}. Pool metrics
+ * ({@code hikaricp.connections.*}, tagged with the pool name) are registered by Spring Boot and
+ * exposed on {@code /actuator/metrics}.
+ */
+@Configuration
+@EnableConfigurationProperties(DataSourceTuningProperties.class)
+public class DataSourceTuningConfig {
+
+    @Bean
+    public static BeanPostProcessor dataSourceTuningPostProcessor(ObjectProvider<DataSourceTuningProperties> tuning) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    apply(tuning.getObject(), dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    static void apply(DataSourceTuningProperties tuning, HikariDataSource dataSource) {
+        dataSource.setMaximumPoolSize(tuning.getPoolSize());
+        dataSource.setMinimumIdle(tuning.getMinimumIdle() != null ? tuning.getMinimumIdle() : tuning.getPoolSize());
+        dataSource.setConnectionTimeout(tuning.getConnectionTimeout().toMillis());
+        dataSource.addDataSourceProperty("prepareThreshold", tuning.getPrepareThreshold());
+        dataSource.addDataSourceProperty("preparedStatementCacheQueries", tuning.getPreparedStatementCacheQueries());
+        dataSource.addDataSourceProperty("preparedStatementCacheSizeMiB", tuning.getPreparedStatementCacheSizeMib());
+        dataSource.addDataSourceProperty("defaultRowFetchSize", tuning.getDefaultRowFetchSize());
+        dataSource.addDataSourceProperty("reWriteBatchedInserts", tuning.isReWriteBatchedInserts());
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.consumer.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "consumer.datasource")
+public class DataSourceTuningProperties {
+
+    /**
+     * Connections in the pool. Each stream thread holds one while it writes a document; the API, the
+     * partition manager and a rebuild take one each. The snapshot bootstrap scans on its own
+     * connections.
+     */
+    private int poolSize = 10;
+
+    /**
+     * Idle connections kept open; unset keeps all {@link #poolSize} open (a fixed-size pool, as
+     * HikariCP recommends), so a burst after a quiet period does not wait for new connections.
+     */
+    private Integer minimumIdle;
+
+    /**
+     * How long a stream thread waits for a connection before the write fails into the sink retry.
+     */
+    private Duration connectionTimeout = Duration.ofSeconds(10);
+
+    /**
+     * PgJDBC {@code prepareThreshold}: executions of a statement on a connection after which it is
+     * prepared on the server and its plan reused; 0 never prepares.
+     */
+    private int prepareThreshold = 5;
+
+    /**
+     * PgJDBC {@code preparedStatementCacheQueries}: statements cached per connection. The sink runs a
+     * handful; the rest are API queries.
+     */
+    private int preparedStatementCacheQueries = 256;
+
+    /**
+     * PgJDBC {@code preparedStatementCacheSizeMiB}: memory cap of that cache per connection.
+     */
+    private int preparedStatementCacheSizeMib = 5;
+
+    /**
+     * PgJDBC {@code defaultRowFetchSize}: rows per round trip for queries inside a transaction, so a
+     * large result is streamed instead of read into memory at once; 0 reads it at once.
+     */
+    private int defaultRowFetchSize = 1_000;
+
+    /**
+     * PgJDBC {@code reWriteBatchedInserts}: send a JDBC batch of INSERTs as multi-row INSERTs.
+     */
+    private boolean reWriteBatchedInserts = true;
+}
@@ -0,0 +1,40 @@
+package com.example.consumer.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "consumer.document-store")
+public class DocumentStoreProperties {
+
+    private Partitions partitions = new Partitions();
+
+    @Data
+    public static class Partitions {
+
+        /**
+         * Create and archive the monthly partitions of {@code document_store}. Ignored when the table is
+         * not partitioned.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Months ahead of the current one that always have a partition, so new orders never land in
+         * the default partition.
+         */
+        private int premakeMonths = 3;
+
+        /**
+         * Detach partitions whose month ended at least this many full months ago; 0 keeps every partition
+         * attached. Detached partitions stay in the database as plain tables.
+         */
+        private int archiveAfterMonths = 0;
+
+        /**
+         * How often partitions are checked.
+         */
+        private Duration checkInterval = Duration.ofHours(1);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.consumer.config;
+
+import com.example.consumer.analytics.ProductSales;
+import com.example.consumer.analytics.SaleDelta;
+import com.example.consumer.analytics.TopProducts;
+import com.example.consumer.analytics.WindowedSales;
+import com.example.consumer.dto.OrderDocument;
+import com.example.consumer.streams.model.DocumentFingerprint;
+import com.example.consumer.streams.model.EnrichedOrderItem;
+import com.example.consumer.streams.model.OrderData;
+import com.example.consumer.streams.model.OrderItemData;
+import com.example.consumer.streams.model.OrderItemsAggregate;
+import com.example.consumer.streams.model.PendingDocument;
+import com.example.consumer.streams.model.ProductData;
+import com.example.consumer.streams.model.SettledTransactions;
+import com.example.consumer.streams.model.SinkRetry;
+import com.example.consumer.streams.model.TransactionSummary;
+import com.example.consumer.streams.model.UserOrderHistory;
+import com.example.consumer.streams.model.UserOrderRef;
+import com.example.consumer.streams.serde.JsonCodecs;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Applies {@link JsonCodecs#configure(ObjectMapper)} to the Spring {@code ObjectMapper} and wraps it
+ * in the {@link JsonCodecs} the topologies build their state store serdes from, warmed up for every
+ * type they store so the first records after a start do not pay for serializer resolution.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sharedJacksonSettings() {
+        return builder -> builder.postConfigurer(JsonCodecs::configure);
+    }
+
+    @Bean
+    public JsonCodecs jsonCodecs(ObjectMapper objectMapper) {
+        return new JsonCodecs(objectMapper).warmUp(
+                OrderData.class, OrderItemData.class, ProductData.class, EnrichedOrderItem.class,
+                OrderItemsAggregate.class, OrderDocument.class, UserOrderRef.class, UserOrderHistory.class,
+                SinkRetry.class, DocumentFingerprint.class, PendingDocument.class, SettledTransactions.class,
+                TransactionSummary.class,
+                SaleDelta.class, ProductSales.class, WindowedSales.class, TopProducts.class);
+    }
+}
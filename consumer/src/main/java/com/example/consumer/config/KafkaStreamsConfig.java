@@ -1,34 +1,69 @@
 package com.example.consumer.config;
 
+import com.example.consumer.streams.dlq.DeadLetterDeserializationExceptionHandler;
+import com.example.consumer.streams.dlq.DeadLetterProducer;
+import com.example.consumer.streams.dlq.DeadLetterProductionExceptionHandler;
+import com.example.consumer.streams.restore.StateRestoreTracker;
+import com.example.consumer.streams.topics.CoPartitioningValidator;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.streams.StreamsConfig;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafkaStreams;
 import org.springframework.kafka.annotation.KafkaStreamsDefaultConfiguration;
 import org.springframework.kafka.config.KafkaStreamsConfiguration;
+import org.springframework.kafka.config.StreamsBuilderFactoryBeanConfigurer;
+import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
 @EnableKafkaStreams
+@EnableConfigurationProperties({TopologyProperties.class, BootstrapProperties.class, DocumentStoreProperties.class,
+        AnalyticsProperties.class})
 public class KafkaStreamsConfig {
 
+    public static final String APPLICATION_ID = "order-denormalization-app";
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
     @Value("${kafka.streams.state.dir:/tmp/kafka-streams}")
     private String stateDir;
 
+    @Value("${kafka.streams.num-stream-threads:2}")
+    private int numStreamThreads;
+
+    @Value("${kafka.streams.standby-replicas:0}")
+    private int standbyReplicas;
+
+    @Value("${kafka.streams.max-warmup-replicas:2}")
+    private int maxWarmupReplicas;
+
+    @Value("${kafka.streams.acceptable-recovery-lag:10000}")
+    private long acceptableRecoveryLag;
+
+    @Value("${kafka.streams.rack.zone:}")
+    private String rackZone;
+
+    @Value("${kafka.streams.rack.node:}")
+    private String rackNode;
+
+    @Value("${kafka.streams.application-server:}")
+    private String applicationServer;
+
     @Bean(name = KafkaStreamsDefaultConfiguration.DEFAULT_STREAMS_CONFIG_BEAN_NAME)
-    public KafkaStreamsConfiguration kStreamsConfig() {
+    public KafkaStreamsConfiguration kStreamsConfig(TopologyProperties topologyProperties) {
         Map<String, Object> props = new HashMap<>();
 
         // Application ID - serves as consumer group ID
-        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "order-denormalization-app");
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, APPLICATION_ID);
 
         // Kafka bootstrap servers
         props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
@@ -37,7 +72,7 @@ public class KafkaStreamsConfig {
         props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.String().getClass());
         props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.String().getClass());
 
-        // State store directory
+        // State store directory (mounted from a persistent volume so restarts reuse local RocksDB state)
         props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir);
 
         // Processing guarantee - exactly once semantics
@@ -52,9 +87,60 @@ public class KafkaStreamsConfig {
         // Cache size
         props.put(StreamsConfig.CACHE_MAX_BYTES_BUFFERING_CONFIG, 10 * 1024 * 1024); // 10MB
 
-        // Number of stream threads
-        props.put(StreamsConfig.NUM_STREAM_THREADS_CONFIG, 2);
+        // Number of stream threads (tasks beyond the partition count of the input topics sit idle)
+        props.put(StreamsConfig.NUM_STREAM_THREADS_CONFIG, numStreamThreads);
+
+        // Internal topics (repartition, changelog) replicated like the declared ones
+        props.put(StreamsConfig.REPLICATION_FACTOR_CONFIG, (int) topologyProperties.getTopics().getReplicationFactor());
+
+        // Dead-letter topic for records that cannot be deserialized or produced (handlers continue)
+        props.put(StreamsConfig.DEFAULT_DESERIALIZATION_EXCEPTION_HANDLER_CLASS_CONFIG,
+                DeadLetterDeserializationExceptionHandler.class);
+        props.put(StreamsConfig.DEFAULT_PRODUCTION_EXCEPTION_HANDLER_CLASS_CONFIG,
+                DeadLetterProductionExceptionHandler.class);
+        props.put(DeadLetterProducer.TOPIC_CONFIG, topologyProperties.getDeadLetter().getTopic());
+
+        // Standby replicas - hot copies of state stores on other instances for fast failover
+        props.put(StreamsConfig.NUM_STANDBY_REPLICAS_CONFIG, standbyReplicas);
+
+        // Warm-up replicas - tasks are only moved to an instance once it has caught up
+        props.put(StreamsConfig.MAX_WARMUP_REPLICAS_CONFIG, maxWarmupReplicas);
+        props.put(StreamsConfig.ACCEPTABLE_RECOVERY_LAG_CONFIG, acceptableRecoveryLag);
+
+        // Rack-aware standby placement - keep a standby off the node/zone of its active task
+        List<String> rackTags = new ArrayList<>();
+        if (StringUtils.hasText(rackZone)) {
+            props.put(StreamsConfig.clientTagPrefix("zone"), rackZone);
+            rackTags.add("zone");
+        }
+        if (StringUtils.hasText(rackNode)) {
+            props.put(StreamsConfig.clientTagPrefix("node"), rackNode);
+            rackTags.add("node");
+        }
+        if (!rackTags.isEmpty()) {
+            props.put(StreamsConfig.RACK_AWARE_ASSIGNMENT_TAGS_CONFIG, String.join(",", rackTags));
+        }
+
+        // host:port other instances use to reach this one's interactive queries
+        if (StringUtils.hasText(applicationServer)) {
+            props.put(StreamsConfig.APPLICATION_SERVER_CONFIG, applicationServer);
+        }
 
         return new KafkaStreamsConfiguration(props);
     }
+
+    @Bean
+    public StreamsBuilderFactoryBeanConfigurer stateRestoreConfigurer(StateRestoreTracker stateRestoreTracker) {
+        return factoryBean -> factoryBean.setStateRestoreListener(stateRestoreTracker);
+    }
+
+    /**
+     * Fails startup when the input topics' partition counts do not fit the topology; runs once the
+     * topology is built, right before the streams start.
+     */
+    @Bean
+    public StreamsBuilderFactoryBeanConfigurer coPartitioningConfigurer(CoPartitioningValidator validator) {
+        return factoryBean -> factoryBean.setKafkaStreamsCustomizer(
+                kafkaStreams -> validator.validate(factoryBean.getTopology(), APPLICATION_ID));
+    }
 }
@@ -0,0 +1,92 @@
+package com.example.consumer.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.example.consumer.streams.topology.OrderDenormalizationTopology.ORDERS_TOPIC;
+import static com.example.consumer.streams.topology.OrderDenormalizationTopology.ORDER_ITEMS_TOPIC;
+import static com.example.consumer.streams.topology.OrderDenormalizationTopology.OUTBOX_TOPIC;
+import static com.example.consumer.streams.topology.OrderDenormalizationTopology.PRODUCTS_BY_ID_TOPIC;
+import static com.example.consumer.streams.topology.OrderDenormalizationTopology.PRODUCTS_TOPIC;
+import static com.example.consumer.streams.topology.OrderDenormalizationTopology.TRANSACTIONS_BY_ID_TOPIC;
+
+/**
+ * Creates the CDC source topics and the topics the topology writes when they do not exist yet, so their
+ * partition counts come from {@code consumer.topology.topics} instead of the broker's auto-create default.
+ * <p>
+ * Existing topics are never changed: Spring's {@link KafkaAdmin} would add partitions to a declared topic
+ * with fewer, and growing a keyed topic sends the later changes of a key to another partition than its
+ * history, so the tables built from it could apply an older row image after a newer one. Only missing
+ * topics are declared; a partition count that does not fit the topology fails the start in
+ * {@link com.example.consumer.streams.topics.CoPartitioningValidator} instead.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "consumer.topology.topics", name = "create", havingValue = "true",
+        matchIfMissing = true)
+public class KafkaTopicsConfig {
+
+    private static final Duration LIST_TIMEOUT = Duration.ofSeconds(30);
+
+    @Bean
+    public KafkaAdmin.NewTopics consumerTopics(TopologyProperties properties, KafkaAdmin kafkaAdmin) {
+        TopologyProperties.Topics topics = properties.getTopics();
+        List<NewTopic> newTopics = new ArrayList<>(List.of(
+                topic(ORDERS_TOPIC, topics).build(),
+                topic(ORDER_ITEMS_TOPIC, topics).build(),
+                topic(PRODUCTS_TOPIC, topics).build(),
+                topic(properties.getDeadLetter().getTopic(), topics).build(),
+                // Sources of GlobalKTables: only the latest value per key is ever read
+                topic(PRODUCTS_BY_ID_TOPIC, topics).config(TopicConfig.CLEANUP_POLICY_CONFIG,
+                        TopicConfig.CLEANUP_POLICY_COMPACT).build(),
+                topic(TRANSACTIONS_BY_ID_TOPIC, topics).config(TopicConfig.CLEANUP_POLICY_CONFIG,
+                        TopicConfig.CLEANUP_POLICY_COMPACT).build()));
+        if (properties.getOutbox().isEnabled()) {
+            newTopics.add(topic(OUTBOX_TOPIC, topics).build());
+        }
+
+        Set<String> existing = existingTopics(kafkaAdmin);
+        List<NewTopic> missing = new ArrayList<>();
+        for (NewTopic topic : newTopics) {
+            if (existing.contains(topic.name())) {
+                log.debug("Topic {} exists and is left as it is", topic.name());
+            } else {
+                missing.add(topic);
+            }
+        }
+        log.info("Creating missing topics: {}", missing.stream().map(NewTopic::name).toList());
+        return new KafkaAdmin.NewTopics(missing.toArray(NewTopic[]::new));
+    }
+
+    private static Set<String> existingTopics(KafkaAdmin kafkaAdmin) {
+        try (AdminClient admin = AdminClient.create(kafkaAdmin.getConfigurationProperties())) {
+            return admin.listTopics().names().get(LIST_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while listing topics", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Could not list topics", e);
+        }
+    }
+
+    private static TopicBuilder topic(String name, TopologyProperties.Topics topics) {
+        return TopicBuilder.name(name)
+                .partitions(topics.getPartitions())
+                .replicas(topics.getReplicationFactor());
+    }
+}
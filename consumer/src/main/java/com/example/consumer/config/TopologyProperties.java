@@ -0,0 +1,187 @@
+package com.example.consumer.config;
+
+import com.example.consumer.streams.serde.CdcFormat;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "consumer.topology")
+public class TopologyProperties {
+
+    /**
+     * How order items are enriched with product data.
+     */
+    private ProductJoinMode productJoinMode = ProductJoinMode.FOREIGN_KEY;
+
+    /**
+     * Holding back partial documents until their source transaction is complete.
+     */
+    private TransactionBuffer transactionBuffer = new TransactionBuffer();
+
+    /**
+     * Dead-letter topic and sink retry policy.
+     */
+    private DeadLetter deadLetter = new DeadLetter();
+
+    /**
+     * Writing only the changed top-level fields of a document.
+     */
+    private PartialUpdate partialUpdate = new PartialUpdate();
+
+    /**
+     * Partition counts of the source and internal topics.
+     */
+    private Topics topics = new Topics();
+
+    /**
+     * Following individual orders through the topology.
+     */
+    private Trace trace = new Trace();
+
+    /**
+     * Writing new orders from the producer's outbox events.
+     */
+    private Outbox outbox = new Outbox();
+
+    /**
+     * Value format of each CDC table topic (topic name to format); topics not listed are JSON. The
+     * transaction metadata topic is always JSON.
+     */
+    private Map<String, CdcFormat> sourceFormats = new HashMap<>();
+
+    public CdcFormat sourceFormat(String topic) {
+        return sourceFormats.getOrDefault(topic, CdcFormat.JSON);
+    }
+
+    public enum ProductJoinMode {
+        /**
+         * Keep order items as a KTable and join products with a foreign-key join, so product updates
+         * are re-applied to the order items (and documents) that reference them.
+         */
+        FOREIGN_KEY,
+
+        /**
+         * Re-key order items by productId, repartition, and join with a partitioned products KTable.
+         */
+        REPARTITION,
+
+        /**
+         * Replicate products to every instance as a GlobalKTable and join without repartitioning items.
+         */
+        GLOBAL_TABLE
+    }
+
+    @Data
+    public static class TransactionBuffer {
+        /**
+         * Use the Debezium transaction metadata topic to emit one complete document per transaction.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Longest time a document is held back when its transaction cannot be confirmed complete.
+         */
+        private Duration maxWait = Duration.ofSeconds(5);
+
+        /**
+         * How often held documents are re-checked (wall-clock time).
+         */
+        private Duration checkInterval = Duration.ofMillis(200);
+    }
+
+    @Data
+    public static class DeadLetter {
+        /**
+         * Topic receiving records that could not be extracted, deserialized, produced or written.
+         */
+        private String topic = "order-denormalization-dlq";
+
+        /**
+         * Sink write attempts before a document is sent to the dead-letter topic.
+         */
+        private int maxAttempts = 5;
+
+        /**
+         * Delay before the first sink retry; doubled on every further attempt.
+         */
+        private Duration initialBackoff = Duration.ofSeconds(1);
+
+        /**
+         * Upper bound on the sink retry delay.
+         */
+        private Duration maxBackoff = Duration.ofMinutes(1);
+
+        /**
+         * How often due sink retries are attempted (wall-clock time).
+         */
+        private Duration retryInterval = Duration.ofMillis(500);
+    }
+
+    @Data
+    public static class PartialUpdate {
+        /**
+         * Merge changed top-level fields into the stored JSONB instead of rewriting the document.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Largest share of the document size (serialized changed fields / whole document) that is
+         * still written as a partial update; above it the document is rewritten.
+         */
+        private double maxChangedRatio = 0.25;
+    }
+
+    @Data
+    public static class Topics {
+        /**
+         * Partitions of the CDC source topics, the topics this service writes and the repartition
+         * topics of the topologies. Bounds the number of stream tasks, so pods x threads beyond it sit
+         * idle. Only topics that are missing at startup are created with this count; existing topics are
+         * never grown, since that would move keys away from their history. A count that does not fit the
+         * topology fails the start. Repartition topics cannot be resized, changing this for an existing
+         * application needs an application reset.
+         */
+        private int partitions = 6;
+
+        /**
+         * Replication factor of the declared topics and of Kafka Streams' internal topics.
+         */
+        private short replicationFactor = 1;
+
+        /**
+         * Declare the topics at startup ({@code NewTopic} beans). Off when topics are provisioned
+         * elsewhere; co-partitioning is validated either way.
+         */
+        private boolean create = true;
+    }
+
+    @Data
+    public static class Trace {
+        /**
+         * Add trace nodes at the stage boundaries, so orders registered through the
+         * {@code streamtrace} actuator endpoint are logged stage by stage. Applied at startup; when
+         * off, the topology has no trace nodes and registering orders logs nothing.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Most trace lines written per second; further lines are dropped and counted.
+         */
+        private int maxLinesPerSecond = 50;
+    }
+
+    @Data
+    public static class Outbox {
+        /**
+         * Read the pre-assembled documents of new orders from the outbox topic and write them without
+         * waiting for the joins (needs {@code producer.outbox.enabled}). The table topics are still
+         * joined, since later item, status and product changes rewrite the document from them; the
+         * first document of an order no longer waits for both repartitions and the store lookups.
+         */
+        private boolean enabled = false;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.consumer.controller;
+
+import com.example.consumer.bootstrap.SnapshotBootstrapService;
+import com.example.consumer.partition.DocumentPartitionManager;
+import com.example.consumer.rebuild.DocumentRebuildService;
+import com.example.consumer.service.DeadLetterReplayService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final DeadLetterReplayService deadLetterReplayService;
+    private final DocumentRebuildService documentRebuildService;
+    private final SnapshotBootstrapService snapshotBootstrapService;
+    private final DocumentPartitionManager documentPartitionManager;
+
+    @PostMapping("/dlq/replay")
+    public ResponseEntity<Map<String, Object>> replayDeadLetters(
+            @RequestParam(defaultValue = "100") int maxRecords) {
+        return ResponseEntity.ok(deadLetterReplayService.replay(maxRecords));
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> startRebuild() {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(documentRebuildService.start());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> getRebuildStatus() {
+        return ResponseEntity.ok(documentRebuildService.status());
+    }
+
+    @PostMapping("/bootstrap")
+    public ResponseEntity<Map<String, Object>> startBootstrap(
+            @RequestParam(defaultValue = "false") boolean force) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(snapshotBootstrapService.startBootstrap(force));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/bootstrap")
+    public ResponseEntity<Map<String, Object>> getBootstrapStatus() {
+        return ResponseEntity.ok(snapshotBootstrapService.status());
+    }
+
+    @GetMapping("/partitions")
+    public ResponseEntity<Map<String, Object>> getPartitions() {
+        return ResponseEntity.ok(documentPartitionManager.status());
+    }
+
+    @PostMapping("/partitions/maintain")
+    public ResponseEntity<Map<String, Object>> maintainPartitions() {
+        documentPartitionManager.maintain();
+        return ResponseEntity.ok(documentPartitionManager.status());
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.consumer.controller;
+
+import com.example.consumer.analytics.SalesAnalyticsQueryService;
+import com.example.consumer.analytics.SalesAnalyticsTopology;
+import com.example.consumer.analytics.TopProducts;
+import com.example.consumer.analytics.WindowedSales;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private final SalesAnalyticsQueryService salesAnalyticsQueryService;
+
+    static final int MAX_RANKINGS = 100;
+
+    /**
+     * Units and revenue of a product per window ({@code 1m} or {@code 1h}) starting within
+     * {@code [from, to]}; defaults to the last hour. 503 while the analytics stores cannot be queried.
+     */
+    @GetMapping("/products/{productId}/sales")
+    public ResponseEntity<List<WindowedSales>> getProductSales(
+            @PathVariable Long productId,
+            @RequestParam(defaultValue = SalesAnalyticsTopology.MINUTE_WINDOW) String window,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "false") boolean local) {
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(Duration.ofHours(1));
+        if (start.isAfter(end)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return orUnavailable(salesAnalyticsQueryService.productSales(productId, window, start, end, local));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Top-N products by revenue of the {@code count} most recent windows of a size, newest first, or
+     * of the single window starting at {@code start}.
+     */
+    @GetMapping("/top-products")
+    public ResponseEntity<List<TopProducts>> getTopProducts(
+            @RequestParam(defaultValue = SalesAnalyticsTopology.MINUTE_WINDOW) String window,
+            @RequestParam(defaultValue = "1") int count,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant start,
+            @RequestParam(defaultValue = "false") boolean local) {
+        if (count < 1 || count > MAX_RANKINGS) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            if (start != null) {
+                return orUnavailable(salesAnalyticsQueryService.topProducts(window, start, local));
+            }
+            return orUnavailable(salesAnalyticsQueryService.topProducts(window, count, local));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private static <T> ResponseEntity<T> orUnavailable(Optional<T> result) {
+        return result.map(ResponseEntity::ok)
+                .orElse(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+}
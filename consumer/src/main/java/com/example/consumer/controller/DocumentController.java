@@ -1,14 +1,18 @@
 package com.example.consumer.controller;
 
+import com.example.consumer.dto.DocumentPage;
 import com.example.consumer.dto.OrderDocument;
 import com.example.consumer.service.DocumentStoreService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -19,15 +23,59 @@ public class DocumentController {
 
     private final DocumentStoreService documentStoreService;
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int MAX_PAGE_SIZE = 500;
+
+    /**
+     * All documents; with {@code from} and {@code to} only those of orders placed in that range (read
+     * from the matching partitions only); with {@code userId} and/or {@code status} a newest-first
+     * page read through the generated-column indexes. The cursor of the next page, if any, comes back
+     * in the {@code X-Next-Cursor} header.
+     */
     @GetMapping("/documents")
-    public ResponseEntity<List<OrderDocument>> getAllDocuments() {
-        List<OrderDocument> documents = documentStoreService.findAll();
-        return ResponseEntity.ok(documents);
+    public ResponseEntity<List<OrderDocument>> getAllDocuments(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        if (userId != null || status != null) {
+            if (from != null || to != null || limit < 1 || limit > MAX_PAGE_SIZE) {
+                return ResponseEntity.badRequest().build();
+            }
+            DocumentPage page;
+            try {
+                page = documentStoreService.findPage(userId, status, cursor, limit);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getDocuments());
+        }
+        if (from == null && to == null) {
+            return ResponseEntity.ok(documentStoreService.findAll());
+        }
+        if (from == null || to == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(documentStoreService.findOrderedBetween(from, to));
     }
 
+    /**
+     * With {@code orderedAt} (the order's date) the lookup only reads the partition holding it.
+     */
     @GetMapping("/documents/{orderId}")
-    public ResponseEntity<OrderDocument> getDocument(@PathVariable Long orderId) {
-        return documentStoreService.findById(orderId)
+    public ResponseEntity<OrderDocument> getDocument(
+            @PathVariable Long orderId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime orderedAt) {
+        return (orderedAt != null
+                ? documentStoreService.findById(orderId, orderedAt)
+                : documentStoreService.findById(orderId))
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -0,0 +1,32 @@
+package com.example.consumer.controller;
+
+import com.example.consumer.streams.model.UserOrderHistory;
+import com.example.consumer.streams.query.UserOrderHistoryQueryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+public class UserController {
+
+    private final UserOrderHistoryQueryService userOrderHistoryQueryService;
+
+    /**
+     * A user's order summary. {@code local=true} is used between instances when forwarding a lookup
+     * to the instance that hosts the user's partition.
+     */
+    @GetMapping("/users/{userId}/orders")
+    public ResponseEntity<UserOrderHistory> getOrderHistory(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "false") boolean local) {
+        return userOrderHistoryQueryService.find(userId, local)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.consumer.dto;
+
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in the newest-first document listing: the {@code (ordered_at, id)} of the last
+ * document returned. Sent to clients as an opaque URL-safe token.
+ */
+@Value
+public class DocumentCursor {
+
+    /**
+     * Before every document: {@code ordered_at} sorts below this for any real order.
+     */
+    public static final DocumentCursor FIRST = new DocumentCursor(LocalDateTime.of(9999, 12, 31, 0, 0), "");
+
+    LocalDateTime orderedAt;
+    String id;
+
+    public String encode() {
+        String raw = orderedAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code token} was not produced by {@link #encode()}
+     */
+    public static DocumentCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed cursor: " + token);
+            }
+            return new DocumentCursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + token, e);
+        }
+    }
+}
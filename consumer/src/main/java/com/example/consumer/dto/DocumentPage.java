@@ -0,0 +1,14 @@
+package com.example.consumer.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class DocumentPage {
+    List<OrderDocument> documents;
+    /**
+     * Cursor of the following page, or null when this is the last one.
+     */
+    String nextCursor;
+}
@@ -1,5 +1,7 @@
 package com.example.consumer.dto;
 
+import com.example.consumer.streams.util.LongHashSet;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -7,7 +9,6 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -24,12 +25,26 @@ public class OrderDocument {
 
     private ProductSummary productSummary;
 
+    /**
+     * Product ids are kept as a {@link LongHashSet} whatever set they are given as; it serializes as
+     * an ascending JSON array.
+     */
     @Data
     @NoArgsConstructor
-    @AllArgsConstructor
     public static class ProductSummary {
-        private Integer uniqueProductCount;
-        private Set<Long> productIds = new HashSet<>();
-        private Integer totalQuantity;
+        private int uniqueProductCount;
+        @JsonDeserialize(as = LongHashSet.class)
+        private LongHashSet productIds = new LongHashSet();
+        private int totalQuantity;
+
+        public ProductSummary(int uniqueProductCount, Set<Long> productIds, int totalQuantity) {
+            this.uniqueProductCount = uniqueProductCount;
+            this.productIds = LongHashSet.from(productIds);
+            this.totalQuantity = totalQuantity;
+        }
+
+        public void setProductIds(Set<Long> productIds) {
+            this.productIds = LongHashSet.from(productIds);
+        }
     }
 }
@@ -1,5 +1,6 @@
 package com.example.consumer.entity;
 
+import com.example.consumer.dto.OrderDocument;
 import io.hypersistence.utils.hibernate.type.json.JsonBinaryType;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -16,9 +17,32 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class DocumentStoreEntity {
 
+    /**
+     * Partition key of documents without an order date; such rows land in the default partition.
+     */
+    public static final LocalDateTime UNKNOWN_ORDERED_AT = LocalDateTime.of(1970, 1, 1, 0, 0);
+
     @Id
     private String id;
 
+    /**
+     * Range-partitioning key of {@code document_store}, copied from {@link OrderDocument#getOrderedAt()}.
+     */
+    @Column(name = "ordered_at", nullable = false)
+    private LocalDateTime orderedAt;
+
+    /**
+     * Stored generated column ({@code data->>'userId'}), indexed for per-user listings.
+     */
+    @Column(name = "user_id", insertable = false, updatable = false)
+    private Long userId;
+
+    /**
+     * Stored generated column ({@code data->>'status'}), indexed for per-status listings.
+     */
+    @Column(name = "status", insertable = false, updatable = false)
+    private String status;
+
     @Type(JsonBinaryType.class)
     @Column(columnDefinition = "jsonb", nullable = false)
     private Object data;
@@ -39,4 +63,8 @@ public class DocumentStoreEntity {
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
     }
+
+    public static LocalDateTime orderedAtOf(OrderDocument document) {
+        return document.getOrderedAt() != null ? document.getOrderedAt() : UNKNOWN_ORDERED_AT;
+    }
 }
@@ -0,0 +1,29 @@
+package com.example.consumer.entity;
+
+import io.hypersistence.utils.hibernate.type.json.JsonBinaryType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Type;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "user_order_history")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserOrderHistoryEntity {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Type(JsonBinaryType.class)
+    @Column(columnDefinition = "jsonb", nullable = false)
+    private Object data;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
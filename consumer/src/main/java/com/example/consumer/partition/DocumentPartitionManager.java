@@ -0,0 +1,153 @@
+package com.example.consumer.partition;
+
+import com.example.consumer.config.DocumentStoreProperties;
+import com.example.consumer.rebuild.DocumentStagingTable;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps the monthly partitions of {@code document_store} ahead of incoming orders and, when archival
+ * is on, detaches partitions that have gone cold.
+ * <p>
+ * Creating a partition whose range already has rows in the default partition fails; the error is
+ * logged and those rows stay in the default partition until they are moved by hand.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class DocumentPartitionManager {
+
+    private final DataSource dataSource;
+    private final DocumentStoreProperties properties;
+    private final DocumentStagingTable stagingTable;
+
+    private volatile Instant lastCheckAt;
+    private volatile boolean partitioned;
+
+    @Scheduled(initialDelay = 0,
+            fixedDelayString = "${consumer.document-store.partitions.check-interval:PT1H}")
+    public synchronized void maintain() {
+        DocumentStoreProperties.Partitions config = properties.getPartitions();
+        if (!config.isEnabled()) {
+            return;
+        }
+        if (stagingTable.isLoading()) {
+            // The staging table mirrors the partitions that existed when the load started
+            log.debug("Skipping partition maintenance while document_store is being loaded");
+            return;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            partitioned = DocumentPartitions.isPartitioned(connection, DocumentPartitions.PARENT_TABLE);
+            if (!partitioned) {
+                log.debug("document_store is not partitioned, skipping partition maintenance");
+                return;
+            }
+            YearMonth current = YearMonth.now(ZoneOffset.UTC);
+            createMissing(connection, monthsToCreate(current, config.getPremakeMonths()));
+            if (config.getArchiveAfterMonths() > 0) {
+                archiveCold(connection, current, config.getArchiveAfterMonths());
+            }
+            lastCheckAt = Instant.now();
+        } catch (SQLException e) {
+            log.error("Partition maintenance of document_store failed", e);
+        }
+    }
+
+    /**
+     * Whether orders placed at {@code orderedAt} are past the archive horizon: their partition is
+     * detached, or will be at the next check. Writing them would put the rows into the default
+     * partition. False while archival is off or the table is not known to be partitioned.
+     */
+    public boolean isArchived(LocalDateTime orderedAt) {
+        DocumentStoreProperties.Partitions config = properties.getPartitions();
+        if (!config.isEnabled() || config.getArchiveAfterMonths() <= 0 || !partitioned) {
+            return false;
+        }
+        return isArchivable(YearMonth.from(orderedAt), YearMonth.now(ZoneOffset.UTC),
+                config.getArchiveAfterMonths());
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        try (Connection connection = dataSource.getConnection()) {
+            boolean partitioned = DocumentPartitions.isPartitioned(connection, DocumentPartitions.PARENT_TABLE);
+            status.put("partitioned", partitioned);
+            if (partitioned) {
+                List<Map<String, Object>> partitions = new ArrayList<>();
+                for (DocumentPartitions.Partition partition
+                        : DocumentPartitions.list(connection, DocumentPartitions.PARENT_TABLE)) {
+                    Map<String, Object> entry = new LinkedHashMap<>();
+                    entry.put("name", partition.getName());
+                    entry.put("bound", partition.getBound());
+                    entry.put("estimatedRows", partition.getEstimatedRows());
+                    partitions.add(entry);
+                }
+                status.put("partitions", partitions);
+            }
+        } catch (SQLException e) {
+            status.put("error", e.getMessage());
+        }
+        status.put("lastCheckAt", lastCheckAt);
+        return status;
+    }
+
+    private void createMissing(Connection connection, List<YearMonth> months) {
+        for (YearMonth month : months) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(DocumentPartitions.createStatement(month));
+            } catch (SQLException e) {
+                log.warn("Could not create partition {} (rows for that month already in the default partition?)",
+                        DocumentPartitions.name(month), e);
+            }
+        }
+    }
+
+    private void archiveCold(Connection connection, YearMonth current, int archiveAfterMonths)
+            throws SQLException {
+        for (DocumentPartitions.Partition partition
+                : DocumentPartitions.list(connection, DocumentPartitions.PARENT_TABLE)) {
+            Optional<YearMonth> month = DocumentPartitions.monthOf(partition.getName());
+            if (month.isEmpty() || !isArchivable(month.get(), current, archiveAfterMonths)) {
+                continue;
+            }
+            // Not CONCURRENTLY: PostgreSQL refuses it while a default partition exists
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ALTER TABLE " + DocumentPartitions.PARENT_TABLE
+                        + " DETACH PARTITION " + partition.getName());
+                log.info("Archived partition {}: estimatedRows={}",
+                        partition.getName(), partition.getEstimatedRows());
+            }
+        }
+    }
+
+    static List<YearMonth> monthsToCreate(YearMonth current, int premakeMonths) {
+        List<YearMonth> months = new ArrayList<>();
+        for (int i = 0; i <= premakeMonths; i++) {
+            months.add(current.plusMonths(i));
+        }
+        return months;
+    }
+
+    /**
+     * Whether {@code month} ended at least {@code archiveAfterMonths} months before {@code current} started.
+     */
+    static boolean isArchivable(YearMonth month, YearMonth current, int archiveAfterMonths) {
+        return !month.plusMonths(archiveAfterMonths + 1L).isAfter(current);
+    }
+}
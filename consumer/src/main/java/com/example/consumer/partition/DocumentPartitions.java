@@ -0,0 +1,88 @@
+package com.example.consumer.partition;
+
+import lombok.Value;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Naming and catalog lookups for the monthly range partitions of {@code document_store}
+ * ({@code document_store_p2024_05} holds orders placed in May 2024).
+ */
+public final class DocumentPartitions {
+
+    public static final String PARENT_TABLE = "document_store";
+
+    private static final Pattern MONTHLY_NAME = Pattern.compile("_p(\\d{4})_(\\d{2})$");
+
+    private DocumentPartitions() {
+    }
+
+    public static String name(YearMonth month) {
+        return String.format("%s_p%04d_%02d", PARENT_TABLE, month.getYear(), month.getMonthValue());
+    }
+
+    /**
+     * The month a partition created by {@link #createStatement} covers, or empty for other partitions
+     * (e.g. the default one).
+     */
+    public static Optional<YearMonth> monthOf(String partitionName) {
+        Matcher matcher = MONTHLY_NAME.matcher(partitionName);
+        if (!matcher.find()) {
+            return Optional.empty();
+        }
+        return Optional.of(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+    }
+
+    public static String createStatement(YearMonth month) {
+        return "CREATE TABLE IF NOT EXISTS " + name(month) + " PARTITION OF " + PARENT_TABLE
+                + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')";
+    }
+
+    public static boolean isPartitioned(Connection connection, String table) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(?))")) {
+            statement.setString(1, table);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    /**
+     * Partitions currently attached to {@code table}, ordered by name.
+     */
+    public static List<Partition> list(Connection connection, String table) throws SQLException {
+        List<Partition> partitions = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid), c.reltuples::bigint "
+                        + "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "WHERE i.inhparent = to_regclass(?) ORDER BY c.relname")) {
+            statement.setString(1, table);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    partitions.add(new Partition(rs.getString(1), rs.getString(2), Math.max(0, rs.getLong(3))));
+                }
+            }
+        }
+        return partitions;
+    }
+
+    @Value
+    public static class Partition {
+        String name;
+        /**
+         * Bound clause as printed by PostgreSQL, e.g. {@code FOR VALUES FROM (...) TO (...)} or {@code DEFAULT}.
+         */
+        String bound;
+        long estimatedRows;
+    }
+}
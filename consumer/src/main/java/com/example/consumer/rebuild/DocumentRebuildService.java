@@ -0,0 +1,184 @@
+package com.example.consumer.rebuild;
+
+import com.example.consumer.dto.OrderDocument;
+import com.example.consumer.streams.topology.OrderDenormalizationTopology;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rebuilds {@code document_store} from the local {@code final-documents-store}.
+ * <p>
+ * Documents are streamed with binary {@code COPY} into an index-less staging table, indexes are
+ * built once at the end, and the staging table is swapped in by renaming both tables inside one
+ * transaction. Documents the sink wrote or deleted while the rebuild was running are merged into
+ * the staging table under the same lock, so the swap never loses a newer version.
+ * <p>
+ * The store is read through interactive queries, which only see partitions hosted by this
+ * instance, so a rebuild is refused while other instances host the store.
+ */
+@Service
+@Slf4j
+public class DocumentRebuildService {
+
+    static final String DOCUMENTS_STORE = OrderDenormalizationTopology.FINAL_DOCUMENTS_STORE;
+
+    private static final long PROGRESS_LOG_INTERVAL = 100_000;
+
+    public enum Phase { IDLE, LOADING, INDEXING, SWAPPING, COMPLETED, FAILED }
+
+    private final StreamsBuilderFactoryBean streamsBuilderFactoryBean;
+    private final DataSource dataSource;
+    private final DocumentStagingTable stagingTable;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "document-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong loaded = new AtomicLong();
+    private volatile Phase phase = Phase.IDLE;
+    private volatile long expected;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    public DocumentRebuildService(
+            StreamsBuilderFactoryBean streamsBuilderFactoryBean,
+            DataSource dataSource,
+            DocumentStagingTable stagingTable) {
+        this.streamsBuilderFactoryBean = streamsBuilderFactoryBean;
+        this.dataSource = dataSource;
+        this.stagingTable = stagingTable;
+    }
+
+    /**
+     * Starts a rebuild in the background.
+     *
+     * @throws IllegalStateException if a rebuild is running or the store cannot be rebuilt from here
+     */
+    public synchronized Map<String, Object> start() {
+        if (isRunning()) {
+            throw new IllegalStateException("A rebuild is already running");
+        }
+        ReadOnlyKeyValueStore<Long, OrderDocument> store = localDocumentsStore();
+        stagingTable.begin("rebuild");
+
+        loaded.set(0);
+        expected = store.approximateNumEntries();
+        startedAt = Instant.now();
+        finishedAt = null;
+        error = null;
+        phase = Phase.LOADING;
+
+        LocalDateTime rebuildStartedAt = LocalDateTime.now();
+        executor.submit(() -> run(store, rebuildStartedAt));
+        return status();
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("phase", phase);
+        status.put("loaded", loaded.get());
+        status.put("expected", expected);
+        if (startedAt != null) {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            long elapsedMs = Math.max(1, Duration.between(startedAt, end).toMillis());
+            status.put("startedAt", startedAt.toString());
+            status.put("elapsedMs", elapsedMs);
+            status.put("documentsPerSecond", loaded.get() * 1000 / elapsedMs);
+        }
+        if (finishedAt != null) {
+            status.put("finishedAt", finishedAt.toString());
+        }
+        if (error != null) {
+            status.put("error", error);
+        }
+        return status;
+    }
+
+    public boolean isRunning() {
+        return phase == Phase.LOADING || phase == Phase.INDEXING || phase == Phase.SWAPPING;
+    }
+
+    private ReadOnlyKeyValueStore<Long, OrderDocument> localDocumentsStore() {
+        KafkaStreams kafkaStreams = streamsBuilderFactoryBean.getKafkaStreams();
+        if (kafkaStreams == null || kafkaStreams.state() != KafkaStreams.State.RUNNING) {
+            throw new IllegalStateException("Kafka Streams is not running");
+        }
+        if (kafkaStreams.streamsMetadataForStore(DOCUMENTS_STORE).size() > 1) {
+            throw new IllegalStateException(DOCUMENTS_STORE + " is spread over several instances");
+        }
+        return kafkaStreams.store(StoreQueryParameters.fromNameAndType(
+                DOCUMENTS_STORE, QueryableStoreTypes.<Long, OrderDocument>keyValueStore()));
+    }
+
+    private void run(ReadOnlyKeyValueStore<Long, OrderDocument> store, LocalDateTime rebuildStartedAt) {
+        log.info("Document rebuild started: expectedDocuments={}", expected);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            stagingTable.create(connection);
+            copyDocuments(connection, store);
+
+            phase = Phase.INDEXING;
+            stagingTable.buildIndexes(connection);
+
+            phase = Phase.SWAPPING;
+            stagingTable.swap(connection, rebuildStartedAt);
+
+            phase = Phase.COMPLETED;
+        } catch (Exception e) {
+            log.error("Document rebuild failed", e);
+            error = e.toString();
+            phase = Phase.FAILED;
+        } finally {
+            finishedAt = Instant.now();
+            stagingTable.end();
+            log.info("Document rebuild finished: {}", status());
+        }
+    }
+
+    private void copyDocuments(Connection connection, ReadOnlyKeyValueStore<Long, OrderDocument> store)
+            throws Exception {
+        DocumentStagingTable.Copy copy = stagingTable.openCopy(connection);
+        try (KeyValueIterator<Long, OrderDocument> iterator = store.all()) {
+            while (iterator.hasNext()) {
+                KeyValue<Long, OrderDocument> entry = iterator.next();
+                copy.write(entry.value);
+
+                long count = loaded.incrementAndGet();
+                if (count % PROGRESS_LOG_INTERVAL == 0) {
+                    log.info("Document rebuild progress: {}", status());
+                }
+            }
+            copy.finish();
+        } catch (Exception e) {
+            copy.cancel();
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
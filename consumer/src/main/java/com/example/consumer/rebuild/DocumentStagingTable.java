@@ -0,0 +1,249 @@
+package com.example.consumer.rebuild;
+
+import com.example.consumer.dto.OrderDocument;
+import com.example.consumer.entity.DocumentStoreEntity;
+import com.example.consumer.partition.DocumentPartitions;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.hypersistence.utils.hibernate.type.util.ObjectMapperWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bulk-loads {@code document_store} through an index-less staging table that is swapped in at the end.
+ * <p>
+ * Only one load (rebuild or snapshot bootstrap) runs at a time. While it runs, the sink reports
+ * deletes here so the swap does not resurrect them; sink writes are picked up from
+ * {@code document_store} itself by their {@code updated_at}.
+ * <p>
+ * When {@code document_store} is partitioned, the staging table gets the same partitions, so the
+ * swap replaces the whole partition tree.
+ */
+@Component
+@Slf4j
+public class DocumentStagingTable {
+
+    static final String STAGING_TABLE = "document_store_staging";
+
+    private static final int COPY_BUFFER_SIZE = 1 << 20;
+
+    // Same JSON mapping as the JsonBinaryType used by DocumentStoreEntity
+    private final ObjectWriter documentWriter = ObjectMapperWrapper.INSTANCE.getObjectMapper().writer();
+
+    private final AtomicBoolean loading = new AtomicBoolean();
+    private final Set<String> deletedDuringLoad = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Claims the staging table for a load.
+     *
+     * @throws IllegalStateException if another load is running
+     */
+    public void begin(String owner) {
+        if (!loading.compareAndSet(false, true)) {
+            throw new IllegalStateException("A document_store load is already running, cannot start " + owner);
+        }
+        deletedDuringLoad.clear();
+    }
+
+    public void end() {
+        deletedDuringLoad.clear();
+        loading.set(false);
+    }
+
+    public boolean isLoading() {
+        return loading.get();
+    }
+
+    /**
+     * Called by the sink so documents deleted mid-load are not resurrected by the swap.
+     */
+    public void recordDelete(String id) {
+        if (loading.get()) {
+            deletedDuringLoad.add(id);
+        }
+    }
+
+    public void create(Connection connection) throws SQLException {
+        boolean partitioned = DocumentPartitions.isPartitioned(connection, DocumentPartitions.PARENT_TABLE);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + STAGING_TABLE);
+            if (!partitioned) {
+                statement.execute("CREATE TABLE " + STAGING_TABLE
+                        + " (LIKE document_store INCLUDING DEFAULTS INCLUDING GENERATED)");
+                return;
+            }
+            statement.execute("CREATE TABLE " + STAGING_TABLE
+                    + " (LIKE document_store INCLUDING DEFAULTS INCLUDING GENERATED) PARTITION BY RANGE (ordered_at)");
+            for (DocumentPartitions.Partition partition
+                    : DocumentPartitions.list(connection, DocumentPartitions.PARENT_TABLE)) {
+                statement.execute("CREATE TABLE " + stagingName(partition.getName())
+                        + " PARTITION OF " + STAGING_TABLE + " " + partition.getBound());
+            }
+        }
+    }
+
+    /**
+     * Starts a binary {@code COPY} into the staging table. Several connections may copy in parallel.
+     */
+    public Copy openCopy(Connection connection) throws SQLException, IOException {
+        PGCopyOutputStream copyStream = new PGCopyOutputStream(
+                connection.unwrap(PGConnection.class),
+                "COPY " + STAGING_TABLE + " (id, ordered_at, data, created_at, updated_at) "
+                        + "FROM STDIN (FORMAT BINARY)",
+                COPY_BUFFER_SIZE);
+        return new Copy(copyStream, new PgBinaryCopyWriter(copyStream), LocalDateTime.now());
+    }
+
+    /**
+     * Builds the indexes of {@code document_store}. On a partitioned table the primary key must contain
+     * the partition key, so it is {@code (id, ordered_at)}; the sink keeps ids unique on its own.
+     */
+    public void buildIndexes(Connection connection) throws SQLException {
+        boolean partitioned = DocumentPartitions.isPartitioned(connection, STAGING_TABLE);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE " + STAGING_TABLE + " ADD PRIMARY KEY "
+                    + (partitioned ? "(id, ordered_at)" : "(id)"));
+            statement.execute("CREATE INDEX " + STAGING_TABLE + "_data_idx ON " + STAGING_TABLE
+                    + " USING GIN (data)");
+            // Keyset listings per user / status walk these newest first
+            statement.execute("CREATE INDEX " + STAGING_TABLE + "_user_id_idx ON " + STAGING_TABLE
+                    + " (user_id, ordered_at, id)");
+            statement.execute("CREATE INDEX " + STAGING_TABLE + "_status_idx ON " + STAGING_TABLE
+                    + " (status, ordered_at, id)");
+        }
+    }
+
+    /**
+     * Merges concurrent sink writes into the staging table and swaps it in, all under an exclusive
+     * lock. Statements waiting on the lock fail once the old table is dropped; the sink retries them.
+     */
+    public void swap(Connection connection, LocalDateTime loadStartedAt) throws SQLException {
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LOCK TABLE document_store IN ACCESS EXCLUSIVE MODE");
+
+            try (PreparedStatement deleteStmt = connection.prepareStatement(
+                    "DELETE FROM " + STAGING_TABLE + " WHERE id = ANY (?)")) {
+                Array ids = connection.createArrayOf("varchar", deletedDuringLoad.toArray());
+                deleteStmt.setArray(1, ids);
+                deleteStmt.executeUpdate();
+            }
+            // Replace by id rather than by primary key: a document may have moved to another partition
+            try (PreparedStatement replacedStmt = connection.prepareStatement(
+                    "DELETE FROM " + STAGING_TABLE + " s USING document_store d "
+                            + "WHERE d.updated_at >= ? AND s.id = d.id")) {
+                replacedStmt.setTimestamp(1, Timestamp.valueOf(loadStartedAt));
+                replacedStmt.executeUpdate();
+            }
+            try (PreparedStatement mergeStmt = connection.prepareStatement(
+                    "INSERT INTO " + STAGING_TABLE + " (id, ordered_at, data, created_at, updated_at) "
+                            + "SELECT id, ordered_at, data, created_at, updated_at FROM document_store "
+                            + "WHERE updated_at >= ?")) {
+                mergeStmt.setTimestamp(1, Timestamp.valueOf(loadStartedAt));
+                int merged = mergeStmt.executeUpdate();
+                log.info("Merged documents written during load: count={}, deleted={}",
+                        merged, deletedDuringLoad.size());
+            }
+
+            // Drops the partitions with it; detached (archived) partitions are independent tables and stay
+            statement.execute("DROP TABLE document_store");
+            statement.execute("ALTER TABLE " + STAGING_TABLE + " RENAME TO document_store");
+            for (String partition : stagingRelations(connection, "'r'")) {
+                statement.execute("ALTER TABLE " + partition + " RENAME TO " + liveName(partition));
+            }
+            for (String index : stagingRelations(connection, "'i', 'I'")) {
+                statement.execute("ALTER INDEX " + index + " RENAME TO " + liveName(index));
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Tables or indexes ({@code relkinds} is a list of {@code pg_class.relkind} literals) still carrying
+     * the staging prefix.
+     */
+    private static List<String> stagingRelations(Connection connection, String relkinds) throws SQLException {
+        List<String> names = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT relname FROM pg_class WHERE relname LIKE ? AND relkind IN (" + relkinds + ") "
+                        + "AND relnamespace = current_schema()::regnamespace")) {
+            statement.setString(1, STAGING_TABLE.replace("_", "\\_") + "%");
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    names.add(rs.getString(1));
+                }
+            }
+        }
+        return names;
+    }
+
+    static String stagingName(String liveName) {
+        return STAGING_TABLE + liveName.substring(DocumentPartitions.PARENT_TABLE.length());
+    }
+
+    static String liveName(String stagingName) {
+        if (stagingName.equals(STAGING_TABLE + "_data_idx")) {
+            return "idx_document_store_data";
+        }
+        return DocumentPartitions.PARENT_TABLE + stagingName.substring(STAGING_TABLE.length());
+    }
+
+    /**
+     * One running {@code COPY}. {@link #finish()} ends it; {@link #cancel()} aborts it.
+     */
+    public class Copy {
+        private final PGCopyOutputStream copyStream;
+        private final PgBinaryCopyWriter writer;
+        private final LocalDateTime now;
+
+        private Copy(PGCopyOutputStream copyStream, PgBinaryCopyWriter writer, LocalDateTime now) {
+            this.copyStream = copyStream;
+            this.writer = writer;
+            this.now = now;
+        }
+
+        public void write(OrderDocument document) throws IOException {
+            writer.startRow(5);
+            writer.writeText("order:" + document.getOrderId());
+            writer.writeTimestamp(DocumentStoreEntity.orderedAtOf(document));
+            writer.writeJsonb(documentWriter.writeValueAsBytes(document));
+            writer.writeTimestamp(now);
+            writer.writeTimestamp(now);
+        }
+
+        public void finish() throws IOException {
+            writer.close();
+        }
+
+        public void cancel() {
+            try {
+                if (copyStream.isActive()) {
+                    copyStream.cancelCopy();
+                }
+            } catch (SQLException e) {
+                log.warn("Failed to cancel COPY into {}", STAGING_TABLE, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.consumer.rebuild;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Writes rows in PostgreSQL's binary {@code COPY} format.
+ * <p>
+ * Only the column types needed by {@code document_store} are supported: text, jsonb and
+ * timestamp (without time zone).
+ */
+public class PgBinaryCopyWriter implements Closeable {
+
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final byte JSONB_VERSION = 1;
+    private static final LocalDateTime POSTGRES_EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private final DataOutputStream out;
+
+    public PgBinaryCopyWriter(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.out.write(SIGNATURE);
+        this.out.writeInt(0); // flags
+        this.out.writeInt(0); // header extension length
+    }
+
+    public void startRow(int columnCount) throws IOException {
+        out.writeShort(columnCount);
+    }
+
+    public void writeText(String value) throws IOException {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * jsonb is sent as a version byte followed by the JSON text.
+     */
+    public void writeJsonb(byte[] json) throws IOException {
+        if (json == null) {
+            writeNull();
+            return;
+        }
+        out.writeInt(json.length + 1);
+        out.writeByte(JSONB_VERSION);
+        out.write(json);
+    }
+
+    /**
+     * timestamp is sent as microseconds since 2000-01-01 00:00:00.
+     */
+    public void writeTimestamp(LocalDateTime value) throws IOException {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        out.writeInt(8);
+        out.writeLong(ChronoUnit.MICROS.between(POSTGRES_EPOCH, value));
+    }
+
+    public void writeNull() throws IOException {
+        out.writeInt(-1);
+    }
+
+    /**
+     * Writes the file trailer and closes the underlying stream, which ends the COPY.
+     */
+    @Override
+    public void close() throws IOException {
+        out.writeShort(-1);
+        out.close();
+    }
+}
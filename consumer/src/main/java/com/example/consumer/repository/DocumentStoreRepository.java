@@ -2,8 +2,95 @@ package com.example.consumer.repository;
 
 import com.example.consumer.entity.DocumentStoreEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@code document_store} is range-partitioned by {@code ordered_at}. Writes and lookups that know the
+ * order date pass it along so PostgreSQL only touches the partition holding the row.
+ */
 @Repository
 public interface DocumentStoreRepository extends JpaRepository<DocumentStoreEntity, String> {
+
+    Optional<DocumentStoreEntity> findByIdAndOrderedAt(String id, LocalDateTime orderedAt);
+
+    @Query("SELECT d FROM DocumentStoreEntity d WHERE d.orderedAt >= :from AND d.orderedAt < :to "
+            + "ORDER BY d.orderedAt")
+    List<DocumentStoreEntity> findOrderedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Keyset page of a user's documents, newest first, strictly after {@code (beforeOrderedAt, beforeId)}.
+     */
+    @Query(value = "SELECT * FROM document_store WHERE user_id = :userId "
+            + "AND (ordered_at, id) < (:beforeOrderedAt, :beforeId) "
+            + "ORDER BY ordered_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<DocumentStoreEntity> findPageByUser(@Param("userId") Long userId,
+                                             @Param("beforeOrderedAt") LocalDateTime beforeOrderedAt,
+                                             @Param("beforeId") String beforeId,
+                                             @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM document_store WHERE status = :status "
+            + "AND (ordered_at, id) < (:beforeOrderedAt, :beforeId) "
+            + "ORDER BY ordered_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<DocumentStoreEntity> findPageByStatus(@Param("status") String status,
+                                               @Param("beforeOrderedAt") LocalDateTime beforeOrderedAt,
+                                               @Param("beforeId") String beforeId,
+                                               @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM document_store WHERE user_id = :userId AND status = :status "
+            + "AND (ordered_at, id) < (:beforeOrderedAt, :beforeId) "
+            + "ORDER BY ordered_at DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<DocumentStoreEntity> findPageByUserAndStatus(@Param("userId") Long userId,
+                                                      @Param("status") String status,
+                                                      @Param("beforeOrderedAt") LocalDateTime beforeOrderedAt,
+                                                      @Param("beforeId") String beforeId,
+                                                      @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "UPDATE document_store SET data = CAST(:data AS jsonb), updated_at = :updatedAt "
+            + "WHERE id = :id AND ordered_at = :orderedAt", nativeQuery = true)
+    int replaceData(@Param("id") String id, @Param("orderedAt") LocalDateTime orderedAt,
+                    @Param("data") String data, @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Inserts the document unless a row with the same key exists; returns 0 in that case. On a
+     * partitioned table the key is {@code (id, ordered_at)}, otherwise {@code id} alone.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO document_store (id, ordered_at, data, created_at, updated_at) "
+            + "VALUES (:id, :orderedAt, CAST(:data AS jsonb), :now, :now) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertData(@Param("id") String id, @Param("orderedAt") LocalDateTime orderedAt,
+                   @Param("data") String data, @Param("now") LocalDateTime now);
+
+    /**
+     * Rewrites the document and its order date, whatever date it is stored under. Not pruned.
+     */
+    @Modifying
+    @Query(value = "UPDATE document_store SET ordered_at = :orderedAt, data = CAST(:data AS jsonb), "
+            + "updated_at = :updatedAt WHERE id = :id", nativeQuery = true)
+    int redateData(@Param("id") String id, @Param("orderedAt") LocalDateTime orderedAt,
+                   @Param("data") String data, @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Replaces the top-level keys of the stored document with those of {@code patch} (jsonb {@code ||}).
+     */
+    @Modifying
+    @Query(value = "UPDATE document_store SET data = data || CAST(:patch AS jsonb), updated_at = :updatedAt "
+            + "WHERE id = :id AND ordered_at = :orderedAt", nativeQuery = true)
+    int mergeData(@Param("id") String id, @Param("orderedAt") LocalDateTime orderedAt,
+                  @Param("patch") String patch, @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Deletes the document from whichever partition holds it.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM document_store WHERE id = :id", nativeQuery = true)
+    int deleteDocument(@Param("id") String id);
 }
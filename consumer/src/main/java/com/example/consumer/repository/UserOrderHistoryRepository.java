@@ -0,0 +1,25 @@
+package com.example.consumer.repository;
+
+import com.example.consumer.entity.UserOrderHistoryEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface UserOrderHistoryRepository extends JpaRepository<UserOrderHistoryEntity, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO user_order_history (user_id, data, updated_at) "
+            + "VALUES (:userId, CAST(:data AS jsonb), :updatedAt) "
+            + "ON CONFLICT (user_id) DO UPDATE SET data = EXCLUDED.data, updated_at = EXCLUDED.updated_at",
+            nativeQuery = true)
+    int upsert(@Param("userId") Long userId, @Param("data") String data, @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Query(value = "DELETE FROM user_order_history WHERE user_id = :userId", nativeQuery = true)
+    int deleteByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,139 @@
+package com.example.consumer.service;
+
+import com.example.consumer.config.TopologyProperties;
+import com.example.consumer.dto.OrderDocument;
+import com.example.consumer.streams.dlq.DeadLetterHeaders;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Re-drives records from the dead-letter topic once the cause has been fixed.
+ * <p>
+ * Sink failures are written to PostgreSQL directly; extraction, deserialization and production
+ * failures are re-published to the topic they came from. Offsets are committed per record, and a
+ * replay stops at the first record that fails again so nothing is skipped.
+ */
+@Service
+@Slf4j
+public class DeadLetterReplayService {
+
+    private static final String REPLAY_GROUP_ID = "order-denormalization-dlq-replay";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(2);
+
+    private final String bootstrapServers;
+    private final TopologyProperties properties;
+    private final DocumentStoreService documentStoreService;
+    private final ObjectMapper objectMapper;
+
+    public DeadLetterReplayService(
+            @Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
+            TopologyProperties properties,
+            DocumentStoreService documentStoreService,
+            ObjectMapper objectMapper) {
+        this.bootstrapServers = bootstrapServers;
+        this.properties = properties;
+        this.documentStoreService = documentStoreService;
+        this.objectMapper = objectMapper;
+    }
+
+    public synchronized Map<String, Object> replay(int maxRecords) {
+        String topic = properties.getDeadLetter().getTopic();
+        int replayed = 0;
+        String stoppedAt = null;
+
+        try (KafkaConsumer<byte[], byte[]> consumer = createConsumer();
+             KafkaProducer<byte[], byte[]> producer = createProducer()) {
+            consumer.subscribe(List.of(topic));
+
+            replay:
+            while (replayed < maxRecords) {
+                var records = consumer.poll(POLL_TIMEOUT);
+                if (records.isEmpty()) {
+                    break;
+                }
+                for (ConsumerRecord<byte[], byte[]> record : records) {
+                    try {
+                        redrive(record, producer);
+                    } catch (Exception e) {
+                        stoppedAt = record.partition() + "@" + record.offset();
+                        log.error("Dead-letter replay failed, stopping: partition={}, offset={}",
+                                record.partition(), record.offset(), e);
+                        break replay;
+                    }
+                    consumer.commitSync(Map.of(
+                            new TopicPartition(record.topic(), record.partition()),
+                            new OffsetAndMetadata(record.offset() + 1)));
+                    if (++replayed >= maxRecords) {
+                        break replay;
+                    }
+                }
+            }
+        }
+
+        log.info("Dead-letter replay finished: replayed={}, stoppedAt={}", replayed, stoppedAt);
+        Map<String, Object> result = new HashMap<>();
+        result.put("topic", topic);
+        result.put("replayed", replayed);
+        result.put("stoppedAt", stoppedAt);
+        return result;
+    }
+
+    private void redrive(ConsumerRecord<byte[], byte[]> record, KafkaProducer<byte[], byte[]> producer)
+            throws Exception {
+        String stage = DeadLetterHeaders.get(record.headers(), DeadLetterHeaders.STAGE);
+
+        if (DeadLetterHeaders.STAGE_SINK.equals(stage)) {
+            Long orderId = Long.valueOf(new String(record.key(), StandardCharsets.UTF_8));
+            if (record.value() == null) {
+                documentStoreService.delete(orderId);
+            } else {
+                documentStoreService.save(objectMapper.readValue(record.value(), OrderDocument.class));
+            }
+            return;
+        }
+
+        String sourceTopic = DeadLetterHeaders.get(record.headers(), DeadLetterHeaders.SOURCE_TOPIC);
+        if (sourceTopic == null) {
+            throw new IllegalStateException("Dead-letter record without " + DeadLetterHeaders.SOURCE_TOPIC);
+        }
+        // Replayed records carry the previous failure as plain headers for traceability
+        RecordHeaders headers = new RecordHeaders(record.headers().toArray());
+        DeadLetterHeaders.put(headers, DeadLetterHeaders.STAGE, null);
+        producer.send(new ProducerRecord<>(sourceTopic, null, record.key(), record.value(), headers)).get();
+    }
+
+    private KafkaConsumer<byte[], byte[]> createConsumer() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, REPLAY_GROUP_ID);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        return new KafkaConsumer<>(props, new ByteArrayDeserializer(), new ByteArrayDeserializer());
+    }
+
+    private KafkaProducer<byte[], byte[]> createProducer() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        return new KafkaProducer<>(props, new ByteArraySerializer(), new ByteArraySerializer());
+    }
+}
@@ -1,14 +1,21 @@
 package com.example.consumer.service;
 
+import com.example.consumer.dto.DocumentCursor;
+import com.example.consumer.dto.DocumentPage;
 import com.example.consumer.dto.OrderDocument;
 import com.example.consumer.entity.DocumentStoreEntity;
+import com.example.consumer.partition.DocumentPartitionManager;
+import com.example.consumer.rebuild.DocumentStagingTable;
 import com.example.consumer.repository.DocumentStoreRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.hypersistence.utils.hibernate.type.util.ObjectMapperWrapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -19,23 +26,78 @@ public class DocumentStoreService {
 
     private final DocumentStoreRepository repository;
     private final ObjectMapper objectMapper;
+    private final DocumentStagingTable documentStagingTable;
+    private final DocumentPartitionManager documentPartitionManager;
 
+    // Same JSON mapping as the JsonBinaryType used by DocumentStoreEntity
+    private final ObjectMapper documentMapper = ObjectMapperWrapper.INSTANCE.getObjectMapper();
+
+    /**
+     * Writes the whole document, which may already be stored under any order date.
+     */
     @Transactional
     public void save(OrderDocument document) {
+        save(document, true);
+    }
+
+    /**
+     * Writes the whole document. The update is pruned to the partition of the document's order date
+     * (most writes change an existing document). When it misses and the document may be {@code stored}
+     * already, an update by id moves the row from the partition of its old order date (written undated,
+     * or the date was corrected); PostgreSQL moves rows across partitions on update. Only then is the
+     * document inserted. The sink passes {@code stored = false} for orders it has no fingerprint of, so
+     * new documents skip the update that checks every partition. Documents of orders past the archive
+     * horizon are not written: they would land in the default partition.
+     */
+    @Transactional
+    public void save(OrderDocument document, boolean stored) {
         try {
             String id = "order:" + document.getOrderId();
-            DocumentStoreEntity entity = new DocumentStoreEntity();
-            entity.setId(id);
-            entity.setData(document);
+            LocalDateTime orderedAt = DocumentStoreEntity.orderedAtOf(document);
+            if (!DocumentStoreEntity.UNKNOWN_ORDERED_AT.equals(orderedAt)
+                    && documentPartitionManager.isArchived(orderedAt)) {
+                log.debug("Skipping document of archived order {}: orderedAt={}", document.getOrderId(), orderedAt);
+                return;
+            }
+            String data = documentMapper.writeValueAsString(document);
+            LocalDateTime now = LocalDateTime.now();
 
-            repository.save(entity);
-            log.info("Saved document for order {} to PostgreSQL", document.getOrderId());
+            if (repository.replaceData(id, orderedAt, data, now) == 0
+                    && (!stored || repository.redateData(id, orderedAt, data, now) == 0)
+                    && repository.insertData(id, orderedAt, data, now) == 0) {
+                // Not partitioned (primary key id): the row is stored under another order date
+                repository.redateData(id, orderedAt, data, now);
+            }
+            log.debug("Saved document for order {} to PostgreSQL", document.getOrderId());
         } catch (Exception e) {
             log.error("Error saving document to PostgreSQL", e);
             throw new RuntimeException("Failed to save document", e);
         }
     }
 
+    /**
+     * Writes only the given top-level fields of the document. Falls back to a full save when the row
+     * does not exist.
+     */
+    @Transactional
+    public void patch(OrderDocument document, Collection<String> fields) {
+        try {
+            String id = "order:" + document.getOrderId();
+            ObjectNode patch = documentMapper.valueToTree(document);
+            patch.retain(fields);
+
+            if (repository.mergeData(id, DocumentStoreEntity.orderedAtOf(document), patch.toString(),
+                    LocalDateTime.now()) == 0) {
+                save(document);
+                return;
+            }
+            log.debug("Patched document for order {} in PostgreSQL: fields={}", document.getOrderId(), fields);
+        } catch (Exception e) {
+            log.error("Error patching document in PostgreSQL", e);
+            throw new RuntimeException("Failed to patch document", e);
+        }
+    }
+
     @Transactional(readOnly = true)
     public Optional<OrderDocument> findById(Long orderId) {
         try {
@@ -48,6 +110,74 @@ public class DocumentStoreService {
         }
     }
 
+    /**
+     * Looks the document up in the partition of {@code orderedAt} only.
+     */
+    @Transactional(readOnly = true)
+    public Optional<OrderDocument> findById(Long orderId, LocalDateTime orderedAt) {
+        try {
+            String id = "order:" + orderId;
+            return repository.findByIdAndOrderedAt(id, orderedAt)
+                    .map(entity -> objectMapper.convertValue(entity.getData(), OrderDocument.class));
+        } catch (Exception e) {
+            log.error("Error finding document from PostgreSQL", e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Documents of orders placed in {@code [from, to)}; only the partitions covering the range are scanned.
+     */
+    @Transactional(readOnly = true)
+    public List<OrderDocument> findOrderedBetween(LocalDateTime from, LocalDateTime to) {
+        try {
+            return repository.findOrderedBetween(from, to).stream()
+                    .filter(entity -> entity.getId().startsWith("order:"))
+                    .map(entity -> objectMapper.convertValue(entity.getData(), OrderDocument.class))
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            log.error("Error finding documents by order date from PostgreSQL", e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Newest-first page of the documents of a user and/or in a status, read through the
+     * {@code user_id} / {@code status} indexes.
+     *
+     * @param cursor {@link DocumentCursor#encode() encoded} position returned with the previous page,
+     *               or null for the first page
+     * @throws IllegalArgumentException if neither filter is given or the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public DocumentPage findPage(Long userId, String status, String cursor, int limit) {
+        if (userId == null && status == null) {
+            throw new IllegalArgumentException("userId or status is required");
+        }
+        DocumentCursor after = cursor != null ? DocumentCursor.decode(cursor) : DocumentCursor.FIRST;
+        // One extra row tells whether another page follows
+        int fetch = limit + 1;
+        List<DocumentStoreEntity> rows;
+        if (userId != null && status != null) {
+            rows = repository.findPageByUserAndStatus(userId, status, after.getOrderedAt(), after.getId(), fetch);
+        } else if (userId != null) {
+            rows = repository.findPageByUser(userId, after.getOrderedAt(), after.getId(), fetch);
+        } else {
+            rows = repository.findPageByStatus(status, after.getOrderedAt(), after.getId(), fetch);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            DocumentStoreEntity last = rows.get(limit - 1);
+            nextCursor = new DocumentCursor(last.getOrderedAt(), last.getId()).encode();
+        }
+        List<OrderDocument> documents = rows.stream()
+                .map(entity -> objectMapper.convertValue(entity.getData(), OrderDocument.class))
+                .collect(Collectors.toList());
+        return new DocumentPage(documents, nextCursor);
+    }
+
     @Transactional(readOnly = true)
     public List<OrderDocument> findAll() {
         try {
@@ -65,10 +195,12 @@ public class DocumentStoreService {
     public void delete(Long orderId) {
         try {
             String id = "order:" + orderId;
-            repository.deleteById(id);
-            log.info("Deleted document for order {} from PostgreSQL", orderId);
+            repository.deleteDocument(id);
+            documentStagingTable.recordDelete(id);
+            log.debug("Deleted document for order {} from PostgreSQL", orderId);
         } catch (Exception e) {
             log.error("Error deleting document from PostgreSQL", e);
+            throw new RuntimeException("Failed to delete document", e);
         }
     }
 
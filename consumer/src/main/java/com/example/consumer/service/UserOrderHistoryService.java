@@ -0,0 +1,57 @@
+package com.example.consumer.service;
+
+import com.example.consumer.repository.UserOrderHistoryRepository;
+import com.example.consumer.streams.model.UserOrderHistory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.hypersistence.utils.hibernate.type.util.ObjectMapperWrapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * {@code user_order_history}: a copy of the {@code user-order-history-store} for consumers that read
+ * PostgreSQL, and the fallback of the history API while the store cannot be queried.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UserOrderHistoryService {
+
+    private final UserOrderHistoryRepository repository;
+    private final ObjectMapper objectMapper;
+
+    // Same JSON mapping as the JsonBinaryType used by UserOrderHistoryEntity
+    private final ObjectMapper historyMapper = ObjectMapperWrapper.INSTANCE.getObjectMapper();
+
+    @Transactional
+    public void save(UserOrderHistory history) {
+        try {
+            repository.upsert(history.getUserId(), historyMapper.writeValueAsString(history), LocalDateTime.now());
+            log.debug("Saved order history of user {}: orders={}", history.getUserId(), history.getOrderCount());
+        } catch (Exception e) {
+            log.error("Error saving order history to PostgreSQL", e);
+            throw new RuntimeException("Failed to save order history", e);
+        }
+    }
+
+    @Transactional
+    public void delete(Long userId) {
+        repository.deleteByUserId(userId);
+        log.debug("Deleted order history of user {}", userId);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<UserOrderHistory> findByUserId(Long userId) {
+        try {
+            return repository.findById(userId)
+                    .map(entity -> objectMapper.convertValue(entity.getData(), UserOrderHistory.class));
+        } catch (Exception e) {
+            log.error("Error finding order history from PostgreSQL", e);
+            return Optional.empty();
+        }
+    }
+}
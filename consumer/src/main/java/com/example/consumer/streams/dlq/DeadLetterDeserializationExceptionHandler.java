@@ -0,0 +1,45 @@
+package com.example.consumer.streams.dlq;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.streams.errors.DeserializationExceptionHandler;
+import org.apache.kafka.streams.processor.ProcessorContext;
+
+import java.util.Map;
+
+/**
+ * Sends records that cannot be deserialized (e.g. corrupt repartition or changelog data) to the
+ * dead-letter topic and skips them instead of stopping the stream thread.
+ */
+@Slf4j
+public class DeadLetterDeserializationExceptionHandler implements DeserializationExceptionHandler {
+
+    private Map<String, ?> configs;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        this.configs = configs;
+    }
+
+    @Override
+    public DeserializationHandlerResponse handle(
+            ProcessorContext context,
+            ConsumerRecord<byte[], byte[]> record,
+            Exception exception) {
+        log.warn("Failed to deserialize record: topic={}, partition={}, offset={}",
+                record.topic(), record.partition(), record.offset(), exception);
+
+        RecordHeaders headers = new RecordHeaders(record.headers().toArray());
+        DeadLetterHeaders.addFailure(headers, DeadLetterHeaders.STAGE_DESERIALIZE, record.topic(), exception);
+        DeadLetterHeaders.addSource(headers, record.partition(), record.offset());
+        try {
+            DeadLetterProducer.send(configs, record.key(), record.value(), headers);
+            return DeserializationHandlerResponse.CONTINUE;
+        } catch (Exception e) {
+            log.error("Failed to send record to dead-letter topic, stopping: topic={}, offset={}",
+                    record.topic(), record.offset(), e);
+            return DeserializationHandlerResponse.FAIL;
+        }
+    }
+}
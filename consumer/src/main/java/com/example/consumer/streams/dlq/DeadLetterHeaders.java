@@ -0,0 +1,59 @@
+package com.example.consumer.streams.dlq;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Headers attached to every record sent to the dead-letter topic.
+ */
+public final class DeadLetterHeaders {
+
+    public static final String STAGE = "dlq.stage";
+    public static final String SOURCE_TOPIC = "dlq.source.topic";
+    public static final String SOURCE_PARTITION = "dlq.source.partition";
+    public static final String SOURCE_OFFSET = "dlq.source.offset";
+    public static final String ERROR_CLASS = "dlq.error.class";
+    public static final String ERROR_MESSAGE = "dlq.error.message";
+    public static final String ATTEMPTS = "dlq.attempts";
+    public static final String OPERATION = "dlq.operation";
+    public static final String FAILED_AT = "dlq.failed.at";
+
+    // Where the record failed; decides how the replay tool re-drives it
+    public static final String STAGE_EXTRACT = "extract";
+    public static final String STAGE_DESERIALIZE = "deserialize";
+    public static final String STAGE_PRODUCE = "produce";
+    public static final String STAGE_SINK = "sink";
+
+    public static final String OPERATION_SAVE = "save";
+    public static final String OPERATION_DELETE = "delete";
+
+    private DeadLetterHeaders() {
+    }
+
+    public static void addFailure(Headers headers, String stage, String sourceTopic, Throwable error) {
+        put(headers, STAGE, stage);
+        put(headers, SOURCE_TOPIC, sourceTopic);
+        put(headers, ERROR_CLASS, error.getClass().getName());
+        put(headers, ERROR_MESSAGE, String.valueOf(error.getMessage()));
+        put(headers, FAILED_AT, String.valueOf(System.currentTimeMillis()));
+    }
+
+    public static void addSource(Headers headers, int partition, long offset) {
+        put(headers, SOURCE_PARTITION, String.valueOf(partition));
+        put(headers, SOURCE_OFFSET, String.valueOf(offset));
+    }
+
+    public static void put(Headers headers, String key, String value) {
+        headers.remove(key);
+        if (value != null) {
+            headers.add(key, value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    public static String get(Headers headers, String key) {
+        Header header = headers.lastHeader(key);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+}
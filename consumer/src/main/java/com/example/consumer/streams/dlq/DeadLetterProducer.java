@@ -0,0 +1,61 @@
+package com.example.consumer.streams.dlq;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.streams.StreamsConfig;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Producer shared by the exception handlers. Kafka Streams instantiates the handlers itself (outside
+ * Spring), so they get the dead-letter topic and bootstrap servers from the streams config.
+ * <p>
+ * Records are sent outside the streams transaction: a dead-lettered record may be duplicated after
+ * a crash, but is never lost together with the record that failed.
+ */
+@Slf4j
+public final class DeadLetterProducer {
+
+    public static final String TOPIC_CONFIG = "dead.letter.topic";
+
+    private static Producer<byte[], byte[]> producer;
+
+    private DeadLetterProducer() {
+    }
+
+    static String topic(Map<String, ?> configs) {
+        Object topic = configs.get(TOPIC_CONFIG);
+        if (topic == null) {
+            throw new IllegalStateException("Missing streams config " + TOPIC_CONFIG);
+        }
+        return topic.toString();
+    }
+
+    static synchronized Producer<byte[], byte[]> get(Map<String, ?> configs) {
+        if (producer == null) {
+            Map<String, Object> props = new HashMap<>();
+            props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, configs.get(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG));
+            props.put(ProducerConfig.CLIENT_ID_CONFIG, configs.get(StreamsConfig.APPLICATION_ID_CONFIG) + "-dlq");
+            props.put(ProducerConfig.ACKS_CONFIG, "all");
+            props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+            producer = new KafkaProducer<>(props, new ByteArraySerializer(), new ByteArraySerializer());
+            Runtime.getRuntime().addShutdownHook(new Thread(producer::close, "dead-letter-producer-close"));
+        }
+        return producer;
+    }
+
+    /**
+     * Sends synchronously so the handler only returns CONTINUE once the record is safely stored.
+     */
+    static void send(Map<String, ?> configs, byte[] key, byte[] value, Headers headers) throws Exception {
+        String topic = topic(configs);
+        get(configs).send(new ProducerRecord<>(topic, null, key, value, headers)).get();
+        log.warn("Sent record to dead-letter topic: topic={}", topic);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.consumer.streams.dlq;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.streams.errors.ProductionExceptionHandler;
+
+import java.util.Map;
+
+/**
+ * Sends records that the streams producer cannot write (e.g. too large) to the dead-letter topic
+ * and continues. Failures writing the dead-letter topic itself still stop the application.
+ */
+@Slf4j
+public class DeadLetterProductionExceptionHandler implements ProductionExceptionHandler {
+
+    private Map<String, ?> configs;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        this.configs = configs;
+    }
+
+    @Override
+    public ProductionExceptionHandlerResponse handle(ProducerRecord<byte[], byte[]> record, Exception exception) {
+        if (DeadLetterProducer.topic(configs).equals(record.topic())) {
+            log.error("Failed to write to dead-letter topic, stopping", exception);
+            return ProductionExceptionHandlerResponse.FAIL;
+        }
+
+        log.warn("Failed to produce record: topic={}", record.topic(), exception);
+        RecordHeaders headers = new RecordHeaders(record.headers().toArray());
+        DeadLetterHeaders.addFailure(headers, DeadLetterHeaders.STAGE_PRODUCE, record.topic(), exception);
+        try {
+            DeadLetterProducer.send(configs, record.key(), record.value(), headers);
+            return ProductionExceptionHandlerResponse.CONTINUE;
+        } catch (Exception e) {
+            log.error("Failed to send record to dead-letter topic, stopping: topic={}", record.topic(), e);
+            return ProductionExceptionHandlerResponse.FAIL;
+        }
+    }
+}
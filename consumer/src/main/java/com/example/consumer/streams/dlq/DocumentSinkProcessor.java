@@ -0,0 +1,260 @@
+package com.example.consumer.streams.dlq;
+
+import com.example.consumer.bootstrap.SnapshotHandoff;
+import com.example.consumer.config.TopologyProperties;
+import com.example.consumer.dto.OrderDocument;
+import com.example.consumer.service.DocumentStoreService;
+import com.example.consumer.streams.model.DocumentFingerprint;
+import com.example.consumer.streams.model.SinkRetry;
+import com.example.consumer.streams.serde.OrderDocumentWriter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes documents to PostgreSQL (a null document deletes the row).
+ * <p>
+ * A failed write is parked in the retry store and re-attempted by a wall-clock punctuator with
+ * exponential backoff, so the stream thread never sleeps and other orders keep flowing. A newer
+ * version of the same order supersedes the parked one. After the last attempt the document is
+ * forwarded as a dead-letter record (JSON value, keyed by order id).
+ * <p>
+ * A {@link DocumentFingerprint} of the last written version is kept per order. A document whose hash
+ * is unchanged is not written again (e.g. after an {@code updated_at} touch or a product field that is
+ * not part of the document). Documents triggered by connector snapshot reads that the snapshot
+ * bootstrap already loaded are not written either. Both are counted in {@value #SKIPPED_WRITES_METRIC}.
+ * <p>
+ * When only a small part of a document changed (e.g. the status of an order with many items), just the
+ * changed top-level fields are merged into the stored JSONB, which avoids serializing and sending the
+ * whole document. PostgreSQL still writes a new row version; retries always rewrite the document.
+ */
+@Slf4j
+public class DocumentSinkProcessor implements Processor<Long, OrderDocument, String, String> {
+
+    public static final String RETRY_STORE = "sink-retry-store";
+    public static final String FINGERPRINT_STORE = "document-fingerprint-store";
+    public static final String SKIPPED_WRITES_METRIC = "document.sink.skipped.writes";
+    public static final String PARTIAL_WRITES_METRIC = "document.sink.partial.writes";
+
+    private final DocumentStoreService documentStoreService;
+    private final ObjectMapper objectMapper;
+    private final TopologyProperties.DeadLetter settings;
+    private final TopologyProperties.PartialUpdate partialUpdate;
+    private final SnapshotHandoff snapshotHandoff;
+    private final Counter skippedUnchanged;
+    private final Counter skippedBootstrap;
+    private final Counter partialWrites;
+
+    private ProcessorContext<String, String> context;
+    private KeyValueStore<Long, SinkRetry> retryStore;
+    private KeyValueStore<Long, DocumentFingerprint> fingerprintStore;
+
+    public DocumentSinkProcessor(
+            DocumentStoreService documentStoreService,
+            ObjectMapper objectMapper,
+            TopologyProperties.DeadLetter settings,
+            TopologyProperties.PartialUpdate partialUpdate,
+            SnapshotHandoff snapshotHandoff,
+            MeterRegistry meterRegistry) {
+        this.documentStoreService = documentStoreService;
+        this.objectMapper = objectMapper;
+        this.settings = settings;
+        this.partialUpdate = partialUpdate;
+        this.snapshotHandoff = snapshotHandoff;
+        this.skippedUnchanged = skippedWritesCounter(meterRegistry, "unchanged");
+        this.skippedBootstrap = skippedWritesCounter(meterRegistry, "bootstrap");
+        this.partialWrites = Counter.builder(PARTIAL_WRITES_METRIC)
+                .description("Documents written as a partial JSONB update")
+                .register(meterRegistry);
+    }
+
+    private static Counter skippedWritesCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder(SKIPPED_WRITES_METRIC)
+                .description("Document writes skipped by the PostgreSQL sink")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void init(ProcessorContext<String, String> context) {
+        this.context = context;
+        this.retryStore = context.getStateStore(RETRY_STORE);
+        this.fingerprintStore = context.getStateStore(FINGERPRINT_STORE);
+        context.schedule(settings.getRetryInterval(), PunctuationType.WALL_CLOCK_TIME, this::retryDue);
+    }
+
+    @Override
+    public void process(Record<Long, OrderDocument> record) {
+        Long orderId = record.key();
+        SinkRetry parked = retryStore.get(orderId);
+        DocumentFingerprint fingerprint = fingerprint(record.value());
+        DocumentFingerprint previous = null;
+        if (parked == null && fingerprint != null) {
+            previous = fingerprintStore.get(orderId);
+            if (previous != null && previous.isDeleted()) {
+                previous = null;
+            }
+            if (previous != null && previous.getHash() == fingerprint.getHash()) {
+                log.debug("Skipping unchanged document: orderId={}", orderId);
+                skippedUnchanged.increment();
+                return;
+            }
+            if (snapshotHandoff.isCovered(record.headers())) {
+                log.debug("Skipping document already loaded by the snapshot bootstrap: orderId={}", orderId);
+                fingerprintStore.put(orderId, fingerprint);
+                skippedBootstrap.increment();
+                return;
+            }
+        }
+        try {
+            // Only a fingerprint lookup that found nothing tells that the sink never wrote the order
+            boolean stored = parked != null || fingerprint == null || previous != null;
+            write(orderId, record.value(), stored, previous, fingerprint);
+            rememberWritten(orderId, record.value(), fingerprint);
+            if (parked != null) {
+                retryStore.delete(orderId);
+            }
+        } catch (Exception e) {
+            int attempts = parked != null ? parked.getAttempts() + 1 : 1;
+            onFailure(orderId, record.value(), attempts, e, context.currentSystemTimeMs());
+        }
+    }
+
+    private void retryDue(long now) {
+        List<KeyValue<Long, SinkRetry>> due = new ArrayList<>();
+        try (KeyValueIterator<Long, SinkRetry> iterator = retryStore.all()) {
+            while (iterator.hasNext()) {
+                KeyValue<Long, SinkRetry> entry = iterator.next();
+                if (entry.value.getNextAttemptMs() <= now) {
+                    due.add(entry);
+                }
+            }
+        }
+
+        for (KeyValue<Long, SinkRetry> entry : due) {
+            SinkRetry retry = entry.value;
+            try {
+                write(entry.key, retry.getDocument(), true, null, null);
+                rememberWritten(entry.key, retry.getDocument(), fingerprint(retry.getDocument()));
+                retryStore.delete(entry.key);
+                log.info("Sink retry succeeded: orderId={}, attempts={}", entry.key, retry.getAttempts() + 1);
+            } catch (Exception e) {
+                onFailure(entry.key, retry.getDocument(), retry.getAttempts() + 1, e, now);
+            }
+        }
+    }
+
+    /**
+     * Deletes, patches or saves the document. A patch needs the fingerprint of the version stored in
+     * PostgreSQL; without one the document is saved in full. {@code stored} is false only for orders the
+     * sink has not written, which lets the save skip looking for a row under another order date.
+     */
+    private void write(Long orderId, OrderDocument document, boolean stored, DocumentFingerprint previous,
+                       DocumentFingerprint current) {
+        if (document == null) {
+            log.debug("Deleting document from PostgreSQL: orderId={}", orderId);
+            documentStoreService.delete(orderId);
+            return;
+        }
+
+        List<String> changedFields = partialUpdate.isEnabled() && previous != null && current != null
+                ? current.changedFields(previous)
+                : null;
+        if (changedFields != null && !changedFields.isEmpty()
+                && current.sizeOf(changedFields) <= current.getSize() * partialUpdate.getMaxChangedRatio()) {
+            log.debug("Patching document in PostgreSQL: orderId={}, fields={}", orderId, changedFields);
+            documentStoreService.patch(document, changedFields);
+            partialWrites.increment();
+        } else {
+            log.debug("Saving document to PostgreSQL: orderId={}", orderId);
+            documentStoreService.save(document, stored);
+        }
+    }
+
+    /**
+     * Hashed from the document's JSON as written by the per-thread {@link OrderDocumentWriter}, in one
+     * pass that also yields the per-field hashes.
+     */
+    private DocumentFingerprint fingerprint(OrderDocument document) {
+        if (document == null) {
+            return null;
+        }
+        try {
+            return OrderDocumentWriter.forCurrentThread().write(document).fingerprint();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to fingerprint document, it will be written: orderId={}", document.getOrderId(), e);
+            return null;
+        }
+    }
+
+    /**
+     * A deleted order keeps a {@link DocumentFingerprint#deleted() marker} instead of its fingerprint, so
+     * a late outbox document of it is dropped by the
+     * {@link com.example.consumer.streams.outbox.OutboxDocumentFilter}.
+     */
+    private void rememberWritten(Long orderId, OrderDocument document, DocumentFingerprint fingerprint) {
+        if (document == null) {
+            fingerprintStore.put(orderId, DocumentFingerprint.deleted());
+        } else if (fingerprint == null) {
+            fingerprintStore.delete(orderId);
+        } else {
+            fingerprintStore.put(orderId, fingerprint);
+        }
+    }
+
+    private void onFailure(Long orderId, OrderDocument document, int attempts, Exception error, long now) {
+        if (attempts >= settings.getMaxAttempts()) {
+            log.error("Sink retries exhausted, sending to dead-letter topic: orderId={}, attempts={}",
+                    orderId, attempts, error);
+            retryStore.delete(orderId);
+            // The row may be changed by a later replay, so the next version is always written
+            fingerprintStore.delete(orderId);
+            deadLetter(orderId, document, attempts, error, now);
+            return;
+        }
+
+        long backoffMs = backoffMs(attempts);
+        log.warn("Failed to write document, retrying in {}ms: orderId={}, attempts={}, error={}",
+                backoffMs, orderId, attempts, error.toString());
+        retryStore.put(orderId, new SinkRetry(document, attempts, now + backoffMs, error.toString()));
+    }
+
+    long backoffMs(int attempts) {
+        long initial = settings.getInitialBackoff().toMillis();
+        long max = settings.getMaxBackoff().toMillis();
+        int shift = Math.min(attempts - 1, 30);
+        return Math.min(max, initial << shift);
+    }
+
+    private void deadLetter(Long orderId, OrderDocument document, int attempts, Exception error, long now) {
+        RecordHeaders headers = new RecordHeaders();
+        DeadLetterHeaders.addFailure(headers, DeadLetterHeaders.STAGE_SINK, null, error);
+        DeadLetterHeaders.put(headers, DeadLetterHeaders.ATTEMPTS, String.valueOf(attempts));
+        DeadLetterHeaders.put(headers, DeadLetterHeaders.OPERATION,
+                document == null ? DeadLetterHeaders.OPERATION_DELETE : DeadLetterHeaders.OPERATION_SAVE);
+
+        String value = null;
+        if (document != null) {
+            try {
+                value = objectMapper.writeValueAsString(document);
+            } catch (JsonProcessingException e) {
+                log.error("Failed to serialize dead-letter document: orderId={}", orderId, e);
+            }
+        }
+        context.forward(new Record<>(String.valueOf(orderId), value, now, headers));
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.consumer.streams.dlq;
+
+import com.example.consumer.streams.trace.RateLimitedLogger;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+
+import java.time.Duration;
+
+/**
+ * Turns a failed extraction back into its raw record, with dead-letter headers describing the failure.
+ */
+@Slf4j
+public class ExtractionFailureProcessor<T> implements FixedKeyProcessor<String, ExtractionResult<T>, byte[]> {
+
+    // A bad connector config makes every record malformed; the dead-letter topic has them all
+    private static final RateLimitedLogger MALFORMED_LOG = new RateLimitedLogger(log, 10, Duration.ofMinutes(1));
+
+    private final String sourceTopic;
+    private FixedKeyProcessorContext<String, byte[]> context;
+
+    public ExtractionFailureProcessor(String sourceTopic) {
+        this.sourceTopic = sourceTopic;
+    }
+
+    @Override
+    public void init(FixedKeyProcessorContext<String, byte[]> context) {
+        this.context = context;
+    }
+
+    @Override
+    public void process(FixedKeyRecord<String, ExtractionResult<T>> record) {
+        ExtractionResult<T> result = record.value();
+        MALFORMED_LOG.warn("Sending malformed record to dead-letter topic: topic={}, key={}", sourceTopic,
+                record.key(), result.getError());
+
+        DeadLetterHeaders.addFailure(record.headers(), DeadLetterHeaders.STAGE_EXTRACT, sourceTopic,
+                result.getError());
+        context.recordMetadata().ifPresent(metadata ->
+                DeadLetterHeaders.addSource(record.headers(), metadata.partition(), metadata.offset()));
+        context.forward(record.withValue(result.getRaw()));
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.consumer.streams.dlq;
+
+import com.example.consumer.streams.util.DebeziumExtractionException;
+import lombok.Value;
+import org.apache.kafka.streams.kstream.ValueMapper;
+
+/**
+ * Outcome of extracting one raw CDC record: the extracted value, or the error and the raw record
+ * so it can be routed to the dead-letter topic. The raw value is kept as bytes, so records of any
+ * source format reach the dead-letter topic (and a replay) unchanged.
+ */
+@Value
+public class ExtractionResult<T> {
+    byte[] raw;
+    T value;
+    DebeziumExtractionException error;
+
+    public static <T> ExtractionResult<T> of(byte[] raw, ValueMapper<byte[], T> extractor) {
+        try {
+            return new ExtractionResult<>(raw, extractor.apply(raw), null);
+        } catch (DebeziumExtractionException e) {
+            return new ExtractionResult<>(raw, null, e);
+        }
+    }
+
+    public boolean isFailed() {
+        return error != null;
+    }
+}
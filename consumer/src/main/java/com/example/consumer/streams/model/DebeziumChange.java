@@ -0,0 +1,26 @@
+package com.example.consumer.streams.model;
+
+import lombok.Value;
+
+/**
+ * A single row change read from a Debezium envelope: the operation plus the before and after images,
+ * and the WAL position ({@code source.lsn}) the change was read at.
+ */
+@Value
+public class DebeziumChange<T> {
+    String op;
+    T before;
+    T after;
+    Long lsn;
+
+    public boolean isDelete() {
+        return "d".equals(op);
+    }
+
+    /**
+     * The row the change is about: the after image, or the before image for deletes.
+     */
+    public T row() {
+        return after != null ? after : before;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.consumer.streams.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+/**
+ * The parts of a Debezium change event the consumer reads, bound straight from the JSON: row images
+ * of type {@code T}, the operation, and the WAL position and transaction of the change.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DebeziumEnvelope<T> {
+    private String op;
+    private T before;
+    private T after;
+    private Source source;
+    private Transaction transaction;
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Source {
+        private Long lsn;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Transaction {
+        private String id;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.consumer.streams.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What the sink remembers about the last document version it wrote: a hash of the whole JSON plus a
+ * hash and size per top-level field, so the next version can be diffed without keeping the document.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DocumentFingerprint {
+    private long hash;
+    private int size;
+    private Map<String, Long> fieldHashes = new HashMap<>();
+    private Map<String, Integer> fieldSizes = new HashMap<>();
+
+    /**
+     * Set on the marker left behind when the order's document was deleted; it has no hashes.
+     */
+    private boolean deleted;
+
+    /**
+     * Kept in place of the fingerprint of a deleted order, so a late outbox document cannot bring the
+     * document back. The sink reads it as no fingerprint, so a document the joins build again is written.
+     */
+    public static DocumentFingerprint deleted() {
+        DocumentFingerprint marker = new DocumentFingerprint();
+        marker.setDeleted(true);
+        return marker;
+    }
+
+    public void putField(String name, long fieldHash, int fieldSize) {
+        fieldHashes.put(name, fieldHash);
+        fieldSizes.put(name, fieldSize);
+    }
+
+    /**
+     * Top-level fields whose content differs from {@code previous}, or null when a field of
+     * {@code previous} no longer exists (a top-level merge cannot remove it).
+     */
+    public List<String> changedFields(DocumentFingerprint previous) {
+        if (!fieldHashes.keySet().containsAll(previous.getFieldHashes().keySet())) {
+            return null;
+        }
+        List<String> changed = new ArrayList<>();
+        fieldHashes.forEach((name, fieldHash) -> {
+            if (!fieldHash.equals(previous.getFieldHashes().get(name))) {
+                changed.add(name);
+            }
+        });
+        return changed;
+    }
+
+    public int sizeOf(Collection<String> fields) {
+        int total = 0;
+        for (String field : fields) {
+            total += fieldSizes.getOrDefault(field, 0);
+        }
+        return total;
+    }
+}
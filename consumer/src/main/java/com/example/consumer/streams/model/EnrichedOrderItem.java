@@ -19,4 +19,11 @@ public class EnrichedOrderItem {
     private BigDecimal productPrice;
     private Integer quantity;
     private BigDecimal unitPrice;
+    private boolean deleted;
+    private String transactionId;
+
+    public EnrichedOrderItem(Long orderItemId, Long orderId, Long productId, String productName,
+                             BigDecimal productPrice, Integer quantity, BigDecimal unitPrice) {
+        this(orderItemId, orderId, productId, productName, productPrice, quantity, unitPrice, false, null);
+    }
 }
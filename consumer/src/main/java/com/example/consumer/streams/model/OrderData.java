@@ -1,9 +1,10 @@
 package com.example.consumer.streams.model;
 
+import com.example.consumer.streams.serde.DebeziumTimestampDeserializer;
+import com.example.consumer.streams.serde.MoneyDeserializer;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
-import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -16,17 +17,26 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonIgnoreProperties(ignoreUnknown = true)
-public class OrderData {
+public class OrderData implements TransactionAware {
     private Long id;
     private Long userId;
     private String status;
+
+    @JsonDeserialize(using = MoneyDeserializer.class)
     private BigDecimal totalPrice;
 
     @JsonSerialize(using = LocalDateTimeSerializer.class)
-    @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+    @JsonDeserialize(using = DebeziumTimestampDeserializer.class)
     private LocalDateTime orderedAt;
 
     @JsonSerialize(using = LocalDateTimeSerializer.class)
-    @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+    @JsonDeserialize(using = DebeziumTimestampDeserializer.class)
     private LocalDateTime updatedAt;
+
+    private String transactionId;
+
+    public OrderData(Long id, Long userId, String status, BigDecimal totalPrice,
+                     LocalDateTime orderedAt, LocalDateTime updatedAt) {
+        this(id, userId, status, totalPrice, orderedAt, updatedAt, null);
+    }
 }
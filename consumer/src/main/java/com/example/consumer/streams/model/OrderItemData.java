@@ -1,9 +1,10 @@
 package com.example.consumer.streams.model;
 
+import com.example.consumer.streams.serde.DebeziumTimestampDeserializer;
+import com.example.consumer.streams.serde.MoneyDeserializer;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
-import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -16,14 +17,21 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonIgnoreProperties(ignoreUnknown = true)
-public class OrderItemData {
+public class OrderItemData implements TransactionAware {
     private Long id;
     private Long orderId;
     private Long productId;
     private Integer quantity;
+
+    @JsonDeserialize(using = MoneyDeserializer.class)
     private BigDecimal unitPrice;
 
     @JsonSerialize(using = LocalDateTimeSerializer.class)
-    @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+    @JsonDeserialize(using = DebeziumTimestampDeserializer.class)
     private LocalDateTime createdAt;
+
+    // Set on the before image of a delete so stream-mode aggregates can remove the item
+    private boolean deleted;
+
+    private String transactionId;
 }
@@ -1,27 +1,102 @@
 package com.example.consumer.streams.model;
 
+import com.example.consumer.streams.util.LongHashSet;
+import com.example.consumer.streams.util.LongIntHashMap;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
+/**
+ * Product ids are a {@link LongHashSet} and the quantity a primitive, so a large order's aggregate
+ * holds one {@code long[]} instead of a boxed {@code Long} and a map node per product.
+ */
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class OrderItemsAggregate {
     private List<EnrichedOrderItem> items = new ArrayList<>();
-    private Set<Long> uniqueProductIds = new HashSet<>();
-    private Integer totalQuantity = 0;
+    private LongHashSet uniqueProductIds = new LongHashSet();
+    private int totalQuantity;
 
+    // orderItemId -> position in items, built on first lookup after deserialization; not serialized
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private transient LongIntHashMap itemIndex;
+
+    public void setItems(List<EnrichedOrderItem> items) {
+        this.items = items;
+        this.itemIndex = null;
+    }
+
+    /**
+     * Adds an item, or replaces the item with the same orderItemId in place (keeping its position),
+     * so re-enriched items coming from a product update do not duplicate order lines.
+     */
     public void addItem(EnrichedOrderItem item) {
-        this.items.add(item);
-        this.uniqueProductIds.add(item.getProductId());
-        this.totalQuantity += item.getQuantity();
+        int index = indexOf(item.getOrderItemId());
+        if (index < 0) {
+            this.items.add(item);
+            if (item.getOrderItemId() != null && itemIndex != null) {
+                itemIndex.put(item.getOrderItemId(), items.size() - 1);
+            }
+            if (item.getProductId() != null) {
+                this.uniqueProductIds.add(item.getProductId().longValue());
+            }
+            this.totalQuantity += item.getQuantity();
+            return;
+        }
+        this.items.set(index, item);
+        recalculate();
+    }
+
+    /**
+     * Removes the item with the same orderItemId. Used as the subtractor of the table aggregation.
+     */
+    public void removeItem(EnrichedOrderItem item) {
+        int index = indexOf(item.getOrderItemId());
+        if (index >= 0) {
+            this.items.remove(index);
+            // Later positions shifted; rebuilt on the next lookup
+            this.itemIndex = null;
+            recalculate();
+        }
+    }
+
+    private int indexOf(Long orderItemId) {
+        if (orderItemId == null) {
+            return -1;
+        }
+        if (itemIndex == null) {
+            itemIndex = new LongIntHashMap(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                Long id = items.get(i).getOrderItemId();
+                if (id != null && itemIndex.get(id, -1) < 0) {
+                    itemIndex.put(id, i);
+                }
+            }
+        }
+        return itemIndex.get(orderItemId, -1);
+    }
+
+    private void recalculate() {
+        LongHashSet productIds = new LongHashSet(uniqueProductIds.size());
+        int quantity = 0;
+        for (int i = 0; i < items.size(); i++) {
+            EnrichedOrderItem existing = items.get(i);
+            if (existing.getProductId() != null) {
+                productIds.add(existing.getProductId().longValue());
+            }
+            quantity += existing.getQuantity();
+        }
+        this.uniqueProductIds = productIds;
+        this.totalQuantity = quantity;
     }
 }
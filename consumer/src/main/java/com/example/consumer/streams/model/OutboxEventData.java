@@ -0,0 +1,29 @@
+package com.example.consumer.streams.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Row of the producer's {@code outbox} table. The JSONB payload arrives as a JSON string.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class OutboxEventData {
+
+    public static final String ORDER_AGGREGATE = "order";
+    public static final String ORDER_CREATED = "OrderCreated";
+
+    private Long id;
+    private String aggregateType;
+    private Long aggregateId;
+    private String eventType;
+    private String payload;
+
+    public boolean isOrderCreated() {
+        return ORDER_AGGREGATE.equals(aggregateType) && ORDER_CREATED.equals(eventType);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.consumer.streams.model;
+
+import com.example.consumer.dto.OrderDocument;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A document held back until its source transaction is complete.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PendingDocument {
+    private OrderDocument document;
+
+    // Wall-clock time the order was first held; later versions do not reset it
+    private long heldSinceMs;
+}
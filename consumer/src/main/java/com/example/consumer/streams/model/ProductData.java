@@ -1,9 +1,10 @@
 package com.example.consumer.streams.model;
 
+import com.example.consumer.streams.serde.DebeziumTimestampDeserializer;
+import com.example.consumer.streams.serde.MoneyDeserializer;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
-import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -19,14 +20,17 @@ import java.time.LocalDateTime;
 public class ProductData {
     private Long id;
     private String name;
+
+    @JsonDeserialize(using = MoneyDeserializer.class)
     private BigDecimal price;
+
     private String description;
 
     @JsonSerialize(using = LocalDateTimeSerializer.class)
-    @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+    @JsonDeserialize(using = DebeziumTimestampDeserializer.class)
     private LocalDateTime createdAt;
 
     @JsonSerialize(using = LocalDateTimeSerializer.class)
-    @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+    @JsonDeserialize(using = DebeziumTimestampDeserializer.class)
     private LocalDateTime updatedAt;
 }
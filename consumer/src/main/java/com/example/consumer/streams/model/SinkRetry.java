@@ -0,0 +1,21 @@
+package com.example.consumer.streams.model;
+
+import com.example.consumer.dto.OrderDocument;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A document write that failed and is waiting for its next attempt. A null document is a delete.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SinkRetry {
+    private OrderDocument document;
+    private int attempts;
+    private long nextAttemptMs;
+    private String lastError;
+}
@@ -0,0 +1,11 @@
+package com.example.consumer.streams.model;
+
+/**
+ * Rows that remember the Debezium transaction that last changed them.
+ */
+public interface TransactionAware {
+
+    String getTransactionId();
+
+    void setTransactionId(String transactionId);
+}
@@ -0,0 +1,40 @@
+package com.example.consumer.streams.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * END event of the Debezium transaction metadata topic: how many events a committed transaction
+ * produced per table.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TransactionSummary {
+    private String status;
+    private String id;
+    private Long eventCount;
+    private List<DataCollectionCount> dataCollections = new ArrayList<>();
+
+    public long countFor(String dataCollection) {
+        return dataCollections.stream()
+                .filter(collection -> dataCollection.equals(collection.getDataCollection()))
+                .mapToLong(DataCollectionCount::getEventCount)
+                .sum();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class DataCollectionCount {
+        private String dataCollection;
+        private long eventCount;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.consumer.streams.model;
+
+import com.example.consumer.streams.util.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-user summary of all orders, aggregated from the order documents re-keyed by userId.
+ * The totals are recalculated from {@link #orders} on every change, so replacing or removing an
+ * order never needs its previous contribution. The spend is summed in cents ({@link Money}).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UserOrderHistory {
+    private Long userId;
+    private int orderCount;
+    private BigDecimal lifetimeSpend = BigDecimal.ZERO;
+    private LocalDateTime lastOrderedAt;
+    private Map<String, Integer> ordersByStatus = new TreeMap<>();
+    private Map<Long, UserOrderRef> orders = new TreeMap<>();
+
+    /**
+     * Adds the order, or replaces it if it is already part of the history. Used as the adder of the
+     * table aggregation.
+     */
+    public UserOrderHistory put(Long userId, UserOrderRef order) {
+        this.userId = userId;
+        orders.put(order.getOrderId(), order);
+        recalculate();
+        return this;
+    }
+
+    /**
+     * Removes the order. Used as the subtractor of the table aggregation.
+     */
+    public UserOrderHistory remove(UserOrderRef order) {
+        if (orders.remove(order.getOrderId()) != null) {
+            recalculate();
+        }
+        return this;
+    }
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return orders.isEmpty();
+    }
+
+    private void recalculate() {
+        long spendCents = 0;
+        LocalDateTime last = null;
+        Map<String, Integer> byStatus = new TreeMap<>();
+        for (UserOrderRef order : orders.values()) {
+            if (order.getTotalPrice() != null) {
+                spendCents = Math.addExact(spendCents, Money.toCents(order.getTotalPrice()));
+            }
+            if (order.getOrderedAt() != null && (last == null || order.getOrderedAt().isAfter(last))) {
+                last = order.getOrderedAt();
+            }
+            if (order.getStatus() != null) {
+                byStatus.merge(order.getStatus(), 1, Integer::sum);
+            }
+        }
+        this.orderCount = orders.size();
+        this.lifetimeSpend = Money.toBigDecimal(spendCents);
+        this.lastOrderedAt = last;
+        this.ordersByStatus = byStatus;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.consumer.streams.model;
+
+import com.example.consumer.dto.OrderDocument;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The few fields of an order document kept in its user's history; this is what the re-key by
+ * userId ships through the repartition topic instead of the full document.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UserOrderRef {
+    private Long orderId;
+    private String status;
+    private BigDecimal totalPrice;
+    private LocalDateTime orderedAt;
+
+    public static UserOrderRef of(OrderDocument document) {
+        return new UserOrderRef(document.getOrderId(), document.getStatus(), document.getTotalPrice(),
+                document.getOrderedAt());
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.consumer.streams.outbox;
+
+import com.example.consumer.dto.OrderDocument;
+import com.example.consumer.streams.dlq.DocumentSinkProcessor;
+import com.example.consumer.streams.model.DocumentFingerprint;
+import com.example.consumer.streams.model.SinkRetry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessor;
+import org.apache.kafka.streams.processor.api.FixedKeyProcessorContext;
+import org.apache.kafka.streams.processor.api.FixedKeyRecord;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.TimestampedKeyValueStore;
+
+/**
+ * Lets an outbox document through to the sink only while the order has no other version yet.
+ * <p>
+ * The outbox document is the state at creation; once the joins have built a document of the order
+ * (held by the transaction buffer, written, or parked for retry), that one is as new or newer and must
+ * not be overwritten. A deleted order keeps a delete marker in the sink's fingerprint store, so its
+ * outbox document cannot bring it back either. Usually the outbox document arrives first, and the
+ * joined document that follows it is identical and skipped by its fingerprint.
+ */
+@Slf4j
+public class OutboxDocumentFilter implements FixedKeyProcessor<Long, OrderDocument, OrderDocument> {
+
+    public static final String SUPERSEDED_METRIC = "outbox.documents.superseded";
+
+    private final String documentsStoreName;
+    private final Counter superseded;
+
+    private FixedKeyProcessorContext<Long, OrderDocument> context;
+    private TimestampedKeyValueStore<Long, OrderDocument> documentsStore;
+    private KeyValueStore<Long, DocumentFingerprint> fingerprintStore;
+    private KeyValueStore<Long, SinkRetry> retryStore;
+
+    public OutboxDocumentFilter(String documentsStoreName, MeterRegistry meterRegistry) {
+        this.documentsStoreName = documentsStoreName;
+        this.superseded = Counter.builder(SUPERSEDED_METRIC)
+                .description("Outbox documents dropped because the joins built the order or it was deleted")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void init(FixedKeyProcessorContext<Long, OrderDocument> context) {
+        this.context = context;
+        this.documentsStore = context.getStateStore(documentsStoreName);
+        this.fingerprintStore = context.getStateStore(DocumentSinkProcessor.FINGERPRINT_STORE);
+        this.retryStore = context.getStateStore(DocumentSinkProcessor.RETRY_STORE);
+    }
+
+    @Override
+    public void process(FixedKeyRecord<Long, OrderDocument> record) {
+        Long orderId = record.key();
+        if (documentsStore.get(orderId) != null || fingerprintStore.get(orderId) != null
+                || retryStore.get(orderId) != null) {
+            log.debug("Dropping outbox document of an order built by the joins or deleted: orderId={}", orderId);
+            superseded.increment();
+            return;
+        }
+        context.forward(record);
+    }
+}
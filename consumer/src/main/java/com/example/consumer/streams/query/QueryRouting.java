@@ -0,0 +1,66 @@
+package com.example.consumer.streams.query;
+
+import org.apache.kafka.streams.KeyQueryMetadata;
+import org.apache.kafka.streams.state.HostInfo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Routes interactive queries between instances. Each instance advertises its HTTP address as
+ * {@code application.server}; a key hosted elsewhere is fetched from the owning instance with
+ * {@code local=true}, which answers from its own stores and never forwards again.
+ */
+@Component
+public class QueryRouting {
+
+    private static final Duration REMOTE_TIMEOUT = Duration.ofSeconds(2);
+
+    private final RestClient restClient;
+    // null when application.server is not configured: a single instance hosting every partition
+    private final HostInfo self;
+
+    public QueryRouting(
+            RestClient.Builder restClientBuilder,
+            @Value("${kafka.streams.application-server:}") String applicationServer) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(REMOTE_TIMEOUT);
+        requestFactory.setReadTimeout(REMOTE_TIMEOUT);
+        this.restClient = restClientBuilder.requestFactory(requestFactory).build();
+        this.self = StringUtils.hasText(applicationServer) ? HostInfo.buildFromEndpoint(applicationServer) : null;
+    }
+
+    /**
+     * Whether the key should be read from this instance: it is the active host, or the owner is
+     * unknown (single instance, or metadata not available yet).
+     */
+    public boolean isLocal(KeyQueryMetadata metadata) {
+        return self == null || KeyQueryMetadata.NOT_AVAILABLE.equals(metadata) || self.equals(metadata.activeHost());
+    }
+
+    /**
+     * GETs {@code path} (a URI template, {@code local=true} included) from {@code host}.
+     *
+     * @return empty on 404
+     * @throws RestClientException if the instance cannot be reached or fails
+     */
+    public <T> Optional<T> get(HostInfo host, String path, ParameterizedTypeReference<T> type,
+                               Object... uriVariables) {
+        try {
+            return Optional.ofNullable(restClient.get()
+                    .uri("http://" + host.host() + ":" + host.port() + path, uriVariables)
+                    .retrieve()
+                    .body(type));
+        } catch (HttpClientErrorException.NotFound e) {
+            return Optional.empty();
+        }
+    }
+}
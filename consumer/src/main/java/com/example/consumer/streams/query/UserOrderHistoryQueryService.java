@@ -0,0 +1,82 @@
+package com.example.consumer.streams.query;
+
+import com.example.consumer.service.UserOrderHistoryService;
+import com.example.consumer.streams.model.UserOrderHistory;
+import com.example.consumer.streams.topology.OrderDenormalizationTopology;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.KeyQueryMetadata;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyKeyValueStore;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+
+import java.util.Optional;
+
+/**
+ * Looks up a user's order history in the {@code user-order-history-store} with interactive queries.
+ * <p>
+ * The store is partitioned by userId across instances; a key hosted elsewhere is fetched from the
+ * instance that owns it (see {@link QueryRouting}). While the store cannot be queried (not started,
+ * rebalancing, owner unreachable) the copy in {@code user_order_history} is returned instead.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UserOrderHistoryQueryService {
+
+    private final StreamsBuilderFactoryBean streamsBuilderFactoryBean;
+    private final UserOrderHistoryService userOrderHistoryService;
+    private final QueryRouting queryRouting;
+
+    /**
+     * @param localOnly answer from this instance's store only; set on requests forwarded by another
+     *                  instance so they are never forwarded again
+     */
+    public Optional<UserOrderHistory> find(Long userId, boolean localOnly) {
+        KafkaStreams kafkaStreams = streamsBuilderFactoryBean.getKafkaStreams();
+        if (kafkaStreams == null || !kafkaStreams.state().isRunningOrRebalancing()) {
+            return fromTable(userId);
+        }
+
+        KeyQueryMetadata metadata = kafkaStreams.queryMetadataForKey(
+                OrderDenormalizationTopology.USER_ORDER_HISTORY_STORE, userId, Serdes.Long().serializer());
+        if (localOnly || queryRouting.isLocal(metadata)) {
+            return fromLocalStore(kafkaStreams, userId, metadata);
+        }
+        try {
+            return queryRouting.get(metadata.activeHost(), "/api/users/{userId}/orders?local=true",
+                    new ParameterizedTypeReference<UserOrderHistory>() { }, userId);
+        } catch (RestClientException e) {
+            log.warn("Order history query for user {} to {} failed: {}", userId, metadata.activeHost(),
+                    e.getMessage());
+            return fromTable(userId);
+        }
+    }
+
+    private Optional<UserOrderHistory> fromLocalStore(KafkaStreams kafkaStreams, Long userId,
+                                                      KeyQueryMetadata metadata) {
+        StoreQueryParameters<ReadOnlyKeyValueStore<Long, UserOrderHistory>> parameters =
+                StoreQueryParameters.fromNameAndType(OrderDenormalizationTopology.USER_ORDER_HISTORY_STORE,
+                        QueryableStoreTypes.<Long, UserOrderHistory>keyValueStore());
+        if (!KeyQueryMetadata.NOT_AVAILABLE.equals(metadata)) {
+            parameters = parameters.withPartition(metadata.partition());
+        }
+        try {
+            return Optional.ofNullable(kafkaStreams.store(parameters).get(userId));
+        } catch (InvalidStateStoreException e) {
+            log.debug("Order history store not queryable for user {}: {}", userId, e.getMessage());
+            return fromTable(userId);
+        }
+    }
+
+    private Optional<UserOrderHistory> fromTable(Long userId) {
+        return userOrderHistoryService.findByUserId(userId);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.consumer.streams.restore;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.streams.KafkaStreams;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.stereotype.Component;
+
+/**
+ * Readiness contributor ({@code stateRestore}) that stays out of service until Kafka Streams is
+ * running and no state store is still being restored from its changelog.
+ */
+@Component
+@RequiredArgsConstructor
+public class StateRestoreHealthIndicator implements HealthIndicator {
+
+    private final StreamsBuilderFactoryBean streamsBuilderFactoryBean;
+    private final StateRestoreTracker stateRestoreTracker;
+
+    @Override
+    public Health health() {
+        KafkaStreams kafkaStreams = streamsBuilderFactoryBean.getKafkaStreams();
+        if (kafkaStreams == null) {
+            return Health.outOfService().withDetail("state", "NOT_STARTED").build();
+        }
+
+        KafkaStreams.State state = kafkaStreams.state();
+        Health.Builder builder = state == KafkaStreams.State.RUNNING && !stateRestoreTracker.isRestoring()
+                ? Health.up()
+                : Health.outOfService();
+
+        return builder
+                .withDetail("state", state.name())
+                .withDetail("restoring", stateRestoreTracker.getProgressByStore())
+                .withDetail("restored", stateRestoreTracker.getRestoredByStore())
+                .build();
+    }
+}
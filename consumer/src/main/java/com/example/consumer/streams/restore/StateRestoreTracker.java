@@ -0,0 +1,118 @@
+package com.example.consumer.streams.restore;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.streams.processor.StateRestoreListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks changelog restoration of local state stores.
+ * <p>
+ * Kafka Streams calls this listener from its stream threads (and the global thread) whenever a
+ * store partition is rebuilt from its changelog. The tracker keeps per-partition progress so that
+ * readiness can be held back until every active restoration has finished.
+ */
+@Component
+@Slf4j
+public class StateRestoreTracker implements StateRestoreListener {
+
+    private final Map<TopicPartition, RestoreProgress> inProgress = new ConcurrentHashMap<>();
+    private final Map<String, Long> restoredByStore = new ConcurrentHashMap<>();
+
+    @Override
+    public void onRestoreStart(TopicPartition topicPartition, String storeName, long startingOffset,
+            long endingOffset) {
+        inProgress.put(topicPartition, new RestoreProgress(storeName, endingOffset - startingOffset));
+        log.info("State restoration started: store={}, partition={}, records={}",
+                storeName, topicPartition, endingOffset - startingOffset);
+    }
+
+    @Override
+    public void onBatchRestored(TopicPartition topicPartition, String storeName, long batchEndOffset,
+            long numRestored) {
+        RestoreProgress progress = inProgress.get(topicPartition);
+        if (progress != null) {
+            progress.add(numRestored);
+        }
+    }
+
+    @Override
+    public void onRestoreEnd(TopicPartition topicPartition, String storeName, long totalRestored) {
+        inProgress.remove(topicPartition);
+        restoredByStore.merge(storeName, totalRestored, Long::sum);
+        log.info("State restoration finished: store={}, partition={}, restored={}",
+                storeName, topicPartition, totalRestored);
+    }
+
+    @Override
+    public void onRestoreSuspended(TopicPartition topicPartition, String storeName, long totalRestored) {
+        // The task migrated away mid-restore; it no longer blocks this instance
+        inProgress.remove(topicPartition);
+        log.info("State restoration suspended: store={}, partition={}, restored={}",
+                storeName, topicPartition, totalRestored);
+    }
+
+    public boolean isRestoring() {
+        return !inProgress.isEmpty();
+    }
+
+    /**
+     * Progress of in-flight restorations summed per store.
+     */
+    public Map<String, StoreProgress> getProgressByStore() {
+        Map<String, StoreProgress> byStore = new TreeMap<>();
+        inProgress.values().forEach(progress -> byStore
+                .computeIfAbsent(progress.storeName, name -> new StoreProgress())
+                .add(progress.restored, progress.total));
+        return byStore;
+    }
+
+    /**
+     * Total records restored per store since startup, across finished restorations.
+     */
+    public Map<String, Long> getRestoredByStore() {
+        return new TreeMap<>(restoredByStore);
+    }
+
+    private static final class RestoreProgress {
+        private final String storeName;
+        private final long total;
+        private volatile long restored;
+
+        private RestoreProgress(String storeName, long total) {
+            this.storeName = storeName;
+            this.total = total;
+        }
+
+        // Only the thread owning the partition restores it, so no synchronisation is needed
+        private void add(long records) {
+            restored += records;
+        }
+    }
+
+    public static final class StoreProgress {
+        private long restored;
+        private long total;
+
+        private void add(long restored, long total) {
+            this.restored += restored;
+            this.total += total;
+        }
+
+        public long getRestored() {
+            return restored;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public double getPercent() {
+            return total == 0 ? 100.0 : Math.min(100.0, restored * 100.0 / total);
+        }
+    }
+}
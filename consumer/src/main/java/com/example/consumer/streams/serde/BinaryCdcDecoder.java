@@ -0,0 +1,202 @@
+package com.example.consumer.streams.serde;
+
+import com.example.consumer.streams.model.DebeziumChange;
+import com.example.consumer.streams.model.TransactionAware;
+import com.example.consumer.streams.util.DebeziumExtractionException;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes the compact binary CDC value format, the alternative to Debezium's schema-less JSON for
+ * topics configured with {@link CdcFormat#BINARY}. Like the JSON it carries column names rather than
+ * a schema id, but numbers are varints, decimals an unscaled long plus scale and timestamps plain
+ * epoch micros, so there is no text to tokenize:
+ * <pre>
+ * event  := MAGIC VERSION op:byte flags:byte [lsn:zigzag] [transactionId:string] [before:row] [after:row]
+ * row    := columnCount:varint (name:string type:byte value)*
+ * value  := NULL | FALSE | TRUE | LONG zigzag | DOUBLE 8 bytes big-endian
+ *         | DECIMAL unscaled:zigzag scale:varint | STRING string
+ * string := length:varint UTF-8 bytes
+ * </pre>
+ * Varints are unsigned LEB128, signed values zigzag-encoded. Rows are replayed as tokens into the same
+ * snake_case reader as the JSON path, so both formats bind through the model annotations.
+ */
+public final class BinaryCdcDecoder {
+
+    static final byte MAGIC = (byte) 0xCD;
+    static final byte VERSION = 1;
+
+    static final int HAS_LSN = 1;
+    static final int HAS_TRANSACTION = 1 << 1;
+    static final int HAS_BEFORE = 1 << 2;
+    static final int HAS_AFTER = 1 << 3;
+
+    static final byte NULL = 0;
+    static final byte FALSE = 1;
+    static final byte TRUE = 2;
+    static final byte LONG = 3;
+    static final byte DOUBLE = 4;
+    static final byte DECIMAL = 5;
+    static final byte STRING = 6;
+
+    private static final JsonCodecs codecs = JsonCodecs.debezium();
+
+    // Column names repeat in every event: one String per name, replaced only on a slot collision
+    private static final String[] NAMES = new String[512];
+
+    private BinaryCdcDecoder() {
+    }
+
+    /**
+     * The change of one record value; null for Kafka tombstones, like the JSON path.
+     */
+    public static <T> DebeziumChange<T> decode(byte[] value, Class<T> rowType) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            Input in = new Input(value);
+            if (in.readByte() != MAGIC || in.readByte() != VERSION) {
+                throw new IllegalArgumentException("Not a version " + VERSION + " binary CDC event");
+            }
+            String op = op(in.readByte());
+            int flags = in.readByte();
+            Long lsn = (flags & HAS_LSN) != 0 ? in.readZigZag() : null;
+            String transactionId = (flags & HAS_TRANSACTION) != 0 ? in.readString() : null;
+            T before = (flags & HAS_BEFORE) != 0 ? readRow(in, rowType, transactionId) : null;
+            T after = (flags & HAS_AFTER) != 0 ? readRow(in, rowType, transactionId) : null;
+            return new DebeziumChange<>(op, before, after, lsn);
+        } catch (Exception e) {
+            throw new DebeziumExtractionException("Failed to decode binary CDC change", e);
+        }
+    }
+
+    private static <T> T readRow(Input in, Class<T> rowType, String transactionId) throws IOException {
+        TokenBuffer tokens = new TokenBuffer(codecs.mapper(), false);
+        tokens.writeStartObject();
+        for (int columns = in.readVarInt(); columns > 0; columns--) {
+            tokens.writeFieldName(in.readName());
+            byte type = in.readByte();
+            switch (type) {
+                case NULL -> tokens.writeNull();
+                case FALSE -> tokens.writeBoolean(false);
+                case TRUE -> tokens.writeBoolean(true);
+                case LONG -> tokens.writeNumber(in.readZigZag());
+                case DOUBLE -> tokens.writeNumber(Double.longBitsToDouble(in.readFixedLong()));
+                case DECIMAL -> tokens.writeNumber(BigDecimal.valueOf(in.readZigZag(), in.readVarInt()));
+                case STRING -> tokens.writeString(in.readString());
+                default -> throw new IllegalArgumentException("Unknown column type " + type);
+            }
+        }
+        tokens.writeEndObject();
+        T row = codecs.reader(rowType).readValue(tokens.asParser());
+        if (row instanceof TransactionAware transactionAware) {
+            transactionAware.setTransactionId(transactionId);
+        }
+        return row;
+    }
+
+    private static String op(byte op) {
+        return switch (op) {
+            case 'c' -> "c";
+            case 'u' -> "u";
+            case 'd' -> "d";
+            case 'r' -> "r";
+            default -> String.valueOf((char) op);
+        };
+    }
+
+    private static final class Input {
+        private final byte[] bytes;
+        private int position;
+
+        Input(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        byte readByte() {
+            return bytes[position++];
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        int readVarInt() {
+            long value = readVarLong();
+            if (value < 0 || value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Varint out of range: " + value);
+            }
+            return (int) value;
+        }
+
+        long readZigZag() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        long readFixedLong() {
+            long value = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                value = (value << 8) | (bytes[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        String readString() {
+            int length = readLength();
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        String readName() {
+            int length = readLength();
+            int hash = 0;
+            for (int i = position; i < position + length; i++) {
+                hash = 31 * hash + bytes[i];
+            }
+            int slot = (hash ^ (hash >>> 16)) & (NAMES.length - 1);
+            String name = NAMES[slot];
+            if (name == null || !matches(name, position, length)) {
+                name = new String(bytes, position, length, StandardCharsets.UTF_8);
+                NAMES[slot] = name;
+            }
+            position += length;
+            return name;
+        }
+
+        // The cached name spells exactly these (ASCII) bytes
+        private boolean matches(String name, int offset, int length) {
+            if (name.length() != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                byte b = bytes[offset + i];
+                if (b < 0 || name.charAt(i) != b) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int readLength() {
+            int length = readVarInt();
+            if (length > bytes.length - position) {
+                throw new IllegalArgumentException("Length " + length + " past the end of the event");
+            }
+            return length;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.consumer.streams.serde;
+
+import com.example.consumer.streams.model.DebeziumChange;
+import com.example.consumer.streams.util.DebeziumExtractor;
+
+/**
+ * Value format of a CDC table topic, chosen per topic with {@code consumer.topology.source-formats}.
+ */
+public enum CdcFormat {
+
+    /**
+     * Debezium's {@code JsonConverter} with {@code schemas.enable=false}.
+     */
+    JSON {
+        @Override
+        public <T> DebeziumChange<T> decode(byte[] value, Class<T> rowType) {
+            return DebeziumExtractor.extractChangeFromBytes(value, rowType);
+        }
+    },
+
+    /**
+     * The compact binary format of {@link BinaryCdcDecoder}.
+     */
+    BINARY {
+        @Override
+        public <T> DebeziumChange<T> decode(byte[] value, Class<T> rowType) {
+            return BinaryCdcDecoder.decode(value, rowType);
+        }
+    };
+
+    /**
+     * The change of one raw record value, null for tombstones. Throws
+     * {@link com.example.consumer.streams.util.DebeziumExtractionException} for values it cannot read.
+     */
+    public abstract <T> DebeziumChange<T> decode(byte[] value, Class<T> rowType);
+}
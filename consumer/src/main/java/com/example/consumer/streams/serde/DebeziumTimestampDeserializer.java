@@ -0,0 +1,97 @@
+package com.example.consumer.streams.serde;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Reads {@code TIMESTAMP} columns as emitted by Debezium (epoch microseconds, {@code MicroTimestamp})
+ * and falls back to the regular JSR-310 formats used when models round-trip through state stores.
+ * <p>
+ * Epoch micros become a {@code LocalDateTime} by arithmetic alone (no {@code Instant} or zone rules),
+ * and the {@code uuuu-MM-ddTHH:mm:ss[.fraction]} text the stores hold is read from the parser's
+ * buffer without a {@code DateTimeFormatter}; other text goes to {@link LocalDateTimeDeserializer}.
+ */
+public class DebeziumTimestampDeserializer extends JsonDeserializer<LocalDateTime> {
+
+    private static final int DATE_TIME_LENGTH = "uuuu-MM-ddTHH:mm:ss".length();
+
+    @Override
+    public LocalDateTime deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.hasToken(JsonToken.VALUE_NUMBER_INT)) {
+            return ofEpochMicros(p.getLongValue());
+        }
+        if (p.hasToken(JsonToken.VALUE_STRING)) {
+            LocalDateTime parsed = parseIso(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+            if (parsed != null) {
+                return parsed;
+            }
+        }
+        return LocalDateTimeDeserializer.INSTANCE.deserialize(p, ctxt);
+    }
+
+    static LocalDateTime ofEpochMicros(long epochMicros) {
+        return LocalDateTime.ofEpochSecond(
+                Math.floorDiv(epochMicros, 1_000_000L),
+                (int) Math.floorMod(epochMicros, 1_000_000L) * 1_000,
+                ZoneOffset.UTC);
+    }
+
+    /**
+     * {@code uuuu-MM-ddTHH:mm:ss} with an optional fraction of 1 to 9 digits, as written by
+     * {@code LocalDateTimeSerializer}; null for any other layout. Field ranges are checked by
+     * {@link LocalDateTime#of}.
+     */
+    static LocalDateTime parseIso(char[] buffer, int offset, int length) {
+        if (length < DATE_TIME_LENGTH || length == DATE_TIME_LENGTH + 1 || length > DATE_TIME_LENGTH + 10
+                || buffer[offset + 4] != '-' || buffer[offset + 7] != '-' || buffer[offset + 10] != 'T'
+                || buffer[offset + 13] != ':' || buffer[offset + 16] != ':') {
+            return null;
+        }
+        int year = digits(buffer, offset, 4);
+        int month = digits(buffer, offset + 5, 2);
+        int day = digits(buffer, offset + 8, 2);
+        int hour = digits(buffer, offset + 11, 2);
+        int minute = digits(buffer, offset + 14, 2);
+        int second = digits(buffer, offset + 17, 2);
+        int nanos = 0;
+        if (length > DATE_TIME_LENGTH) {
+            if (buffer[offset + DATE_TIME_LENGTH] != '.') {
+                return null;
+            }
+            int fractionDigits = length - DATE_TIME_LENGTH - 1;
+            nanos = digits(buffer, offset + DATE_TIME_LENGTH + 1, fractionDigits);
+            for (int i = fractionDigits; i < 9 && nanos >= 0; i++) {
+                nanos *= 10;
+            }
+        }
+        if ((year | month | day | hour | minute | second | nanos) < 0) {
+            return null;
+        }
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second, nanos);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    // Value of count decimal digits, or -1 if any is not a digit
+    private static int digits(char[] buffer, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = buffer[i];
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.consumer.streams.serde;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.apache.kafka.common.serialization.Serde;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@code ObjectMapper} with an {@code ObjectReader}, {@code ObjectWriter} and serde cached per
+ * type. A reader or writer resolves its root (de)serializer when created, so records never pay for
+ * the mapper's per-call lookup, and {@link #warmUp(Class[])} moves that work (plus Blackbird's
+ * accessor generation) to startup instead of the first records.
+ * <p>
+ * {@link #configure(ObjectMapper)} is applied to the Spring {@code ObjectMapper} behind the state
+ * store serdes and to the {@link #debezium()} mapper behind the CDC extractor, so both share the same
+ * settings.
+ */
+public final class JsonCodecs {
+
+    // Debezium emits column names as-is (snake_case); models use camelCase properties
+    private static final JsonCodecs DEBEZIUM = new JsonCodecs(configure(new ObjectMapper()
+            .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)));
+
+    private final ObjectMapper mapper;
+    private final Map<JavaType, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Serde<?>> serdes = new ConcurrentHashMap<>();
+
+    public JsonCodecs(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * Codecs of the CDC topics (snake_case column names).
+     */
+    public static JsonCodecs debezium() {
+        return DEBEZIUM;
+    }
+
+    /**
+     * Shared mapper settings: Blackbird (generated accessors instead of reflection), ISO dates,
+     * unknown properties ignored, JSON floats read as exact {@code BigDecimal}s and {@code BigDecimal}s
+     * written without exponent ({@code 100}, not {@code 1E+2}), so money keeps its digits both ways.
+     */
+    public static ObjectMapper configure(ObjectMapper mapper) {
+        return mapper
+                .registerModule(new JavaTimeModule())
+                .registerModule(new BlackbirdModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+                .enable(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN);
+    }
+
+    public ObjectMapper mapper() {
+        return mapper;
+    }
+
+    public ObjectReader reader(Class<?> type) {
+        return reader(mapper.constructType(type));
+    }
+
+    public ObjectReader reader(JavaType type) {
+        return readers.computeIfAbsent(type, mapper::readerFor);
+    }
+
+    public ObjectWriter writer(Class<?> type) {
+        return writers.computeIfAbsent(type, mapper::writerFor);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Serde<T> serde(Class<T> type) {
+        return (Serde<T>) serdes.computeIfAbsent(type, key -> new JsonSerde<>(type, this));
+    }
+
+    /**
+     * Resolves the readers and writers of {@code types} now.
+     */
+    public JsonCodecs warmUp(Class<?>... types) {
+        for (Class<?> type : types) {
+            reader(type);
+            writer(type);
+        }
+        return this;
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.consumer.streams.serde;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.apache.kafka.common.errors.SerializationException;
 import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.common.serialization.Serde;
@@ -9,31 +11,44 @@ import org.apache.kafka.common.serialization.Serializer;
 import java.io.IOException;
 import java.util.Map;
 
+/**
+ * JSON serde over a reader and writer bound to the target type. The serializer and deserializer are
+ * created once and shared by every caller of {@link #serializer()} / {@link #deserializer()}; both
+ * are stateless and thread-safe.
+ */
 public class JsonSerde<T> implements Serde<T> {
 
-    private final ObjectMapper objectMapper;
-    private final Class<T> targetType;
+    private final Serializer<T> serializer;
+    private final Deserializer<T> deserializer;
 
     public JsonSerde(Class<T> targetType, ObjectMapper objectMapper) {
-        this.targetType = targetType;
-        this.objectMapper = objectMapper;
+        this(objectMapper.readerFor(targetType), objectMapper.writerFor(targetType));
+    }
+
+    public JsonSerde(Class<T> targetType, JsonCodecs codecs) {
+        this(codecs.reader(targetType), codecs.writer(targetType));
+    }
+
+    private JsonSerde(ObjectReader reader, ObjectWriter writer) {
+        this.serializer = new JsonSerializer<>(writer);
+        this.deserializer = new JsonDeserializer<>(reader);
     }
 
     @Override
     public Serializer<T> serializer() {
-        return new JsonSerializer<>(objectMapper);
+        return serializer;
     }
 
     @Override
     public Deserializer<T> deserializer() {
-        return new JsonDeserializer<>(targetType, objectMapper);
+        return deserializer;
     }
 
     private static class JsonSerializer<T> implements Serializer<T> {
-        private final ObjectMapper objectMapper;
+        private final ObjectWriter writer;
 
-        public JsonSerializer(ObjectMapper objectMapper) {
-            this.objectMapper = objectMapper;
+        public JsonSerializer(ObjectWriter writer) {
+            this.writer = writer;
         }
 
         @Override
@@ -48,7 +63,7 @@ public class JsonSerde<T> implements Serde<T> {
             }
 
             try {
-                return objectMapper.writeValueAsBytes(data);
+                return writer.writeValueAsBytes(data);
             } catch (IOException e) {
                 throw new SerializationException("Error serializing JSON message", e);
             }
@@ -61,12 +76,10 @@ public class JsonSerde<T> implements Serde<T> {
     }
 
     private static class JsonDeserializer<T> implements Deserializer<T> {
-        private final Class<T> targetType;
-        private final ObjectMapper objectMapper;
+        private final ObjectReader reader;
 
-        public JsonDeserializer(Class<T> targetType, ObjectMapper objectMapper) {
-            this.targetType = targetType;
-            this.objectMapper = objectMapper;
+        public JsonDeserializer(ObjectReader reader) {
+            this.reader = reader;
         }
 
         @Override
@@ -81,7 +94,7 @@ public class JsonSerde<T> implements Serde<T> {
             }
 
             try {
-                return objectMapper.readValue(data, targetType);
+                return reader.readValue(data);
             } catch (IOException e) {
                 throw new SerializationException("Error deserializing JSON message", e);
             }
@@ -0,0 +1,39 @@
+package com.example.consumer.streams.serde;
+
+import com.example.consumer.streams.util.Money;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.std.NumberDeserializers;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Reads money columns as emitted by Debezium with {@code decimal.handling.mode=string} ({@code "99.90"})
+ * and as written back to state stores ({@code 99.90}). Plain scale-2 text is parsed as cents straight
+ * from the parser's buffer into a {@code long}-backed {@code BigDecimal}, skipping the
+ * {@code String} and {@code BigDecimal(String)} parse; anything else goes through Jackson's regular
+ * {@code BigDecimal} handling.
+ */
+public class MoneyDeserializer extends JsonDeserializer<BigDecimal> {
+
+    @Override
+    public BigDecimal deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_FLOAT && p instanceof TokenBuffer.Parser) {
+            // Replayed tokens (binary CDC rows) already hold the BigDecimal, there is no text to parse
+            return p.getDecimalValue();
+        }
+        if (token == JsonToken.VALUE_STRING || token == JsonToken.VALUE_NUMBER_INT
+                || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            long cents = Money.parseCents(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+            if (cents != Money.NOT_PLAIN) {
+                return Money.toBigDecimal(cents);
+            }
+        }
+        return NumberDeserializers.BigDecimalDeserializer.instance.deserialize(p, ctxt);
+    }
+}
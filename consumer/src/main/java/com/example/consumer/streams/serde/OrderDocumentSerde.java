@@ -0,0 +1,44 @@
+package com.example.consumer.streams.serde;
+
+import com.example.consumer.dto.OrderDocument;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.IOException;
+
+/**
+ * Serde of the documents in the final documents store and its changelog. Serializes with the
+ * per-thread {@link OrderDocumentWriter}; reads back with the regular JSON deserializer.
+ */
+public class OrderDocumentSerde implements Serde<OrderDocument> {
+
+    private final Serializer<OrderDocument> serializer = OrderDocumentSerde::serialize;
+    private final Deserializer<OrderDocument> deserializer;
+
+    public OrderDocumentSerde(JsonCodecs codecs) {
+        this.deserializer = codecs.serde(OrderDocument.class).deserializer();
+    }
+
+    @Override
+    public Serializer<OrderDocument> serializer() {
+        return serializer;
+    }
+
+    @Override
+    public Deserializer<OrderDocument> deserializer() {
+        return deserializer;
+    }
+
+    private static byte[] serialize(String topic, OrderDocument document) {
+        if (document == null) {
+            return null;
+        }
+        try {
+            return OrderDocumentWriter.forCurrentThread().write(document).toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("Error serializing order document", e);
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.example.consumer.streams.serde;
+
+import com.example.consumer.dto.OrderDocument;
+import com.example.consumer.dto.OrderItemDto;
+import com.example.consumer.streams.model.DocumentFingerprint;
+import com.example.consumer.streams.util.ContentHash;
+import com.example.consumer.streams.util.LongHashSet;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes an {@link OrderDocument} as JSON straight into a buffer owned by the calling thread, field by
+ * field with a streaming generator, instead of going through {@code ObjectMapper} (bean introspection
+ * per value, a fresh output buffer per call). The same pass records where each top-level field starts
+ * and ends, so the sink's {@link DocumentFingerprint} is hashed from the written bytes rather than from
+ * a {@code JsonNode} tree serialized once per field.
+ * <p>
+ * The JSON has the shape {@code ObjectMapper} produces with ISO dates, so it reads back with the
+ * regular deserializer. Not thread-safe: use {@link #forCurrentThread()}, and copy what is needed
+ * ({@link #toByteArray()}, {@link #fingerprint()}) before the next write on the same thread.
+ */
+public final class OrderDocumentWriter {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final ThreadLocal<OrderDocumentWriter> PER_THREAD =
+            ThreadLocal.withInitial(OrderDocumentWriter::new);
+
+    private static final int INITIAL_CAPACITY = 4 * 1024;
+    // A thread that once wrote a huge order does not keep its buffer forever
+    private static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+
+    static final String[] FIELDS = {
+            "orderId", "userId", "status", "totalPrice", "items", "orderedAt", "productSummary"};
+
+    private final Buffer buffer = new Buffer();
+    private final int[] fieldStart = new int[FIELDS.length];
+    private final int[] fieldEnd = new int[FIELDS.length];
+    private final char[] dateText = new char[29];
+    private JsonGenerator generator;
+
+    private OrderDocumentWriter() {
+    }
+
+    public static OrderDocumentWriter forCurrentThread() {
+        return PER_THREAD.get();
+    }
+
+    /**
+     * Replaces the buffer's content with the document's JSON.
+     */
+    public OrderDocumentWriter write(OrderDocument document) throws IOException {
+        buffer.reset();
+        try {
+            JsonGenerator gen = generator();
+            gen.writeStartObject();
+            writeField(0, document.getOrderId());
+            writeField(1, document.getUserId());
+            writeField(2, document.getStatus());
+            writeField(3, document.getTotalPrice());
+
+            fieldStart[4] = mark();
+            gen.writeFieldName(FIELDS[4]);
+            writeItems(gen, document.getItems());
+            fieldEnd[4] = mark();
+
+            fieldStart[5] = mark();
+            gen.writeFieldName(FIELDS[5]);
+            writeDateTime(gen, document.getOrderedAt());
+            fieldEnd[5] = mark();
+
+            fieldStart[6] = mark();
+            gen.writeFieldName(FIELDS[6]);
+            writeSummary(gen, document.getProductSummary());
+            fieldEnd[6] = mark();
+
+            gen.writeEndObject();
+            gen.flush();
+            return this;
+        } catch (IOException | RuntimeException e) {
+            // The generator's context is mid-document; start over with a fresh one
+            generator = null;
+            throw e;
+        }
+    }
+
+    /**
+     * The written JSON; the only copy a write makes.
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer.bytes(), buffer.size());
+    }
+
+    public int size() {
+        return buffer.size();
+    }
+
+    /**
+     * Hash of the whole JSON plus hash and size of each top-level field (name included).
+     */
+    public DocumentFingerprint fingerprint() {
+        byte[] bytes = buffer.bytes();
+        DocumentFingerprint fingerprint = new DocumentFingerprint();
+        for (int i = 0; i < FIELDS.length; i++) {
+            int length = fieldEnd[i] - fieldStart[i];
+            fingerprint.putField(FIELDS[i], ContentHash.of(bytes, fieldStart[i], length), length);
+        }
+        fingerprint.setHash(ContentHash.of(bytes, 0, buffer.size()));
+        fingerprint.setSize(buffer.size());
+        return fingerprint;
+    }
+
+    private JsonGenerator generator() throws IOException {
+        if (generator == null) {
+            generator = JSON_FACTORY.createGenerator(buffer);
+            // One root value per write: no separator between consecutive documents
+            generator.setRootValueSeparator(null);
+        }
+        return generator;
+    }
+
+    /**
+     * Current end of the written bytes (flushes the generator's internal buffer).
+     */
+    private int mark() throws IOException {
+        generator.flush();
+        return buffer.size();
+    }
+
+    private void writeField(int field, Long value) throws IOException {
+        fieldStart[field] = mark();
+        generator.writeFieldName(FIELDS[field]);
+        writeNumber(generator, value);
+        fieldEnd[field] = mark();
+    }
+
+    private void writeField(int field, String value) throws IOException {
+        fieldStart[field] = mark();
+        generator.writeFieldName(FIELDS[field]);
+        generator.writeString(value);
+        fieldEnd[field] = mark();
+    }
+
+    private void writeField(int field, BigDecimal value) throws IOException {
+        fieldStart[field] = mark();
+        generator.writeFieldName(FIELDS[field]);
+        writeNumber(generator, value);
+        fieldEnd[field] = mark();
+    }
+
+    private static void writeItems(JsonGenerator gen, List<OrderItemDto> items) throws IOException {
+        if (items == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartArray();
+        // Indexed loop: no iterator per document
+        for (int i = 0; i < items.size(); i++) {
+            OrderItemDto item = items.get(i);
+            gen.writeStartObject();
+            gen.writeFieldName("productId");
+            writeNumber(gen, item.getProductId());
+            gen.writeStringField("name", item.getName());
+            gen.writeFieldName("unitPrice");
+            writeNumber(gen, item.getUnitPrice());
+            gen.writeFieldName("qty");
+            writeNumber(gen, item.getQty());
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+
+    private static void writeSummary(JsonGenerator gen, OrderDocument.ProductSummary summary) throws IOException {
+        if (summary == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject();
+        gen.writeNumberField("uniqueProductCount", summary.getUniqueProductCount());
+        gen.writeFieldName("productIds");
+        writeLongs(gen, summary.getProductIds());
+        gen.writeNumberField("totalQuantity", summary.getTotalQuantity());
+        gen.writeEndObject();
+    }
+
+    /**
+     * Ascending, like the set's own serializer, so the fingerprint does not depend on insertion order.
+     */
+    private static void writeLongs(JsonGenerator gen, LongHashSet values) throws IOException {
+        if (values == null) {
+            gen.writeNull();
+            return;
+        }
+        long[] sorted = values.toSortedArray();
+        gen.writeArray(sorted, 0, sorted.length);
+    }
+
+    private static void writeNumber(JsonGenerator gen, Long value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value.longValue());
+        }
+    }
+
+    private static void writeNumber(JsonGenerator gen, Integer value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value.intValue());
+        }
+    }
+
+    private static void writeNumber(JsonGenerator gen, BigDecimal value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    /**
+     * {@code yyyy-MM-ddTHH:mm:ss[.fraction]} like {@code DateTimeFormatter.ISO_LOCAL_DATE_TIME}, formatted
+     * into a reused char buffer.
+     */
+    private void writeDateTime(JsonGenerator gen, LocalDateTime value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+            return;
+        }
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            gen.writeString(value.toString());
+            return;
+        }
+        char[] text = dateText;
+        digits(text, 0, year, 4);
+        text[4] = '-';
+        digits(text, 5, value.getMonthValue(), 2);
+        text[7] = '-';
+        digits(text, 8, value.getDayOfMonth(), 2);
+        text[10] = 'T';
+        digits(text, 11, value.getHour(), 2);
+        text[13] = ':';
+        digits(text, 14, value.getMinute(), 2);
+        text[16] = ':';
+        digits(text, 17, value.getSecond(), 2);
+        int length = 19;
+        int nano = value.getNano();
+        if (nano > 0) {
+            text[19] = '.';
+            digits(text, 20, nano, 9);
+            length = 29;
+            while (text[length - 1] == '0') {
+                length--;
+            }
+        }
+        gen.writeString(text, 0, length);
+    }
+
+    private static void digits(char[] text, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            text[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    /**
+     * Growable byte array the generator flushes into; kept across writes.
+     */
+    private static final class Buffer extends OutputStream {
+        private byte[] bytes = new byte[INITIAL_CAPACITY];
+        private int size;
+
+        void reset() {
+            if (bytes.length > MAX_RETAINED_CAPACITY) {
+                bytes = new byte[INITIAL_CAPACITY];
+            }
+            size = 0;
+        }
+
+        byte[] bytes() {
+            return bytes;
+        }
+
+        int size() {
+            return size;
+        }
+
+        @Override
+        public void write(int b) {
+            ensureCapacity(size + 1);
+            bytes[size++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] source, int offset, int length) {
+            ensureCapacity(size + length);
+            System.arraycopy(source, offset, bytes, size, length);
+            size += length;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+            }
+        }
+    }
+}
@@ -8,4 +8,11 @@ public class SerdeFactory {
     public static <T> Serde<T> createJsonSerde(Class<T> type, ObjectMapper mapper) {
         return new JsonSerde<>(type, mapper);
     }
+
+    /**
+     * The registry's serde of {@code type}, shared with every other caller asking for it.
+     */
+    public static <T> Serde<T> createJsonSerde(Class<T> type, JsonCodecs codecs) {
+        return codecs.serde(type);
+    }
 }
@@ -0,0 +1,141 @@
+package com.example.consumer.streams.topics;
+
+import com.example.consumer.config.TopologyProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
+import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.TopologyDescription;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Checks the partition counts of a topology's input topics before its Kafka Streams instance starts.
+ * <p>
+ * Kafka Streams only notices mismatches during the first rebalance and then shuts the client down;
+ * checking up front fails the deployment instead, with the offending topics in the message. Two rules:
+ * <ul>
+ *   <li>topics read by the same sub-topology (joined or sharing state stores) must have the same
+ *       partition count, since a task reads one partition of each;</li>
+ *   <li>existing repartition topics must have the configured count: they cannot be resized, so a
+ *       changed {@code consumer.topology.topics.partitions} needs an application reset first.</li>
+ * </ul>
+ * Topics that do not exist yet are skipped; Kafka Streams creates internal topics with matching counts.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CoPartitioningValidator {
+
+    private static final Duration DESCRIBE_TIMEOUT = Duration.ofSeconds(30);
+    private static final String REPARTITION_SUFFIX = "-repartition";
+
+    private final KafkaAdmin kafkaAdmin;
+    private final TopologyProperties properties;
+
+    /**
+     * @throws IllegalStateException if the partition counts do not fit the topology, or the topics
+     *                               cannot be described
+     */
+    public void validate(Topology topology, String applicationId) {
+        TopologyDescription description = topology.describe();
+        Set<String> topics = new TreeSet<>();
+        for (TopologyDescription.Subtopology subtopology : description.subtopologies()) {
+            for (String topic : sourceTopics(subtopology)) {
+                topics.add(topic);
+                topics.add(internalName(applicationId, topic));
+            }
+        }
+        Map<String, Integer> partitionCounts = describe(topics);
+        int expected = properties.getTopics().getPartitions();
+
+        List<String> mismatches = mismatches(description, partitionCounts, applicationId, expected);
+        if (!mismatches.isEmpty()) {
+            throw new IllegalStateException("Topic partition counts do not fit topology of " + applicationId
+                    + ": " + String.join("; ", mismatches));
+        }
+        log.info("Co-partitioning of {} validated: {} existing input topics, {} partitions per repartition topic",
+                applicationId, partitionCounts.size(), expected);
+    }
+
+    static List<String> mismatches(TopologyDescription description, Map<String, Integer> partitionCounts,
+                                   String applicationId, int expectedRepartitionCount) {
+        List<String> mismatches = new ArrayList<>();
+        for (TopologyDescription.Subtopology subtopology : description.subtopologies()) {
+            Map<String, Integer> counts = new TreeMap<>();
+            for (String topic : sourceTopics(subtopology)) {
+                String existing = partitionCounts.containsKey(topic) ? topic : internalName(applicationId, topic);
+                Integer count = partitionCounts.get(existing);
+                if (count == null) {
+                    continue;
+                }
+                counts.put(existing, count);
+                if (existing.endsWith(REPARTITION_SUFFIX) && count != expectedRepartitionCount) {
+                    mismatches.add("repartition topic " + existing + " has " + count + " partitions, expected "
+                            + expectedRepartitionCount + " (reset the application to recreate it)");
+                }
+            }
+            if (new TreeSet<>(counts.values()).size() > 1) {
+                mismatches.add("sub-topology " + subtopology.id() + " reads topics that are not co-partitioned "
+                        + counts);
+            }
+        }
+        return mismatches;
+    }
+
+    private Map<String, Integer> describe(Set<String> topics) {
+        Map<String, Integer> partitionCounts = new HashMap<>();
+        try (AdminClient admin = AdminClient.create(kafkaAdmin.getConfigurationProperties())) {
+            Map<String, KafkaFuture<TopicDescription>> futures = admin.describeTopics(topics).topicNameValues();
+            for (Map.Entry<String, KafkaFuture<TopicDescription>> future : futures.entrySet()) {
+                try {
+                    partitionCounts.put(future.getKey(), future.getValue()
+                            .get(DESCRIBE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS).partitions().size());
+                } catch (ExecutionException e) {
+                    if (!(e.getCause() instanceof UnknownTopicOrPartitionException)) {
+                        throw new IllegalStateException("Could not describe topic " + future.getKey(), e.getCause());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while describing topics", e);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out describing topics " + topics, e);
+        }
+        return partitionCounts;
+    }
+
+    private static List<String> sourceTopics(TopologyDescription.Subtopology subtopology) {
+        List<String> topics = new ArrayList<>();
+        for (TopologyDescription.Node node : subtopology.nodes()) {
+            if (node instanceof TopologyDescription.Source source && source.topicSet() != null) {
+                topics.addAll(source.topicSet());
+            }
+        }
+        return topics;
+    }
+
+    /**
+     * Kafka Streams prefixes internal topics with the application id; depending on when the topology
+     * is described its names may or may not carry the prefix yet.
+     */
+    private static String internalName(String applicationId, String topic) {
+        return topic.startsWith(applicationId + "-") ? topic : applicationId + "-" + topic;
+    }
+}
@@ -1,65 +1,127 @@
 package com.example.consumer.streams.topology;
 
+import com.example.consumer.bootstrap.SnapshotHandoff;
+import com.example.consumer.bootstrap.SourcePositionTagger;
+import com.example.consumer.config.TopologyProperties;
+import com.example.consumer.config.TopologyProperties.ProductJoinMode;
 import com.example.consumer.dto.OrderDocument;
-import com.example.consumer.dto.OrderItemDto;
 import com.example.consumer.service.DocumentStoreService;
+import com.example.consumer.service.UserOrderHistoryService;
 import com.example.consumer.streams.model.*;
+import com.example.consumer.streams.dlq.DocumentSinkProcessor;
+import com.example.consumer.streams.dlq.ExtractionFailureProcessor;
+import com.example.consumer.streams.dlq.ExtractionResult;
+import com.example.consumer.streams.outbox.OutboxDocumentFilter;
+import com.example.consumer.streams.serde.CdcFormat;
+import com.example.consumer.streams.serde.JsonCodecs;
+import com.example.consumer.streams.serde.OrderDocumentSerde;
 import com.example.consumer.streams.serde.SerdeFactory;
+import com.example.consumer.streams.trace.StageTracer;
+import com.example.consumer.streams.transaction.TransactionBufferProcessor;
+import com.example.consumer.streams.util.DebeziumExtractionException;
 import com.example.consumer.streams.util.DebeziumExtractor;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KeyValue;
 import org.apache.kafka.streams.StreamsBuilder;
 import org.apache.kafka.streams.kstream.*;
 import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.Stores;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.io.IOException;
+import java.util.Map;
 
 @Component
 @Slf4j
 public class OrderDenormalizationTopology {
 
+        public static final String ORDERS_TOPIC = "dbserver1.public.orders";
+        public static final String ORDER_ITEMS_TOPIC = "dbserver1.public.order_items";
+        public static final String PRODUCTS_TOPIC = "dbserver1.public.products";
+
+        // Pre-assembled documents of new orders, written by the producer in outbox mode
+        public static final String OUTBOX_TOPIC = "dbserver1.public.outbox";
+
+        public static final String TRANSACTIONS_TOPIC = "dbserver1.transaction";
+
+        // Extracted products keyed by id; source of the GlobalKTable in GLOBAL_TABLE mode
+        public static final String PRODUCTS_BY_ID_TOPIC = "order-denormalization-products-by-id";
+
+        // Completed transactions keyed by id; source of the transactions GlobalKTable
+        public static final String TRANSACTIONS_BY_ID_TOPIC = "order-denormalization-transactions-by-id";
+
+        // Latest joined document per order, before the transaction buffer and the sink
+        public static final String FINAL_DOCUMENTS_STORE = "final-documents-store";
+
+        // Per-user order summaries keyed by userId, served through interactive queries
+        public static final String USER_ORDER_HISTORY_STORE = "user-order-history-store";
+
+        public static final String USER_HISTORY_WRITE_FAILURES_METRIC = "user.order.history.write.failures";
+
         private final DocumentStoreService documentStoreService;
-        private final ObjectMapper objectMapper;
+        private final UserOrderHistoryService userOrderHistoryService;
+        private final JsonCodecs codecs;
+        private final TopologyProperties properties;
+        private final SnapshotHandoff snapshotHandoff;
+        private final MeterRegistry meterRegistry;
+        private final StageTracer tracer;
 
         public OrderDenormalizationTopology(
                         DocumentStoreService documentStoreService,
-                        ObjectMapper objectMapper) {
+                        UserOrderHistoryService userOrderHistoryService,
+                        JsonCodecs codecs,
+                        TopologyProperties properties,
+                        SnapshotHandoff snapshotHandoff,
+                        MeterRegistry meterRegistry,
+                        StageTracer tracer) {
                 this.documentStoreService = documentStoreService;
-                this.objectMapper = objectMapper;
+                this.userOrderHistoryService = userOrderHistoryService;
+                this.codecs = codecs;
+                this.properties = properties;
+                this.snapshotHandoff = snapshotHandoff;
+                this.meterRegistry = meterRegistry;
+                this.tracer = tracer;
         }
 
         @Autowired
         public void buildTopology(StreamsBuilder streamsBuilder) {
-                log.info("Building Order Denormalization Topology");
+                ProductJoinMode productJoinMode = properties.getProductJoinMode();
+                log.info("Building Order Denormalization Topology: productJoinMode={}, trace={}, sourceFormats={}, "
+                                                + "outbox={}",
+                                productJoinMode, tracer.isEnabled(), properties.getSourceFormats(),
+                                properties.getOutbox().isEnabled());
 
                 // Create Serdes for domain objects
-                Serde<OrderData> orderSerde = SerdeFactory.createJsonSerde(OrderData.class, objectMapper);
-                Serde<OrderItemData> orderItemSerde = SerdeFactory.createJsonSerde(OrderItemData.class, objectMapper);
-                Serde<ProductData> productSerde = SerdeFactory.createJsonSerde(ProductData.class, objectMapper);
+                Serde<OrderData> orderSerde = SerdeFactory.createJsonSerde(OrderData.class, codecs);
+                Serde<OrderItemData> orderItemSerde = SerdeFactory.createJsonSerde(OrderItemData.class, codecs);
+                Serde<ProductData> productSerde = SerdeFactory.createJsonSerde(ProductData.class, codecs);
                 Serde<EnrichedOrderItem> enrichedItemSerde = SerdeFactory.createJsonSerde(EnrichedOrderItem.class,
-                                objectMapper);
+                                codecs);
                 Serde<OrderItemsAggregate> aggregateSerde = SerdeFactory.createJsonSerde(OrderItemsAggregate.class,
-                                objectMapper);
-                Serde<OrderDocument> documentSerde = SerdeFactory.createJsonSerde(OrderDocument.class, objectMapper);
+                                codecs);
+                Serde<OrderDocument> documentSerde = new OrderDocumentSerde(codecs);
+                Serde<UserOrderRef> userOrderRefSerde = SerdeFactory.createJsonSerde(UserOrderRef.class, codecs);
+                Serde<UserOrderHistory> userOrderHistorySerde = SerdeFactory.createJsonSerde(UserOrderHistory.class,
+                                codecs);
 
                 // ===================================================================
-                // STAGE 1: Extract Orders and create KTable
+                // STAGE 1: Extract Orders and create KTable (deletes become tombstones)
                 // ===================================================================
-                KTable<Long, OrderData> ordersTable = streamsBuilder
-                                .stream("dbserver1.public.orders",
-                                                Consumed.with(Serdes.String(), Serdes.String()))
-                                .peek((k, v) -> log.debug("Received order event: key={}, value={}", k, v))
-                                .mapValues(value -> DebeziumExtractor.extractAfter(value, OrderData.class))
-                                .filter((key, value) -> value != null) // Filter out deletes
-                                .selectKey((key, value) -> value.getId())
-                                .repartition()
-                                .peek((k, v) -> log.debug("Extracted order: orderId={}, userId={}", k, v.getUserId()))
+                KStream<Long, OrderData> orders = extractOrDeadLetter(streamsBuilder, ORDERS_TOPIC, "order",
+                                decoder(ORDERS_TOPIC, OrderData.class))
+                                .processValues(SourcePositionTagger<OrderData>::new)
+                                .filter((key, change) -> change != null && change.row() != null)
+                                .map((key, change) -> KeyValue.pair(change.row().getId(), change.getAfter()))
+                                .repartition(repartitioned(orderSerde));
+                orders = tracer.traced(orders, "order", (orderId, order) -> orderId);
+
+                KTable<Long, OrderData> ordersTable = orders
                                 .toTable(
                                                 Materialized.<Long, OrderData, KeyValueStore<Bytes, byte[]>>as(
                                                                 "orders-store")
@@ -67,178 +129,423 @@ public class OrderDenormalizationTopology {
                                                                 .withValueSerde(orderSerde));
 
                 // ===================================================================
-                // STAGE 2: Extract Products and create KTable
+                // STAGE 2: Extract Products (materialized per product join mode)
                 // ===================================================================
-                KTable<Long, ProductData> productsTable = streamsBuilder
-                                .stream("dbserver1.public.products",
-                                                Consumed.with(Serdes.String(), Serdes.String()))
-                                .peek((k, v) -> log.debug("Received product event: key={}, value={}", k, v))
-                                .mapValues(value -> DebeziumExtractor.extractAfter(value, ProductData.class))
-                                .filter((key, value) -> value != null)
-                                .selectKey((key, value) -> value.getId())
-                                .repartition()
-                                .peek((k, v) -> log.debug("Extracted product: productId={}, name={}", k, v.getName()))
-                                .toTable(
-                                                Materialized.<Long, ProductData, KeyValueStore<Bytes, byte[]>>as(
-                                                                "products-store")
-                                                                .withKeySerde(Serdes.Long())
-                                                                .withValueSerde(productSerde));
+                KStream<Long, ProductData> productsById = extractOrDeadLetter(streamsBuilder, PRODUCTS_TOPIC, "product",
+                                decoder(PRODUCTS_TOPIC, ProductData.class))
+                                .processValues(SourcePositionTagger<ProductData>::new)
+                                .filter((key, change) -> change != null && change.row() != null)
+                                .map((key, change) -> KeyValue.pair(change.row().getId(), change.getAfter()));
 
                 // ===================================================================
-                // STAGE 3: Extract Order Items and REPARTITION BY PRODUCT_ID
+                // STAGE 3: Extract Order Items keyed by orderItemId (deletes keep the before image, flagged)
                 // ===================================================================
-                KStream<Long, OrderItemData> orderItemsByProduct = streamsBuilder
-                                .stream("dbserver1.public.order_items",
-                                                Consumed.with(Serdes.String(), Serdes.String()))
-                                .peek((k, v) -> log.debug("Received order_item event: key={}, value={}", k, v))
-                                .mapValues(value -> DebeziumExtractor.extractAfter(value, OrderItemData.class))
-                                .filter((key, value) -> value != null)
-                                .selectKey((key, value) -> value.getProductId()) // REPARTITION BY PRODUCT_ID
-                                .repartition()
-                                .peek((k, v) -> log.debug("Repartitioned by productId: key={}, orderId={}", k,
-                                                v.getOrderId()));
+                KStream<Long, OrderItemData> orderItems = extractOrDeadLetter(streamsBuilder, ORDER_ITEMS_TOPIC,
+                                "order_item", decoder(ORDER_ITEMS_TOPIC, OrderItemData.class))
+                                .processValues(SourcePositionTagger<OrderItemData>::new)
+                                .filter((key, change) -> change != null && change.row() != null)
+                                .map((key, change) -> {
+                                        OrderItemData item = change.row();
+                                        item.setDeleted(change.isDelete());
+                                        return KeyValue.pair(item.getId(), item);
+                                });
+                orderItems = tracer.traced(orderItems, "order-item", (orderItemId, item) -> item.getOrderId());
 
                 // ===================================================================
-                // STAGE 4: JOIN Order Items with Products (LEFT JOIN)
+                // STAGE 4 + 5: JOIN Order Items with Products (LEFT JOIN) and AGGREGATE by ORDER_ID
                 // ===================================================================
-                KStream<Long, EnrichedOrderItem> enrichedOrderItems = orderItemsByProduct
-                                .leftJoin(
-                                                productsTable,
-                                                (orderItem, product) -> {
-                                                        EnrichedOrderItem enriched = new EnrichedOrderItem();
-                                                        enriched.setOrderItemId(orderItem.getId());
-                                                        enriched.setOrderId(orderItem.getOrderId());
-                                                        enriched.setProductId(orderItem.getProductId());
-                                                        enriched.setQuantity(orderItem.getQuantity());
-                                                        enriched.setUnitPrice(orderItem.getUnitPrice());
-
-                                                        if (product != null) {
-                                                                enriched.setProductName(product.getName());
-                                                                enriched.setProductPrice(product.getPrice());
-                                                                log.debug("Enriched order item with product: orderId={}, productId={}, productName={}",
-                                                                                orderItem.getOrderId(),
-                                                                                orderItem.getProductId(),
-                                                                                product.getName());
-                                                        } else {
-                                                                enriched.setProductName("Unknown");
-                                                                enriched.setProductPrice(null);
-                                                                log.warn("Product not found for enrichment: productId={}",
-                                                                                orderItem.getProductId());
-                                                        }
-
-                                                        return enriched;
-                                                },
-                                                Joined.with(Serdes.Long(), orderItemSerde, productSerde))
-                                .peek((productId, enriched) -> log.debug(
-                                                "Enriched order item: productId={}, orderId={}, productName={}",
-                                                productId, enriched.getOrderId(), enriched.getProductName()));
-
-                // ===================================================================
-                // STAGE 5: REPARTITION BY ORDER_ID and AGGREGATE
-                // ===================================================================
-                KTable<Long, OrderItemsAggregate> orderItemsAggregated = enrichedOrderItems
-                                .selectKey((productId, enriched) -> enriched.getOrderId()) // REPARTITION BY ORDER_ID
-                                .peek((orderId, item) -> log.debug("Repartitioned by orderId: key={}, productId={}",
-                                                orderId, item.getProductId()))
-                                .groupByKey(Grouped.with(Serdes.Long(), enrichedItemSerde))
-                                .aggregate(
-                                                OrderItemsAggregate::new, // Initializer
-                                                (orderId, enrichedItem, aggregate) -> {
-                                                        aggregate.addItem(enrichedItem);
-                                                        log.debug("Aggregating: orderId={}, productId={}, totalItems={}",
-                                                                        orderId, enrichedItem.getProductId(),
-                                                                        aggregate.getItems().size());
-                                                        return aggregate;
-                                                },
-                                                Materialized.<Long, OrderItemsAggregate, KeyValueStore<Bytes, byte[]>>as(
-                                                                "order-items-aggregated-store")
-                                                                .withKeySerde(Serdes.Long())
-                                                                .withValueSerde(aggregateSerde));
+                KTable<Long, OrderItemsAggregate> orderItemsAggregated = switch (productJoinMode) {
+                        case FOREIGN_KEY -> aggregateWithForeignKeyJoin(
+                                        orderItems,
+                                        productsTable(productsById, productSerde),
+                                        orderItemSerde, enrichedItemSerde, aggregateSerde);
+                        case GLOBAL_TABLE -> aggregateItemStream(
+                                        enrichWithGlobalProducts(streamsBuilder, orderItems, productsById,
+                                                        productSerde),
+                                        enrichedItemSerde, aggregateSerde);
+                        case REPARTITION -> aggregateItemStream(
+                                        enrichWithPartitionedProducts(orderItems,
+                                                        productsTable(productsById, productSerde),
+                                                        orderItemSerde, productSerde),
+                                        enrichedItemSerde, aggregateSerde);
+                };
 
                 // ===================================================================
                 // STAGE 6: JOIN Aggregated Items with Orders
                 // ===================================================================
+                Counter joined = tracer.stageCounter("document-joined");
                 KTable<Long, OrderDocument> finalDocuments = orderItemsAggregated
                                 .join(
                                                 ordersTable,
                                                 (itemsAggregate, order) -> {
-                                                        OrderDocument document = new OrderDocument();
-                                                        document.setOrderId(order.getId());
-                                                        document.setUserId(order.getUserId());
-                                                        document.setStatus(order.getStatus());
-                                                        document.setTotalPrice(order.getTotalPrice());
-                                                        document.setOrderedAt(order.getOrderedAt());
-
-                                                        // Convert EnrichedOrderItem to OrderItemDto
-                                                        List<OrderItemDto> items = itemsAggregate.getItems().stream()
-                                                                        .map(enriched -> {
-                                                                                OrderItemDto dto = new OrderItemDto();
-                                                                                dto.setProductId(enriched
-                                                                                                .getProductId());
-                                                                                dto.setName(enriched.getProductName());
-                                                                                dto.setUnitPrice(enriched
-                                                                                                .getUnitPrice());
-                                                                                dto.setQty(enriched.getQuantity());
-                                                                                return dto;
-                                                                        })
-                                                                        .collect(Collectors.toList());
-                                                        document.setItems(items);
-
-                                                        // Add product-level aggregation
-                                                        OrderDocument.ProductSummary summary = new OrderDocument.ProductSummary();
-                                                        summary.setUniqueProductCount(
-                                                                        itemsAggregate.getUniqueProductIds().size());
-                                                        summary.setProductIds(itemsAggregate.getUniqueProductIds());
-                                                        summary.setTotalQuantity(itemsAggregate.getTotalQuantity());
-                                                        document.setProductSummary(summary);
-
-                                                        log.info("Created final document: orderId={}, itemCount={}, uniqueProducts={}",
-                                                                        document.getOrderId(), items.size(),
-                                                                        summary.getUniqueProductCount());
-
-                                                        return document;
+                                                        joined.increment();
+                                                        return OrderDocumentAssembler.assemble(itemsAggregate, order);
                                                 },
                                                 Materialized.<Long, OrderDocument, KeyValueStore<Bytes, byte[]>>as(
-                                                                "final-documents-store")
+                                                                FINAL_DOCUMENTS_STORE)
                                                                 .withKeySerde(Serdes.Long())
                                                                 .withValueSerde(documentSerde));
 
                 // ===================================================================
-                // STAGE 7: SINK to PostgreSQL
+                // STAGE 7: SINK to PostgreSQL (retry with backoff, then dead-letter topic)
                 // ===================================================================
-                finalDocuments
+                streamsBuilder.addStateStore(Stores.keyValueStoreBuilder(
+                                Stores.persistentKeyValueStore(DocumentSinkProcessor.RETRY_STORE),
+                                Serdes.Long(),
+                                SerdeFactory.createJsonSerde(SinkRetry.class, codecs)));
+                streamsBuilder.addStateStore(Stores.keyValueStoreBuilder(
+                                Stores.persistentKeyValueStore(DocumentSinkProcessor.FINGERPRINT_STORE),
+                                Serdes.Long(),
+                                SerdeFactory.createJsonSerde(DocumentFingerprint.class, codecs)));
+
+                // An order delete removes its document even if this instance never built it
+                KStream<Long, OrderDocument> documents = finalDocuments
                                 .toStream()
-                                .foreach((orderId, orderDoc) -> {
-                                        try {
-                                                log.info("Saving document to PostgreSQL: orderId={}", orderId);
-                                                documentStoreService.save(orderDoc);
-                                        } catch (Exception e) {
-                                                log.error("Failed to save document: orderId={}", orderId, e);
-                                                // In production: send to DLQ (Dead Letter Queue)
-                                        }
-                                });
+                                .merge(orders
+                                                .filter((orderId, order) -> order == null)
+                                                .mapValues(order -> (OrderDocument) null));
+                if (properties.getTransactionBuffer().isEnabled()) {
+                        documents = holdUntilTransactionComplete(streamsBuilder, documents, documentSerde);
+                }
+                // New orders written by the producer in outbox mode reach the sink without waiting for the joins.
+                // Merged after the transaction buffer: they are complete and must not replace a held document.
+                if (properties.getOutbox().isEnabled()) {
+                        documents = documents.merge(outboxDocuments(streamsBuilder, documentSerde));
+                }
+                documents = tracer.traced(documents, "sink", (orderId, document) -> orderId);
+
+                // A null document is a tombstone: the order or its last item was deleted.
+                // Documents whose content hash matches the last written version are not rewritten,
+                // small changes are merged into the stored JSONB.
+                documents
+                                .process(
+                                                () -> new DocumentSinkProcessor(documentStoreService, codecs.mapper(),
+                                                                properties.getDeadLetter(), properties.getPartialUpdate(),
+                                                                snapshotHandoff, meterRegistry),
+                                                DocumentSinkProcessor.RETRY_STORE,
+                                                DocumentSinkProcessor.FINGERPRINT_STORE)
+                                .to(properties.getDeadLetter().getTopic(),
+                                                Produced.with(Serdes.String(), Serdes.String()));
 
                 // ===================================================================
-                // HANDLE DELETES (separate stream)
+                // STAGE 8: Per-user order history (RE-KEY documents BY USER_ID and aggregate)
                 // ===================================================================
-                streamsBuilder
-                                .stream("dbserver1.public.orders",
-                                                Consumed.with(Serdes.String(), Serdes.String()))
-                                .filter((key, value) -> {
-                                        String op = DebeziumExtractor.getOperation(value);
-                                        return "d".equals(op);
-                                })
-                                .mapValues(value -> DebeziumExtractor.extractDeletedId(value))
-                                .filter((key, orderId) -> orderId != null)
-                                .foreach((key, orderId) -> {
-                                        log.info("Deleting document from PostgreSQL: orderId={}", orderId);
-                                        try {
-                                                documentStoreService.delete(orderId);
-                                        } catch (Exception e) {
-                                                log.error("Failed to delete document: orderId={}", orderId, e);
-                                        }
+                // The table aggregation subtracts an order's old version before adding the new one,
+                // so status changes, deletes and (rare) userId changes keep the summary exact.
+                KTable<Long, UserOrderHistory> userOrderHistory = finalDocuments
+                                .filter((orderId, document) -> document.getUserId() != null)
+                                .groupBy(
+                                                (orderId, document) -> KeyValue.pair(document.getUserId(),
+                                                                UserOrderRef.of(document)),
+                                                Grouped.with(Serdes.Long(), userOrderRefSerde))
+                                .aggregate(
+                                                UserOrderHistory::new,
+                                                (userId, order, history) -> history.put(userId, order),
+                                                (userId, order, history) -> history.remove(order).isEmpty()
+                                                                ? null : history,
+                                                Materialized.<Long, UserOrderHistory, KeyValueStore<Bytes, byte[]>>as(
+                                                                USER_ORDER_HISTORY_STORE)
+                                                                .withKeySerde(Serdes.Long())
+                                                                .withValueSerde(userOrderHistorySerde));
+
+                Counter historyUpdates = tracer.stageCounter("user-history");
+                userOrderHistory
+                                .toStream()
+                                .foreach((userId, history) -> {
+                                        historyUpdates.increment();
+                                        persistUserOrderHistory(userId, history);
                                 });
 
                 log.info("Order Denormalization Topology built successfully");
         }
+
+        /**
+         * Copies a user's summary to {@code user_order_history}. Best effort: the state store is the
+         * source of truth and the next change of the user rewrites the whole summary, so a failed
+         * write is logged and counted instead of stopping the stream thread.
+         */
+        private void persistUserOrderHistory(Long userId, UserOrderHistory history) {
+                try {
+                        if (history == null) {
+                                userOrderHistoryService.delete(userId);
+                        } else {
+                                userOrderHistoryService.save(history);
+                        }
+                } catch (Exception e) {
+                        meterRegistry.counter(USER_HISTORY_WRITE_FAILURES_METRIC).increment();
+                        log.error("Failed to persist order history of user {}", userId, e);
+                }
+        }
+
+        /**
+         * Reads a CDC topic and extracts each record. Records that cannot be extracted go to the
+         * dead-letter topic with their raw value instead of failing the stream thread.
+         */
+        private <T> KStream<String, T> extractOrDeadLetter(
+                        StreamsBuilder streamsBuilder,
+                        String topic,
+                        String name,
+                        ValueMapper<byte[], T> extractor) {
+                Counter received = tracer.stageCounter("received", name);
+                Map<String, KStream<String, ExtractionResult<T>>> branches = streamsBuilder
+                                .stream(topic,
+                                                Consumed.with(Serdes.String(), Serdes.ByteArray()))
+                                .mapValues(value -> {
+                                        received.increment();
+                                        return ExtractionResult.of(value, extractor);
+                                })
+                                .split(Named.as(name + "-"))
+                                .branch((key, result) -> result.isFailed(), Branched.as("extraction-failed"))
+                                .defaultBranch(Branched.as("extracted"));
+
+                branches.get(name + "-extraction-failed")
+                                .processValues(() -> new ExtractionFailureProcessor<T>(topic))
+                                .to(properties.getDeadLetter().getTopic(),
+                                                Produced.with(Serdes.String(), Serdes.ByteArray()));
+
+                return branches.get(name + "-extracted")
+                                .mapValues(ExtractionResult::getValue);
+        }
+
+        /**
+         * Reads the documents of new orders from the outbox topic, keyed by order id and partitioned
+         * like the joined documents: one repartition, no join. Outbox rows that are not order
+         * creations (or are deletes of the producer's cleanup) are dropped; a payload that cannot be
+         * read goes to the dead-letter topic like any other extraction failure.
+         */
+        private KStream<Long, OrderDocument> outboxDocuments(
+                        StreamsBuilder streamsBuilder,
+                        Serde<OrderDocument> documentSerde) {
+                ValueMapper<byte[], DebeziumChange<OutboxEventData>> decoder =
+                                decoder(OUTBOX_TOPIC, OutboxEventData.class);
+                KStream<Long, OrderDocument> documents = extractOrDeadLetter(streamsBuilder, OUTBOX_TOPIC, "outbox",
+                                value -> readOutboxDocument(decoder.apply(value)))
+                                .filter((key, document) -> document != null)
+                                .selectKey((key, document) -> document.getOrderId())
+                                .repartition(repartitioned(documentSerde))
+                                .processValues(() -> new OutboxDocumentFilter(FINAL_DOCUMENTS_STORE, meterRegistry),
+                                                FINAL_DOCUMENTS_STORE,
+                                                DocumentSinkProcessor.FINGERPRINT_STORE,
+                                                DocumentSinkProcessor.RETRY_STORE);
+                return tracer.traced(documents, "outbox", (orderId, document) -> orderId);
+        }
+
+        private OrderDocument readOutboxDocument(DebeziumChange<OutboxEventData> change) {
+                if (change == null || change.getAfter() == null || !change.getAfter().isOrderCreated()) {
+                        return null;
+                }
+                try {
+                        return codecs.reader(OrderDocument.class).readValue(change.getAfter().getPayload());
+                } catch (IOException e) {
+                        throw new DebeziumExtractionException("Failed to read outbox payload of order "
+                                        + change.getAfter().getAggregateId(), e);
+                }
+        }
+
+        /**
+         * Reads the changes of a CDC table topic in the format configured for it.
+         */
+        private <T> ValueMapper<byte[], DebeziumChange<T>> decoder(String topic, Class<T> rowType) {
+                CdcFormat format = properties.sourceFormat(topic);
+                return value -> format.decode(value, rowType);
+        }
+
+        /**
+         * Holds partial documents back until the Debezium transactions behind them are complete (or
+         * the max wait has passed). END events of the transaction metadata topic are re-keyed by
+         * transaction id into a GlobalKTable, since a transaction spans partitions of all three tables.
+         */
+        private KStream<Long, OrderDocument> holdUntilTransactionComplete(
+                        StreamsBuilder streamsBuilder,
+                        KStream<Long, OrderDocument> documents,
+                        Serde<OrderDocument> documentSerde) {
+                TopologyProperties.TransactionBuffer buffer = properties.getTransactionBuffer();
+                Serde<TransactionSummary> transactionSerde = SerdeFactory.createJsonSerde(TransactionSummary.class,
+                                codecs);
+
+                extractOrDeadLetter(streamsBuilder, TRANSACTIONS_TOPIC, "transaction",
+                                DebeziumExtractor::extractTransactionEndFromBytes)
+                                .filter((key, summary) -> summary != null)
+                                .selectKey((key, summary) -> summary.getId())
+                                .to(TRANSACTIONS_BY_ID_TOPIC, Produced.with(Serdes.String(), transactionSerde));
+
+                streamsBuilder.globalTable(
+                                TRANSACTIONS_BY_ID_TOPIC,
+                                Consumed.with(Serdes.String(), transactionSerde),
+                                Materialized.<String, TransactionSummary, KeyValueStore<Bytes, byte[]>>as(
+                                                "transactions-store")
+                                                .withKeySerde(Serdes.String())
+                                                .withValueSerde(transactionSerde));
+
+                streamsBuilder.addStateStore(Stores.keyValueStoreBuilder(
+                                Stores.persistentKeyValueStore(TransactionBufferProcessor.PENDING_STORE),
+                                Serdes.Long(),
+                                SerdeFactory.createJsonSerde(PendingDocument.class, codecs)));
+                streamsBuilder.addStateStore(Stores.keyValueStoreBuilder(
+                                Stores.persistentKeyValueStore(TransactionBufferProcessor.SETTLED_STORE),
+                                Serdes.Long(),
+                                SerdeFactory.createJsonSerde(SettledTransactions.class, codecs)));
+
+                return documents.process(
+                                () -> new TransactionBufferProcessor(
+                                                "orders-store",
+                                                "order-items-aggregated-store",
+                                                "transactions-store",
+                                                buffer.getMaxWait(),
+                                                buffer.getCheckInterval()),
+                                TransactionBufferProcessor.PENDING_STORE,
+                                TransactionBufferProcessor.SETTLED_STORE,
+                                "orders-store",
+                                "order-items-aggregated-store");
+        }
+
+        private KTable<Long, ProductData> productsTable(
+                        KStream<Long, ProductData> productsById,
+                        Serde<ProductData> productSerde) {
+                return productsById
+                                .repartition(repartitioned(productSerde))
+                                .toTable(
+                                                Materialized.<Long, ProductData, KeyValueStore<Bytes, byte[]>>as(
+                                                                "products-store")
+                                                                .withKeySerde(Serdes.Long())
+                                                                .withValueSerde(productSerde));
+        }
+
+        /**
+         * FOREIGN_KEY mode: order items become a KTable keyed by orderItemId and are joined to products
+         * with a foreign-key join. A product change is routed only to the items that reference it, and
+         * the table aggregation (adder + subtractor) replaces those items in their orders' aggregates,
+         * so renames and price changes reach documents that were already built.
+         */
+        private KTable<Long, OrderItemsAggregate> aggregateWithForeignKeyJoin(
+                        KStream<Long, OrderItemData> orderItems,
+                        KTable<Long, ProductData> productsTable,
+                        Serde<OrderItemData> orderItemSerde,
+                        Serde<EnrichedOrderItem> enrichedItemSerde,
+                        Serde<OrderItemsAggregate> aggregateSerde) {
+                Counter aggregated = tracer.stageCounter("items-aggregated");
+                KTable<Long, OrderItemData> orderItemsTable = orderItems
+                                .mapValues(item -> item.isDeleted() ? null : item) // tombstone
+                                .repartition(repartitioned(orderItemSerde))
+                                .toTable(
+                                                Materialized.<Long, OrderItemData, KeyValueStore<Bytes, byte[]>>as(
+                                                                "order-items-store")
+                                                                .withKeySerde(Serdes.Long())
+                                                                .withValueSerde(orderItemSerde));
+
+                return orderItemsTable
+                                .leftJoin(
+                                                productsTable,
+                                                OrderItemData::getProductId,
+                                                OrderDocumentAssembler::enrich,
+                                                Materialized.<Long, EnrichedOrderItem, KeyValueStore<Bytes, byte[]>>as(
+                                                                "enriched-order-items-store")
+                                                                .withKeySerde(Serdes.Long())
+                                                                .withValueSerde(enrichedItemSerde))
+                                .groupBy(
+                                                (orderItemId, enriched) -> KeyValue.pair(enriched.getOrderId(), enriched),
+                                                Grouped.with(Serdes.Long(), enrichedItemSerde))
+                                .aggregate(
+                                                OrderItemsAggregate::new,
+                                                (orderId, enrichedItem, aggregate) -> {
+                                                        aggregated.increment();
+                                                        aggregate.addItem(enrichedItem);
+                                                        return aggregate;
+                                                },
+                                                (orderId, enrichedItem, aggregate) -> {
+                                                        aggregate.removeItem(enrichedItem);
+                                                        return aggregate.getItems().isEmpty() ? null : aggregate;
+                                                },
+                                                Materialized.<Long, OrderItemsAggregate, KeyValueStore<Bytes, byte[]>>as(
+                                                                "order-items-aggregated-store")
+                                                                .withKeySerde(Serdes.Long())
+                                                                .withValueSerde(aggregateSerde));
+        }
+
+        /**
+         * Stream modes: REPARTITION BY ORDER_ID and aggregate the enriched item events. Deleted items
+         * carry their before image, so order_items needs REPLICA IDENTITY FULL for orderId/productId.
+         */
+        private KTable<Long, OrderItemsAggregate> aggregateItemStream(
+                        KStream<Long, EnrichedOrderItem> enrichedOrderItems,
+                        Serde<EnrichedOrderItem> enrichedItemSerde,
+                        Serde<OrderItemsAggregate> aggregateSerde) {
+                Counter aggregated = tracer.stageCounter("items-aggregated");
+                return enrichedOrderItems
+                                .selectKey((key, enriched) -> enriched.getOrderId()) // REPARTITION BY ORDER_ID
+                                .groupByKey(Grouped.with(Serdes.Long(), enrichedItemSerde))
+                                .aggregate(
+                                                OrderItemsAggregate::new, // Initializer
+                                                (orderId, enrichedItem, aggregate) -> {
+                                                        aggregated.increment();
+                                                        if (enrichedItem.isDeleted()) {
+                                                                aggregate.removeItem(enrichedItem);
+                                                        } else {
+                                                                aggregate.addItem(enrichedItem);
+                                                        }
+                                                        // Returning null deletes the aggregate from the store
+                                                        return aggregate.getItems().isEmpty() ? null : aggregate;
+                                                },
+                                                Materialized.<Long, OrderItemsAggregate, KeyValueStore<Bytes, byte[]>>as(
+                                                                "order-items-aggregated-store")
+                                                                .withKeySerde(Serdes.Long())
+                                                                .withValueSerde(aggregateSerde));
+        }
+
+        /**
+         * REPARTITION mode: re-key items by productId so they are co-partitioned with the products
+         * KTable. Costs a full repartition round trip of the order-items stream.
+         */
+        private KStream<Long, EnrichedOrderItem> enrichWithPartitionedProducts(
+                        KStream<Long, OrderItemData> orderItems,
+                        KTable<Long, ProductData> productsTable,
+                        Serde<OrderItemData> orderItemSerde,
+                        Serde<ProductData> productSerde) {
+                return tracer.traced(orderItems
+                                .selectKey((key, value) -> value.getProductId()) // REPARTITION BY PRODUCT_ID
+                                .repartition(repartitioned(orderItemSerde))
+                                .leftJoin(
+                                                productsTable,
+                                                OrderDocumentAssembler::enrich,
+                                                Joined.with(Serdes.Long(), orderItemSerde, productSerde)),
+                                "enriched-item", (productId, enriched) -> enriched.getOrderId());
+        }
+
+        /**
+         * GLOBAL_TABLE mode: products are a small, slowly changing dimension, so every instance keeps a
+         * full copy and items are joined via a key extractor on productId. Items are keyed by orderId
+         * straight away, leaving the stage 5 repartition as the only one on the order-items path.
+         */
+        private KStream<Long, EnrichedOrderItem> enrichWithGlobalProducts(
+                        StreamsBuilder streamsBuilder,
+                        KStream<Long, OrderItemData> orderItems,
+                        KStream<Long, ProductData> productsById,
+                        Serde<ProductData> productSerde) {
+                productsById.to(PRODUCTS_BY_ID_TOPIC, Produced.with(Serdes.Long(), productSerde));
+
+                GlobalKTable<Long, ProductData> productsGlobalTable = streamsBuilder.globalTable(
+                                PRODUCTS_BY_ID_TOPIC,
+                                Consumed.with(Serdes.Long(), productSerde),
+                                Materialized.<Long, ProductData, KeyValueStore<Bytes, byte[]>>as(
+                                                "products-global-store")
+                                                .withKeySerde(Serdes.Long())
+                                                .withValueSerde(productSerde));
+
+                return tracer.traced(orderItems
+                                .selectKey((key, value) -> value.getOrderId())
+                                .leftJoin(
+                                                productsGlobalTable,
+                                                (orderId, orderItem) -> orderItem.getProductId(),
+                                                OrderDocumentAssembler::enrich),
+                                "enriched-item", (orderId, enriched) -> orderId);
+        }
+
+        /**
+         * Repartition topics get an explicit partition count, so the number of tasks downstream does
+         * not depend on how the source topics happened to be created. groupBy repartitions inherit it.
+         */
+        private <V> Repartitioned<Long, V> repartitioned(Serde<V> valueSerde) {
+                return Repartitioned.with(Serdes.Long(), valueSerde)
+                                .withNumberOfPartitions(properties.getTopics().getPartitions());
+        }
 }
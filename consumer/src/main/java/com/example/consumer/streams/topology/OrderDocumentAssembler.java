@@ -0,0 +1,79 @@
+package com.example.consumer.streams.topology;
+
+import com.example.consumer.dto.OrderDocument;
+import com.example.consumer.dto.OrderItemDto;
+import com.example.consumer.streams.model.EnrichedOrderItem;
+import com.example.consumer.streams.model.OrderData;
+import com.example.consumer.streams.model.OrderItemData;
+import com.example.consumer.streams.model.OrderItemsAggregate;
+import com.example.consumer.streams.model.ProductData;
+import com.example.consumer.streams.trace.RateLimitedLogger;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the denormalized document from its parts. Shared by the streaming topology and the
+ * snapshot bootstrap so both produce identical documents.
+ */
+@Slf4j
+public final class OrderDocumentAssembler {
+
+        // Every item of a product that has not arrived yet misses it; a few samples per minute suffice
+        private static final RateLimitedLogger MISSING_PRODUCT_LOG =
+                        new RateLimitedLogger(log, 10, Duration.ofMinutes(1));
+
+        private OrderDocumentAssembler() {
+        }
+
+        public static EnrichedOrderItem enrich(OrderItemData orderItem, ProductData product) {
+                EnrichedOrderItem enriched = new EnrichedOrderItem();
+                enriched.setOrderItemId(orderItem.getId());
+                enriched.setOrderId(orderItem.getOrderId());
+                enriched.setProductId(orderItem.getProductId());
+                enriched.setQuantity(orderItem.getQuantity());
+                enriched.setUnitPrice(orderItem.getUnitPrice());
+                enriched.setDeleted(orderItem.isDeleted());
+                enriched.setTransactionId(orderItem.getTransactionId());
+
+                if (product != null) {
+                        enriched.setProductName(product.getName());
+                        enriched.setProductPrice(product.getPrice());
+                } else {
+                        enriched.setProductName("Unknown");
+                        enriched.setProductPrice(null);
+                        MISSING_PRODUCT_LOG.warn("Product not found for enrichment: productId={}",
+                                        orderItem.getProductId());
+                }
+
+                return enriched;
+        }
+
+        public static OrderDocument assemble(OrderItemsAggregate itemsAggregate, OrderData order) {
+                OrderDocument document = new OrderDocument();
+                document.setOrderId(order.getId());
+                document.setUserId(order.getUserId());
+                document.setStatus(order.getStatus());
+                document.setTotalPrice(order.getTotalPrice());
+                document.setOrderedAt(order.getOrderedAt());
+
+                // Runs for every order or item change: presized list, no stream pipeline
+                List<EnrichedOrderItem> enrichedItems = itemsAggregate.getItems();
+                List<OrderItemDto> items = new ArrayList<>(enrichedItems.size());
+                for (int i = 0; i < enrichedItems.size(); i++) {
+                        EnrichedOrderItem enriched = enrichedItems.get(i);
+                        items.add(new OrderItemDto(enriched.getProductId(), enriched.getProductName(),
+                                        enriched.getUnitPrice(), enriched.getQuantity()));
+                }
+                document.setItems(items);
+
+                // Add product-level aggregation (shares the aggregate's product id set, no copy)
+                document.setProductSummary(new OrderDocument.ProductSummary(
+                                itemsAggregate.getUniqueProductIds().size(),
+                                itemsAggregate.getUniqueProductIds(),
+                                itemsAggregate.getTotalQuantity()));
+                return document;
+        }
+}
@@ -0,0 +1,95 @@
+package com.example.consumer.streams.trace;
+
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Logs at most {@code maxLines} lines per interval for a call site that can fire once per record
+ * (a missing product, a malformed event). Lines over the budget are dropped and counted; the first
+ * line of the next interval reports how many were dropped, so a burst shows up as a handful of
+ * samples plus a count instead of a line per record.
+ * <p>
+ * Thread-safe. The arguments are only formatted for lines that are actually written.
+ */
+public final class RateLimitedLogger {
+
+    private final Logger log;
+    private final int maxLines;
+    private final long intervalNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicLong windowStart;
+    private final AtomicLong linesInWindow = new AtomicLong();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    public RateLimitedLogger(Logger log, int maxLines, Duration interval) {
+        this(log, maxLines, interval, System::nanoTime);
+    }
+
+    RateLimitedLogger(Logger log, int maxLines, Duration interval, LongSupplier nanoClock) {
+        this.log = log;
+        this.maxLines = maxLines;
+        this.intervalNanos = interval.toNanos();
+        this.nanoClock = nanoClock;
+        this.windowStart = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    public void warn(String format, Object... arguments) {
+        if (log.isWarnEnabled() && tryAcquire()) {
+            long dropped = suppressed.getAndSet(0);
+            log.warn(withSuppressed(format, dropped), withSuppressed(arguments, dropped));
+        }
+    }
+
+    public void info(String format, Object... arguments) {
+        if (log.isInfoEnabled() && tryAcquire()) {
+            long dropped = suppressed.getAndSet(0);
+            log.info(withSuppressed(format, dropped), withSuppressed(arguments, dropped));
+        }
+    }
+
+    /**
+     * Lines dropped since the last written line.
+     */
+    public long suppressedCount() {
+        return suppressed.get();
+    }
+
+    boolean tryAcquire() {
+        long now = nanoClock.getAsLong();
+        long start = windowStart.get();
+        if (now - start >= intervalNanos && windowStart.compareAndSet(start, now)) {
+            linesInWindow.set(0);
+        }
+        if (linesInWindow.incrementAndGet() <= maxLines) {
+            return true;
+        }
+        suppressed.incrementAndGet();
+        return false;
+    }
+
+    private static String withSuppressed(String format, long dropped) {
+        return dropped > 0 ? format + " ({} similar lines suppressed)" : format;
+    }
+
+    private static Object[] withSuppressed(Object[] arguments, long dropped) {
+        if (dropped == 0) {
+            return arguments;
+        }
+        Object[] extended = new Object[arguments.length + 1];
+        // A trailing Throwable stays last so SLF4J still prints its stack trace
+        int last = arguments.length - 1;
+        if (last >= 0 && arguments[last] instanceof Throwable) {
+            System.arraycopy(arguments, 0, extended, 0, last);
+            extended[last] = dropped;
+            extended[last + 1] = arguments[last];
+        } else {
+            System.arraycopy(arguments, 0, extended, 0, arguments.length);
+            extended[arguments.length] = dropped;
+        }
+        return extended;
+    }
+}
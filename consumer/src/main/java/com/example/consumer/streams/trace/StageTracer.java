@@ -0,0 +1,107 @@
+package com.example.consumer.streams.trace;
+
+import com.example.consumer.config.TopologyProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.KeyValueMapper;
+import org.apache.kafka.streams.kstream.Named;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Observability of the denormalization topology without a log line per record.
+ * <p>
+ * Volume is reported by per-stage counters ({@value #STAGE_RECORDS_METRIC}, tagged with the stage).
+ * Individual orders can be followed through the stages on demand: with tracing enabled, every stage
+ * boundary gets a trace node that logs the records of the order ids registered through the
+ * {@code streamtrace} actuator endpoint, rate-limited. With tracing disabled (the default) no trace
+ * nodes are added to the topology at all, so records pay nothing for it.
+ */
+@Component
+@Slf4j
+public class StageTracer {
+
+    public static final String STAGE_RECORDS_METRIC = "stream.stage.records";
+
+    private final boolean enabled;
+    private final MeterRegistry meterRegistry;
+    private final RateLimitedLogger traceLog;
+    private final Set<Long> tracedOrders = ConcurrentHashMap.newKeySet();
+
+    public StageTracer(TopologyProperties properties, MeterRegistry meterRegistry) {
+        TopologyProperties.Trace trace = properties.getTrace();
+        this.enabled = trace.isEnabled();
+        this.meterRegistry = meterRegistry;
+        this.traceLog = new RateLimitedLogger(log, trace.getMaxLinesPerSecond(), Duration.ofSeconds(1));
+    }
+
+    /**
+     * Whether trace nodes are part of the topology. Fixed at startup: the topology cannot change
+     * while it runs, only the set of traced orders can.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Counter stageCounter(String stage) {
+        return Counter.builder(STAGE_RECORDS_METRIC)
+                .description("Records passing a stage of the denormalization topology")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    public Counter stageCounter(String stage, String source) {
+        return Counter.builder(STAGE_RECORDS_METRIC)
+                .description("Records passing a stage of the denormalization topology")
+                .tag("stage", stage)
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds a trace node after {@code stream} when tracing is enabled; otherwise returns the stream
+     * unchanged. {@code orderIdOf} is only called while at least one order is traced.
+     */
+    public <K, V> KStream<K, V> traced(KStream<K, V> stream, String stage, KeyValueMapper<K, V, Long> orderIdOf) {
+        if (!enabled) {
+            return stream;
+        }
+        return stream.peek((key, value) -> {
+            if (!tracedOrders.isEmpty()) {
+                record(stage, orderIdOf.apply(key, value), key, value);
+            }
+        }, Named.as("trace-" + stage));
+    }
+
+    void record(String stage, Long orderId, Object key, Object value) {
+        if (orderId != null && tracedOrders.contains(orderId)) {
+            traceLog.info("Trace: stage={}, orderId={}, key={}, value={}", stage, orderId, key, value);
+        }
+    }
+
+    public boolean trace(long orderId) {
+        return tracedOrders.add(orderId);
+    }
+
+    public boolean untrace(long orderId) {
+        return tracedOrders.remove(orderId);
+    }
+
+    public void clear() {
+        tracedOrders.clear();
+    }
+
+    public Set<Long> tracedOrders() {
+        return new TreeSet<>(tracedOrders);
+    }
+
+    public long suppressedLines() {
+        return traceLog.suppressedCount();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.consumer.streams.trace;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code /actuator/streamtrace}: which orders are traced through the topology. {@code POST
+ * /actuator/streamtrace/{orderId}} starts tracing an order, {@code DELETE} with an id stops it,
+ * {@code DELETE} without one stops all.
+ */
+@Component
+@Endpoint(id = "streamtrace")
+@Slf4j
+@RequiredArgsConstructor
+public class StreamTraceEndpoint {
+
+    private final StageTracer tracer;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", tracer.isEnabled());
+        status.put("tracedOrders", tracer.tracedOrders());
+        status.put("suppressedLines", tracer.suppressedLines());
+        return status;
+    }
+
+    @WriteOperation
+    public Map<String, Object> trace(@Selector long orderId) {
+        if (tracer.trace(orderId)) {
+            log.info("Tracing order {} through the topology (trace nodes enabled={})", orderId,
+                    tracer.isEnabled());
+        }
+        return status();
+    }
+
+    @DeleteOperation
+    public Map<String, Object> untrace(@Selector long orderId) {
+        if (tracer.untrace(orderId)) {
+            log.info("Stopped tracing order {}", orderId);
+        }
+        return status();
+    }
+
+    @DeleteOperation
+    public Map<String, Object> clear() {
+        tracer.clear();
+        return status();
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.consumer.streams.transaction;
+
+import com.example.consumer.dto.OrderDocument;
+import com.example.consumer.streams.model.EnrichedOrderItem;
+import com.example.consumer.streams.model.OrderData;
+import com.example.consumer.streams.model.OrderItemsAggregate;
+import com.example.consumer.streams.model.PendingDocument;
+import com.example.consumer.streams.model.SettledTransactions;
+import com.example.consumer.streams.model.TransactionSummary;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.TimestampedKeyValueStore;
+import org.apache.kafka.streams.state.ValueAndTimestamp;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds back order documents until the Debezium transactions that changed them are complete, so an
+ * order created with N items is written once instead of N times.
+ * <p>
+ * A transaction is complete for an order once its END event is in the transactions store and the
+ * order row and items carrying its id match the per-table event counts of that END event.
+ * Transactions already reflected in the last written document are not checked again. Transactions
+ * that touch several orders (or delete items) never match exactly and are released by the max-wait
+ * fallback. Rows without transaction metadata (e.g. snapshot reads) never hold a document back.
+ */
+@Slf4j
+public class TransactionBufferProcessor implements Processor<Long, OrderDocument, Long, OrderDocument> {
+
+    public static final String PENDING_STORE = "pending-documents-store";
+    public static final String SETTLED_STORE = "settled-transactions-store";
+
+    static final String ORDERS_COLLECTION = "public.orders";
+    static final String ORDER_ITEMS_COLLECTION = "public.order_items";
+
+    private final String ordersStoreName;
+    private final String aggregateStoreName;
+    private final String transactionsStoreName;
+    private final Duration maxWait;
+    private final Duration checkInterval;
+
+    private ProcessorContext<Long, OrderDocument> context;
+    private KeyValueStore<Long, PendingDocument> pendingStore;
+    private KeyValueStore<Long, SettledTransactions> settledStore;
+    private TimestampedKeyValueStore<Long, OrderData> ordersStore;
+    private TimestampedKeyValueStore<Long, OrderItemsAggregate> aggregateStore;
+    private TimestampedKeyValueStore<String, TransactionSummary> transactionsStore;
+
+    public TransactionBufferProcessor(
+            String ordersStoreName,
+            String aggregateStoreName,
+            String transactionsStoreName,
+            Duration maxWait,
+            Duration checkInterval) {
+        this.ordersStoreName = ordersStoreName;
+        this.aggregateStoreName = aggregateStoreName;
+        this.transactionsStoreName = transactionsStoreName;
+        this.maxWait = maxWait;
+        this.checkInterval = checkInterval;
+    }
+
+    @Override
+    public void init(ProcessorContext<Long, OrderDocument> context) {
+        this.context = context;
+        this.pendingStore = context.getStateStore(PENDING_STORE);
+        this.settledStore = context.getStateStore(SETTLED_STORE);
+        this.ordersStore = context.getStateStore(ordersStoreName);
+        this.aggregateStore = context.getStateStore(aggregateStoreName);
+        this.transactionsStore = context.getStateStore(transactionsStoreName);
+        context.schedule(checkInterval, PunctuationType.WALL_CLOCK_TIME, this::releaseReady);
+    }
+
+    @Override
+    public void process(Record<Long, OrderDocument> record) {
+        Long orderId = record.key();
+
+        if (record.value() == null) {
+            pendingStore.delete(orderId);
+            settledStore.delete(orderId);
+            context.forward(record);
+            return;
+        }
+
+        Map<String, long[]> applied = appliedTransactions(orderId);
+        if (isComplete(orderId, applied)) {
+            release(orderId, record, applied);
+            return;
+        }
+
+        PendingDocument pending = pendingStore.get(orderId);
+        long heldSinceMs = pending != null ? pending.getHeldSinceMs() : context.currentSystemTimeMs();
+        pendingStore.put(orderId, new PendingDocument(record.value(), heldSinceMs));
+        log.debug("Holding document until its transaction completes: orderId={}", orderId);
+    }
+
+    private void releaseReady(long now) {
+        List<KeyValue<Long, PendingDocument>> ready = new ArrayList<>();
+        try (KeyValueIterator<Long, PendingDocument> iterator = pendingStore.all()) {
+            while (iterator.hasNext()) {
+                KeyValue<Long, PendingDocument> entry = iterator.next();
+                if (now - entry.value.getHeldSinceMs() >= maxWait.toMillis()) {
+                    log.debug("Releasing document after max wait: orderId={}", entry.key);
+                    ready.add(entry);
+                } else if (isComplete(entry.key, appliedTransactions(entry.key))) {
+                    ready.add(entry);
+                }
+            }
+        }
+
+        for (KeyValue<Long, PendingDocument> entry : ready) {
+            release(entry.key, new Record<>(entry.key, entry.value.getDocument(), now),
+                    appliedTransactions(entry.key));
+        }
+    }
+
+    private void release(Long orderId, Record<Long, OrderDocument> record, Map<String, long[]> applied) {
+        pendingStore.delete(orderId);
+        settledStore.put(orderId, new SettledTransactions(new HashSet<>(applied.keySet())));
+        context.forward(record);
+    }
+
+    /**
+     * Rows of this order per transaction id: [orders, order_items].
+     */
+    private Map<String, long[]> appliedTransactions(Long orderId) {
+        Map<String, long[]> applied = new HashMap<>();
+        OrderData order = ValueAndTimestamp.getValueOrNull(ordersStore.get(orderId));
+        if (order != null && order.getTransactionId() != null) {
+            applied.computeIfAbsent(order.getTransactionId(), id -> new long[2])[0]++;
+        }
+        OrderItemsAggregate aggregate = ValueAndTimestamp.getValueOrNull(aggregateStore.get(orderId));
+        if (aggregate != null) {
+            for (EnrichedOrderItem item : aggregate.getItems()) {
+                if (item.getTransactionId() != null) {
+                    applied.computeIfAbsent(item.getTransactionId(), id -> new long[2])[1]++;
+                }
+            }
+        }
+        return applied;
+    }
+
+    private boolean isComplete(Long orderId, Map<String, long[]> applied) {
+        SettledTransactions settled = settledStore.get(orderId);
+        for (Map.Entry<String, long[]> entry : applied.entrySet()) {
+            if (settled != null && settled.getTransactionIds().contains(entry.getKey())) {
+                continue;
+            }
+            TransactionSummary summary = ValueAndTimestamp.getValueOrNull(transactionsStore.get(entry.getKey()));
+            if (summary == null
+                    || summary.countFor(ORDERS_COLLECTION) != entry.getValue()[0]
+                    || summary.countFor(ORDER_ITEMS_COLLECTION) != entry.getValue()[1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
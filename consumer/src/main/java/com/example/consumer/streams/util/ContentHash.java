@@ -0,0 +1,27 @@
+package com.example.consumer.streams.util;
+
+/**
+ * 64-bit FNV-1a hash, used to detect documents whose content did not change. Not cryptographic; at
+ * 64 bits an accidental collision between two versions of the same document is negligible.
+ */
+public final class ContentHash {
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private ContentHash() {
+    }
+
+    public static long of(byte[] bytes) {
+        return of(bytes, 0, bytes.length);
+    }
+
+    public static long of(byte[] bytes, int offset, int length) {
+        long hash = OFFSET_BASIS;
+        for (int i = offset; i < offset + length; i++) {
+            hash ^= bytes[i] & 0xff;
+            hash *= PRIME;
+        }
+        return hash;
+    }
+}
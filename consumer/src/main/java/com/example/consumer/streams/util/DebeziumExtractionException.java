@@ -0,0 +1,11 @@
+package com.example.consumer.streams.util;
+
+/**
+ * Thrown when a Debezium envelope cannot be parsed into the target model.
+ */
+public class DebeziumExtractionException extends RuntimeException {
+
+    public DebeziumExtractionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
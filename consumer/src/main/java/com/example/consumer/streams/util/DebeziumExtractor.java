@@ -1,83 +1,105 @@
 package com.example.consumer.streams.util;
 
+import com.example.consumer.streams.model.DebeziumChange;
+import com.example.consumer.streams.model.DebeziumEnvelope;
+import com.example.consumer.streams.model.TransactionAware;
+import com.example.consumer.streams.model.TransactionSummary;
+import com.example.consumer.streams.serde.JsonCodecs;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.extern.slf4j.Slf4j;
+import com.fasterxml.jackson.databind.ObjectReader;
 
-@Slf4j
-public class DebeziumExtractor {
-
-    private static final ObjectMapper mapper = new ObjectMapper();
-
-    public static <T> T extractAfter(String debeziumJson, Class<T> targetClass) {
-        try {
-            if (debeziumJson == null) {
-                return null;
-            }
-
-            JsonNode envelope = mapper.readTree(debeziumJson);
-            String op = envelope.get("op").asText();
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
-            // Handle delete operations (tombstone)
-            if ("d".equals(op)) {
-                log.debug("Detected delete operation, returning null");
-                return null;
-            }
+public class DebeziumExtractor {
 
-            // Extract the "after" field for create/update operations
-            JsonNode after = envelope.get("after");
-            if (after == null || after.isNull()) {
-                log.warn("No 'after' field found in Debezium envelope");
-                return null;
-            }
+    private static final JsonCodecs codecs = JsonCodecs.debezium();
+    private static final ObjectMapper mapper = codecs.mapper();
 
-            return mapper.treeToValue(after, targetClass);
-        } catch (Exception e) {
-            log.error("Failed to extract Debezium after field", e);
-            throw new RuntimeException("Failed to extract Debezium after field", e);
+    // Envelope reader per row type, bound once: no JavaType construction or cache lookup per event
+    private static final ClassValue<ObjectReader> ENVELOPE_READERS = new ClassValue<>() {
+        @Override
+        protected ObjectReader computeValue(Class<?> rowType) {
+            return codecs.reader(mapper.getTypeFactory().constructParametricType(DebeziumEnvelope.class, rowType));
         }
+    };
+
+    /**
+     * Reads the operation with both row images in one pass, binding the envelope straight to the row
+     * type (no intermediate tree). Returns null for Kafka tombstones (the null-valued record Debezium
+     * emits after a delete); those carry no row and are dropped.
+     */
+    public static <T> DebeziumChange<T> extractChange(String debeziumJson, Class<T> targetClass) {
+        return extractChangeFromBytes(debeziumJson != null ? debeziumJson.getBytes(StandardCharsets.UTF_8) : null,
+                targetClass);
     }
 
-    public static String getOperation(String debeziumJson) {
+    /**
+     * {@link #extractChange(String, Class)} of the raw UTF-8 record value, without decoding it to a
+     * {@code String} first.
+     */
+    public static <T> DebeziumChange<T> extractChangeFromBytes(byte[] debeziumJson, Class<T> targetClass) {
         try {
             if (debeziumJson == null) {
                 return null;
             }
 
-            JsonNode envelope = mapper.readTree(debeziumJson);
-            JsonNode opNode = envelope.get("op");
-
-            return opNode != null ? opNode.asText() : null;
+            DebeziumEnvelope<T> envelope = ENVELOPE_READERS.get(targetClass).readValue(debeziumJson);
+            return toChange(envelope);
         } catch (Exception e) {
-            log.error("Failed to extract operation type from Debezium envelope", e);
-            return null;
+            // Not logged here: callers dead-letter or skip the record and log it there, rate-limited
+            throw new DebeziumExtractionException("Failed to extract Debezium change", e);
         }
     }
 
-    public static Long extractDeletedId(String debeziumJson) {
-        try {
-            if (debeziumJson == null) {
-                return null;
-            }
+    private static <T> DebeziumChange<T> toChange(DebeziumEnvelope<T> envelope) {
+        DebeziumEnvelope.Transaction transaction = envelope.getTransaction();
+        String transactionId = transaction != null ? transaction.getId() : null;
+        DebeziumEnvelope.Source source = envelope.getSource();
+        return new DebeziumChange<>(
+                envelope.getOp(),
+                tagged(envelope.getBefore(), transactionId),
+                tagged(envelope.getAfter(), transactionId),
+                source != null ? source.getLsn() : null);
+    }
 
-            JsonNode envelope = mapper.readTree(debeziumJson);
-            String op = getOperation(debeziumJson);
+    private static <T> T tagged(T value, String transactionId) {
+        if (value instanceof TransactionAware transactionAware) {
+            transactionAware.setTransactionId(transactionId);
+        }
+        return value;
+    }
 
-            if (!"d".equals(op)) {
-                return null;
-            }
+    /**
+     * Reads an event of the Debezium transaction metadata topic. Only END events carry the per-table
+     * event counts; BEGIN events and tombstones return null.
+     */
+    public static TransactionSummary extractTransactionEnd(String transactionJson) {
+        return extractTransactionEndFromBytes(
+                transactionJson != null ? transactionJson.getBytes(StandardCharsets.UTF_8) : null);
+    }
 
-            // For deletes, the ID is in the "before" field
-            JsonNode before = envelope.get("before");
-            if (before == null || before.isNull()) {
+    /**
+     * {@link #extractTransactionEnd(String)} of the raw UTF-8 record value.
+     */
+    public static TransactionSummary extractTransactionEndFromBytes(byte[] transactionJson) {
+        try {
+            if (transactionJson == null) {
                 return null;
             }
 
-            JsonNode idNode = before.get("id");
-            return idNode != null ? idNode.asLong() : null;
+            return transactionEnd(mapper.readTree(transactionJson));
         } catch (Exception e) {
-            log.error("Failed to extract deleted ID from Debezium envelope", e);
+            // Like extractChange: the caller dead-letters the record and logs it, rate-limited
+            throw new DebeziumExtractionException("Failed to extract Debezium transaction event", e);
+        }
+    }
+
+    private static TransactionSummary transactionEnd(JsonNode event) throws IOException {
+        if (!"END".equals(event.path("status").asText())) {
             return null;
         }
+        return codecs.reader(TransactionSummary.class).readValue(event);
     }
 }
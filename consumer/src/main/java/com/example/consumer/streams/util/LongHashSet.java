@@ -0,0 +1,304 @@
+package com.example.consumer.streams.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.LongConsumer;
+
+/**
+ * Set of {@code long}s in one open-addressing table ({@code long[]}, linear probing), instead of a
+ * {@code HashSet<Long>} with a boxed {@code Long} and a map node per entry. The primitive methods
+ * ({@link #add(long)}, {@link #contains(long)}, {@link #forEachLong(LongConsumer)}) never box; the
+ * {@code Set<Long>} view boxes per element and exists for callers that only read.
+ * <p>
+ * JSON is a plain array of numbers in ascending order, so equal sets always serialize to the same
+ * bytes whatever order they were built in, and a {@code HashSet<Long>} array reads back into it.
+ * Not thread-safe; nulls are not stored.
+ */
+@JsonSerialize(using = LongHashSet.Serializer.class)
+@JsonDeserialize(using = LongHashSet.Deserializer.class)
+public final class LongHashSet extends AbstractSet<Long> {
+
+    // Marks a free slot; the key 0 itself is tracked by containsZero
+    private static final long FREE = 0L;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int MIN_CAPACITY = 4;
+
+    private long[] keys;
+    private int mask;
+    private int resizeAt;
+    private int size;
+    private boolean containsZero;
+
+    public LongHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongHashSet(int expectedSize) {
+        allocate(tableSize(expectedSize));
+    }
+
+    /**
+     * {@code values} as a LongHashSet: the same instance when it already is one, otherwise a copy.
+     */
+    public static LongHashSet from(Collection<Long> values) {
+        if (values instanceof LongHashSet set) {
+            return set;
+        }
+        LongHashSet set = new LongHashSet(values == null ? 0 : values.size());
+        if (values != null) {
+            for (Long value : values) {
+                if (value != null) {
+                    set.add(value.longValue());
+                }
+            }
+        }
+        return set;
+    }
+
+    public boolean add(long key) {
+        if (key == FREE) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            return true;
+        }
+        int slot = slot(key);
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        if (++size >= resizeAt) {
+            rehash(keys.length * 2);
+        }
+        return true;
+    }
+
+    public boolean contains(long key) {
+        if (key == FREE) {
+            return containsZero;
+        }
+        int slot = slot(key);
+        long current;
+        while ((current = keys[slot]) != FREE) {
+            if (current == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public boolean remove(long key) {
+        if (key == FREE) {
+            boolean removed = containsZero;
+            containsZero = false;
+            return removed;
+        }
+        int slot = slot(key);
+        long current;
+        while ((current = keys[slot]) != FREE) {
+            if (current == key) {
+                size--;
+                shiftKeys(slot);
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public void forEachLong(LongConsumer action) {
+        if (containsZero) {
+            action.accept(0L);
+        }
+        for (long key : keys) {
+            if (key != FREE) {
+                action.accept(key);
+            }
+        }
+    }
+
+    /**
+     * The elements in ascending order, in a new array.
+     */
+    public long[] toSortedArray() {
+        long[] sorted = new long[size()];
+        int i = 0;
+        if (containsZero) {
+            sorted[i++] = 0L;
+        }
+        for (long key : keys) {
+            if (key != FREE) {
+                sorted[i++] = key;
+            }
+        }
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    @Override
+    public boolean add(Long value) {
+        return add(Objects.requireNonNull(value, "LongHashSet does not store null").longValue());
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        return value instanceof Long key && contains(key.longValue());
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        return value instanceof Long key && remove(key.longValue());
+    }
+
+    @Override
+    public int size() {
+        return containsZero ? size + 1 : size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        size = 0;
+        containsZero = false;
+    }
+
+    /**
+     * Boxing, read-only iteration (zero first, then table order).
+     */
+    @Override
+    public Iterator<Long> iterator() {
+        return new Iterator<>() {
+            private boolean zeroPending = containsZero;
+            private int slot = nextSlot(0);
+
+            @Override
+            public boolean hasNext() {
+                return zeroPending || slot < keys.length;
+            }
+
+            @Override
+            public Long next() {
+                if (zeroPending) {
+                    zeroPending = false;
+                    return 0L;
+                }
+                if (slot >= keys.length) {
+                    throw new NoSuchElementException();
+                }
+                long key = keys[slot];
+                slot = nextSlot(slot + 1);
+                return key;
+            }
+
+            private int nextSlot(int from) {
+                int i = from;
+                while (i < keys.length && keys[i] == FREE) {
+                    i++;
+                }
+                return i;
+            }
+        };
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * Backward-shift deletion: moves the following keys of the probe run up, so lookups never need
+     * tombstones.
+     */
+    private void shiftKeys(int slot) {
+        while (true) {
+            int last = slot;
+            slot = (slot + 1) & mask;
+            long key;
+            while (true) {
+                if ((key = keys[slot]) == FREE) {
+                    keys[last] = FREE;
+                    return;
+                }
+                int ideal = slot(key);
+                // The key may move to 'last' only if its ideal slot is not in (last, slot]
+                if (last <= slot ? last >= ideal || ideal > slot : last >= ideal && ideal > slot) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[last] = key;
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] old = keys;
+        allocate(capacity);
+        for (long key : old) {
+            if (key != FREE) {
+                int slot = slot(key);
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = Math.max(1, (int) (capacity * LOAD_FACTOR));
+    }
+
+    static int tableSize(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR) + 1;
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit(needed - 1) << 1);
+    }
+
+    public static final class Serializer extends JsonSerializer<LongHashSet> {
+        @Override
+        public void serialize(LongHashSet set, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            long[] sorted = set.toSortedArray();
+            gen.writeArray(sorted, 0, sorted.length);
+        }
+    }
+
+    public static final class Deserializer extends JsonDeserializer<LongHashSet> {
+        @Override
+        public LongHashSet deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (!parser.isExpectedStartArrayToken()) {
+                return (LongHashSet) context.handleUnexpectedToken(LongHashSet.class, parser);
+            }
+            LongHashSet set = new LongHashSet();
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == JsonToken.VALUE_NUMBER_INT) {
+                    set.add(parser.getLongValue());
+                } else if (token != JsonToken.VALUE_NULL) {
+                    set.add(context.readValue(parser, Long.class).longValue());
+                }
+            }
+            return set;
+        }
+    }
+}
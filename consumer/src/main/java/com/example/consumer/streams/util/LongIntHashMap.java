@@ -0,0 +1,105 @@
+package com.example.consumer.streams.util;
+
+import java.util.Arrays;
+
+/**
+ * {@code long -> int} map in two parallel open-addressing arrays (linear probing), without boxing
+ * keys or values. Built for in-memory indexes that are rebuilt rather than edited, so there is no
+ * removal. Not thread-safe.
+ */
+public final class LongIntHashMap {
+
+    // Marks a free slot; the key 0 itself is kept in zeroValue
+    private static final long FREE = 0L;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int resizeAt;
+    private int size;
+    private boolean containsZero;
+    private int zeroValue;
+
+    public LongIntHashMap(int expectedSize) {
+        allocate(LongHashSet.tableSize(expectedSize));
+    }
+
+    /**
+     * The value of {@code key}, or {@code missing} when it has none.
+     */
+    public int get(long key, int missing) {
+        if (key == FREE) {
+            return containsZero ? zeroValue : missing;
+        }
+        int slot = slot(key);
+        long current;
+        while ((current = keys[slot]) != FREE) {
+            if (current == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return missing;
+    }
+
+    public void put(long key, int value) {
+        if (key == FREE) {
+            containsZero = true;
+            zeroValue = value;
+            return;
+        }
+        int slot = slot(key);
+        long current;
+        while ((current = keys[slot]) != FREE) {
+            if (current == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size >= resizeAt) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    public int size() {
+        return containsZero ? size + 1 : size;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        size = 0;
+        containsZero = false;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = Math.max(1, (int) (capacity * LOAD_FACTOR));
+    }
+}
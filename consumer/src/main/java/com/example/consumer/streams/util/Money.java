@@ -0,0 +1,93 @@
+package com.example.consumer.streams.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money as a scaled {@code long}: an amount in cents (scale 2, the scale of every price column).
+ * Sums and line totals are exact {@code long} arithmetic instead of a {@code BigDecimal} per step;
+ * {@link #toBigDecimal(long)} turns the result back into the amount the models and documents expose.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    /**
+     * Returned by {@link #parseCents(char[], int, int)} for text that is not a plain decimal of at most
+     * {@link #SCALE} fraction digits.
+     */
+    public static final long NOT_PLAIN = Long.MIN_VALUE;
+
+    // Digits whose value in cents always fits in a long
+    private static final int MAX_DIGITS = 16;
+
+    private Money() {
+    }
+
+    /**
+     * Cents of {@code amount}, rounded half-even if it has more than {@link #SCALE} fraction digits;
+     * {@code 0} for {@code null}. Throws {@link ArithmeticException} past the {@code long} range.
+     */
+    public static long toCents(BigDecimal amount) {
+        if (amount == null) {
+            return 0L;
+        }
+        return amount.setScale(SCALE, RoundingMode.HALF_EVEN).scaleByPowerOfTen(SCALE).longValueExact();
+    }
+
+    /**
+     * The amount of {@code cents}, backed by the {@code long} itself (no {@code BigInteger}).
+     */
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * Line total of {@code quantity} units at {@code unitCents} each.
+     */
+    public static long times(long unitCents, long quantity) {
+        return Math.multiplyExact(unitCents, quantity);
+    }
+
+    /**
+     * Cents of a decimal such as {@code 99.9}, {@code -12.50} or {@code 7}, read straight from a
+     * character buffer, or {@link #NOT_PLAIN} for anything else (exponent, more than {@link #SCALE}
+     * fraction digits, more than 16 digits, surrounding blanks), which callers hand to
+     * {@code BigDecimal}.
+     */
+    public static long parseCents(char[] buffer, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        if (i == end) {
+            return NOT_PLAIN;
+        }
+        boolean negative = buffer[i] == '-';
+        if (negative || buffer[i] == '+') {
+            i++;
+        }
+        long value = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; i < end; i++) {
+            char c = buffer[i];
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                return NOT_PLAIN;
+            }
+            if (++digits > MAX_DIGITS || (fractionDigits >= 0 && ++fractionDigits > SCALE)) {
+                return NOT_PLAIN;
+            }
+            value = value * 10 + (c - '0');
+        }
+        if (digits == 0) {
+            return NOT_PLAIN;
+        }
+        for (int scale = Math.max(fractionDigits, 0); scale < SCALE; scale++) {
+            value *= 10;
+        }
+        return negative ? -value : value;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.consumer.perf;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * The broker and the database of the harness, started once per JVM and stopped when it exits: a
+ * single KRaft broker with the single-replica settings exactly-once processing needs, and a
+ * PostgreSQL server with the consumer's schema. PostgreSQL runs from the binaries bundled with
+ * zonky's embedded-postgres as a child process, so nothing has to be installed or downloaded.
+ */
+final class EmbeddedInfrastructure {
+
+    private static final String SCHEMA = "/perf-schema.sql";
+
+    private static EmbeddedInfrastructure instance;
+
+    private final EmbeddedKafkaBroker kafka;
+    private final EmbeddedPostgres postgres;
+
+    private EmbeddedInfrastructure() throws IOException, SQLException {
+        kafka = new EmbeddedKafkaKraftBroker(1, 1).brokerProperties(Map.of(
+                "offsets.topic.replication.factor", "1",
+                "transaction.state.log.replication.factor", "1",
+                "transaction.state.log.min.isr", "1",
+                // The consumer group is assigned as soon as the application joins
+                "group.initial.rebalance.delay.ms", "0"));
+        kafka.afterPropertiesSet();
+
+        postgres = EmbeddedPostgres.start();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(schema());
+        }
+    }
+
+    static synchronized EmbeddedInfrastructure get() {
+        if (instance == null) {
+            try {
+                instance = new EmbeddedInfrastructure();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Failed to create the consumer schema", e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(instance::stop, "perf-infrastructure-stop"));
+        }
+        return instance;
+    }
+
+    String bootstrapServers() {
+        return kafka.getBrokersAsString();
+    }
+
+    String jdbcUrl() {
+        return postgres.getJdbcUrl("postgres", "postgres");
+    }
+
+    private void stop() {
+        kafka.destroy();
+        try {
+            postgres.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String schema() throws IOException {
+        try (InputStream in = EmbeddedInfrastructure.class.getResourceAsStream(SCHEMA)) {
+            if (in == null) {
+                throw new IllegalStateException(SCHEMA + " not on the classpath");
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.consumer.perf;
+
+import com.example.loadgen.config.LoadProperties;
+import com.example.loadgen.report.LatencyRecorder;
+import com.example.loadgen.target.CdcEventTarget;
+import com.example.loadgen.target.KafkaRecordSink;
+import com.example.loadgen.workload.NewOrder;
+import com.example.loadgen.workload.Product;
+import com.example.loadgen.workload.Workload;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.KafkaStreams;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pushes synthetic orders, as the change events Debezium would emit for them, through the whole
+ * consumer: {@code OrderDenormalizationTopology} on an embedded broker and {@code DocumentStoreService}
+ * on an embedded PostgreSQL. An order is done when its document in {@code document_store} has all of
+ * its items; its latency runs from just before its events were sent to the {@code updated_at} of that
+ * write (same JVM, same clock).
+ * <p>
+ * Run with {@code mvn -Pperf test}; the {@code perf.*} system properties below set the size of the run
+ * and the budgets it is asserted against. The defaults are loose enough for a laptop; tighten them for
+ * the box that runs the profile regularly.
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class OrderPipelinePerfTest {
+
+    private static final int ORDERS = Integer.getInteger("perf.orders", 20_000);
+    private static final int WARMUP_ORDERS = Integer.getInteger("perf.warmup-orders", 2_000);
+    private static final int PRODUCTS = Integer.getInteger("perf.products", 1_000);
+    // 0 = as fast as the senders go
+    private static final double RATE = Double.parseDouble(System.getProperty("perf.rate", "0"));
+    private static final int MAX_IN_FLIGHT = Integer.getInteger("perf.max-in-flight", 256);
+    private static final Duration TIMEOUT = Duration.parse(System.getProperty("perf.timeout", "PT10M"));
+
+    private static final double MIN_THROUGHPUT = Double.parseDouble(System.getProperty("perf.min-throughput", "100"));
+    private static final Duration MAX_P99 = Duration.parse(System.getProperty("perf.max-p99", "PT30S"));
+    private static final long MAX_LIVE_HEAP_MB = Long.getLong("perf.max-live-heap-mb", 512);
+    private static final double MAX_CPU_MS_PER_ORDER =
+            Double.parseDouble(System.getProperty("perf.max-cpu-ms-per-order", "50"));
+
+    private static final Path STATE_DIR = stateDir();
+
+    @Autowired
+    private StreamsBuilderFactoryBean streamsBuilderFactoryBean;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void infrastructure(DynamicPropertyRegistry registry) {
+        EmbeddedInfrastructure infrastructure = EmbeddedInfrastructure.get();
+        registry.add("spring.datasource.url", infrastructure::jdbcUrl);
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("spring.kafka.bootstrap-servers", infrastructure::bootstrapServers);
+        registry.add("kafka.streams.state.dir", STATE_DIR::toString);
+        registry.add("kafka.streams.standby-replicas", () -> 0);
+        // Only the document pipeline is measured
+        registry.add("consumer.analytics.enabled", () -> false);
+    }
+
+    @Test
+    void shouldDenormalizeOrdersWithinThroughputLatencyAndResourceBudgets() throws Exception {
+        // Given: The application has its partitions, and a catalog of products
+        awaitRunning();
+        LoadProperties load = new LoadProperties();
+        load.getCatalog().setProducts(PRODUCTS);
+        Random random = new Random(load.getSeed());
+
+        try (CdcEventTarget target = new CdcEventTarget(
+                new KafkaRecordSink(EmbeddedInfrastructure.get().bootstrapServers()), load.getCdc(),
+                new ObjectMapper())) {
+            Workload workload = new Workload(load, createCatalog(target, load, random), random);
+
+            // When: Warm-up orders go through first, then the measured ones
+            await(send(target, workload, WARMUP_ORDERS));
+            ResourceUsage.resetPeaks();
+            ResourceUsage start = ResourceUsage.sample();
+            Map<Long, SentOrder> sent = send(target, workload, ORDERS);
+            Map<Long, LocalDateTime> written = await(sent);
+            ResourceUsage usage = ResourceUsage.sample().since(start);
+
+            // Then
+            LatencyRecorder latencies = new LatencyRecorder("order->document");
+            LocalDateTime first = LocalDateTime.MAX;
+            LocalDateTime last = LocalDateTime.MIN;
+            for (Map.Entry<Long, SentOrder> order : sent.entrySet()) {
+                LocalDateTime sentAt = order.getValue().getSentAt();
+                LocalDateTime writtenAt = written.get(order.getKey());
+                latencies.record(Duration.between(sentAt, writtenAt).toNanos(), true, true);
+                first = sentAt.isBefore(first) ? sentAt : first;
+                last = writtenAt.isAfter(last) ? writtenAt : last;
+            }
+            double seconds = Duration.between(first, last).toNanos() / 1e9;
+            double throughput = ORDERS / seconds;
+            LatencyRecorder.Summary summary = latencies.measured();
+            double cpuMsPerOrder = usage.getCpuNanos() / 1e6 / ORDERS;
+            long heapPeakMb = usage.getHeapPeakBytes() >> 20;
+            long liveHeapMb = ResourceUsage.liveHeapBytes() >> 20;
+
+            log.info("Performance run: {} orders in {} s, {} orders/s", ORDERS, String.format("%.1f", seconds),
+                    String.format("%.1f", throughput));
+            log.info("  {}", summary.format(seconds));
+            log.info("  cpu {} ms/order, gc {} collections {} ms, heap peak {} MB, live heap {} MB, state dir {} MB",
+                    String.format("%.2f", cpuMsPerOrder), usage.getGcCount(), usage.getGcMillis(), heapPeakMb,
+                    liveHeapMb, ResourceUsage.directorySize(STATE_DIR) >> 20);
+
+            assertTrue(throughput >= MIN_THROUGHPUT,
+                    "throughput " + throughput + " orders/s below perf.min-throughput " + MIN_THROUGHPUT);
+            assertTrue(summary.getP99Nanos() <= MAX_P99.toNanos(),
+                    "p99 latency " + Duration.ofNanos(summary.getP99Nanos()) + " above perf.max-p99 " + MAX_P99);
+            assertTrue(liveHeapMb <= MAX_LIVE_HEAP_MB,
+                    "live heap " + liveHeapMb + " MB above perf.max-live-heap-mb " + MAX_LIVE_HEAP_MB);
+            assertTrue(cpuMsPerOrder <= MAX_CPU_MS_PER_ORDER,
+                    "cpu " + cpuMsPerOrder + " ms/order above perf.max-cpu-ms-per-order " + MAX_CPU_MS_PER_ORDER);
+        }
+    }
+
+    private void awaitRunning() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        while (true) {
+            KafkaStreams streams = streamsBuilderFactoryBean.getKafkaStreams();
+            if (streams != null && streams.state() == KafkaStreams.State.RUNNING) {
+                return;
+            }
+            assertTrue(System.nanoTime() < deadline, "Kafka Streams not running after 2 minutes");
+            Thread.sleep(100);
+        }
+    }
+
+    private static List<Product> createCatalog(CdcEventTarget target, LoadProperties load, Random random) {
+        Product[] catalog = new Product[PRODUCTS];
+        try (ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < PRODUCTS; i++) {
+                int rank = i;
+                Product product = Workload.syntheticProduct(load.getCatalog(), random, rank + 1);
+                senders.submit(() -> catalog[rank] = target.createProduct(product));
+            }
+        }
+        List<Product> products = Arrays.asList(catalog);
+        assertFalse(products.contains(null), "products whose events could not be sent");
+        return products;
+    }
+
+    /**
+     * Sends the events of {@code count} orders from virtual threads, at most {@link #MAX_IN_FLIGHT}
+     * orders unacknowledged, paced at {@link #RATE} when set.
+     */
+    private static Map<Long, SentOrder> send(CdcEventTarget target, Workload workload, int count)
+            throws InterruptedException {
+        Map<Long, SentOrder> sent = new ConcurrentHashMap<>(count * 2);
+        Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+        long start = System.nanoTime();
+        try (ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < count; i++) {
+                if (RATE > 0) {
+                    long due = start + (long) (i * 1e9 / RATE);
+                    TimeUnit.NANOSECONDS.sleep(due - System.nanoTime());
+                }
+                NewOrder order = workload.nextOrder();
+                inFlight.acquire();
+                senders.submit(() -> {
+                    try {
+                        LocalDateTime sentAt = LocalDateTime.now();
+                        long orderId = target.createOrder(order);
+                        sent.put(orderId, new SentOrder(sentAt, order.getItems().size()));
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        assertEquals(count, sent.size(), "orders whose events could not be sent");
+        return sent;
+    }
+
+    /**
+     * When each order's document was first written with all of its items.
+     */
+    private Map<Long, LocalDateTime> await(Map<Long, SentOrder> sent) throws InterruptedException {
+        Map<Long, LocalDateTime> written = new HashMap<>();
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (written.size() < sent.size()) {
+            jdbcTemplate.query("SELECT id, updated_at, jsonb_array_length(data->'items') FROM document_store",
+                    resultSet -> {
+                        long orderId = Long.parseLong(resultSet.getString(1).substring("order:".length()));
+                        SentOrder order = sent.get(orderId);
+                        if (order != null && order.getItems() == resultSet.getInt(3)) {
+                            written.putIfAbsent(orderId, resultSet.getTimestamp(2).toLocalDateTime());
+                        }
+                    });
+            assertTrue(System.nanoTime() < deadline, "only " + written.size() + " of " + sent.size()
+                    + " documents complete after perf.timeout " + TIMEOUT);
+            if (written.size() < sent.size()) {
+                Thread.sleep(250);
+            }
+        }
+        return written;
+    }
+
+    private static Path stateDir() {
+        try {
+            return Files.createTempDirectory("kafka-streams-perf");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Value
+    private static class SentOrder {
+        LocalDateTime sentAt;
+        int items;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.consumer.perf;
+
+import lombok.Value;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Resource use of this JVM, which hosts the consumer and the broker; PostgreSQL is a child process
+ * and not included. CPU and GC are counters, so a measurement is the difference of two samples.
+ */
+@Value
+class ResourceUsage {
+    long cpuNanos;
+    long gcCount;
+    long gcMillis;
+    /**
+     * Sum of the peak usage of each heap pool since {@link #resetPeaks()}; the pools peak at
+     * different times, so this is an upper bound of the peak heap.
+     */
+    long heapPeakBytes;
+
+    static ResourceUsage sample() {
+        long gcCount = 0;
+        long gcMillis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(0, collector.getCollectionCount());
+            gcMillis += Math.max(0, collector.getCollectionTime());
+        }
+        long heapPeak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                heapPeak += pool.getPeakUsage().getUsed();
+            }
+        }
+        com.sun.management.OperatingSystemMXBean os =
+                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        return new ResourceUsage(os.getProcessCpuTime(), gcCount, gcMillis, heapPeak);
+    }
+
+    /**
+     * Heap still in use after a full collection: what the run retains (caches, buffers, leaks).
+     */
+    static long liveHeapBytes() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    static void resetPeaks() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            pool.resetPeakUsage();
+        }
+    }
+
+    /**
+     * CPU and GC spent since the earlier sample, with this sample's heap peak.
+     */
+    ResourceUsage since(ResourceUsage start) {
+        return new ResourceUsage(cpuNanos - start.cpuNanos, gcCount - start.gcCount,
+                gcMillis - start.gcMillis, heapPeakBytes);
+    }
+
+    static long directorySize(Path directory) {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> {
+                try {
+                    return Files.size(file);
+                } catch (IOException e) {
+                    // RocksDB deletes files while we walk
+                    return 0;
+                }
+            }).sum();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
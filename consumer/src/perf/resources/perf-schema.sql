@@ -0,0 +1,25 @@
+-- The consumer's tables from k8s/postgres/configmap.yaml, for the embedded PostgreSQL of the
+-- performance harness. Keep in sync with the ConfigMap.
+CREATE TABLE document_store (
+    id VARCHAR(255) NOT NULL,
+    ordered_at TIMESTAMP NOT NULL,
+    data JSONB NOT NULL,
+    user_id BIGINT GENERATED ALWAYS AS ((data->>'userId')::bigint) STORED,
+    status VARCHAR(50) GENERATED ALWAYS AS (data->>'status') STORED,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, ordered_at)
+) PARTITION BY RANGE (ordered_at);
+
+CREATE TABLE document_store_default PARTITION OF document_store DEFAULT;
+
+CREATE INDEX idx_document_store_data ON document_store USING GIN (data);
+
+CREATE INDEX document_store_user_id_idx ON document_store (user_id, ordered_at, id);
+CREATE INDEX document_store_status_idx ON document_store (status, ordered_at, id);
+
+CREATE TABLE user_order_history (
+    user_id BIGINT PRIMARY KEY,
+    data JSONB NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,229 @@
+package com.example.consumer.analytics;
+
+import com.example.consumer.config.AnalyticsProperties;
+import com.example.consumer.config.TopologyProperties;
+import com.example.consumer.streams.serde.JsonCodecs;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.state.WindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SalesAnalyticsTopologyTest {
+
+    private static final Instant MINUTE_START = Instant.parse("2024-05-01T10:00:00Z");
+
+    private TopologyTestDriver testDriver;
+    private TestInputTopic<String, String> orderItemsTopic;
+    private TestInputTopic<String, String> productsTopic;
+    private AnalyticsProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AnalyticsProperties();
+        properties.setTopN(2);
+        properties.setGrace(Duration.ofSeconds(10));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "test-analytics-app");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:1234");
+        props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.String().getClass());
+        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.String().getClass());
+        testDriver = new TopologyTestDriver(new SalesAnalyticsTopology(new JsonCodecs(objectMapper), properties,
+                new TopologyProperties()).build(), props);
+
+        orderItemsTopic = testDriver.createInputTopic("dbserver1.public.order_items",
+                Serdes.String().serializer(), Serdes.String().serializer());
+        productsTopic = testDriver.createInputTopic("dbserver1.public.products",
+                Serdes.String().serializer(), Serdes.String().serializer());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (testDriver != null) {
+            testDriver.close();
+        }
+    }
+
+    @Test
+    void shouldSumUnitsAndRevenuePerProductAndMinute() {
+        // Given: A product and two items of it in the same minute, one in the next minute
+        productsTopic.pipeInput("1", productJson(1, "Laptop"), MINUTE_START);
+        pipeCreated(item(10, 1, 2, "10.00"), MINUTE_START.plusSeconds(5));
+        pipeCreated(item(11, 1, 1, "10.00"), MINUTE_START.plusSeconds(30));
+        pipeCreated(item(12, 1, 4, "10.00"), MINUTE_START.plusSeconds(65));
+
+        // When: The minute windows of the product are read
+        List<KeyValue<Long, ProductSales>> windows = minuteSales(1L);
+
+        // Then: Each minute holds its own totals, enriched with the product name
+        assertEquals(2, windows.size());
+        assertEquals(MINUTE_START.toEpochMilli(), windows.get(0).key);
+        assertEquals(3, windows.get(0).value.getUnits());
+        assertEquals(0, new BigDecimal("30.00").compareTo(windows.get(0).value.getRevenue()));
+        assertEquals("Laptop", windows.get(0).value.getProductName());
+        assertEquals(4, windows.get(1).value.getUnits());
+    }
+
+    @Test
+    void shouldCorrectSalesOnItemUpdateAndDelete() {
+        // Given: An item of 2 units
+        String created = item(10, 1, 2, "10.00");
+        orderItemsTopic.pipeInput("10", orderItemJson("c", null, created), MINUTE_START.plusSeconds(5));
+
+        // When: Its quantity changes to 5, then it is deleted
+        String updated = item(10, 1, 5, "10.00");
+        orderItemsTopic.pipeInput("10", orderItemJson("u", created, updated), MINUTE_START.plusSeconds(10));
+        ProductSales afterUpdate = minuteSales(1L).get(0).value;
+        orderItemsTopic.pipeInput("10", orderItemJson("d", updated, null), MINUTE_START.plusSeconds(15));
+        ProductSales afterDelete = minuteSales(1L).get(0).value;
+
+        // Then: The update counts the difference and the delete takes the item back out
+        assertEquals(5, afterUpdate.getUnits());
+        assertEquals(0, new BigDecimal("50.00").compareTo(afterUpdate.getRevenue()));
+        assertEquals(0, afterDelete.getUnits());
+        assertEquals(0, afterDelete.getRevenue().signum());
+    }
+
+    @Test
+    void shouldMoveSalesWhenItemChangesProduct() {
+        // Given: An item of product 1
+        String before = item(10, 1, 2, "10.00");
+        orderItemsTopic.pipeInput("10", orderItemJson("c", null, before), MINUTE_START.plusSeconds(5));
+
+        // When: It is changed to product 2
+        orderItemsTopic.pipeInput("10", orderItemJson("u", before, item(10, 2, 2, "10.00")),
+                MINUTE_START.plusSeconds(10));
+
+        // Then: Product 1 is back to zero and product 2 has the units
+        assertEquals(0, minuteSales(1L).get(0).value.getUnits());
+        assertEquals(2, minuteSales(2L).get(0).value.getUnits());
+    }
+
+    @Test
+    void shouldIgnoreSnapshotReads() {
+        // Given: An order item read by the connector snapshot
+        orderItemsTopic.pipeInput("10", orderItemJson("r", null, item(10, 1, 2, "10.00")),
+                MINUTE_START.plusSeconds(5));
+
+        // Then: Nothing is counted
+        assertTrue(minuteSales(1L).isEmpty());
+    }
+
+    @Test
+    void shouldCountEachChangeInEveryOverlappingHourlyWindow() {
+        // Given: One sale
+        orderItemsTopic.pipeInput("10", orderItemJson("c", null, item(10, 1, 1, "10.00")),
+                MINUTE_START.plusSeconds(5));
+
+        // When: The hourly windows of the product are read
+        WindowStore<Long, ProductSales> store = testDriver.getWindowStore(SalesAnalyticsTopology.HOUR_SALES_STORE);
+        int windows = 0;
+        try (WindowStoreIterator<ProductSales> iterator =
+                     store.fetch(1L, MINUTE_START.minus(Duration.ofHours(1)), MINUTE_START)) {
+            while (iterator.hasNext()) {
+                assertEquals(1, iterator.next().value.getUnits());
+                windows++;
+            }
+        }
+
+        // Then: The sale is in every 1h window that covers it (one per 5m advance)
+        assertEquals(12, windows);
+    }
+
+    @Test
+    void shouldRankTopProductsByRevenueOnceMinuteCloses() {
+        // Given: Three products sold in the same minute
+        pipeCreated(item(10, 1, 1, "10.00"), MINUTE_START.plusSeconds(5));
+        pipeCreated(item(11, 2, 3, "10.00"), MINUTE_START.plusSeconds(6));
+        pipeCreated(item(12, 3, 2, "10.00"), MINUTE_START.plusSeconds(7));
+        assertNull(minuteRanking(MINUTE_START));
+
+        // When: Stream time passes the end of the minute plus grace
+        pipeCreated(item(13, 4, 1, "1.00"), MINUTE_START.plusSeconds(75));
+
+        // Then: The minute is ranked by revenue, limited to top-N
+        TopProducts ranking = minuteRanking(MINUTE_START);
+        assertNotNull(ranking);
+        assertEquals(MINUTE_START, ranking.getWindowStart());
+        List<Long> productIds = ranking.getProducts().stream().map(ProductSales::getProductId).toList();
+        assertEquals(List.of(2L, 3L), productIds);
+    }
+
+    @Test
+    void shouldKeepEachWindowRankingUnderItsOwnKey() {
+        // Given: Sales in two consecutive minutes
+        Instant nextMinute = MINUTE_START.plus(Duration.ofMinutes(1));
+        pipeCreated(item(10, 1, 1, "10.00"), MINUTE_START.plusSeconds(5));
+        pipeCreated(item(11, 2, 1, "10.00"), nextMinute.plusSeconds(5));
+
+        // When: Both minutes close
+        pipeCreated(item(12, 3, 1, "1.00"), nextMinute.plusSeconds(75));
+
+        // Then: Each minute is ranked on its own, under a key of window size and start
+        assertEquals("1m@" + MINUTE_START.toEpochMilli(),
+                SalesAnalyticsTopology.rankingKey(SalesAnalyticsTopology.MINUTE_WINDOW, MINUTE_START));
+        assertEquals(List.of(1L), minuteRanking(MINUTE_START).getProducts().stream()
+                .map(ProductSales::getProductId).toList());
+        assertEquals(List.of(2L), minuteRanking(nextMinute).getProducts().stream()
+                .map(ProductSales::getProductId).toList());
+    }
+
+    private TopProducts minuteRanking(Instant windowStart) {
+        WindowStore<String, TopProducts> store =
+                testDriver.getWindowStore(SalesAnalyticsTopology.TOP_PRODUCTS_1M_STORE);
+        return store.fetch(SalesAnalyticsTopology.rankingKey(SalesAnalyticsTopology.MINUTE_WINDOW, windowStart),
+                windowStart.toEpochMilli());
+    }
+
+    private List<KeyValue<Long, ProductSales>> minuteSales(long productId) {
+        WindowStore<Long, ProductSales> store = testDriver.getWindowStore(SalesAnalyticsTopology.MINUTE_SALES_STORE);
+        List<KeyValue<Long, ProductSales>> windows = new ArrayList<>();
+        try (WindowStoreIterator<ProductSales> iterator =
+                     store.fetch(productId, MINUTE_START, MINUTE_START.plus(Duration.ofHours(1)))) {
+            iterator.forEachRemaining(windows::add);
+        }
+        return windows;
+    }
+
+    private void pipeCreated(String item, Instant timestamp) {
+        orderItemsTopic.pipeInput(null, orderItemJson("c", null, item), timestamp);
+    }
+
+    private static String productJson(long id, String name) {
+        return """
+                {"after": {"id": %d, "name": "%s", "price": "10.00"}, "op": "c"}
+                """.formatted(id, name);
+    }
+
+    private static String item(long id, long productId, int quantity, String unitPrice) {
+        return """
+                {"id": %d, "order_id": 100, "product_id": %d, "quantity": %d, "unit_price": "%s"}
+                """.formatted(id, productId, quantity, unitPrice).trim();
+    }
+
+    private static String orderItemJson(String op, String before, String after) {
+        return """
+                {"before": %s, "after": %s, "op": "%s"}
+                """.formatted(before, after, op);
+    }
+}
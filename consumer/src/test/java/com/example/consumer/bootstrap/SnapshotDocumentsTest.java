@@ -0,0 +1,79 @@
+package com.example.consumer.bootstrap;
+
+import com.example.consumer.dto.OrderDocument;
+import com.example.consumer.streams.model.OrderData;
+import com.example.consumer.streams.model.OrderItemData;
+import com.example.consumer.streams.model.ProductData;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotDocumentsTest {
+
+    @Test
+    void shouldSplitIdSpaceIntoInclusiveRanges() {
+        // When: 1..25 is split into ranges of 10
+        List<long[]> ranges = SnapshotDocuments.splitRanges(1, 25, 10);
+
+        // Then: The ranges cover every id exactly once
+        assertEquals(3, ranges.size());
+        assertArrayEquals(new long[]{1, 10}, ranges.get(0));
+        assertArrayEquals(new long[]{11, 20}, ranges.get(1));
+        assertArrayEquals(new long[]{21, 25}, ranges.get(2));
+    }
+
+    @Test
+    void shouldReturnSingleRangeForSingleId() {
+        List<long[]> ranges = SnapshotDocuments.splitRanges(7, 7, 10);
+
+        assertEquals(1, ranges.size());
+        assertArrayEquals(new long[]{7, 7}, ranges.get(0));
+    }
+
+    @Test
+    void shouldJoinRangeIntoDocuments() {
+        // Given: Two orders, one without items, and an item whose product is unknown
+        LocalDateTime orderedAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<OrderData> orders = List.of(
+                new OrderData(1L, 100L, "PENDING", new BigDecimal("40.00"), orderedAt, orderedAt),
+                new OrderData(2L, 200L, "PENDING", new BigDecimal("10.00"), orderedAt, orderedAt));
+        List<OrderItemData> items = List.of(
+                item(10L, 1L, 5L, 2, "15.00"),
+                item(11L, 1L, 6L, 1, "10.00"),
+                item(12L, 1L, 5L, 1, "15.00"));
+        Map<Long, ProductData> products = Map.of(
+                5L, new ProductData(5L, "Mouse", new BigDecimal("15.00"), null, null, null));
+
+        // When
+        List<OrderDocument> documents = SnapshotDocuments.join(orders, items, products);
+
+        // Then: Only the order with items gets a document, enriched like the stream would
+        assertEquals(1, documents.size());
+        OrderDocument document = documents.get(0);
+        assertEquals(1L, document.getOrderId());
+        assertEquals(100L, document.getUserId());
+        assertEquals(orderedAt, document.getOrderedAt());
+        assertEquals(3, document.getItems().size());
+        assertEquals("Mouse", document.getItems().get(0).getName());
+        assertEquals("Unknown", document.getItems().get(1).getName());
+        assertEquals(2, document.getProductSummary().getUniqueProductCount());
+        assertEquals(Set.of(5L, 6L), document.getProductSummary().getProductIds());
+        assertEquals(4, document.getProductSummary().getTotalQuantity());
+    }
+
+    private static OrderItemData item(Long id, Long orderId, Long productId, int quantity, String unitPrice) {
+        OrderItemData item = new OrderItemData();
+        item.setId(id);
+        item.setOrderId(orderId);
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        item.setUnitPrice(new BigDecimal(unitPrice));
+        return item;
+    }
+}
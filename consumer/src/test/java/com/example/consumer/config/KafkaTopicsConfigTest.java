@@ -0,0 +1,76 @@
+package com.example.consumer.config;
+
+import org.apache.kafka.clients.CommonClientConfigs;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListTopicsResult;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.KafkaFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.kafka.core.KafkaAdmin;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.example.consumer.streams.topology.OrderDenormalizationTopology.ORDERS_TOPIC;
+import static com.example.consumer.streams.topology.OrderDenormalizationTopology.ORDER_ITEMS_TOPIC;
+import static com.example.consumer.streams.topology.OrderDenormalizationTopology.PRODUCTS_BY_ID_TOPIC;
+import static com.example.consumer.streams.topology.OrderDenormalizationTopology.PRODUCTS_TOPIC;
+import static com.example.consumer.streams.topology.OrderDenormalizationTopology.TRANSACTIONS_BY_ID_TOPIC;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class KafkaTopicsConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(KafkaTopicsConfig.class)
+            .withBean(TopologyProperties.class)
+            .withBean(KafkaAdmin.class,
+                    () -> new KafkaAdmin(Map.of(CommonClientConfigs.BOOTSTRAP_SERVERS_CONFIG, "dummy:1234")));
+
+    private MockedStatic<AdminClient> adminClients;
+
+    @BeforeEach
+    void setUp() {
+        // Given: A cluster where the orders and order items topics already exist
+        AdminClient adminClient = mock(AdminClient.class);
+        ListTopicsResult listTopics = mock(ListTopicsResult.class);
+        when(listTopics.names()).thenReturn(KafkaFuture.completedFuture(Set.of(ORDERS_TOPIC, ORDER_ITEMS_TOPIC)));
+        when(adminClient.listTopics()).thenReturn(listTopics);
+        adminClients = mockStatic(AdminClient.class);
+        adminClients.when(() -> AdminClient.create(anyMap())).thenReturn(adminClient);
+    }
+
+    @AfterEach
+    void tearDown() {
+        adminClients.close();
+    }
+
+    @Test
+    void shouldDeclareOnlyMissingTopics() {
+        contextRunner.run(context -> {
+            // When: The topics are declared
+            KafkaAdmin.NewTopics newTopics = context.getBean(KafkaAdmin.NewTopics.class);
+
+            // Then: Only the missing ones are, the compacted topics with their cleanup policy
+            Map<String, NewTopic> byName = newTopics.getNewTopics().stream()
+                    .collect(Collectors.toMap(NewTopic::name, topic -> topic));
+            assertFalse(byName.containsKey(ORDERS_TOPIC));
+            assertFalse(byName.containsKey(ORDER_ITEMS_TOPIC));
+            assertTrue(byName.containsKey(PRODUCTS_TOPIC));
+            assertTrue(byName.containsKey(new TopologyProperties().getDeadLetter().getTopic()));
+            assertEquals("compact", byName.get(PRODUCTS_BY_ID_TOPIC).configs().get("cleanup.policy"));
+            assertEquals("compact", byName.get(TRANSACTIONS_BY_ID_TOPIC).configs().get("cleanup.policy"));
+        });
+    }
+
+    @Test
+    void shouldDeclareNoTopicsWhenCreationIsOff() {
+        contextRunner.withPropertyValues("consumer.topology.topics.create=false")
+                .run(context -> assertTrue(context.getBeansOfType(KafkaAdmin.NewTopics.class).isEmpty()));
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.consumer.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentCursorTest {
+
+    @Test
+    void shouldRoundTripThroughUrlSafeToken() {
+        // Given
+        DocumentCursor cursor = new DocumentCursor(LocalDateTime.of(2024, 5, 17, 9, 30, 15, 123_456_000), "order:42");
+
+        // When
+        String token = cursor.encode();
+
+        // Then
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+        assertEquals(cursor, DocumentCursor.decode(token));
+    }
+
+    @Test
+    void shouldRejectMalformedToken() {
+        assertThrows(IllegalArgumentException.class, () -> DocumentCursor.decode("not a cursor!"));
+        assertThrows(IllegalArgumentException.class, () -> DocumentCursor.decode(
+                java.util.Base64.getUrlEncoder().encodeToString("yesterday|order:1".getBytes())));
+    }
+}
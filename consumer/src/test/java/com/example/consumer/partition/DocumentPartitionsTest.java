@@ -0,0 +1,54 @@
+package com.example.consumer.partition;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentPartitionsTest {
+
+    @Test
+    void shouldNameMonthlyPartitionsAndParseThemBack() {
+        // Given
+        YearMonth month = YearMonth.of(2024, 5);
+
+        // When
+        String name = DocumentPartitions.name(month);
+
+        // Then
+        assertEquals("document_store_p2024_05", name);
+        assertEquals(Optional.of(month), DocumentPartitions.monthOf(name));
+        assertEquals(Optional.empty(), DocumentPartitions.monthOf("document_store_default"));
+    }
+
+    @Test
+    void shouldBoundPartitionByFirstDaysOfMonthAndNextMonth() {
+        // When: December rolls over into the next year
+        String statement = DocumentPartitions.createStatement(YearMonth.of(2024, 12));
+
+        // Then
+        assertEquals("CREATE TABLE IF NOT EXISTS document_store_p2024_12 PARTITION OF document_store "
+                + "FOR VALUES FROM ('2024-12-01') TO ('2025-01-01')", statement);
+    }
+
+    @Test
+    void shouldPremakeCurrentAndFollowingMonths() {
+        List<YearMonth> months = DocumentPartitionManager.monthsToCreate(YearMonth.of(2024, 11), 2);
+
+        assertEquals(List.of(YearMonth.of(2024, 11), YearMonth.of(2024, 12), YearMonth.of(2025, 1)), months);
+    }
+
+    @Test
+    void shouldArchiveOnlyMonthsThatEndedLongEnoughAgo() {
+        // Given: It is June and partitions are archived one full month after they end
+        YearMonth current = YearMonth.of(2024, 6);
+
+        // Then: April ended a full month before June started, May did not
+        assertTrue(DocumentPartitionManager.isArchivable(YearMonth.of(2024, 4), current, 1));
+        assertFalse(DocumentPartitionManager.isArchivable(YearMonth.of(2024, 5), current, 1));
+        assertFalse(DocumentPartitionManager.isArchivable(current, current, 0));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.consumer.rebuild;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PgBinaryCopyWriterTest {
+
+    @Test
+    void shouldWriteHeaderRowsAndTrailer() throws Exception {
+        // Given: A writer over an in-memory buffer
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PgBinaryCopyWriter writer = new PgBinaryCopyWriter(buffer);
+
+        // When: Write one row with every supported type and a null
+        writer.startRow(4);
+        writer.writeText("order:1");
+        writer.writeJsonb("{\"a\":1}".getBytes(StandardCharsets.UTF_8));
+        writer.writeTimestamp(LocalDateTime.of(2000, 1, 1, 0, 0, 1));
+        writer.writeTimestamp(null);
+        writer.close();
+
+        // Then: The stream follows the binary COPY layout
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()));
+        byte[] signature = new byte[11];
+        in.readFully(signature);
+        assertArrayEquals(new byte[]{'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0}, signature);
+        assertEquals(0, in.readInt()); // flags
+        assertEquals(0, in.readInt()); // header extension
+
+        assertEquals(4, in.readShort());
+
+        assertEquals(7, in.readInt());
+        assertEquals("order:1", new String(in.readNBytes(7), StandardCharsets.UTF_8));
+
+        assertEquals(8, in.readInt()); // version byte + 7 bytes of JSON
+        assertEquals(1, in.readByte());
+        assertEquals("{\"a\":1}", new String(in.readNBytes(7), StandardCharsets.UTF_8));
+
+        assertEquals(8, in.readInt());
+        assertEquals(1_000_000L, in.readLong()); // microseconds since 2000-01-01
+
+        assertEquals(-1, in.readInt()); // null
+
+        assertEquals(-1, in.readShort()); // trailer
+        assertEquals(-1, in.read());
+    }
+
+    @Test
+    void shouldEncodeTimestampsBeforePostgresEpochAsNegative() throws Exception {
+        // Given: A timestamp before 2000-01-01
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PgBinaryCopyWriter writer = new PgBinaryCopyWriter(buffer);
+
+        // When: Write it
+        writer.startRow(1);
+        writer.writeTimestamp(LocalDateTime.of(1999, 12, 31, 23, 59, 59));
+        writer.close();
+
+        // Then: Microseconds are negative
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()));
+        in.skipNBytes(11 + 4 + 4 + 2);
+        assertEquals(8, in.readInt());
+        assertEquals(-1_000_000L, in.readLong());
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.consumer.repository;
+
+import com.example.consumer.dto.OrderDocument;
+import com.example.consumer.partition.DocumentPartitionManager;
+import com.example.consumer.rebuild.DocumentStagingTable;
+import com.example.consumer.service.DocumentStoreService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Document writes against the partitioned {@code document_store} on a real PostgreSQL.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({DocumentStoreService.class, DocumentStoreRepositoryTest.PartitionedSchema.class})
+class DocumentStoreRepositoryTest {
+
+    private static final LocalDateTime MAY = LocalDateTime.of(2024, 5, 10, 12, 0);
+    private static final LocalDateTime JUNE = LocalDateTime.of(2024, 6, 2, 8, 30);
+
+    @TestConfiguration
+    static class PartitionedSchema {
+
+        @Bean(destroyMethod = "close")
+        EmbeddedPostgres embeddedPostgres() throws IOException {
+            return EmbeddedPostgres.start();
+        }
+
+        @Bean
+        DataSource dataSource(EmbeddedPostgres postgres) {
+            DataSource dataSource = postgres.getPostgresDatabase();
+            new ResourceDatabasePopulator(new ClassPathResource("document-store-schema.sql")).execute(dataSource);
+            return dataSource;
+        }
+    }
+
+    @MockBean
+    private DocumentStagingTable documentStagingTable;
+
+    @MockBean
+    private DocumentPartitionManager documentPartitionManager;
+
+    @Autowired
+    private DocumentStoreService documentStoreService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldMoveUndatedDocumentToPartitionOfItsOrderDate() {
+        // Given: A document first written without an order date (default partition)
+        documentStoreService.save(document(1L, null, "PENDING"), false);
+        assertEquals(List.of("document_store_default"), partitionsOf(1L));
+
+        // When: The next version carries the order date
+        documentStoreService.save(document(1L, MAY, "PAID"), true);
+
+        // Then: The row moved; there is still one row for the order
+        assertEquals(List.of("document_store_p2024_05"), partitionsOf(1L));
+        assertEquals("PAID", documentStoreService.findById(1L).orElseThrow().getStatus());
+    }
+
+    @Test
+    void shouldMoveDocumentWhenOrderDateIsCorrected() {
+        // Given: A document stored in May
+        documentStoreService.save(document(2L, MAY, "PENDING"), false);
+
+        // When: Its order date is corrected to June
+        documentStoreService.save(document(2L, JUNE, "PENDING"), true);
+
+        // Then: Only the June partition holds it
+        assertEquals(List.of("document_store_p2024_06"), partitionsOf(2L));
+        assertEquals(JUNE, documentStoreService.findById(2L, JUNE).orElseThrow().getOrderedAt());
+        assertTrue(documentStoreService.findById(2L, MAY).isEmpty());
+    }
+
+    @Test
+    void shouldUpdateDocumentInPlaceWhenOrderDateIsUnchanged() {
+        // Given: A stored document
+        documentStoreService.save(document(3L, MAY, "PENDING"), false);
+
+        // When: A new version of it is saved, as far as the caller knows for the first time
+        documentStoreService.save(document(3L, MAY, "SHIPPED"), false);
+
+        // Then: The pruned update replaced it
+        assertEquals(List.of("document_store_p2024_05"), partitionsOf(3L));
+        assertEquals("SHIPPED", documentStoreService.findById(3L).orElseThrow().getStatus());
+    }
+
+    private List<String> partitionsOf(long orderId) {
+        return jdbcTemplate.queryForList(
+                "SELECT tableoid::regclass::text FROM document_store WHERE id = ?", String.class, "order:" + orderId);
+    }
+
+    private static OrderDocument document(long orderId, LocalDateTime orderedAt, String status) {
+        OrderDocument document = new OrderDocument();
+        document.setOrderId(orderId);
+        document.setUserId(10L);
+        document.setStatus(status);
+        document.setOrderedAt(orderedAt);
+        return document;
+    }
+}
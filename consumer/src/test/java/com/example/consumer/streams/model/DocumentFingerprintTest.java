@@ -0,0 +1,43 @@
+package com.example.consumer.streams.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentFingerprintTest {
+
+    @Test
+    void shouldListFieldsWithDifferentHashes() {
+        // Given: Two versions that differ in status only
+        DocumentFingerprint previous = fingerprint(1L, 2L, 3L);
+        DocumentFingerprint current = fingerprint(1L, 9L, 3L);
+
+        // When
+        List<String> changed = current.changedFields(previous);
+
+        // Then
+        assertEquals(List.of("status"), changed);
+        assertEquals(10, current.sizeOf(changed));
+    }
+
+    @Test
+    void shouldReturnNullWhenFieldWasRemoved() {
+        // Given: The previous version had a field the current one lacks
+        DocumentFingerprint previous = fingerprint(1L, 2L, 3L);
+        previous.putField("legacy", 4L, 5);
+        DocumentFingerprint current = fingerprint(1L, 2L, 3L);
+
+        // Then: A top-level merge cannot express the change
+        assertNull(current.changedFields(previous));
+    }
+
+    private static DocumentFingerprint fingerprint(long orderId, long status, long items) {
+        DocumentFingerprint fingerprint = new DocumentFingerprint();
+        fingerprint.putField("orderId", orderId, 4);
+        fingerprint.putField("status", status, 10);
+        fingerprint.putField("items", items, 500);
+        return fingerprint;
+    }
+}
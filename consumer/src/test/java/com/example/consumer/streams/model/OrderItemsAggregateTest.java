@@ -1,8 +1,10 @@
 package com.example.consumer.streams.model;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -122,4 +124,84 @@ class OrderItemsAggregateTest {
         assertEquals("Second", aggregate.getItems().get(1).getProductName());
         assertEquals("Third", aggregate.getItems().get(2).getProductName());
     }
+
+    @Test
+    void shouldReplaceItemWithSameOrderItemId() {
+        // Given: Aggregate with two items
+        OrderItemsAggregate aggregate = new OrderItemsAggregate();
+        aggregate.addItem(new EnrichedOrderItem(1L, 100L, 10L, "Laptop", null, 1, new BigDecimal("999.99")));
+        aggregate.addItem(new EnrichedOrderItem(2L, 100L, 20L, "Mouse", null, 2, new BigDecimal("29.99")));
+
+        // When: The first item is re-enriched after a product rename
+        aggregate.addItem(new EnrichedOrderItem(1L, 100L, 10L, "Laptop Pro", null, 3, new BigDecimal("999.99")));
+
+        // Then: Item is replaced in place and statistics are recalculated
+        assertEquals(2, aggregate.getItems().size());
+        assertEquals("Laptop Pro", aggregate.getItems().get(0).getProductName());
+        assertEquals("Mouse", aggregate.getItems().get(1).getProductName());
+        assertEquals(2, aggregate.getUniqueProductIds().size());
+        assertEquals(5, aggregate.getTotalQuantity()); // 3 + 2
+    }
+
+    @Test
+    void shouldRemoveItemAndDropUnreferencedProduct() {
+        // Given: Aggregate with two lines of product 10 and one of product 20
+        OrderItemsAggregate aggregate = new OrderItemsAggregate();
+        EnrichedOrderItem book1 = new EnrichedOrderItem(1L, 100L, 10L, "Book", null, 2, new BigDecimal("19.99"));
+        EnrichedOrderItem book2 = new EnrichedOrderItem(2L, 100L, 10L, "Book", null, 3, new BigDecimal("19.99"));
+        EnrichedOrderItem pen = new EnrichedOrderItem(3L, 100L, 20L, "Pen", null, 1, new BigDecimal("1.99"));
+        aggregate.addItem(book1);
+        aggregate.addItem(book2);
+        aggregate.addItem(pen);
+
+        // When: Remove one book line and the pen
+        aggregate.removeItem(book1);
+        aggregate.removeItem(pen);
+
+        // Then: Product 10 is still referenced, product 20 is gone
+        assertEquals(1, aggregate.getItems().size());
+        assertEquals(Set.of(10L), aggregate.getUniqueProductIds());
+        assertEquals(3, aggregate.getTotalQuantity());
+    }
+
+    @Test
+    void shouldIgnoreRemovalOfUnknownItem() {
+        // Given: Aggregate with one item
+        OrderItemsAggregate aggregate = new OrderItemsAggregate();
+        aggregate.addItem(new EnrichedOrderItem(1L, 100L, 10L, "Book", null, 2, new BigDecimal("19.99")));
+
+        // When: Remove an item that was never added
+        aggregate.removeItem(new EnrichedOrderItem(99L, 100L, 10L, "Book", null, 2, new BigDecimal("19.99")));
+
+        // Then: Aggregate is unchanged
+        assertEquals(1, aggregate.getItems().size());
+        assertEquals(2, aggregate.getTotalQuantity());
+    }
+
+    @Test
+    void shouldReplaceItemsOfLargeOrderAfterJsonRoundTrip() throws Exception {
+        // Given: A B2B order with 1,000 lines over 100 products, stored and read back
+        OrderItemsAggregate aggregate = new OrderItemsAggregate();
+        for (long id = 1; id <= 1_000; id++) {
+            aggregate.addItem(new EnrichedOrderItem(id, 100L, id % 100, "Part", null, 1, new BigDecimal("1.00")));
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        OrderItemsAggregate restored = objectMapper.readValue(
+                objectMapper.writeValueAsBytes(aggregate), OrderItemsAggregate.class);
+        assertEquals(aggregate, restored);
+
+        // When: A line is replaced, one removed and a later one replaced again
+        restored.addItem(new EnrichedOrderItem(500L, 100L, 500L, "Part", null, 5, new BigDecimal("1.00")));
+        restored.removeItem(new EnrichedOrderItem(2L, 100L, 2L, "Part", null, 1, new BigDecimal("1.00")));
+        restored.addItem(new EnrichedOrderItem(900L, 100L, 0L, "Part", null, 3, new BigDecimal("1.00")));
+
+        // Then: Lines are replaced in place, none duplicated
+        assertEquals(999, restored.getItems().size());
+        assertEquals(500L, restored.getItems().get(498).getOrderItemId());
+        assertEquals(5, restored.getItems().get(498).getQuantity());
+        assertEquals(900L, restored.getItems().get(898).getOrderItemId());
+        assertEquals(1_000 + 4 - 1 + 2, restored.getTotalQuantity());
+        assertEquals(101, restored.getUniqueProductIds().size());
+        assertTrue(restored.getUniqueProductIds().contains(500L));
+    }
 }
@@ -0,0 +1,55 @@
+package com.example.consumer.streams.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserOrderHistoryTest {
+
+    private static final LocalDateTime JAN = LocalDateTime.of(2024, 1, 10, 12, 0);
+    private static final LocalDateTime FEB = LocalDateTime.of(2024, 2, 10, 12, 0);
+
+    @Test
+    void shouldReplaceOrderInsteadOfCountingItTwice() {
+        // Given
+        UserOrderHistory history = new UserOrderHistory()
+                .put(7L, new UserOrderRef(1L, "PENDING", new BigDecimal("10.00"), JAN))
+                .put(7L, new UserOrderRef(2L, "PENDING", new BigDecimal("5.50"), FEB));
+
+        // When: Order 1 is updated
+        history.put(7L, new UserOrderRef(1L, "PAID", new BigDecimal("12.00"), JAN));
+
+        // Then
+        assertEquals(7L, history.getUserId());
+        assertEquals(2, history.getOrderCount());
+        assertEquals(new BigDecimal("17.50"), history.getLifetimeSpend());
+        assertEquals(FEB, history.getLastOrderedAt());
+        assertEquals(Map.of("PAID", 1, "PENDING", 1), history.getOrdersByStatus());
+    }
+
+    @Test
+    void shouldRecalculateTotalsWhenLatestOrderIsRemoved() {
+        // Given
+        UserOrderHistory history = new UserOrderHistory()
+                .put(7L, new UserOrderRef(1L, "PAID", new BigDecimal("10.00"), JAN))
+                .put(7L, new UserOrderRef(2L, "PENDING", new BigDecimal("5.50"), FEB));
+
+        // When
+        history.remove(new UserOrderRef(2L, "PENDING", new BigDecimal("5.50"), FEB));
+
+        // Then: The last order time falls back to the remaining order
+        assertEquals(1, history.getOrderCount());
+        assertEquals(new BigDecimal("10.00"), history.getLifetimeSpend());
+        assertEquals(JAN, history.getLastOrderedAt());
+
+        // When: The last order is removed
+        history.remove(new UserOrderRef(1L, "PAID", new BigDecimal("10.00"), JAN));
+
+        // Then
+        assertTrue(history.isEmpty());
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.consumer.streams.restore;
+
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StateRestoreTrackerTest {
+
+    private static final TopicPartition ORDERS_0 = new TopicPartition("app-orders-store-changelog", 0);
+    private static final TopicPartition ORDERS_1 = new TopicPartition("app-orders-store-changelog", 1);
+    private static final TopicPartition PRODUCTS_0 = new TopicPartition("app-products-store-changelog", 0);
+
+    @Test
+    void shouldNotBeRestoringInitially() {
+        // Given/When: Fresh tracker
+        StateRestoreTracker tracker = new StateRestoreTracker();
+
+        // Then: Nothing is restoring
+        assertFalse(tracker.isRestoring());
+        assertTrue(tracker.getProgressByStore().isEmpty());
+    }
+
+    @Test
+    void shouldReportProgressPerStore() {
+        // Given: Two stores restoring across three partitions
+        StateRestoreTracker tracker = new StateRestoreTracker();
+        tracker.onRestoreStart(ORDERS_0, "orders-store", 0, 100);
+        tracker.onRestoreStart(ORDERS_1, "orders-store", 50, 150);
+        tracker.onRestoreStart(PRODUCTS_0, "products-store", 0, 10);
+
+        // When: Batches are restored
+        tracker.onBatchRestored(ORDERS_0, "orders-store", 50, 50);
+        tracker.onBatchRestored(ORDERS_1, "orders-store", 100, 50);
+        tracker.onBatchRestored(PRODUCTS_0, "products-store", 5, 5);
+
+        // Then: Progress is summed per store
+        Map<String, StateRestoreTracker.StoreProgress> progress = tracker.getProgressByStore();
+        assertTrue(tracker.isRestoring());
+        assertEquals(100, progress.get("orders-store").getRestored());
+        assertEquals(200, progress.get("orders-store").getTotal());
+        assertEquals(50.0, progress.get("orders-store").getPercent(), 0.001);
+        assertEquals(50.0, progress.get("products-store").getPercent(), 0.001);
+    }
+
+    @Test
+    void shouldStopRestoringOnceAllPartitionsEnd() {
+        // Given: Two partitions restoring
+        StateRestoreTracker tracker = new StateRestoreTracker();
+        tracker.onRestoreStart(ORDERS_0, "orders-store", 0, 100);
+        tracker.onRestoreStart(ORDERS_1, "orders-store", 0, 100);
+
+        // When: Only one finishes
+        tracker.onRestoreEnd(ORDERS_0, "orders-store", 100);
+
+        // Then: Still restoring
+        assertTrue(tracker.isRestoring());
+
+        // When: The other finishes
+        tracker.onRestoreEnd(ORDERS_1, "orders-store", 100);
+
+        // Then: Restoration is complete and totals are recorded
+        assertFalse(tracker.isRestoring());
+        assertEquals(200L, tracker.getRestoredByStore().get("orders-store"));
+    }
+
+    @Test
+    void shouldStopTrackingSuspendedRestoration() {
+        // Given: A partition restoring
+        StateRestoreTracker tracker = new StateRestoreTracker();
+        tracker.onRestoreStart(PRODUCTS_0, "products-store", 0, 100);
+
+        // When: The task migrates away mid-restore
+        tracker.onRestoreSuspended(PRODUCTS_0, "products-store", 40);
+
+        // Then: It no longer blocks readiness
+        assertFalse(tracker.isRestoring());
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.consumer.streams.serde;
+
+import com.example.consumer.streams.model.DebeziumChange;
+import com.example.consumer.streams.model.OrderData;
+import com.example.consumer.streams.model.OrderItemData;
+import com.example.consumer.streams.model.ProductData;
+import com.example.consumer.streams.util.DebeziumExtractionException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryCdcDecoderTest {
+
+    @Test
+    void shouldDecodeTheSameChangeAsTheJsonPath() {
+        // Given: An update with both images, source position and transaction
+        String json = """
+                {"before": {"id": 7, "user_id": 1, "status": "PENDING", "total_price": "99.90",
+                            "ordered_at": 1714558530123456, "updated_at": 1714558530123456},
+                 "after": {"id": 7, "user_id": 1, "status": "PAID", "total_price": "99.90",
+                           "ordered_at": 1714558530123456, "updated_at": 1714558590000000},
+                 "source": {"connector": "postgresql", "lsn": 24023128},
+                 "transaction": {"id": "771:24023128", "total_order": 1}, "op": "u"}
+                """;
+
+        // When
+        DebeziumChange<OrderData> fromJson = CdcFormat.JSON.decode(json.getBytes(StandardCharsets.UTF_8),
+                OrderData.class);
+        byte[] binary = BinaryCdcEncoder.encode(json);
+        DebeziumChange<OrderData> fromBinary = CdcFormat.BINARY.decode(binary, OrderData.class);
+
+        // Then: Same operation, images, position and transaction tag, in fewer bytes
+        assertEquals(fromJson, fromBinary);
+        assertEquals("771:24023128", fromBinary.getAfter().getTransactionId());
+        assertEquals(new BigDecimal("99.90"), fromBinary.getAfter().getTotalPrice());
+        assertTrue(binary.length < json.length());
+    }
+
+    @Test
+    void shouldDecodeDeletesNullsAndUnicodeText() {
+        // Given
+        String itemDelete = """
+                {"before": {"id": 40, "order_id": 400, "product_id": 4, "quantity": 2, "unit_price": null},
+                 "after": null, "op": "d"}
+                """;
+        String product = """
+                {"after": {"id": 1, "name": "Bücherregal – Eiche", "price": "-0.50", "description": null},
+                 "op": "c"}
+                """;
+
+        // When
+        DebeziumChange<OrderItemData> delete = BinaryCdcDecoder.decode(BinaryCdcEncoder.encode(itemDelete),
+                OrderItemData.class);
+        DebeziumChange<ProductData> create = BinaryCdcDecoder.decode(BinaryCdcEncoder.encode(product),
+                ProductData.class);
+
+        // Then
+        assertTrue(delete.isDelete());
+        assertNull(delete.getAfter());
+        assertEquals(400L, delete.row().getOrderId());
+        assertNull(delete.row().getUnitPrice());
+        assertNull(delete.getLsn());
+        assertEquals("Bücherregal – Eiche", create.row().getName());
+        assertEquals(new BigDecimal("-0.50"), create.row().getPrice());
+    }
+
+    @Test
+    void shouldRejectForeignAndTruncatedValues() {
+        byte[] event = BinaryCdcEncoder.encode("""
+                {"after": {"id": 1, "name": "Desk"}, "op": "c"}
+                """);
+
+        assertNull(BinaryCdcDecoder.decode(null, ProductData.class));
+        assertThrows(DebeziumExtractionException.class, () -> BinaryCdcDecoder.decode(
+                "{\"op\":\"c\"}".getBytes(StandardCharsets.UTF_8), ProductData.class));
+        assertThrows(DebeziumExtractionException.class, () -> BinaryCdcDecoder.decode(
+                Arrays.copyOf(event, event.length - 2), ProductData.class));
+    }
+}
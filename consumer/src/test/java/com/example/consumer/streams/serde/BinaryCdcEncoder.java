@@ -0,0 +1,114 @@
+package com.example.consumer.streams.serde;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static com.example.consumer.streams.serde.BinaryCdcDecoder.*;
+
+/**
+ * Stand-in for a connector-side converter: re-encodes a Debezium JSON change event in the format of
+ * {@link BinaryCdcDecoder}, for tests and benchmarks. Without the column schema, the types are taken
+ * from the JSON: integers become {@code LONG}, fractions and decimal strings ({@code "99.90"}, as
+ * {@code decimal.handling.mode=string} writes them) become {@code DECIMAL}, other text {@code STRING}.
+ */
+public final class BinaryCdcEncoder {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Pattern DECIMAL_TEXT = Pattern.compile("-?\\d+\\.\\d+");
+
+    private BinaryCdcEncoder() {
+    }
+
+    public static byte[] encode(String debeziumJson) {
+        try {
+            JsonNode envelope = MAPPER.readTree(debeziumJson);
+            JsonNode lsn = envelope.path("source").path("lsn");
+            JsonNode transactionId = envelope.path("transaction").path("id");
+            JsonNode before = envelope.path("before");
+            JsonNode after = envelope.path("after");
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+            out.write(MAGIC);
+            out.write(VERSION);
+            out.write(envelope.path("op").asText().charAt(0));
+            out.write((lsn.isIntegralNumber() ? HAS_LSN : 0)
+                    | (transactionId.isTextual() ? HAS_TRANSACTION : 0)
+                    | (before.isObject() ? HAS_BEFORE : 0)
+                    | (after.isObject() ? HAS_AFTER : 0));
+            if (lsn.isIntegralNumber()) {
+                writeZigZag(out, lsn.asLong());
+            }
+            if (transactionId.isTextual()) {
+                writeString(out, transactionId.asText());
+            }
+            if (before.isObject()) {
+                writeRow(out, before);
+            }
+            if (after.isObject()) {
+                writeRow(out, after);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeRow(ByteArrayOutputStream out, JsonNode row) {
+        writeVarLong(out, row.size());
+        for (Iterator<Map.Entry<String, JsonNode>> it = row.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> column = it.next();
+            writeString(out, column.getKey());
+            JsonNode value = column.getValue();
+            if (value.isNull()) {
+                out.write(NULL);
+            } else if (value.isBoolean()) {
+                out.write(value.booleanValue() ? TRUE : FALSE);
+            } else if (value.isIntegralNumber()) {
+                out.write(LONG);
+                writeZigZag(out, value.longValue());
+            } else if (value.isNumber()) {
+                writeDecimal(out, value.decimalValue());
+            } else if (value.isTextual() && DECIMAL_TEXT.matcher(value.asText()).matches()) {
+                writeDecimal(out, new BigDecimal(value.asText()));
+            } else if (value.isTextual()) {
+                out.write(STRING);
+                writeString(out, value.asText());
+            } else {
+                throw new IllegalArgumentException("Unsupported column value: " + column.getKey());
+            }
+        }
+    }
+
+    private static void writeDecimal(ByteArrayOutputStream out, BigDecimal value) {
+        out.write(DECIMAL);
+        writeZigZag(out, value.unscaledValue().longValueExact());
+        writeVarLong(out, value.scale());
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private static void writeZigZag(ByteArrayOutputStream out, long value) {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
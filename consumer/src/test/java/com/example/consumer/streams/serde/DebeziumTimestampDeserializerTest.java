@@ -0,0 +1,56 @@
+package com.example.consumer.streams.serde;
+
+import com.example.consumer.streams.model.OrderData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DebeziumTimestampDeserializerTest {
+
+    private final JsonCodecs codecs = new JsonCodecs(JsonCodecs.configure(new ObjectMapper()));
+
+    @Test
+    void shouldConvertEpochMicrosIncludingBeforeEpoch() {
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123_456_000),
+                DebeziumTimestampDeserializer.ofEpochMicros(1_714_558_530_123_456L));
+        assertEquals(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000),
+                DebeziumTimestampDeserializer.ofEpochMicros(-1L));
+    }
+
+    @Test
+    void shouldParseStoredIsoTextWithAndWithoutFraction() {
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 15, 30), parse("2024-05-01T10:15:30"));
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 15, 30, 100_000_000), parse("2024-05-01T10:15:30.1"));
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123_456_789),
+                parse("2024-05-01T10:15:30.123456789"));
+
+        // Other layouts and invalid dates are left to LocalDateTimeDeserializer
+        assertNull(parse("2024-05-01T10:15"));
+        assertNull(parse("2024-05-01T10:15:30."));
+        assertNull(parse("2024-05-01 10:15:30"));
+        assertNull(parse("2024-02-30T10:15:30"));
+    }
+
+    @Test
+    void shouldRoundTripTimestampsThroughStateStoreSerde() throws Exception {
+        // Given: An order read from Debezium (epoch micros)
+        OrderData order = JsonCodecs.debezium().reader(OrderData.class)
+                .readValue("{\"id\":1,\"ordered_at\":1714558530123456,\"updated_at\":1714558530000000}");
+
+        // When: Written to and read back from a state store
+        byte[] stored = codecs.serde(OrderData.class).serializer().serialize("t", order);
+        OrderData restored = codecs.serde(OrderData.class).deserializer().deserialize("t", stored);
+
+        // Then
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123_456_000), restored.getOrderedAt());
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 15, 30), restored.getUpdatedAt());
+    }
+
+    private static LocalDateTime parse(String text) {
+        char[] padded = ("\"" + text + "\"").toCharArray();
+        return DebeziumTimestampDeserializer.parseIso(padded, 1, text.length());
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.consumer.streams.serde;
+
+import com.example.consumer.streams.model.OrderData;
+import com.example.consumer.streams.model.ProductData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.serialization.Serde;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonCodecsTest {
+
+    private final JsonCodecs codecs = new JsonCodecs(JsonCodecs.configure(new ObjectMapper()));
+
+    @Test
+    void shouldCacheReadersWritersAndSerdesPerType() {
+        // Given: Codecs warmed up for one type
+        codecs.warmUp(OrderData.class);
+
+        // Then: Every lookup of a type returns the same instance
+        assertSame(codecs.reader(OrderData.class), codecs.reader(OrderData.class));
+        assertSame(codecs.writer(OrderData.class), codecs.writer(OrderData.class));
+        assertSame(codecs.serde(OrderData.class), SerdeFactory.createJsonSerde(OrderData.class, codecs));
+        assertNotSame(codecs.reader(OrderData.class), codecs.reader(ProductData.class));
+
+        // And: The serde hands out one serializer and deserializer
+        Serde<OrderData> serde = codecs.serde(OrderData.class);
+        assertSame(serde.serializer(), serde.serializer());
+        assertSame(serde.deserializer(), serde.deserializer());
+    }
+
+    @Test
+    void shouldKeepMoneyDigitsExactlyBothWays() {
+        // Given: Prices with trailing zeros and a large scale-less amount
+        ProductData product = new ProductData();
+        product.setId(1L);
+        product.setPrice(new BigDecimal("1E+2"));
+        Serde<ProductData> serde = codecs.serde(ProductData.class);
+
+        // When
+        byte[] bytes = serde.serializer().serialize("t", product);
+
+        // Then: Written without exponent and read back as the same value
+        assertTrue(new String(bytes, StandardCharsets.UTF_8).contains("\"price\":100"));
+        assertEquals(0, new BigDecimal("100").compareTo(serde.deserializer().deserialize("t", bytes).getPrice()));
+
+        // And: A JSON float keeps all its digits (no double rounding)
+        ProductData parsed = serde.deserializer().deserialize("t",
+                "{\"id\":2,\"price\":12345678901234567.89,\"ignored\":true}".getBytes(StandardCharsets.UTF_8));
+        assertEquals(new BigDecimal("12345678901234567.89"), parsed.getPrice());
+    }
+
+    @Test
+    void shouldReadDebeziumColumnsInSnakeCase() throws Exception {
+        // When
+        OrderData order = JsonCodecs.debezium().reader(OrderData.class)
+                .readValue("{\"id\":5,\"user_id\":7,\"total_price\":\"10.50\"}");
+
+        // Then
+        assertEquals(7L, order.getUserId());
+        assertEquals(new BigDecimal("10.50"), order.getTotalPrice());
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.consumer.streams.serde;
+
+import com.example.consumer.dto.OrderDocument;
+import com.example.consumer.dto.OrderItemDto;
+import com.example.consumer.streams.model.DocumentFingerprint;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderDocumentWriterTest {
+
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    @Test
+    void shouldWriteSameJsonAsObjectMapper() throws Exception {
+        // Given: A document with every field set, including fractional seconds
+        OrderDocument document = document(LocalDateTime.of(2024, 5, 1, 10, 0, 0, 120_000_000));
+
+        // When
+        byte[] written = OrderDocumentWriter.forCurrentThread().write(document).toByteArray();
+
+        // Then: Same JSON tree as ObjectMapper with ISO dates, and it reads back to the same document
+        assertEquals(objectMapper.valueToTree(document), objectMapper.readTree(written));
+        assertEquals(document, objectMapper.readValue(written, OrderDocument.class));
+    }
+
+    @Test
+    void shouldWriteNullFields() throws Exception {
+        // Given: A document with nothing set but the id
+        OrderDocument document = new OrderDocument();
+        document.setOrderId(1L);
+        document.setItems(null);
+
+        // When
+        byte[] written = OrderDocumentWriter.forCurrentThread().write(document).toByteArray();
+
+        // Then
+        assertEquals(objectMapper.valueToTree(document), objectMapper.readTree(written));
+    }
+
+    @Test
+    void shouldFormatDatesLikeIsoLocalDateTime() throws Exception {
+        for (LocalDateTime orderedAt : List.of(
+                LocalDateTime.of(2024, 1, 2, 3, 4, 0),
+                LocalDateTime.of(2024, 12, 31, 23, 59, 59, 1),
+                LocalDateTime.of(999, 1, 1, 0, 0, 5, 500_000_000))) {
+            // When
+            byte[] written = OrderDocumentWriter.forCurrentThread().write(document(orderedAt)).toByteArray();
+
+            // Then
+            assertEquals(objectMapper.valueToTree(orderedAt).asText(),
+                    objectMapper.readTree(written).get("orderedAt").asText());
+        }
+    }
+
+    @Test
+    void shouldNotCarryOverBytesFromPreviousWrite() throws Exception {
+        // Given: A large document written first on this thread
+        OrderDocument large = document(LocalDateTime.of(2024, 5, 1, 10, 0));
+        for (long i = 0; i < 500; i++) {
+            large.getItems().add(new OrderItemDto(i, "Product " + i, new BigDecimal("1.00"), 1));
+        }
+        OrderDocumentWriter.forCurrentThread().write(large);
+
+        // When: A small one is written next
+        OrderDocument small = new OrderDocument();
+        small.setOrderId(2L);
+        byte[] written = OrderDocumentWriter.forCurrentThread().write(small).toByteArray();
+
+        // Then
+        assertEquals(objectMapper.valueToTree(small), objectMapper.readTree(written));
+    }
+
+    @Test
+    void shouldFingerprintOnlyChangedFieldsAsChanged() throws Exception {
+        // Given: Two versions differing in status only
+        OrderDocument before = document(LocalDateTime.of(2024, 5, 1, 10, 0));
+        OrderDocument after = document(LocalDateTime.of(2024, 5, 1, 10, 0));
+        after.setStatus("PAID");
+
+        // When
+        DocumentFingerprint previous = OrderDocumentWriter.forCurrentThread().write(before).fingerprint();
+        DocumentFingerprint current = OrderDocumentWriter.forCurrentThread().write(after).fingerprint();
+
+        // Then
+        assertNotEquals(previous.getHash(), current.getHash());
+        assertEquals(List.of("status"), current.changedFields(previous));
+        assertEquals(OrderDocumentWriter.forCurrentThread().write(after).size(), current.getSize());
+        assertEquals(current, OrderDocumentWriter.forCurrentThread().write(after).fingerprint());
+    }
+
+    private static OrderDocument document(LocalDateTime orderedAt) {
+        List<OrderItemDto> items = new ArrayList<>();
+        items.add(new OrderItemDto(10L, "Laptop \"Pro\"", new BigDecimal("999.99"), 1));
+        items.add(new OrderItemDto(11L, null, null, 2));
+        return new OrderDocument(100L, 200L, "PENDING", new BigDecimal("1019.99"), items, orderedAt,
+                new OrderDocument.ProductSummary(2, Set.of(10L, 11L), 3));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.consumer.streams.topics;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.TopologyDescription;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.KTable;
+import org.apache.kafka.streams.kstream.Repartitioned;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoPartitioningValidatorTest {
+
+    private static final String APP = "test-app";
+
+    @Test
+    void shouldAcceptJoinedTopicsWithSamePartitionCount() {
+        // Given: Two joined topics with 6 partitions each
+        TopologyDescription description = joinTopology();
+
+        // When
+        List<String> mismatches = CoPartitioningValidator.mismatches(description,
+                Map.of("left", 6, "right", 6), APP, 6);
+
+        // Then
+        assertTrue(mismatches.isEmpty());
+    }
+
+    @Test
+    void shouldRejectJoinedTopicsWithDifferentPartitionCounts() {
+        // Given: The right side of the join was auto-created with 1 partition
+        TopologyDescription description = joinTopology();
+
+        // When
+        List<String> mismatches = CoPartitioningValidator.mismatches(description,
+                Map.of("left", 6, "right", 1), APP, 6);
+
+        // Then: The sub-topology reading both is reported with the counts
+        assertEquals(1, mismatches.size());
+        assertTrue(mismatches.get(0).contains("left=6"));
+        assertTrue(mismatches.get(0).contains("right=1"));
+    }
+
+    @Test
+    void shouldSkipTopicsThatDoNotExistYet() {
+        // Given: Only one side exists
+        TopologyDescription description = joinTopology();
+
+        // When
+        List<String> mismatches = CoPartitioningValidator.mismatches(description, Map.of("left", 6), APP, 6);
+
+        // Then
+        assertTrue(mismatches.isEmpty());
+    }
+
+    @Test
+    void shouldRejectExistingRepartitionTopicWithOtherThanConfiguredCount() {
+        // Given: A repartition topic created when 3 partitions were configured
+        StreamsBuilder builder = new StreamsBuilder();
+        builder.stream("input", Consumed.with(Serdes.String(), Serdes.String()))
+                .repartition(Repartitioned.<String, String>as("by-key").withNumberOfPartitions(6))
+                .foreach((key, value) -> { });
+        TopologyDescription description = builder.build().describe();
+
+        // When
+        List<String> mismatches = CoPartitioningValidator.mismatches(description,
+                Map.of("input", 6, APP + "-by-key-repartition", 3), APP, 6);
+
+        // Then
+        assertEquals(1, mismatches.size());
+        assertTrue(mismatches.get(0).contains(APP + "-by-key-repartition has 3 partitions"));
+    }
+
+    private static TopologyDescription joinTopology() {
+        StreamsBuilder builder = new StreamsBuilder();
+        KTable<String, String> right = builder.table("right", Consumed.with(Serdes.String(), Serdes.String()));
+        builder.stream("left", Consumed.with(Serdes.String(), Serdes.String()))
+                .join(right, (l, r) -> l + r)
+                .foreach((key, value) -> { });
+        return builder.build().describe();
+    }
+}
@@ -1,18 +1,40 @@
 package com.example.consumer.streams.topology;
 
+import com.example.consumer.bootstrap.SnapshotHandoff;
+import com.example.consumer.bootstrap.SourcePositionHeaders;
+import com.example.consumer.config.TopologyProperties;
+import com.example.consumer.config.TopologyProperties.ProductJoinMode;
 import com.example.consumer.dto.OrderDocument;
 import com.example.consumer.service.DocumentStoreService;
+import com.example.consumer.service.UserOrderHistoryService;
+import com.example.consumer.streams.dlq.DeadLetterHeaders;
+import com.example.consumer.streams.dlq.DocumentSinkProcessor;
+import com.example.consumer.streams.model.UserOrderHistory;
+import com.example.consumer.streams.outbox.OutboxDocumentFilter;
+import com.example.consumer.streams.serde.BinaryCdcEncoder;
+import com.example.consumer.streams.serde.CdcFormat;
+import com.example.consumer.streams.serde.JsonCodecs;
+import com.example.consumer.streams.trace.StageTracer;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.streams.*;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.test.TestRecord;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,7 +46,10 @@ class OrderDenormalizationTopologyTest {
     private TestInputTopic<String, String> orderItemsTopic;
     private TestInputTopic<String, String> productsTopic;
     private DocumentStoreService mockDocumentStoreService;
+    private UserOrderHistoryService mockUserOrderHistoryService;
     private ObjectMapper objectMapper;
+    private SnapshotHandoff snapshotHandoff = SnapshotHandoff.NONE;
+    private SimpleMeterRegistry meterRegistry;
 
     @BeforeEach
     void setUp() {
@@ -34,23 +59,19 @@ class OrderDenormalizationTopologyTest {
 
         // Create mock DocumentStoreService
         mockDocumentStoreService = mock(DocumentStoreService.class);
+        mockUserOrderHistoryService = mock(UserOrderHistoryService.class);
+        meterRegistry = new SimpleMeterRegistry();
 
-        // Build the topology
-        StreamsBuilder streamsBuilder = new StreamsBuilder();
-        OrderDenormalizationTopology topology = new OrderDenormalizationTopology(
-                mockDocumentStoreService,
-                objectMapper
-        );
-        topology.buildTopology(streamsBuilder);
+        startTestDriver(new TopologyProperties());
+    }
 
-        // Create test driver
-        Properties props = new Properties();
-        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "test-app");
-        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:1234");
-        props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.String().getClass());
-        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.String().getClass());
+    private void startTestDriver(TopologyProperties properties) {
+        if (testDriver != null) {
+            testDriver.close();
+        }
 
-        testDriver = new TopologyTestDriver(streamsBuilder.build(), props);
+        // Build the topology
+        testDriver = new TopologyTestDriver(buildTopology(properties), testDriverProperties());
 
         // Create input topics
         ordersTopic = testDriver.createInputTopic(
@@ -72,6 +93,36 @@ class OrderDenormalizationTopologyTest {
         );
     }
 
+    private Topology buildTopology(TopologyProperties properties) {
+        StreamsBuilder streamsBuilder = new StreamsBuilder();
+        OrderDenormalizationTopology topology = new OrderDenormalizationTopology(
+                mockDocumentStoreService,
+                mockUserOrderHistoryService,
+                new JsonCodecs(objectMapper),
+                properties,
+                snapshotHandoff,
+                meterRegistry,
+                new StageTracer(properties, meterRegistry)
+        );
+        topology.buildTopology(streamsBuilder);
+        return streamsBuilder.build();
+    }
+
+    private Properties testDriverProperties() {
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "test-app");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:1234");
+        props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.String().getClass());
+        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.String().getClass());
+        return props;
+    }
+
+    private static TopologyProperties withProductJoinMode(ProductJoinMode mode) {
+        TopologyProperties properties = new TopologyProperties();
+        properties.setProductJoinMode(mode);
+        return properties;
+    }
+
     @AfterEach
     void tearDown() {
         if (testDriver != null) {
@@ -140,7 +191,7 @@ class OrderDenormalizationTopologyTest {
 
         // Then: DocumentStoreService should be called with denormalized document
         ArgumentCaptor<OrderDocument> documentCaptor = ArgumentCaptor.forClass(OrderDocument.class);
-        verify(mockDocumentStoreService, timeout(1000).atLeastOnce()).save(documentCaptor.capture());
+        verify(mockDocumentStoreService, timeout(1000).atLeastOnce()).save(documentCaptor.capture(), anyBoolean());
 
         OrderDocument savedDocument = documentCaptor.getValue();
         assertNotNull(savedDocument);
@@ -240,7 +291,7 @@ class OrderDenormalizationTopologyTest {
 
         // Then: Document should have both items with product names
         ArgumentCaptor<OrderDocument> documentCaptor = ArgumentCaptor.forClass(OrderDocument.class);
-        verify(mockDocumentStoreService, timeout(1000).atLeastOnce()).save(documentCaptor.capture());
+        verify(mockDocumentStoreService, timeout(1000).atLeastOnce()).save(documentCaptor.capture(), anyBoolean());
 
         OrderDocument savedDocument = documentCaptor.getValue();
         assertNotNull(savedDocument);
@@ -304,7 +355,7 @@ class OrderDenormalizationTopologyTest {
 
         // Then: Document should be created with "Unknown" product name
         ArgumentCaptor<OrderDocument> documentCaptor = ArgumentCaptor.forClass(OrderDocument.class);
-        verify(mockDocumentStoreService, timeout(1000).atLeastOnce()).save(documentCaptor.capture());
+        verify(mockDocumentStoreService, timeout(1000).atLeastOnce()).save(documentCaptor.capture(), anyBoolean());
 
         OrderDocument savedDocument = documentCaptor.getValue();
         assertNotNull(savedDocument);
@@ -396,7 +447,7 @@ class OrderDenormalizationTopologyTest {
 
         // Verify: Document should be updated with actual product name
         ArgumentCaptor<OrderDocument> documentCaptor = ArgumentCaptor.forClass(OrderDocument.class);
-        verify(mockDocumentStoreService, timeout(1000).atLeast(2)).save(documentCaptor.capture());
+        verify(mockDocumentStoreService, timeout(1000).atLeast(2)).save(documentCaptor.capture(), anyBoolean());
 
         // Get the latest saved document
         OrderDocument latestDocument = documentCaptor.getAllValues().get(documentCaptor.getAllValues().size() - 1);
@@ -475,7 +526,7 @@ class OrderDenormalizationTopologyTest {
 
         // Then: Product summary should show unique product count = 1, total quantity = 4
         ArgumentCaptor<OrderDocument> documentCaptor = ArgumentCaptor.forClass(OrderDocument.class);
-        verify(mockDocumentStoreService, timeout(1000).atLeastOnce()).save(documentCaptor.capture());
+        verify(mockDocumentStoreService, timeout(1000).atLeastOnce()).save(documentCaptor.capture(), anyBoolean());
 
         OrderDocument savedDocument = documentCaptor.getValue();
         assertNotNull(savedDocument);
@@ -488,4 +539,752 @@ class OrderDenormalizationTopologyTest {
         assertTrue(savedDocument.getProductSummary().getProductIds().contains(50L));
         assertEquals(4, savedDocument.getProductSummary().getTotalQuantity()); // 2 + 2 = 4
     }
+
+    @Test
+    void shouldEnrichOrderItemsFromGlobalProductsTable() throws Exception {
+        // Given: Topology running in GLOBAL_TABLE mode
+        startTestDriver(withProductJoinMode(ProductJoinMode.GLOBAL_TABLE));
+
+        String productEvent = """
+                {
+                  "after": {
+                    "id": 60,
+                    "name": "Camera",
+                    "price": "499.99"
+                  },
+                  "op": "c"
+                }
+                """;
+
+        String orderEvent = """
+                {
+                  "after": {
+                    "id": 106,
+                    "user_id": 206,
+                    "status": "PENDING",
+                    "total_price": "999.98",
+                    "ordered_at": 1640000000000,
+                    "updated_at": 1640000000000
+                  },
+                  "op": "c"
+                }
+                """;
+
+        String orderItemEvent = """
+                {
+                  "after": {
+                    "id": 60,
+                    "order_id": 106,
+                    "product_id": 60,
+                    "quantity": 2,
+                    "unit_price": "499.99",
+                    "created_at": 1640000000000
+                  },
+                  "op": "c"
+                }
+                """;
+
+        // When: Send events (product first so the global store is populated)
+        productsTopic.pipeInput("60", productEvent);
+        ordersTopic.pipeInput("106", orderEvent);
+        orderItemsTopic.pipeInput("60", orderItemEvent);
+
+        // Then: Document is enriched from the global products table
+        ArgumentCaptor<OrderDocument> documentCaptor = ArgumentCaptor.forClass(OrderDocument.class);
+        verify(mockDocumentStoreService, timeout(1000).atLeastOnce()).save(documentCaptor.capture(), anyBoolean());
+
+        OrderDocument savedDocument = documentCaptor.getValue();
+        assertEquals(106L, savedDocument.getOrderId());
+        assertEquals(1, savedDocument.getItems().size());
+        assertEquals("Camera", savedDocument.getItems().get(0).getName());
+        assertEquals(2, savedDocument.getProductSummary().getTotalQuantity());
+    }
+
+    @Test
+    void shouldSkipProductIdRepartitionInGlobalTableMode() {
+        // Given: The same topology built in both product join modes
+        String partitioned = buildTopology(withProductJoinMode(ProductJoinMode.REPARTITION))
+                .describe().toString();
+        String global = buildTopology(withProductJoinMode(ProductJoinMode.GLOBAL_TABLE))
+                .describe().toString();
+
+        // Then: GLOBAL_TABLE mode neither repartitions items by productId nor keeps a partitioned products store
+        assertTrue(partitioned.contains("products-store"));
+        assertFalse(global.contains("products-store"));
+        assertTrue(global.contains("products-global-store"));
+        assertTrue(countRepartitionSinks(global) < countRepartitionSinks(partitioned));
+    }
+
+    @Test
+    void shouldFanOutHotProductUpdateOnlyToReferencingOrders() {
+        // Given: A hot product referenced by many orders, plus orders for another product
+        int hotOrders = 200;
+        int otherOrders = 20;
+        productsTopic.pipeInput("70", productJson(70L, "Headphones", "59.99"));
+        productsTopic.pipeInput("71", productJson(71L, "Charger", "19.99"));
+
+        for (long orderId = 1000; orderId < 1000 + hotOrders + otherOrders; orderId++) {
+            long productId = orderId < 1000 + hotOrders ? 70L : 71L;
+            ordersTopic.pipeInput(String.valueOf(orderId), orderJson(orderId));
+            orderItemsTopic.pipeInput(String.valueOf(orderId), orderItemJson(orderId, orderId, productId));
+        }
+        clearInvocations(mockDocumentStoreService);
+
+        // When: The hot product is renamed
+        productsTopic.pipeInput("70", productJson(70L, "Headphones Pro", "69.99"));
+
+        // Then: Every order referencing it is rebuilt once with the new name, and no other order is touched
+        ArgumentCaptor<OrderDocument> documentCaptor = ArgumentCaptor.forClass(OrderDocument.class);
+        verify(mockDocumentStoreService, times(hotOrders)).save(documentCaptor.capture(), anyBoolean());
+
+        Set<Long> rebuiltOrders = new HashSet<>();
+        for (OrderDocument document : documentCaptor.getAllValues()) {
+            assertTrue(document.getOrderId() < 1000 + hotOrders, "order without the hot product was rebuilt");
+            assertEquals(1, document.getItems().size());
+            assertEquals("Headphones Pro", document.getItems().get(0).getName());
+            rebuiltOrders.add(document.getOrderId());
+        }
+        assertEquals(hotOrders, rebuiltOrders.size());
+    }
+
+    @Test
+    void shouldRemoveDeletedOrderItemFromDocument() {
+        // Given: An order with two items
+        productsTopic.pipeInput("80", productJson(80L, "Desk", "59.99"));
+        ordersTopic.pipeInput("1100", orderJson(1100L));
+        orderItemsTopic.pipeInput("81", orderItemJson(81L, 1100L, 80L));
+        orderItemsTopic.pipeInput("82", orderItemJson(82L, 1100L, 80L));
+
+        // When: One item is deleted
+        clearInvocations(mockDocumentStoreService);
+        orderItemsTopic.pipeInput("81", orderItemDeleteJson(81L, 1100L, 80L));
+
+        // Then: The document is rewritten without it
+        ArgumentCaptor<OrderDocument> documentCaptor = ArgumentCaptor.forClass(OrderDocument.class);
+        verify(mockDocumentStoreService, atLeastOnce()).save(documentCaptor.capture(), anyBoolean());
+        OrderDocument latestDocument = documentCaptor.getValue();
+        assertEquals(1, latestDocument.getItems().size());
+        assertEquals(1, latestDocument.getProductSummary().getTotalQuantity());
+        verify(mockDocumentStoreService, never()).delete(1100L);
+    }
+
+    @Test
+    void shouldDeleteDocumentWhenLastOrderItemIsDeleted() {
+        // Given: An order with a single item
+        ordersTopic.pipeInput("1101", orderJson(1101L));
+        orderItemsTopic.pipeInput("83", orderItemJson(83L, 1101L, 80L));
+        verify(mockDocumentStoreService, atLeastOnce()).save(any(), anyBoolean());
+
+        // When: The item is deleted and Debezium follows up with a Kafka tombstone
+        orderItemsTopic.pipeInput("83", orderItemDeleteJson(83L, 1101L, 80L));
+        orderItemsTopic.pipeInput("83", (String) null);
+
+        // Then: The document row is deleted and the aggregate is gone from the store
+        verify(mockDocumentStoreService).delete(1101L);
+        assertNull(testDriver.getKeyValueStore("order-items-aggregated-store").get(1101L));
+        assertNull(testDriver.getKeyValueStore("order-items-store").get(83L));
+    }
+
+    @Test
+    void shouldMarkItemsUnknownWhenProductIsDeleted() {
+        // Given: A document enriched with a product
+        productsTopic.pipeInput("85", productJson(85L, "Lamp", "29.99"));
+        ordersTopic.pipeInput("1102", orderJson(1102L));
+        orderItemsTopic.pipeInput("86", orderItemJson(86L, 1102L, 85L));
+
+        // When: The product is deleted
+        clearInvocations(mockDocumentStoreService);
+        productsTopic.pipeInput("85", """
+                {"before": {"id": 85}, "after": null, "op": "d"}
+                """);
+
+        // Then: The document is rewritten without the product data and the product store entry is gone
+        ArgumentCaptor<OrderDocument> documentCaptor = ArgumentCaptor.forClass(OrderDocument.class);
+        verify(mockDocumentStoreService, atLeastOnce()).save(documentCaptor.capture(), anyBoolean());
+        assertEquals("Unknown", documentCaptor.getValue().getItems().get(0).getName());
+        assertNull(testDriver.getKeyValueStore("products-store").get(85L));
+    }
+
+    @Test
+    void shouldRemoveDeletedOrderItemInRepartitionMode() {
+        // Given: Topology running in REPARTITION mode with an order of two items
+        startTestDriver(withProductJoinMode(ProductJoinMode.REPARTITION));
+        productsTopic.pipeInput("80", productJson(80L, "Desk", "59.99"));
+        ordersTopic.pipeInput("1103", orderJson(1103L));
+        orderItemsTopic.pipeInput("87", orderItemJson(87L, 1103L, 80L));
+        orderItemsTopic.pipeInput("88", orderItemJson(88L, 1103L, 80L));
+
+        // When: Both items are deleted (before images carry order_id and product_id)
+        clearInvocations(mockDocumentStoreService);
+        orderItemsTopic.pipeInput("87", orderItemDeleteJson(87L, 1103L, 80L));
+        orderItemsTopic.pipeInput("88", orderItemDeleteJson(88L, 1103L, 80L));
+
+        // Then: The document shrinks, then is deleted
+        ArgumentCaptor<OrderDocument> documentCaptor = ArgumentCaptor.forClass(OrderDocument.class);
+        verify(mockDocumentStoreService, atLeastOnce()).save(documentCaptor.capture(), anyBoolean());
+        assertEquals(1, documentCaptor.getValue().getItems().size());
+        verify(mockDocumentStoreService).delete(1103L);
+    }
+
+    @Test
+    void shouldHoldDocumentUntilSourceTransactionIsComplete() {
+        // Given: Transaction buffering enabled
+        startTestDriver(withTransactionBuffer());
+        TestInputTopic<String, String> transactionsTopic = createTransactionsTopic();
+        productsTopic.pipeInput("90", productJson(90L, "Chair", "89.99"));
+
+        // When: One transaction creates an order with three items
+        ordersTopic.pipeInput("1200", inTransaction(orderJson(1200L), "tx-1200"));
+        orderItemsTopic.pipeInput("91", inTransaction(orderItemJson(91L, 1200L, 90L), "tx-1200"));
+        orderItemsTopic.pipeInput("92", inTransaction(orderItemJson(92L, 1200L, 90L), "tx-1200"));
+
+        // Then: Nothing is written while the transaction is incomplete
+        testDriver.advanceWallClockTime(Duration.ofMillis(500));
+        verify(mockDocumentStoreService, never()).save(any(), anyBoolean());
+
+        // When: The last item and the END event arrive
+        orderItemsTopic.pipeInput("93", inTransaction(orderItemJson(93L, 1200L, 90L), "tx-1200"));
+        transactionsTopic.pipeInput("tx-1200", transactionEndJson("tx-1200", 1, 3));
+        testDriver.advanceWallClockTime(Duration.ofMillis(500));
+
+        // Then: Exactly one complete document is written
+        ArgumentCaptor<OrderDocument> documentCaptor = ArgumentCaptor.forClass(OrderDocument.class);
+        verify(mockDocumentStoreService, times(1)).save(documentCaptor.capture(), anyBoolean());
+        assertEquals(3, documentCaptor.getValue().getItems().size());
+
+        // When: A later transaction only updates the order status
+        ordersTopic.pipeInput("1200", inTransaction(orderJson(1200L).replace("PENDING", "SHIPPED"), "tx-1201"));
+        transactionsTopic.pipeInput("tx-1201", transactionEndJson("tx-1201", 1, 0));
+        testDriver.advanceWallClockTime(Duration.ofMillis(500));
+
+        // Then: The update is written without waiting for the max wait
+        verify(mockDocumentStoreService, times(1)).patch(documentCaptor.capture(), eq(List.of("status")));
+        assertEquals("SHIPPED", documentCaptor.getValue().getStatus());
+    }
+
+    @Test
+    void shouldReleaseHeldDocumentAfterMaxWait() {
+        // Given: Transaction buffering enabled and no END event for the transaction
+        startTestDriver(withTransactionBuffer());
+        ordersTopic.pipeInput("1201", inTransaction(orderJson(1201L), "tx-lost"));
+        orderItemsTopic.pipeInput("94", inTransaction(orderItemJson(94L, 1201L, 90L), "tx-lost"));
+
+        // When: The max wait passes
+        testDriver.advanceWallClockTime(Duration.ofSeconds(1));
+        verify(mockDocumentStoreService, never()).save(any(), anyBoolean());
+        testDriver.advanceWallClockTime(Duration.ofSeconds(5));
+
+        // Then: The document is written once
+        verify(mockDocumentStoreService, times(1)).save(any(), anyBoolean());
+    }
+
+    @Test
+    void shouldSendMalformedEnvelopeToDeadLetterTopicAndContinue() {
+        // Given: A malformed envelope followed by a valid order
+        TestOutputTopic<String, String> deadLetterTopic = createDeadLetterTopic();
+
+        // When: Both are sent to the orders topic
+        ordersTopic.pipeInput("1300", "{not valid json");
+        ordersTopic.pipeInput("1301", orderJson(1301L));
+        orderItemsTopic.pipeInput("95", orderItemJson(95L, 1301L, 90L));
+
+        // Then: The malformed record is dead-lettered with its raw value and failure headers
+        TestRecord<String, String> deadLetter = deadLetterTopic.readRecord();
+        assertEquals("1300", deadLetter.key());
+        assertEquals("{not valid json", deadLetter.value());
+        assertEquals(DeadLetterHeaders.STAGE_EXTRACT, DeadLetterHeaders.get(deadLetter.headers(), DeadLetterHeaders.STAGE));
+        assertEquals("dbserver1.public.orders",
+                DeadLetterHeaders.get(deadLetter.headers(), DeadLetterHeaders.SOURCE_TOPIC));
+        assertTrue(deadLetterTopic.isEmpty());
+
+        // And: The stream keeps processing
+        verify(mockDocumentStoreService).save(argThat(document -> document.getOrderId() == 1301L), anyBoolean());
+    }
+
+    @Test
+    void shouldDecodeBinarySourceTopicsAndDeadLetterTheirRawBytes() {
+        // Given: All three table topics configured for the binary CDC format
+        TopologyProperties properties = new TopologyProperties();
+        properties.getSourceFormats().put("dbserver1.public.orders", CdcFormat.BINARY);
+        properties.getSourceFormats().put("dbserver1.public.order_items", CdcFormat.BINARY);
+        properties.getSourceFormats().put("dbserver1.public.products", CdcFormat.BINARY);
+        startTestDriver(properties);
+        TestOutputTopic<String, byte[]> deadLetterTopic = testDriver.createOutputTopic(
+                "order-denormalization-dlq", Serdes.String().deserializer(), Serdes.ByteArray().deserializer());
+
+        // When: Binary events and one undecodable record are sent
+        byte[] undecodable = {(byte) 0xCD, 99};
+        binaryTopic("dbserver1.public.products").pipeInput("96",
+                BinaryCdcEncoder.encode(productJson(96L, "Shelf", "49.90")));
+        binaryTopic("dbserver1.public.orders").pipeInput("1310", undecodable);
+        binaryTopic("dbserver1.public.orders").pipeInput("1311", BinaryCdcEncoder.encode(orderJson(1311L)));
+        binaryTopic("dbserver1.public.order_items").pipeInput("97",
+                BinaryCdcEncoder.encode(orderItemJson(97L, 1311L, 96L)));
+
+        // Then: The document is built as from JSON
+        ArgumentCaptor<OrderDocument> documentCaptor = ArgumentCaptor.forClass(OrderDocument.class);
+        verify(mockDocumentStoreService, atLeastOnce()).save(documentCaptor.capture(), anyBoolean());
+        OrderDocument document = documentCaptor.getValue();
+        assertEquals(1311L, document.getOrderId());
+        assertEquals(new BigDecimal("59.99"), document.getTotalPrice());
+        assertEquals("Shelf", document.getItems().get(0).getName());
+
+        // And: The undecodable record reaches the dead-letter topic byte for byte
+        TestRecord<String, byte[]> deadLetter = deadLetterTopic.readRecord();
+        assertEquals("1310", deadLetter.key());
+        assertArrayEquals(undecodable, deadLetter.value());
+        assertTrue(deadLetterTopic.isEmpty());
+    }
+
+    @Test
+    void shouldWriteOutboxDocumentBeforeTheJoinsAndSkipTheJoinedDuplicate() throws Exception {
+        // Given: Outbox mode
+        TopologyProperties properties = new TopologyProperties();
+        properties.getOutbox().setEnabled(true);
+        startTestDriver(properties);
+        TestInputTopic<String, String> outboxTopic = testDriver.createInputTopic(
+                "dbserver1.public.outbox", Serdes.String().serializer(), Serdes.String().serializer());
+
+        // When: The outbox event of a new order arrives, followed by the producer's cleanup delete
+        outboxTopic.pipeInput("1", outboxJson(1L, 1600L, "OrderCreated", outboxDocument(1600L, "Desk")));
+        outboxTopic.pipeInput("1", """
+                {"before": {"id": 1, "aggregate_type": "order", "aggregate_id": 1600,
+                 "event_type": "OrderCreated", "payload": "{}"}, "after": null, "op": "d"}
+                """);
+        outboxTopic.pipeInput("1", (String) null);
+
+        // Then: The document is written without any table event
+        ArgumentCaptor<OrderDocument> documentCaptor = ArgumentCaptor.forClass(OrderDocument.class);
+        verify(mockDocumentStoreService, times(1)).save(documentCaptor.capture(), anyBoolean());
+        assertEquals(1600L, documentCaptor.getValue().getOrderId());
+        assertEquals("Desk", documentCaptor.getValue().getItems().get(0).getName());
+        assertEquals(Set.of(98L), documentCaptor.getValue().getProductSummary().getProductIds());
+
+        // When: The same order arrives through the table topics
+        productsTopic.pipeInput("98", productJson(98L, "Desk", "59.99"));
+        ordersTopic.pipeInput("1600", orderJson(1600L));
+        orderItemsTopic.pipeInput("102", orderItemJson(102L, 1600L, 98L));
+
+        // Then: The joined document equals the outbox one and is not written again
+        verify(mockDocumentStoreService, times(1)).save(any(), anyBoolean());
+        verify(mockDocumentStoreService, never()).patch(any(), any());
+        assertEquals(1.0, meterRegistry.counter(DocumentSinkProcessor.SKIPPED_WRITES_METRIC, "reason", "unchanged").count());
+
+        // When: Order status changes still come through the joins
+        ordersTopic.pipeInput("1600", orderJson(1600L).replace("PENDING", "PAID"));
+
+        // Then
+        verify(mockDocumentStoreService, times(1)).patch(any(), eq(List.of("status")));
+    }
+
+    @Test
+    void shouldDropOutboxDocumentOfAnOrderTheJoinsAlreadyWrote() throws Exception {
+        // Given: Outbox mode, and an order whose document was built from the table topics first
+        TopologyProperties properties = new TopologyProperties();
+        properties.getOutbox().setEnabled(true);
+        startTestDriver(properties);
+        TestInputTopic<String, String> outboxTopic = testDriver.createInputTopic(
+                "dbserver1.public.outbox", Serdes.String().serializer(), Serdes.String().serializer());
+        TestOutputTopic<String, String> deadLetterTopic = createDeadLetterTopic();
+        productsTopic.pipeInput("98", productJson(98L, "Desk", "59.99"));
+        ordersTopic.pipeInput("1601", orderJson(1601L));
+        orderItemsTopic.pipeInput("103", orderItemJson(103L, 1601L, 98L));
+        verify(mockDocumentStoreService, times(1)).save(any(), anyBoolean());
+
+        // When: Its (older) outbox event arrives late, along with other event types and a broken payload
+        outboxTopic.pipeInput("2", outboxJson(2L, 1601L, "OrderCreated", outboxDocument(1601L, "Old desk")));
+        outboxTopic.pipeInput("3", outboxJson(3L, 1602L, "OrderShipped", outboxDocument(1602L, "Desk")));
+        outboxTopic.pipeInput("4", outboxJson(4L, 1603L, "OrderCreated", "{\"orderId\": "));
+
+        // Then: Nothing overwrites the joined document
+        verify(mockDocumentStoreService, times(1)).save(any(), anyBoolean());
+        assertEquals(1.0, meterRegistry.counter(OutboxDocumentFilter.SUPERSEDED_METRIC).count());
+
+        // And: Only the unreadable payload is dead-lettered
+        assertEquals("4", deadLetterTopic.readRecord().key());
+        assertTrue(deadLetterTopic.isEmpty());
+    }
+
+    @Test
+    void shouldDropOutboxDocumentOfADeletedOrder() throws Exception {
+        // Given: Outbox mode, and an order built from the table topics and then deleted
+        TopologyProperties properties = new TopologyProperties();
+        properties.getOutbox().setEnabled(true);
+        startTestDriver(properties);
+        TestInputTopic<String, String> outboxTopic = testDriver.createInputTopic(
+                "dbserver1.public.outbox", Serdes.String().serializer(), Serdes.String().serializer());
+        productsTopic.pipeInput("98", productJson(98L, "Desk", "59.99"));
+        ordersTopic.pipeInput("1604", orderJson(1604L));
+        orderItemsTopic.pipeInput("104", orderItemJson(104L, 1604L, 98L));
+        ordersTopic.pipeInput("1604", """
+                {"before": {"id": 1604, "user_id": 300, "status": "CANCELLED", "total_price": "59.99"},
+                 "after": null, "op": "d"}
+                """);
+        verify(mockDocumentStoreService).delete(1604L);
+
+        // When: Its outbox event arrives after the delete
+        outboxTopic.pipeInput("5", outboxJson(5L, 1604L, "OrderCreated", outboxDocument(1604L, "Desk")));
+
+        // Then: The order is not brought back
+        verify(mockDocumentStoreService, times(1)).save(any(), anyBoolean());
+        assertEquals(1.0, meterRegistry.counter(OutboxDocumentFilter.SUPERSEDED_METRIC).count());
+    }
+
+    @Test
+    void shouldNotLetOutboxDocumentReplaceDocumentHeldInTransactionBuffer() throws Exception {
+        // Given: Outbox mode with transaction buffering
+        TopologyProperties properties = withTransactionBuffer();
+        properties.getOutbox().setEnabled(true);
+        startTestDriver(properties);
+        TestInputTopic<String, String> transactionsTopic = createTransactionsTopic();
+        TestInputTopic<String, String> outboxTopic = testDriver.createInputTopic(
+                "dbserver1.public.outbox", Serdes.String().serializer(), Serdes.String().serializer());
+        productsTopic.pipeInput("98", productJson(98L, "Desk", "59.99"));
+
+        // When: A transaction creates an order and updates its status, and is still incomplete
+        ordersTopic.pipeInput("1605", inTransaction(orderJson(1605L), "tx-1605"));
+        orderItemsTopic.pipeInput("105", inTransaction(orderItemJson(105L, 1605L, 98L), "tx-1605"));
+        ordersTopic.pipeInput("1605", inTransaction(orderJson(1605L).replace("PENDING", "SHIPPED"), "tx-1605"));
+        testDriver.advanceWallClockTime(Duration.ofMillis(500));
+        verify(mockDocumentStoreService, never()).save(any(), anyBoolean());
+
+        // And: The order's outbox event arrives meanwhile
+        outboxTopic.pipeInput("6", outboxJson(6L, 1605L, "OrderCreated", outboxDocument(1605L, "Desk")));
+
+        // And: The transaction completes
+        transactionsTopic.pipeInput("tx-1605", transactionEndJson("tx-1605", 2, 1));
+        testDriver.advanceWallClockTime(Duration.ofMillis(500));
+
+        // Then: Only the held, newer document is written
+        ArgumentCaptor<OrderDocument> documentCaptor = ArgumentCaptor.forClass(OrderDocument.class);
+        verify(mockDocumentStoreService, times(1)).save(documentCaptor.capture(), anyBoolean());
+        assertEquals("SHIPPED", documentCaptor.getValue().getStatus());
+        verify(mockDocumentStoreService, never()).patch(any(), any());
+        assertEquals(1.0, meterRegistry.counter(OutboxDocumentFilter.SUPERSEDED_METRIC).count());
+    }
+
+    @Test
+    void shouldRetryFailedSaveWithBackoff() {
+        // Given: The database fails twice, then recovers
+        TestOutputTopic<String, String> deadLetterTopic = createDeadLetterTopic();
+        doThrow(new RuntimeException("connection refused"))
+                .doThrow(new RuntimeException("connection refused"))
+                .doNothing()
+                .when(mockDocumentStoreService).save(any(), anyBoolean());
+
+        // When: A document is built
+        ordersTopic.pipeInput("1302", orderJson(1302L));
+        orderItemsTopic.pipeInput("96", orderItemJson(96L, 1302L, 90L));
+        verify(mockDocumentStoreService, times(1)).save(any(), anyBoolean());
+
+        // Then: The first retry waits for the initial backoff, the second for twice as long
+        testDriver.advanceWallClockTime(Duration.ofMillis(1000));
+        verify(mockDocumentStoreService, times(2)).save(any(), anyBoolean());
+        testDriver.advanceWallClockTime(Duration.ofMillis(1000));
+        verify(mockDocumentStoreService, times(2)).save(any(), anyBoolean());
+        testDriver.advanceWallClockTime(Duration.ofMillis(1000));
+        verify(mockDocumentStoreService, times(3)).save(any(), anyBoolean());
+
+        // And: Nothing is dead-lettered and the retry store is empty
+        assertTrue(deadLetterTopic.isEmpty());
+        assertNull(testDriver.getKeyValueStore("sink-retry-store").get(1302L));
+    }
+
+    @Test
+    void shouldDeadLetterDocumentAfterMaxAttempts() throws Exception {
+        // Given: The database keeps failing
+        TestOutputTopic<String, String> deadLetterTopic = createDeadLetterTopic();
+        doThrow(new RuntimeException("connection refused")).when(mockDocumentStoreService).save(any(), anyBoolean());
+
+        // When: A document is built and every retry fails
+        ordersTopic.pipeInput("1303", orderJson(1303L));
+        orderItemsTopic.pipeInput("97", orderItemJson(97L, 1303L, 90L));
+        for (int i = 0; i < 40; i++) {
+            testDriver.advanceWallClockTime(Duration.ofMillis(500));
+        }
+
+        // Then: It was attempted max-attempts times and then dead-lettered as JSON
+        verify(mockDocumentStoreService, times(5)).save(any(), anyBoolean());
+        TestRecord<String, String> deadLetter = deadLetterTopic.readRecord();
+        assertEquals("1303", deadLetter.key());
+        assertEquals(DeadLetterHeaders.STAGE_SINK, DeadLetterHeaders.get(deadLetter.headers(), DeadLetterHeaders.STAGE));
+        assertEquals("5", DeadLetterHeaders.get(deadLetter.headers(), DeadLetterHeaders.ATTEMPTS));
+        assertEquals(1303L, objectMapper.readValue(deadLetter.value(), OrderDocument.class).getOrderId());
+        assertTrue(deadLetterTopic.isEmpty());
+    }
+
+    @Test
+    void shouldSkipSnapshotReadsCoveredByBootstrapAndWriteLaterChanges() {
+        // Given: A snapshot bootstrap recorded at lsn 5000
+        snapshotHandoff = headers -> SourcePositionHeaders.isSnapshotReadAtOrBefore(headers, 5000L);
+        startTestDriver(new TopologyProperties());
+
+        // When: The connector snapshot (read at lsn 4000) flows through the topology
+        productsTopic.pipeInput("98", snapshotRead(productJson(98L, "Desk", "300.00"), 4000L));
+        ordersTopic.pipeInput("1400", snapshotRead(orderJson(1400L), 4000L));
+        orderItemsTopic.pipeInput("99", snapshotRead(orderItemJson(99L, 1400L, 98L), 4000L));
+
+        // Then: The document the bootstrap already loaded is not written again
+        verify(mockDocumentStoreService, never()).save(any(), anyBoolean());
+
+        // When: A change streamed after the hand-off arrives
+        ordersTopic.pipeInput("1400", streamedAt(orderJson(1400L).replace("PENDING", "SHIPPED"), 6000L));
+
+        // Then: It is written with the full state built from the snapshot (only the status changed)
+        ArgumentCaptor<OrderDocument> documentCaptor = ArgumentCaptor.forClass(OrderDocument.class);
+        verify(mockDocumentStoreService, times(1)).patch(documentCaptor.capture(), eq(List.of("status")));
+        assertEquals("SHIPPED", documentCaptor.getValue().getStatus());
+        assertEquals("Desk", documentCaptor.getValue().getItems().get(0).getName());
+    }
+
+    @Test
+    void shouldSkipWriteWhenDocumentContentIsUnchanged() {
+        // Given: A written document
+        ordersTopic.pipeInput("1500", orderJson(1500L));
+        orderItemsTopic.pipeInput("100", orderItemJson(100L, 1500L, 90L));
+        verify(mockDocumentStoreService, times(1)).save(any(), anyBoolean());
+
+        // When: The order is updated in a column that is not part of the document
+        ordersTopic.pipeInput("1500", orderJson(1500L).replace("\"updated_at\": 1640000000000", "\"updated_at\": 1650000000000"));
+
+        // Then: The unchanged document is not written again, and the skip is counted
+        verify(mockDocumentStoreService, times(1)).save(any(), anyBoolean());
+        assertEquals(1.0, meterRegistry.counter(DocumentSinkProcessor.SKIPPED_WRITES_METRIC, "reason", "unchanged").count());
+
+        // When: A field of the document changes
+        ordersTopic.pipeInput("1500", orderJson(1500L).replace("PENDING", "PAID"));
+
+        // Then: It is written
+        verify(mockDocumentStoreService, times(1)).patch(any(), eq(List.of("status")));
+    }
+
+    @Test
+    void shouldWriteDocumentAgainAfterItWasDeleted() {
+        // Given: A document that was written and then deleted with its last item
+        ordersTopic.pipeInput("1501", orderJson(1501L));
+        orderItemsTopic.pipeInput("101", orderItemJson(101L, 1501L, 90L));
+        orderItemsTopic.pipeInput("101", orderItemDeleteJson(101L, 1501L, 90L));
+        verify(mockDocumentStoreService, atLeastOnce()).delete(1501L);
+
+        // When: The same item is added again
+        orderItemsTopic.pipeInput("101", orderItemJson(101L, 1501L, 90L));
+
+        // Then: The identical document is written again
+        verify(mockDocumentStoreService, times(2)).save(any(), anyBoolean());
+    }
+
+    @Test
+    void shouldPatchOnlyChangedFieldsOfLargeDocument() {
+        // Given: An order with many items
+        ordersTopic.pipeInput("1600", orderJson(1600L));
+        for (long itemId = 200; itemId < 250; itemId++) {
+            orderItemsTopic.pipeInput(String.valueOf(itemId), orderItemJson(itemId, 1600L, 90L));
+        }
+        clearInvocations(mockDocumentStoreService);
+
+        // When: Only the order status changes
+        ordersTopic.pipeInput("1600", orderJson(1600L).replace("PENDING", "SHIPPED"));
+
+        // Then: Only the status is written
+        ArgumentCaptor<OrderDocument> documentCaptor = ArgumentCaptor.forClass(OrderDocument.class);
+        verify(mockDocumentStoreService).patch(documentCaptor.capture(), eq(List.of("status")));
+        verify(mockDocumentStoreService, never()).save(any(), anyBoolean());
+        assertEquals(50, documentCaptor.getValue().getItems().size());
+        assertEquals(1.0, meterRegistry.counter(DocumentSinkProcessor.PARTIAL_WRITES_METRIC).count());
+    }
+
+    @Test
+    void shouldRewriteDocumentWhenMostOfItChanged() {
+        // Given: A written document and partial updates limited to a tiny share of it
+        TopologyProperties properties = new TopologyProperties();
+        properties.getPartialUpdate().setMaxChangedRatio(0.01);
+        startTestDriver(properties);
+        ordersTopic.pipeInput("1601", orderJson(1601L));
+        orderItemsTopic.pipeInput("260", orderItemJson(260L, 1601L, 90L));
+        clearInvocations(mockDocumentStoreService);
+
+        // When: The status changes
+        ordersTopic.pipeInput("1601", orderJson(1601L).replace("PENDING", "SHIPPED"));
+
+        // Then: The document is rewritten in full
+        verify(mockDocumentStoreService).save(any(), anyBoolean());
+        verify(mockDocumentStoreService, never()).patch(any(), any());
+    }
+
+    @Test
+    void shouldAggregateOrderHistoryPerUser() {
+        // Given: Two orders of user 300
+        ordersTopic.pipeInput("1700", orderJson(1700L));
+        orderItemsTopic.pipeInput("300", orderItemJson(300L, 1700L, 90L));
+        ordersTopic.pipeInput("1701", orderJson(1701L));
+        orderItemsTopic.pipeInput("301", orderItemJson(301L, 1701L, 90L));
+
+        // Then: The user's summary covers both orders
+        KeyValueStore<Long, UserOrderHistory> store =
+                testDriver.getKeyValueStore(OrderDenormalizationTopology.USER_ORDER_HISTORY_STORE);
+        UserOrderHistory history = store.get(300L);
+        assertEquals(2, history.getOrderCount());
+        assertEquals(new BigDecimal("119.98"), history.getLifetimeSpend());
+        assertEquals(Set.of(1700L, 1701L), history.getOrders().keySet());
+        verify(mockUserOrderHistoryService, atLeastOnce()).save(any());
+
+        // When: One order is paid and the other deleted
+        ordersTopic.pipeInput("1700", orderJson(1700L).replace("PENDING", "PAID"));
+        ordersTopic.pipeInput("1701", """
+                {"before": {"id": 1701, "user_id": 300, "status": "PENDING", "total_price": "59.99"},
+                 "after": null, "op": "d"}
+                """);
+
+        // Then: The old versions are subtracted
+        history = store.get(300L);
+        assertEquals(1, history.getOrderCount());
+        assertEquals(new BigDecimal("59.99"), history.getLifetimeSpend());
+        assertEquals(Map.of("PAID", 1), history.getOrdersByStatus());
+
+        // When: The user's last order is deleted
+        ordersTopic.pipeInput("1700", """
+                {"before": {"id": 1700, "user_id": 300, "status": "PAID", "total_price": "59.99"},
+                 "after": null, "op": "d"}
+                """);
+
+        // Then: The summary is removed from the store and the table
+        assertNull(store.get(300L));
+        verify(mockUserOrderHistoryService).delete(300L);
+    }
+
+    @Test
+    void shouldAddTraceNodesOnlyWhenTracingIsEnabled() {
+        // Given: The same topology built with tracing off (default) and on
+        TopologyProperties traced = new TopologyProperties();
+        traced.getTrace().setEnabled(true);
+        String withoutTrace = buildTopology(new TopologyProperties()).describe().toString();
+        String withTrace = buildTopology(traced).describe().toString();
+
+        // Then: Only the traced topology has trace nodes, at every order stage
+        assertFalse(withoutTrace.contains("trace-"));
+        assertTrue(withTrace.contains("trace-order ("));
+        assertTrue(withTrace.contains("trace-order-item"));
+        assertTrue(withTrace.contains("trace-sink"));
+    }
+
+    @Test
+    void shouldCountRecordsPerStage() {
+        // Given: An order with one item
+        productsTopic.pipeInput("91", productJson(91L, "Lamp", "39.99"));
+        ordersTopic.pipeInput("1800", orderJson(1800L));
+        orderItemsTopic.pipeInput("400", orderItemJson(400L, 1800L, 91L));
+
+        // Then: Every stage it passed is counted
+        assertEquals(1.0, meterRegistry.get(StageTracer.STAGE_RECORDS_METRIC)
+                .tags("stage", "received", "source", "order").counter().count());
+        assertEquals(1.0, meterRegistry.get(StageTracer.STAGE_RECORDS_METRIC)
+                .tags("stage", "received", "source", "order_item").counter().count());
+        assertEquals(1.0, meterRegistry.get(StageTracer.STAGE_RECORDS_METRIC)
+                .tags("stage", "items-aggregated").counter().count());
+        assertEquals(1.0, meterRegistry.get(StageTracer.STAGE_RECORDS_METRIC)
+                .tags("stage", "document-joined").counter().count());
+    }
+
+    private static String snapshotRead(String debeziumJson, long lsn) {
+        return debeziumJson.replaceFirst("\"op\": \"[cu]\"", "\"source\": {\"lsn\": " + lsn + "}, \"op\": \"r\"");
+    }
+
+    private static String streamedAt(String debeziumJson, long lsn) {
+        return debeziumJson.replace("\"op\":", "\"source\": {\"lsn\": " + lsn + "}, \"op\":");
+    }
+
+    private TestOutputTopic<String, String> createDeadLetterTopic() {
+        return testDriver.createOutputTopic(
+                "order-denormalization-dlq",
+                Serdes.String().deserializer(),
+                Serdes.String().deserializer()
+        );
+    }
+
+    private TestInputTopic<String, byte[]> binaryTopic(String topic) {
+        return testDriver.createInputTopic(topic, Serdes.String().serializer(), Serdes.ByteArray().serializer());
+    }
+
+    private static TopologyProperties withTransactionBuffer() {
+        TopologyProperties properties = new TopologyProperties();
+        properties.getTransactionBuffer().setEnabled(true);
+        properties.getTransactionBuffer().setMaxWait(Duration.ofSeconds(5));
+        properties.getTransactionBuffer().setCheckInterval(Duration.ofMillis(100));
+        return properties;
+    }
+
+    private TestInputTopic<String, String> createTransactionsTopic() {
+        return testDriver.createInputTopic(
+                "dbserver1.transaction",
+                Serdes.String().serializer(),
+                Serdes.String().serializer()
+        );
+    }
+
+    private static String inTransaction(String debeziumJson, String transactionId) {
+        return debeziumJson.replace("\"op\":", "\"transaction\": {\"id\": \"" + transactionId
+                + "\", \"total_order\": 1}, \"op\":");
+    }
+
+    private static String transactionEndJson(String transactionId, int orders, int orderItems) {
+        return """
+                {"status": "END", "id": "%s", "event_count": %d, "data_collections": [
+                  {"data_collection": "public.orders", "event_count": %d},
+                  {"data_collection": "public.order_items", "event_count": %d}]}
+                """.formatted(transactionId, orders + orderItems, orders, orderItems);
+    }
+
+    private String outboxJson(long id, long orderId, String eventType, String payload) throws Exception {
+        ObjectNode after = objectMapper.createObjectNode()
+                .put("id", id)
+                .put("aggregate_type", "order")
+                .put("aggregate_id", orderId)
+                .put("event_type", eventType)
+                .put("payload", payload);
+        ObjectNode envelope = objectMapper.createObjectNode();
+        envelope.set("after", after);
+        envelope.put("op", "c");
+        return objectMapper.writeValueAsString(envelope);
+    }
+
+    // The document the joins build from orderJson, orderItemJson and a product named productName
+    private static String outboxDocument(long orderId, String productName) {
+        return """
+                {"orderId": %d, "userId": 300, "status": "PENDING", "totalPrice": 59.99,
+                 "items": [{"productId": 98, "name": "%s", "unitPrice": 59.99, "qty": 1}],
+                 "orderedAt": "1970-01-19T23:33:20",
+                 "productSummary": {"uniqueProductCount": 1, "productIds": [98], "totalQuantity": 1}}
+                """.formatted(orderId, productName);
+    }
+
+    private static String productJson(long id, String name, String price) {
+        return """
+                {"after": {"id": %d, "name": "%s", "price": "%s"}, "op": "u"}
+                """.formatted(id, name, price);
+    }
+
+    private static String orderJson(long id) {
+        return """
+                {"after": {"id": %d, "user_id": 300, "status": "PENDING", "total_price": "59.99",
+                 "ordered_at": 1640000000000, "updated_at": 1640000000000}, "op": "c"}
+                """.formatted(id);
+    }
+
+    private static String orderItemJson(long id, long orderId, long productId) {
+        return """
+                {"after": {"id": %d, "order_id": %d, "product_id": %d, "quantity": 1,
+                 "unit_price": "59.99", "created_at": 1640000000000}, "op": "c"}
+                """.formatted(id, orderId, productId);
+    }
+
+    private static String orderItemDeleteJson(long id, long orderId, long productId) {
+        return """
+                {"before": {"id": %d, "order_id": %d, "product_id": %d, "quantity": 1,
+                 "unit_price": "59.99", "created_at": 1640000000000}, "after": null, "op": "d"}
+                """.formatted(id, orderId, productId);
+    }
+
+    private static int countRepartitionSinks(String topologyDescription) {
+        return topologyDescription.split("Sink: .*-repartition\\)", -1).length - 1;
+    }
 }
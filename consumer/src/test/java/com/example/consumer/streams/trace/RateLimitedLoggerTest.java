@@ -0,0 +1,86 @@
+package com.example.consumer.streams.trace;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RateLimitedLoggerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private Logger log;
+    private RateLimitedLogger limited;
+
+    @BeforeEach
+    void setUp() {
+        log = mock(Logger.class);
+        when(log.isWarnEnabled()).thenReturn(true);
+        limited = new RateLimitedLogger(log, 2, Duration.ofSeconds(1), clock::get);
+    }
+
+    @Test
+    void shouldDropLinesOverTheBudgetOfAnInterval() {
+        // When: Five lines within one interval
+        for (int i = 0; i < 5; i++) {
+            limited.warn("Product not found: productId={}", i);
+        }
+
+        // Then: Two are written, three are counted
+        verify(log).warn("Product not found: productId={}", new Object[] {0});
+        verify(log).warn("Product not found: productId={}", new Object[] {1});
+        verifyNoMoreInteractions(ignoreStubs(log));
+        assertEquals(3, limited.suppressedCount());
+    }
+
+    @Test
+    void shouldReportDroppedLinesWithTheNextWrittenLine() {
+        // Given: A full interval with one dropped line
+        limited.warn("Product not found: productId={}", 1);
+        limited.warn("Product not found: productId={}", 2);
+        limited.warn("Product not found: productId={}", 3);
+
+        // When: The next interval starts
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        limited.warn("Product not found: productId={}", 4);
+
+        // Then: Its first line carries the count
+        verify(log).warn("Product not found: productId={} ({} similar lines suppressed)", new Object[] {4, 1L});
+        assertEquals(0, limited.suppressedCount());
+    }
+
+    @Test
+    void shouldKeepThrowableLastWhenReportingDroppedLines() {
+        // Given: A dropped line
+        limited.warn("Malformed record: key={}", "a");
+        limited.warn("Malformed record: key={}", "b");
+        limited.warn("Malformed record: key={}", "c");
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+
+        // When: The next line has an exception
+        IllegalStateException error = new IllegalStateException("bad");
+        limited.warn("Malformed record: key={}", "d", error);
+
+        // Then: The exception is still the last argument
+        verify(log).warn("Malformed record: key={} ({} similar lines suppressed)", new Object[] {"d", 1L, error});
+    }
+
+    @Test
+    void shouldNotCountLinesOfADisabledLevel() {
+        // Given: WARN is off
+        when(log.isWarnEnabled()).thenReturn(false);
+
+        // When
+        limited.warn("Product not found: productId={}", 1);
+        limited.warn("Product not found: productId={}", 2);
+        limited.warn("Product not found: productId={}", 3);
+
+        // Then: Nothing is written nor counted as dropped
+        verify(log, never()).warn(anyString(), any(Object[].class));
+        assertEquals(0, limited.suppressedCount());
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.consumer.streams.util;
 
+import com.example.consumer.streams.model.DebeziumChange;
 import com.example.consumer.streams.model.OrderData;
+import com.example.consumer.streams.model.OrderItemData;
 import com.example.consumer.streams.model.ProductData;
+import com.example.consumer.streams.model.TransactionSummary;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
@@ -11,7 +14,7 @@ import static org.junit.jupiter.api.Assertions.*;
 class DebeziumExtractorTest {
 
     @Test
-    void shouldExtractAfterFieldForCreateOperation() {
+    void shouldExtractAfterImageForCreateOperation() {
         // Given: Debezium envelope with create operation
         String debeziumJson = """
                 {
@@ -29,11 +32,13 @@ class DebeziumExtractorTest {
                 }
                 """;
 
-        // When: Extract after field
-        ProductData result = DebeziumExtractor.extractAfter(debeziumJson, ProductData.class);
+        // When: Extract the change
+        DebeziumChange<ProductData> change = DebeziumExtractor.extractChange(debeziumJson, ProductData.class);
 
         // Then: Product data should be extracted
-        assertNotNull(result);
+        assertEquals("c", change.getOp());
+        assertNull(change.getBefore());
+        ProductData result = change.getAfter();
         assertEquals(123L, result.getId());
         assertEquals("Laptop", result.getName());
         assertEquals(new BigDecimal("999.99"), result.getPrice());
@@ -41,7 +46,7 @@ class DebeziumExtractorTest {
     }
 
     @Test
-    void shouldExtractAfterFieldForUpdateOperation() {
+    void shouldExtractBothImagesForUpdateOperation() {
         // Given: Debezium envelope with update operation
         String debeziumJson = """
                 {
@@ -64,19 +69,20 @@ class DebeziumExtractorTest {
                 }
                 """;
 
-        // When: Extract after field
-        OrderData result = DebeziumExtractor.extractAfter(debeziumJson, OrderData.class);
+        // When: Extract the change
+        DebeziumChange<OrderData> change = DebeziumExtractor.extractChange(debeziumJson, OrderData.class);
 
-        // Then: Updated order data should be extracted
-        assertNotNull(result);
+        // Then: Updated order data should be extracted, with the previous status in the before image
+        OrderData result = change.getAfter();
         assertEquals(456L, result.getId());
         assertEquals(100L, result.getUserId());
         assertEquals("COMPLETED", result.getStatus());
         assertEquals(new BigDecimal("199.99"), result.getTotalPrice());
+        assertEquals("PENDING", change.getBefore().getStatus());
     }
 
     @Test
-    void shouldReturnNullForDeleteOperation() {
+    void shouldExtractDeletedRowFromBeforeImage() {
         // Given: Debezium envelope with delete operation
         String debeziumJson = """
                 {
@@ -92,24 +98,17 @@ class DebeziumExtractorTest {
                 }
                 """;
 
-        // When: Extract after field
-        OrderData result = DebeziumExtractor.extractAfter(debeziumJson, OrderData.class);
+        // When: Extract the change
+        DebeziumChange<OrderData> change = DebeziumExtractor.extractChange(debeziumJson, OrderData.class);
 
-        // Then: Should return null for deletes
-        assertNull(result);
+        // Then: No after image; the row (and its id) is the before image
+        assertTrue(change.isDelete());
+        assertNull(change.getAfter());
+        assertEquals(789L, change.row().getId());
     }
 
     @Test
-    void shouldReturnNullForNullInput() {
-        // When: Extract with null input
-        OrderData result = DebeziumExtractor.extractAfter(null, OrderData.class);
-
-        // Then: Should return null
-        assertNull(result);
-    }
-
-    @Test
-    void shouldGetOperationType() {
+    void shouldExtractOperationType() {
         // Given: Different operation types
         String createJson = """
                 {"before": null, "after": {"id": 1}, "op": "c", "ts_ms": 1640000000000}
@@ -122,80 +121,139 @@ class DebeziumExtractorTest {
                 """;
 
         // When/Then: Extract operation types
-        assertEquals("c", DebeziumExtractor.getOperation(createJson));
-        assertEquals("u", DebeziumExtractor.getOperation(updateJson));
-        assertEquals("d", DebeziumExtractor.getOperation(deleteJson));
+        assertEquals("c", DebeziumExtractor.extractChange(createJson, OrderData.class).getOp());
+        assertEquals("u", DebeziumExtractor.extractChange(updateJson, OrderData.class).getOp());
+        assertEquals("d", DebeziumExtractor.extractChange(deleteJson, OrderData.class).getOp());
+        assertFalse(DebeziumExtractor.extractChange(createJson, OrderData.class).isDelete());
     }
 
     @Test
-    void shouldExtractDeletedId() {
-        // Given: Debezium delete event
+    void shouldHandleMissingAfterField() {
+        // Given: Envelope without after field
+        String debeziumJson = """
+                {
+                  "before": {"id": 1},
+                  "op": "c",
+                  "ts_ms": 1640000000000
+                }
+                """;
+
+        // When: Extract the change
+        DebeziumChange<OrderData> change = DebeziumExtractor.extractChange(debeziumJson, OrderData.class);
+
+        // Then: There is no after image
+        assertNull(change.getAfter());
+    }
+
+    @Test
+    void shouldThrowExceptionForInvalidJson() {
+        // Given: Invalid JSON
+        String invalidJson = "not valid json";
+
+        // When/Then: Should throw DebeziumExtractionException
+        assertThrows(DebeziumExtractionException.class,
+                () -> DebeziumExtractor.extractChange(invalidJson, OrderData.class));
+        assertThrows(DebeziumExtractionException.class,
+                () -> DebeziumExtractor.extractTransactionEnd(invalidJson));
+    }
+
+    @Test
+    void shouldExtractChangeWithBeforeImageForDelete() {
+        // Given: Debezium delete event for an order item
         String deleteJson = """
                 {
-                  "before": {
-                    "id": 999,
-                    "user_id": 300,
-                    "status": "CANCELLED"
-                  },
+                  "before": {"id": 40, "order_id": 400, "product_id": 4, "quantity": 2},
                   "after": null,
                   "op": "d",
                   "ts_ms": 1640300000000
                 }
                 """;
 
-        // When: Extract deleted ID
-        Long deletedId = DebeziumExtractor.extractDeletedId(deleteJson);
+        // When: Extract the change
+        DebeziumChange<OrderItemData> change = DebeziumExtractor.extractChange(deleteJson, OrderItemData.class);
 
-        // Then: Should return the ID from before field
-        assertNotNull(deletedId);
-        assertEquals(999L, deletedId);
+        // Then: The before image identifies the deleted row
+        assertTrue(change.isDelete());
+        assertNull(change.getAfter());
+        assertEquals(40L, change.row().getId());
+        assertEquals(400L, change.row().getOrderId());
     }
 
     @Test
-    void shouldReturnNullDeletedIdForNonDeleteOperation() {
-        // Given: Non-delete operation
-        String createJson = """
-                {
-                  "before": null,
-                  "after": {"id": 888},
-                  "op": "c",
-                  "ts_ms": 1640000000000
-                }
+    void shouldExtractChangeWithAfterImageForUpdate() {
+        // Given: Debezium update event
+        String updateJson = """
+                {"before": {"id": 1, "name": "Old"}, "after": {"id": 1, "name": "New"}, "op": "u"}
                 """;
 
-        // When: Extract deleted ID
-        Long deletedId = DebeziumExtractor.extractDeletedId(createJson);
+        // When: Extract the change
+        DebeziumChange<ProductData> change = DebeziumExtractor.extractChange(updateJson, ProductData.class);
 
-        // Then: Should return null
-        assertNull(deletedId);
+        // Then: The row is the after image
+        assertFalse(change.isDelete());
+        assertEquals("New", change.row().getName());
+        assertEquals("Old", change.getBefore().getName());
     }
 
     @Test
-    void shouldHandleMissingAfterField() {
-        // Given: Envelope without after field
-        String debeziumJson = """
-                {
-                  "before": {"id": 1},
-                  "op": "c",
-                  "ts_ms": 1640000000000
-                }
+    void shouldExtractSourceLsnOfSnapshotRead() {
+        // Given: Debezium snapshot read with its source position
+        String readJson = """
+                {"before": null, "after": {"id": 1, "name": "Desk"},
+                 "source": {"connector": "postgresql", "snapshot": "true", "lsn": 24023128}, "op": "r"}
                 """;
 
-        // When: Extract after field
-        OrderData result = DebeziumExtractor.extractAfter(debeziumJson, OrderData.class);
+        // When: Extract the change
+        DebeziumChange<ProductData> change = DebeziumExtractor.extractChange(readJson, ProductData.class);
 
-        // Then: Should return null
-        assertNull(result);
+        // Then: The operation and WAL position are kept
+        assertEquals("r", change.getOp());
+        assertEquals(24023128L, change.getLsn());
     }
 
     @Test
-    void shouldThrowExceptionForInvalidJson() {
-        // Given: Invalid JSON
-        String invalidJson = "not valid json";
+    void shouldReturnNullChangeForKafkaTombstone() {
+        // When: Extract the null-valued record that follows a delete
+        DebeziumChange<OrderData> change = DebeziumExtractor.extractChange(null, OrderData.class);
+
+        // Then: Nothing to process
+        assertNull(change);
+    }
+
+    @Test
+    void shouldTagRowsWithTransactionId() {
+        // Given: Debezium event with transaction metadata
+        String createJson = """
+                {"before": null, "after": {"id": 7, "user_id": 1, "status": "PENDING"},
+                 "transaction": {"id": "571:53195829", "total_order": 1, "data_collection_order": 1},
+                 "op": "c"}
+                """;
+
+        // When: Extract the change
+        DebeziumChange<OrderData> change = DebeziumExtractor.extractChange(createJson, OrderData.class);
+
+        // Then: The row carries the transaction id
+        assertEquals("571:53195829", change.row().getTransactionId());
+    }
+
+    @Test
+    void shouldExtractTransactionEndEventCounts() {
+        // Given: BEGIN and END events from the transaction metadata topic
+        String beginJson = """
+                {"status": "BEGIN", "id": "571:53195829", "event_count": null, "data_collections": null}
+                """;
+        String endJson = """
+                {"status": "END", "id": "571:53195829", "event_count": 3, "data_collections": [
+                  {"data_collection": "public.orders", "event_count": 1},
+                  {"data_collection": "public.order_items", "event_count": 2}]}
+                """;
 
-        // When/Then: Should throw RuntimeException
-        assertThrows(RuntimeException.class, () -> {
-            DebeziumExtractor.extractAfter(invalidJson, OrderData.class);
-        });
+        // When/Then: Only END events are returned, with per-table counts
+        assertNull(DebeziumExtractor.extractTransactionEnd(beginJson));
+        TransactionSummary summary = DebeziumExtractor.extractTransactionEnd(endJson);
+        assertEquals("571:53195829", summary.getId());
+        assertEquals(1, summary.countFor("public.orders"));
+        assertEquals(2, summary.countFor("public.order_items"));
+        assertEquals(0, summary.countFor("public.products"));
     }
 }
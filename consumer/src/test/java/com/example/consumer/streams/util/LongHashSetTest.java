@@ -0,0 +1,123 @@
+package com.example.consumer.streams.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongHashSetTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldAddContainAndRemoveKeys() {
+        // Given: A set with zero, negative and large keys
+        LongHashSet set = new LongHashSet();
+        assertTrue(set.add(0L));
+        assertTrue(set.add(-7L));
+        assertTrue(set.add(Long.MAX_VALUE));
+        assertFalse(set.add(-7L));
+
+        // Then: All are found once
+        assertEquals(3, set.size());
+        assertTrue(set.contains(0L));
+        assertTrue(set.contains(-7L));
+        assertTrue(set.contains(Long.MAX_VALUE));
+        assertFalse(set.contains(7L));
+
+        // When: Removing zero and a regular key
+        assertTrue(set.remove(0L));
+        assertTrue(set.remove(-7L));
+        assertFalse(set.remove(-7L));
+
+        // Then: Only the other key is left
+        assertEquals(Set.of(Long.MAX_VALUE), set);
+    }
+
+    @Test
+    void shouldMatchHashSetUnderRandomAddsAndRemoves() {
+        // Given: The same random operations on a LongHashSet and a HashSet<Long>
+        Random random = new Random(42);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextInt(500) - 50;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), set.remove(key));
+            } else {
+                assertEquals(expected.add(key), set.add(key));
+            }
+        }
+
+        // Then: Both hold the same keys (removal keeps every probe run reachable)
+        assertEquals(expected, set);
+        assertEquals(set, expected);
+        assertEquals(expected.hashCode(), set.hashCode());
+        for (long key = -50; key < 450; key++) {
+            assertEquals(expected.contains(key), set.contains(key));
+        }
+    }
+
+    @Test
+    void shouldSerializeAsAscendingArrayWhateverTheInsertionOrder() throws Exception {
+        // Given: The same keys added in two orders
+        LongHashSet forward = new LongHashSet();
+        LongHashSet backward = new LongHashSet();
+        for (long key = 1; key <= 100; key++) {
+            forward.add(key * 31);
+            backward.add((101 - key) * 31);
+        }
+
+        // Then: Both serialize to the same ascending array
+        String json = objectMapper.writeValueAsString(forward);
+        assertEquals(json, objectMapper.writeValueAsString(backward));
+        assertTrue(json.startsWith("[31,62,93,"));
+    }
+
+    @Test
+    void shouldReadBackWhatHashSetWrote() throws Exception {
+        // Given: A product id array as written by a HashSet<Long>, with a null
+        String json = "[10,20,null,30]";
+
+        // When
+        LongHashSet set = objectMapper.readValue(json, LongHashSet.class);
+
+        // Then
+        assertEquals(Set.of(10L, 20L, 30L), set);
+    }
+
+    @Test
+    void shouldReuseInstanceWhenAlreadyLongHashSet() {
+        // Given
+        LongHashSet set = new LongHashSet();
+        set.add(1L);
+
+        // Then: No copy of an existing set; other collections are copied
+        assertSame(set, LongHashSet.from(set));
+        assertEquals(Set.of(1L, 2L), LongHashSet.from(Set.of(1L, 2L)));
+        assertTrue(LongHashSet.from(null).isEmpty());
+    }
+
+    @Test
+    void shouldIndexLongKeysInLongIntHashMap() {
+        // Given: A map grown well past its initial capacity
+        LongIntHashMap map = new LongIntHashMap(2);
+        for (int i = 0; i < 1_000; i++) {
+            map.put(i * 1_000_003L, i);
+        }
+        map.put(0L, 7);
+        map.put(5L * 1_000_003L, 55);
+
+        // Then
+        assertEquals(1_000, map.size());
+        assertEquals(7, map.get(0L, -1));
+        assertEquals(55, map.get(5L * 1_000_003L, -1));
+        assertEquals(999, map.get(999L * 1_000_003L, -1));
+        assertEquals(-1, map.get(1L, -1));
+    }
+}
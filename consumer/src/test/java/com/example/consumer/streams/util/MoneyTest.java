@@ -0,0 +1,65 @@
+package com.example.consumer.streams.util;
+
+import com.example.consumer.streams.model.OrderItemData;
+import com.example.consumer.streams.serde.JsonCodecs;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void shouldParsePlainDecimalsAsCents() {
+        assertEquals(9990L, parse("99.90"));
+        assertEquals(9990L, parse("99.9"));
+        assertEquals(700L, parse("7"));
+        assertEquals(700L, parse("7."));
+        assertEquals(5L, parse(".05"));
+        assertEquals(-1250L, parse("-12.50"));
+        assertEquals(99_999_999_99L, parse("99999999.99"));
+    }
+
+    @Test
+    void shouldLeaveEverythingElseToBigDecimal() {
+        assertEquals(Money.NOT_PLAIN, parse(""));
+        assertEquals(Money.NOT_PLAIN, parse("-"));
+        assertEquals(Money.NOT_PLAIN, parse("."));
+        assertEquals(Money.NOT_PLAIN, parse("1.005"));
+        assertEquals(Money.NOT_PLAIN, parse("1E+2"));
+        assertEquals(Money.NOT_PLAIN, parse(" 1.00"));
+        assertEquals(Money.NOT_PLAIN, parse("1.2.3"));
+        assertEquals(Money.NOT_PLAIN, parse("12345678901234567"));
+    }
+
+    @Test
+    void shouldConvertBetweenCentsAndAmounts() {
+        assertEquals(new BigDecimal("12.30"), Money.toBigDecimal(1230L));
+        assertEquals(1230L, Money.toCents(new BigDecimal("12.3")));
+        assertEquals(1230L, Money.toCents(new BigDecimal("1.23E+1")));
+        assertEquals(0L, Money.toCents(null));
+        assertEquals(5997L, Money.times(1999L, 3));
+        assertThrows(ArithmeticException.class, () -> Money.times(Long.MAX_VALUE / 2, 3));
+    }
+
+    @Test
+    void shouldDecodeDebeziumStringDecimalsIntoScaleTwoAmounts() throws Exception {
+        // Given: An item row with decimal.handling.mode=string, and one with an unusual scale
+        String plain = "{\"id\":1,\"quantity\":2,\"unit_price\":\"19.9\"}";
+        String unusual = "{\"id\":2,\"quantity\":2,\"unit_price\":\"0.125\"}";
+
+        // When
+        OrderItemData plainItem = JsonCodecs.debezium().reader(OrderItemData.class).readValue(plain);
+        OrderItemData unusualItem = JsonCodecs.debezium().reader(OrderItemData.class).readValue(unusual);
+
+        // Then: Plain text becomes a scale-2 amount; the rest keeps BigDecimal's reading
+        assertEquals(new BigDecimal("19.90"), plainItem.getUnitPrice());
+        assertEquals(new BigDecimal("0.125"), unusualItem.getUnitPrice());
+    }
+
+    private static long parse(String text) {
+        char[] padded = ("xx" + text + "yy").toCharArray();
+        return Money.parseCents(padded, 2, text.length());
+    }
+}
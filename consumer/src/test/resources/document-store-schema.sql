@@ -0,0 +1,19 @@
+-- document_store as in k8s/postgres/configmap.yaml, with two monthly partitions, for repository tests.
+-- Keep in sync with the ConfigMap.
+CREATE TABLE document_store (
+    id VARCHAR(255) NOT NULL,
+    ordered_at TIMESTAMP NOT NULL,
+    data JSONB NOT NULL,
+    user_id BIGINT GENERATED ALWAYS AS ((data->>'userId')::bigint) STORED,
+    status VARCHAR(50) GENERATED ALWAYS AS (data->>'status') STORED,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, ordered_at)
+) PARTITION BY RANGE (ordered_at);
+
+CREATE TABLE document_store_default PARTITION OF document_store DEFAULT;
+CREATE TABLE document_store_p2024_05 PARTITION OF document_store FOR VALUES FROM ('2024-05-01') TO ('2024-06-01');
+CREATE TABLE document_store_p2024_06 PARTITION OF document_store FOR VALUES FROM ('2024-06-01') TO ('2024-07-01');
+
+CREATE INDEX document_store_user_id_idx ON document_store (user_id, ordered_at, id);
+CREATE INDEX document_store_status_idx ON document_store (status, ordered_at, id);
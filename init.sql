@@ -28,6 +28,22 @@ CREATE TABLE order_items (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Full before images on delete, so the consumer can remove items from their order
+ALTER TABLE order_items REPLICA IDENTITY FULL;
+
+-- The producer allocates item ids 50 at a time (allocationSize of OrderItem), to batch an order's items
+ALTER SEQUENCE order_items_id_seq INCREMENT BY 50;
+
+-- Create outbox table: pre-assembled order documents, captured by CDC in their order's transaction
+CREATE TABLE outbox (
+    id BIGSERIAL PRIMARY KEY,
+    aggregate_type VARCHAR(50) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    payload JSONB NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
 -- Create indexes for better query performance
 CREATE INDEX idx_order_items_order_id ON order_items(order_id);
 CREATE INDEX idx_order_items_product_id ON order_items(product_id);
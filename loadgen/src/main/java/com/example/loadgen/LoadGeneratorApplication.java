@@ -0,0 +1,15 @@
+package com.example.loadgen;
+
+import com.example.loadgen.config.LoadProperties;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+
+@SpringBootApplication
+@EnableConfigurationProperties(LoadProperties.class)
+public class LoadGeneratorApplication {
+
+    public static void main(String[] args) {
+        System.exit(SpringApplication.exit(SpringApplication.run(LoadGeneratorApplication.class, args)));
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.loadgen;
+
+import com.example.loadgen.config.LoadProperties;
+import com.example.loadgen.report.LatencyRecorder;
+import com.example.loadgen.target.CdcEventTarget;
+import com.example.loadgen.target.HttpLoadTarget;
+import com.example.loadgen.target.KafkaRecordSink;
+import com.example.loadgen.target.LoadTarget;
+import com.example.loadgen.workload.NewOrder;
+import com.example.loadgen.workload.Product;
+import com.example.loadgen.workload.ProductChange;
+import com.example.loadgen.workload.StatusChange;
+import com.example.loadgen.workload.Workload;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs the configured load open-loop: each kind of operation arrives as a Poisson process at its
+ * rate, whether or not earlier operations have completed, and runs on its own virtual thread.
+ * Latency is measured from when an operation was due, so time spent waiting for a free slot
+ * ({@code loadgen.max-in-flight}) counts against the target instead of silently lowering the rate.
+ * Throughput and percentiles are logged per interval and for the whole run after the warm-up.
+ */
+@Component
+@Slf4j
+public class LoadRunner implements ApplicationRunner {
+
+    // Logged in full; further failures are only counted
+    private static final int LOGGED_FAILURES = 10;
+
+    private final LoadProperties properties;
+    private final RestClient.Builder restClientBuilder;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong failures = new AtomicLong();
+
+    public LoadRunner(LoadProperties properties, RestClient.Builder restClientBuilder, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.restClientBuilder = restClientBuilder;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        try (LoadTarget target = createTarget()) {
+            run(target);
+        }
+    }
+
+    private LoadTarget createTarget() {
+        return switch (properties.getMode()) {
+            case HTTP -> new HttpLoadTarget(restClientBuilder, properties.getHttp());
+            case CDC -> new CdcEventTarget(new KafkaRecordSink(properties.getCdc().getBootstrapServers()),
+                    properties.getCdc(), objectMapper);
+        };
+    }
+
+    void run(LoadTarget target) throws InterruptedException {
+        Random random = new Random(properties.getSeed());
+        Workload workload = new Workload(properties, prepareCatalog(target, random), random);
+        LoadProperties.Rates rates = properties.getRates();
+        log.info("Starting load: mode={}, duration={}, warmup={}, orders/s={}, statusUpdates/s={}, "
+                        + "productUpdates/s={}, products={}, zipfExponent={}",
+                properties.getMode(), properties.getDuration(), properties.getWarmup(), rates.getOrders(),
+                rates.getStatusUpdates(), rates.getProductUpdates(), properties.getCatalog().getProducts(),
+                properties.getCatalog().getZipfExponent());
+
+        // Arrival times have their own generator: the operations do not depend on how late the run is
+        Random arrivalRandom = new Random(properties.getSeed() + 1);
+        long start = System.nanoTime();
+        long end = start + properties.getDuration().toNanos();
+        long measureFrom = start + properties.getWarmup().toNanos();
+        long reportEvery = properties.getReportInterval().toNanos();
+        Arrivals[] arrivals = {
+                new Arrivals(Operation.CREATE_ORDER, rates.getOrders(), start, arrivalRandom),
+                new Arrivals(Operation.UPDATE_STATUS, rates.getStatusUpdates(), start, arrivalRandom),
+                new Arrivals(Operation.UPDATE_PRODUCT, rates.getProductUpdates(), start, arrivalRandom)};
+        LatencyRecorder[] recorders = new LatencyRecorder[Operation.values().length];
+        for (Operation operation : Operation.values()) {
+            recorders[operation.ordinal()] = new LatencyRecorder(operation.label);
+        }
+
+        Semaphore slots = new Semaphore(properties.getMaxInFlight());
+        long lastReport = start;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Arrivals next = earliest(arrivals); next != null && next.dueAt < end; next = earliest(arrivals)) {
+                long now = System.nanoTime();
+                if (now - lastReport >= reportEvery) {
+                    logInterval(recorders, (now - lastReport) / 1e9, workload);
+                    lastReport = now;
+                }
+                if (now < next.dueAt) {
+                    LockSupport.parkNanos(Math.min(next.dueAt, lastReport + reportEvery) - now);
+                    continue;
+                }
+
+                long due = next.dueAt;
+                next.advance();
+                Runnable operation = prepare(next.operation, workload, target);
+                if (operation == null) {
+                    continue;
+                }
+                slots.acquire();
+                LatencyRecorder recorder = recorders[next.operation.ordinal()];
+                executor.execute(() -> {
+                    boolean success = false;
+                    try {
+                        operation.run();
+                        success = true;
+                    } catch (RuntimeException e) {
+                        onFailure(e);
+                    } finally {
+                        recorder.record(System.nanoTime() - due, success, due >= measureFrom);
+                        slots.release();
+                    }
+                });
+            }
+            // Closing the executor waits for the operations still in flight
+        }
+
+        double measuredSeconds = (end - measureFrom) / 1e9;
+        log.info("Load finished; operations due after the {} warm-up, over {} s:", properties.getWarmup(),
+                String.format("%.1f", measuredSeconds));
+        int total = 0;
+        for (LatencyRecorder recorder : recorders) {
+            LatencyRecorder.Summary summary = recorder.measured();
+            total += summary.getCount();
+            log.info(summary.format(measuredSeconds));
+        }
+        log.info("Sustained throughput: {} ops/s, failures: {}",
+                String.format("%.1f", total / measuredSeconds), failures.get());
+    }
+
+    /**
+     * The target's products, topped up to the configured catalog size. The first one is the most
+     * popular.
+     */
+    private List<Product> prepareCatalog(LoadTarget target, Random random) {
+        int size = properties.getCatalog().getProducts();
+        List<Product> catalog = new ArrayList<>(target.existingProducts());
+        if (catalog.size() < size) {
+            log.info("Creating {} products", size - catalog.size());
+        }
+        while (catalog.size() < size) {
+            catalog.add(target.createProduct(
+                    Workload.syntheticProduct(properties.getCatalog(), random, catalog.size() + 1)));
+        }
+        return catalog.subList(0, size);
+    }
+
+    /**
+     * Decides the operation on the scheduling thread, so the sequence only depends on the seed; null
+     * when there is nothing to do (no order is waiting for a status update).
+     */
+    private static Runnable prepare(Operation operation, Workload workload, LoadTarget target) {
+        return switch (operation) {
+            case CREATE_ORDER -> {
+                NewOrder order = workload.nextOrder();
+                yield () -> workload.orderCreated(target.createOrder(order));
+            }
+            case UPDATE_STATUS -> {
+                StatusChange change = workload.nextStatusChange();
+                yield change == null ? null : () -> {
+                    try {
+                        target.changeStatus(change);
+                    } finally {
+                        workload.statusChanged(change);
+                    }
+                };
+            }
+            case UPDATE_PRODUCT -> {
+                ProductChange change = workload.nextProductChange();
+                yield () -> target.changeProduct(change);
+            }
+        };
+    }
+
+    private void onFailure(RuntimeException e) {
+        long failure = failures.incrementAndGet();
+        if (failure <= LOGGED_FAILURES) {
+            log.warn("Operation failed ({} of at most {} logged)", failure, LOGGED_FAILURES, e);
+        }
+    }
+
+    private static void logInterval(LatencyRecorder[] recorders, double seconds, Workload workload) {
+        for (LatencyRecorder recorder : recorders) {
+            log.info(recorder.drainInterval().format(seconds));
+        }
+        log.info("Orders waiting for a status update: {}", workload.openOrders());
+    }
+
+    private static Arrivals earliest(Arrivals[] arrivals) {
+        Arrivals earliest = null;
+        for (Arrivals candidate : arrivals) {
+            if (candidate.enabled() && (earliest == null || candidate.dueAt < earliest.dueAt)) {
+                earliest = candidate;
+            }
+        }
+        return earliest;
+    }
+
+    private enum Operation {
+        CREATE_ORDER("create-order"),
+        UPDATE_STATUS("update-status"),
+        UPDATE_PRODUCT("update-product");
+
+        private final String label;
+
+        Operation(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * Due times of one operation: exponential gaps with mean {@code 1 / rate}.
+     */
+    private static final class Arrivals {
+        private final Operation operation;
+        private final double meanGapNanos;
+        private final Random random;
+        private long dueAt;
+
+        private Arrivals(Operation operation, double ratePerSecond, long start, Random random) {
+            this.operation = operation;
+            this.meanGapNanos = ratePerSecond > 0 ? 1e9 / ratePerSecond : Double.POSITIVE_INFINITY;
+            this.random = random;
+            this.dueAt = start;
+            if (enabled()) {
+                advance();
+            }
+        }
+
+        boolean enabled() {
+            return meanGapNanos != Double.POSITIVE_INFINITY;
+        }
+
+        void advance() {
+            dueAt += (long) (-Math.log(1.0 - random.nextDouble()) * meanGapNanos);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.loadgen.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "loadgen")
+public class LoadProperties {
+
+    /**
+     * Where the load goes: the producer's REST API, or synthetic Debezium change events straight
+     * into the CDC topics.
+     */
+    private Mode mode = Mode.HTTP;
+
+    /**
+     * How long operations are started, warm-up included.
+     */
+    private Duration duration = Duration.ofMinutes(5);
+
+    /**
+     * Initial part of the run that is not included in the final report.
+     */
+    private Duration warmup = Duration.ofSeconds(30);
+
+    /**
+     * How often throughput and latency of the last interval are logged.
+     */
+    private Duration reportInterval = Duration.ofSeconds(10);
+
+    /**
+     * Most operations in flight. When reached, further operations wait; their latency still counts
+     * from the time they were due, so a saturated target shows in the percentiles.
+     */
+    private int maxInFlight = 256;
+
+    /**
+     * Seed of all random choices, so a run can be repeated operation for operation.
+     */
+    private long seed = 42;
+
+    /**
+     * Mean rate of each operation; arrivals are a Poisson process.
+     */
+    private Rates rates = new Rates();
+
+    /**
+     * The products orders are made of.
+     */
+    private Catalog catalog = new Catalog();
+
+    /**
+     * Shape of the generated orders.
+     */
+    private Orders orders = new Orders();
+
+    /**
+     * Statuses every order moves through, one status update at a time, after it is created as
+     * {@code PENDING}.
+     */
+    private List<String> statusChain = new ArrayList<>(List.of("PAID", "SHIPPED", "DELIVERED"));
+
+    /**
+     * The producer API ({@code HTTP} mode).
+     */
+    private Http http = new Http();
+
+    /**
+     * The CDC topics ({@code CDC} mode).
+     */
+    private Cdc cdc = new Cdc();
+
+    public enum Mode {
+        /**
+         * Call the producer's {@code /api/orders} and {@code /api/products} endpoints; the real
+         * database and connector produce the change events.
+         */
+        HTTP,
+
+        /**
+         * Write the change events Debezium would emit for the same operations directly to Kafka,
+         * without producer, database or connector.
+         */
+        CDC
+    }
+
+    @Data
+    public static class Rates {
+        /**
+         * New orders per second.
+         */
+        private double orders = 50;
+
+        /**
+         * Order status updates per second (0 = none). Orders whose chain is complete are not updated.
+         */
+        private double statusUpdates = 20;
+
+        /**
+         * Product updates per second (0 = none), picked with the same popularity as order items.
+         */
+        private double productUpdates = 0.5;
+    }
+
+    @Data
+    public static class Catalog {
+        /**
+         * Number of products. In {@code HTTP} mode missing products are created before the run.
+         */
+        private int products = 1000;
+
+        /**
+         * Exponent of the Zipf distribution of product popularity (0 = uniform; around 1 a few
+         * products appear in most orders).
+         */
+        private double zipfExponent = 1.0;
+
+        /**
+         * Price range of created products.
+         */
+        private BigDecimal minPrice = new BigDecimal("5.00");
+
+        private BigDecimal maxPrice = new BigDecimal("500.00");
+    }
+
+    @Data
+    public static class Orders {
+        /**
+         * Orders are spread uniformly over this many user ids.
+         */
+        private int users = 10_000;
+
+        /**
+         * Mean number of items (distinct products) per order; counts are geometric from 1.
+         */
+        private double meanItems = 3.0;
+
+        /**
+         * Upper bound on items per order.
+         */
+        private int maxItems = 20;
+
+        /**
+         * Quantities per item are uniform between 1 and this.
+         */
+        private int maxQuantity = 5;
+    }
+
+    @Data
+    public static class Http {
+        /**
+         * Base URL of the producer service.
+         */
+        private String baseUrl = "http://localhost:8080";
+
+        /**
+         * Connect and read timeout of each request.
+         */
+        private Duration timeout = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Cdc {
+        /**
+         * Kafka bootstrap servers.
+         */
+        private String bootstrapServers = "localhost:9092";
+
+        /**
+         * Debezium {@code topic.prefix}: events go to {@code <prefix>.public.<table>} and
+         * {@code <prefix>.transaction}.
+         */
+        private String topicPrefix = "dbserver1";
+
+        /**
+         * Added to every generated row id, to keep synthetic rows apart from the producer's.
+         */
+        private long idOffset = 1_000_000_000L;
+
+        /**
+         * Also write BEGIN and END events to the transaction metadata topic, as with
+         * {@code provide.transaction.metadata=true}.
+         */
+        private boolean transactionMetadata = true;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.loadgen.report;
+
+import lombok.Value;
+
+import java.util.Arrays;
+
+/**
+ * Latencies of one kind of operation, kept in full for exact percentiles: for the current report
+ * interval, and for the measured part of the run (after the warm-up). A run of a few minutes at a few
+ * thousand operations per second is a few megabytes.
+ */
+public class LatencyRecorder {
+
+    private final String operation;
+    private final Samples interval = new Samples();
+    private final Samples measured = new Samples();
+
+    public LatencyRecorder(String operation) {
+        this.operation = operation;
+    }
+
+    /**
+     * @param latencyNanos from when the operation was due (not when it started) until it completed
+     * @param inMeasurement whether it was due after the warm-up
+     */
+    public synchronized void record(long latencyNanos, boolean success, boolean inMeasurement) {
+        interval.add(latencyNanos, success);
+        if (inMeasurement) {
+            measured.add(latencyNanos, success);
+        }
+    }
+
+    /**
+     * Operations completed since the last call.
+     */
+    public synchronized Summary drainInterval() {
+        Summary summary = interval.summarize(operation);
+        interval.clear();
+        return summary;
+    }
+
+    public synchronized Summary measured() {
+        return measured.summarize(operation);
+    }
+
+    @Value
+    public static class Summary {
+        String operation;
+        int count;
+        int errors;
+        long p50Nanos;
+        long p90Nanos;
+        long p99Nanos;
+        long p999Nanos;
+        long maxNanos;
+
+        public String format(double seconds) {
+            return String.format("%-15s %8d ops %8.1f ops/s %6d errors   p50 %8.2f ms   p90 %8.2f ms   "
+                            + "p99 %8.2f ms   p99.9 %8.2f ms   max %8.2f ms",
+                    operation, count, seconds > 0 ? count / seconds : 0.0, errors,
+                    millis(p50Nanos), millis(p90Nanos), millis(p99Nanos), millis(p999Nanos), millis(maxNanos));
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+
+    private static final class Samples {
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+
+        void add(long latencyNanos, boolean success) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (!success) {
+                errors++;
+            }
+        }
+
+        void clear() {
+            count = 0;
+            errors = 0;
+        }
+
+        Summary summarize(String operation) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return new Summary(operation, count, errors,
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                    percentile(sorted, 0.999), count > 0 ? sorted[count - 1] : 0);
+        }
+
+        // Nearest rank
+        private static long percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(quantile * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.loadgen.target;
+
+import com.example.loadgen.config.LoadProperties;
+import com.example.loadgen.workload.NewOrder;
+import com.example.loadgen.workload.Product;
+import com.example.loadgen.workload.ProductChange;
+import com.example.loadgen.workload.StatusChange;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Plays the database and the connector: turns each operation into the change events Debezium emits
+ * for the producer's transaction, with the settings of {@code debezium/register-connector.json}
+ * (schema-less JSON, decimals as strings, timestamps as epoch micros, transaction metadata), and
+ * sends them to a {@link RecordSink}.
+ * <p>
+ * Row ids, transaction ids and LSNs are assigned here, one transaction at a time, so events are sent
+ * in commit order. Rows are remembered for the before images of later updates; an order is forgotten
+ * when it reaches the end of its status chain.
+ */
+public class CdcEventTarget implements LoadTarget {
+
+    private static final String CONNECTOR_VERSION = "2.5.0.Final";
+    private static final String DATABASE = "producer_db";
+    private static final String SCHEMA = "public";
+    private static final String ORDERS = "orders";
+    private static final String ORDER_ITEMS = "order_items";
+    private static final String PRODUCTS = "products";
+
+    // Any increasing LSN will do; the consumer only compares them
+    private static final long LSN_STEP = 128;
+
+    private final RecordSink sink;
+    private final ObjectMapper mapper;
+    private final String topicPrefix;
+    private final long idOffset;
+    private final boolean transactionMetadata;
+
+    private final Map<Long, ObjectNode> orders = new HashMap<>();
+    private final Map<Long, ObjectNode> products = new HashMap<>();
+    private long lastOrderId;
+    private long lastOrderItemId;
+    private long lastProductId;
+    private long lastTransactionId = 1000;
+    private long lsn = 0x1000000L;
+
+    public CdcEventTarget(RecordSink sink, LoadProperties.Cdc settings, ObjectMapper mapper) {
+        this.sink = sink;
+        this.mapper = mapper;
+        this.topicPrefix = settings.getTopicPrefix();
+        this.idOffset = settings.getIdOffset();
+        this.transactionMetadata = settings.isTransactionMetadata();
+    }
+
+    @Override
+    public List<Product> existingProducts() {
+        return List.of();
+    }
+
+    @Override
+    public Product createProduct(Product product) {
+        Product created;
+        CompletableFuture<Void> sent;
+        synchronized (this) {
+            long now = nowMicros();
+            long id = idOffset + ++lastProductId;
+            ObjectNode row = mapper.createObjectNode()
+                    .put("id", id)
+                    .put("name", product.getName())
+                    .put("price", decimal(product.getPrice()))
+                    .put("description", product.getDescription())
+                    .put("created_at", now)
+                    .put("updated_at", now);
+            products.put(id, row);
+            created = new Product(id, product.getName(), product.getPrice(), product.getDescription());
+            sent = commit(List.of(new Change(PRODUCTS, id, "c", null, row)));
+        }
+        sent.join();
+        return created;
+    }
+
+    @Override
+    public long createOrder(NewOrder order) {
+        long orderId;
+        CompletableFuture<Void> sent;
+        synchronized (this) {
+            long now = nowMicros();
+            orderId = idOffset + ++lastOrderId;
+            ObjectNode orderRow = mapper.createObjectNode()
+                    .put("id", orderId)
+                    .put("user_id", order.getUserId())
+                    .put("status", "PENDING")
+                    .put("total_price", decimal(order.totalPrice()))
+                    .put("ordered_at", now)
+                    .put("updated_at", now);
+            orders.put(orderId, orderRow);
+
+            // The producer inserts the order, then its items, in one transaction
+            List<Change> changes = new ArrayList<>(1 + order.getItems().size());
+            changes.add(new Change(ORDERS, orderId, "c", null, orderRow));
+            for (NewOrder.Item item : order.getItems()) {
+                long itemId = idOffset + ++lastOrderItemId;
+                ObjectNode itemRow = mapper.createObjectNode()
+                        .put("id", itemId)
+                        .put("order_id", orderId)
+                        .put("product_id", item.getProductId())
+                        .put("quantity", item.getQuantity())
+                        .put("unit_price", decimal(item.getUnitPrice()))
+                        .put("created_at", now);
+                changes.add(new Change(ORDER_ITEMS, itemId, "c", null, itemRow));
+            }
+            sent = commit(changes);
+        }
+        sent.join();
+        return orderId;
+    }
+
+    @Override
+    public void changeStatus(StatusChange change) {
+        CompletableFuture<Void> sent;
+        synchronized (this) {
+            ObjectNode before = orders.get(change.getOrderId());
+            if (before == null) {
+                throw new IllegalStateException("Unknown order " + change.getOrderId());
+            }
+            ObjectNode after = before.deepCopy()
+                    .put("status", change.getStatus())
+                    .put("updated_at", nowMicros());
+            if (change.isTerminal()) {
+                orders.remove(change.getOrderId());
+            } else {
+                orders.put(change.getOrderId(), after);
+            }
+            sent = commit(List.of(new Change(ORDERS, change.getOrderId(), "u", before, after)));
+        }
+        sent.join();
+    }
+
+    @Override
+    public void changeProduct(ProductChange change) {
+        CompletableFuture<Void> sent;
+        synchronized (this) {
+            ObjectNode before = products.get(change.getProductId());
+            if (before == null) {
+                throw new IllegalStateException("Unknown product " + change.getProductId());
+            }
+            ObjectNode after = before.deepCopy()
+                    .put("name", change.getName())
+                    .put("price", decimal(change.getPrice()))
+                    .put("description", change.getDescription())
+                    .put("updated_at", nowMicros());
+            products.put(change.getProductId(), after);
+            sent = commit(List.of(new Change(PRODUCTS, change.getProductId(), "u", before, after)));
+        }
+        sent.join();
+    }
+
+    @Override
+    public void close() {
+        sink.close();
+    }
+
+    /**
+     * Sends the events of one transaction, framed by its BEGIN and END metadata events.
+     */
+    private CompletableFuture<Void> commit(List<Change> changes) {
+        long transactionId = ++lastTransactionId;
+        long tsMs = System.currentTimeMillis();
+        String id = transactionId + ":" + lsn;
+        List<CompletableFuture<Void>> sent = new ArrayList<>(changes.size() + 2);
+
+        if (transactionMetadata) {
+            ObjectNode begin = mapper.createObjectNode()
+                    .put("status", "BEGIN")
+                    .put("id", id)
+                    .putNull("event_count")
+                    .putNull("data_collections")
+                    .put("ts_ms", tsMs);
+            sent.add(send(topicPrefix + ".transaction", transactionKey(id), begin));
+        }
+
+        Map<String, Integer> perCollection = new LinkedHashMap<>();
+        for (int i = 0; i < changes.size(); i++) {
+            Change change = changes.get(i);
+            lsn += LSN_STEP;
+            int collectionOrder = perCollection.merge(SCHEMA + "." + change.table, 1, Integer::sum);
+
+            ObjectNode envelope = mapper.createObjectNode();
+            envelope.set("before", change.before);
+            envelope.set("after", change.after);
+            envelope.putObject("source")
+                    .put("version", CONNECTOR_VERSION)
+                    .put("connector", "postgresql")
+                    .put("name", topicPrefix)
+                    .put("ts_ms", tsMs)
+                    .put("snapshot", "false")
+                    .put("db", DATABASE)
+                    .put("schema", SCHEMA)
+                    .put("table", change.table)
+                    .put("txId", transactionId)
+                    .put("lsn", lsn);
+            envelope.putObject("transaction")
+                    .put("id", id)
+                    .put("total_order", i + 1)
+                    .put("data_collection_order", collectionOrder);
+            envelope.put("op", change.op)
+                    .put("ts_ms", System.currentTimeMillis());
+
+            String topic = topicPrefix + "." + SCHEMA + "." + change.table;
+            sent.add(send(topic, mapper.createObjectNode().put("id", change.id), envelope));
+        }
+
+        if (transactionMetadata) {
+            ObjectNode end = mapper.createObjectNode()
+                    .put("status", "END")
+                    .put("id", id)
+                    .put("event_count", changes.size())
+                    .put("ts_ms", tsMs);
+            ArrayNode collections = end.putArray("data_collections");
+            perCollection.forEach((collection, count) -> collections.addObject()
+                    .put("data_collection", collection)
+                    .put("event_count", count));
+            sent.add(send(topicPrefix + ".transaction", transactionKey(id), end));
+        }
+        return CompletableFuture.allOf(sent.toArray(CompletableFuture[]::new));
+    }
+
+    private ObjectNode transactionKey(String id) {
+        return mapper.createObjectNode().put("id", id);
+    }
+
+    private CompletableFuture<Void> send(String topic, ObjectNode key, ObjectNode value) {
+        return sink.send(topic, key.toString(), value.toString());
+    }
+
+    private static String decimal(BigDecimal value) {
+        return value.setScale(2).toPlainString();
+    }
+
+    // TIMESTAMP columns as Debezium writes them: microseconds since the epoch
+    private static long nowMicros() {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+    }
+
+    private static final class Change {
+        private final String table;
+        private final long id;
+        private final String op;
+        private final ObjectNode before;
+        private final ObjectNode after;
+
+        private Change(String table, long id, String op, ObjectNode before, ObjectNode after) {
+            this.table = table;
+            this.id = id;
+            this.op = op;
+            this.before = before;
+            this.after = after;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.loadgen.target;
+
+import com.example.loadgen.config.LoadProperties;
+import com.example.loadgen.workload.NewOrder;
+import com.example.loadgen.workload.Product;
+import com.example.loadgen.workload.ProductChange;
+import com.example.loadgen.workload.StatusChange;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies the operations through the producer's REST API, so they take the real path: JPA
+ * transaction, PostgreSQL, Debezium.
+ */
+public class HttpLoadTarget implements LoadTarget {
+
+    private final RestClient restClient;
+
+    public HttpLoadTarget(RestClient.Builder restClientBuilder, LoadProperties.Http settings) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(settings.getTimeout())
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(settings.getTimeout());
+        this.restClient = restClientBuilder
+                .baseUrl(settings.getBaseUrl())
+                .requestFactory(requestFactory)
+                .build();
+    }
+
+    @Override
+    public List<Product> existingProducts() {
+        return restClient.get()
+                .uri("/api/products")
+                .retrieve()
+                .body(new ParameterizedTypeReference<List<Product>>() {
+                });
+    }
+
+    @Override
+    public Product createProduct(Product product) {
+        return restClient.post()
+                .uri("/api/products")
+                .body(product)
+                .retrieve()
+                .body(Product.class);
+    }
+
+    @Override
+    public long createOrder(NewOrder order) {
+        List<Map<String, Object>> items = order.getItems().stream()
+                .map(item -> Map.<String, Object>of("productId", item.getProductId(),
+                        "quantity", item.getQuantity()))
+                .toList();
+        JsonNode created = restClient.post()
+                .uri("/api/orders")
+                .body(Map.of("userId", order.getUserId(), "items", items))
+                .retrieve()
+                .body(JsonNode.class);
+        return created.get("id").asLong();
+    }
+
+    @Override
+    public void changeStatus(StatusChange change) {
+        restClient.put()
+                .uri("/api/orders/{id}/status?status={status}", change.getOrderId(), change.getStatus())
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+    @Override
+    public void changeProduct(ProductChange change) {
+        restClient.put()
+                .uri("/api/products/{id}", change.getProductId())
+                .body(new Product(null, change.getName(), change.getPrice(), change.getDescription()))
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.loadgen.target;
+
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends change events roughly as a Debezium connector task does: same JSON keys with the default
+ * partitioner (so the same partitions), idempotent, acknowledged by all replicas, batched.
+ */
+public class KafkaRecordSink implements RecordSink {
+
+    private final Producer<String, String> producer;
+
+    public KafkaRecordSink(String bootstrapServers) {
+        this.producer = new KafkaProducer<>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true,
+                ProducerConfig.ACKS_CONFIG, "all",
+                ProducerConfig.LINGER_MS_CONFIG, 5,
+                ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4"),
+                new StringSerializer(), new StringSerializer());
+    }
+
+    @Override
+    public CompletableFuture<Void> send(String topic, String key, String value) {
+        CompletableFuture<Void> acknowledged = new CompletableFuture<>();
+        producer.send(new ProducerRecord<>(topic, key, value), (metadata, exception) -> {
+            if (exception != null) {
+                acknowledged.completeExceptionally(exception);
+            } else {
+                acknowledged.complete(null);
+            }
+        });
+        return acknowledged;
+    }
+
+    @Override
+    public void close() {
+        producer.close();
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.loadgen.target;
+
+import com.example.loadgen.workload.NewOrder;
+import com.example.loadgen.workload.Product;
+import com.example.loadgen.workload.ProductChange;
+import com.example.loadgen.workload.StatusChange;
+
+import java.util.List;
+
+/**
+ * What the generated operations are applied to. Called from many threads at once; every call returns
+ * when the operation is done (or throws when it failed).
+ */
+public interface LoadTarget extends AutoCloseable {
+
+    /**
+     * The products that already exist, before the run.
+     */
+    List<Product> existingProducts();
+
+    /**
+     * Creates a product of the catalog and returns it with its id.
+     */
+    Product createProduct(Product product);
+
+    /**
+     * Creates the order with its items and returns the order id.
+     */
+    long createOrder(NewOrder order);
+
+    void changeStatus(StatusChange change);
+
+    void changeProduct(ProductChange change);
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.loadgen.target;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Where {@link CdcEventTarget} puts its change events: a Kafka producer ({@link KafkaRecordSink}), or
+ * in a test the input topics of a {@code TopologyTestDriver}, with {@link #synchronous}. Keys and
+ * values are JSON, as Debezium's {@code JsonConverter} writes them with schemas disabled.
+ */
+@FunctionalInterface
+public interface RecordSink extends AutoCloseable {
+
+    /**
+     * Sends one record; the future completes when it is stored.
+     */
+    CompletableFuture<Void> send(String topic, String key, String value);
+
+    @Override
+    default void close() {
+    }
+
+    /**
+     * A sink that stores each record before {@code send} returns, e.g.
+     * {@code RecordSink.synchronous((topic, key, value) -> driver.createInputTopic(topic, serializer,
+     * serializer).pipeInput(key, value))}.
+     */
+    static RecordSink synchronous(Pipe pipe) {
+        return (topic, key, value) -> {
+            pipe.accept(topic, key, value);
+            return CompletableFuture.completedFuture(null);
+        };
+    }
+
+    @FunctionalInterface
+    interface Pipe {
+        void accept(String topic, String key, String value);
+    }
+}
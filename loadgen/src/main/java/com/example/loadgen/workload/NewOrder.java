@@ -0,0 +1,30 @@
+package com.example.loadgen.workload;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * An order to create: distinct products, each with a quantity and its current catalog price.
+ */
+@Value
+public class NewOrder {
+    long userId;
+    List<Item> items;
+
+    public BigDecimal totalPrice() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Item item : items) {
+            total = total.add(item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+        }
+        return total;
+    }
+
+    @Value
+    public static class Item {
+        long productId;
+        int quantity;
+        BigDecimal unitPrice;
+    }
+}
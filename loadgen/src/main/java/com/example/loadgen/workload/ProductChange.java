@@ -0,0 +1,16 @@
+package com.example.loadgen.workload;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * A product's new name and price, as a catalog edit would write them.
+ */
+@Value
+public class ProductChange {
+    long productId;
+    String name;
+    BigDecimal price;
+    String description;
+}
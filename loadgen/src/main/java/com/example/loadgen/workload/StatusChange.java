@@ -0,0 +1,13 @@
+package com.example.loadgen.workload;
+
+import lombok.Value;
+
+/**
+ * The next step of an order along the status chain; {@code terminal} for the last one.
+ */
+@Value
+public class StatusChange {
+    long orderId;
+    String status;
+    boolean terminal;
+}
@@ -0,0 +1,147 @@
+package com.example.loadgen.workload;
+
+import com.example.loadgen.config.LoadProperties;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Decides what the next operation of each kind is: which user orders which products in which
+ * quantities, which order moves to its next status, which product changes. All choices come from
+ * one seeded {@link Random}, so the same settings give the same sequence of operations.
+ * <p>
+ * An order joins the status chains once its creation completed, and is away from them while one of
+ * its status updates is in flight, so the updates of an order never overtake each other.
+ */
+public class Workload {
+
+    private static final BigDecimal MAX_PRICE_CHANGE = new BigDecimal("0.10");
+
+    private final LoadProperties.Orders orders;
+    private final LoadProperties.Catalog catalogSettings;
+    private final List<String> statusChain;
+    private final Random random;
+    private final ZipfDistribution popularity;
+    private final List<Product> catalog;
+    private final List<OpenOrder> openOrders = new ArrayList<>();
+    private final Map<Long, OpenOrder> updating = new HashMap<>();
+    private int revision;
+
+    /**
+     * @param catalog the products in order of popularity: the first is ordered most
+     */
+    public Workload(LoadProperties properties, List<Product> catalog, Random random) {
+        this.orders = properties.getOrders();
+        this.catalogSettings = properties.getCatalog();
+        this.statusChain = List.copyOf(properties.getStatusChain());
+        this.random = random;
+        this.catalog = new ArrayList<>(catalog);
+        this.popularity = new ZipfDistribution(catalog.size(), catalogSettings.getZipfExponent());
+    }
+
+    /**
+     * A product for an empty or too small catalog: numbered name, uniform price in the configured range.
+     */
+    public static Product syntheticProduct(LoadProperties.Catalog settings, Random random, int number) {
+        long minCents = settings.getMinPrice().movePointRight(2).longValueExact();
+        long maxCents = settings.getMaxPrice().movePointRight(2).longValueExact();
+        long cents = minCents + (long) (random.nextDouble() * (maxCents - minCents + 1));
+        return new Product(null, "Product " + number, BigDecimal.valueOf(cents, 2),
+                "Synthetic product " + number);
+    }
+
+    public synchronized NewOrder nextOrder() {
+        int itemCount = Math.min(itemCount(), popularity.size());
+        Set<Integer> ranks = new LinkedHashSet<>();
+        // Popular products repeat: draw until the order has distinct ones, or give up with fewer
+        for (int attempt = 0; ranks.size() < itemCount && attempt < itemCount * 8; attempt++) {
+            ranks.add(popularity.sample(random));
+        }
+        List<NewOrder.Item> items = new ArrayList<>(ranks.size());
+        for (int rank : ranks) {
+            Product product = catalog.get(rank);
+            items.add(new NewOrder.Item(product.getId(), 1 + random.nextInt(orders.getMaxQuantity()),
+                    product.getPrice()));
+        }
+        return new NewOrder(1 + random.nextInt(orders.getUsers()), items);
+    }
+
+    /**
+     * The next status of a random order that has one, or null when no order is waiting for a status
+     * update. Call {@link #statusChanged} when the update is done.
+     */
+    public synchronized StatusChange nextStatusChange() {
+        if (openOrders.isEmpty() || statusChain.isEmpty()) {
+            return null;
+        }
+        int index = random.nextInt(openOrders.size());
+        OpenOrder order = openOrders.get(index);
+        openOrders.set(index, openOrders.get(openOrders.size() - 1));
+        openOrders.remove(openOrders.size() - 1);
+        updating.put(order.orderId, order);
+        int step = order.step++;
+        return new StatusChange(order.orderId, statusChain.get(step), step == statusChain.size() - 1);
+    }
+
+    public synchronized ProductChange nextProductChange() {
+        Product product = catalog.get(popularity.sample(random));
+        BigDecimal factor = BigDecimal.ONE.add(
+                MAX_PRICE_CHANGE.multiply(BigDecimal.valueOf(2 * random.nextDouble() - 1)));
+        BigDecimal price = product.getPrice().multiply(factor).setScale(2, RoundingMode.HALF_EVEN)
+                .max(catalogSettings.getMinPrice())
+                .min(catalogSettings.getMaxPrice());
+        String name = product.getName().replaceFirst(" \\(rev \\d+\\)$", "") + " (rev " + ++revision + ")";
+        // New orders use the new price right away, as the producer does once the update commits
+        product.setName(name);
+        product.setPrice(price);
+        return new ProductChange(product.getId(), name, price, product.getDescription());
+    }
+
+    /**
+     * The order was created and can receive status updates.
+     */
+    public synchronized void orderCreated(long orderId) {
+        openOrders.add(new OpenOrder(orderId));
+    }
+
+    /**
+     * The status update was applied (or failed); the order can receive the next one.
+     */
+    public synchronized void statusChanged(StatusChange change) {
+        OpenOrder order = updating.remove(change.getOrderId());
+        if (order != null && !change.isTerminal()) {
+            openOrders.add(order);
+        }
+    }
+
+    public synchronized int openOrders() {
+        return openOrders.size();
+    }
+
+    // 1 + geometric: mean meanItems, capped at maxItems
+    private int itemCount() {
+        double mean = Math.max(1.0, orders.getMeanItems());
+        if (mean == 1.0) {
+            return 1;
+        }
+        double p = 1.0 / mean;
+        int extra = (int) Math.floor(Math.log(1.0 - random.nextDouble()) / Math.log(1.0 - p));
+        return Math.min(1 + extra, Math.max(1, orders.getMaxItems()));
+    }
+
+    private static final class OpenOrder {
+        private final long orderId;
+        private int step;
+
+        private OpenOrder(long orderId) {
+            this.orderId = orderId;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.loadgen.workload;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Ranks {@code 0..n-1} drawn with probability proportional to {@code 1 / (rank + 1)^exponent}. The
+ * cumulative distribution is computed once, so a sample is one binary search.
+ */
+public final class ZipfDistribution {
+
+    private final double[] cumulative;
+
+    public ZipfDistribution(int n, double exponent) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n must be positive: " + n);
+        }
+        if (exponent < 0) {
+            throw new IllegalArgumentException("exponent must not be negative: " + exponent);
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cumulative[rank] /= sum;
+        }
+    }
+
+    public int size() {
+        return cumulative.length;
+    }
+
+    public int sample(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        // Not found: the insertion point is the first rank whose cumulative probability exceeds the draw
+        int rank = index >= 0 ? index : -index - 1;
+        return Math.min(rank, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.loadgen.target;
+
+import com.example.loadgen.config.LoadProperties;
+import com.example.loadgen.workload.NewOrder;
+import com.example.loadgen.workload.Product;
+import com.example.loadgen.workload.ProductChange;
+import com.example.loadgen.workload.StatusChange;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CdcEventTargetTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String[]> records = new ArrayList<>();
+    private CdcEventTarget target;
+
+    @BeforeEach
+    void setUp() {
+        LoadProperties.Cdc settings = new LoadProperties.Cdc();
+        settings.setIdOffset(1000);
+        target = new CdcEventTarget(RecordSink.synchronous((topic, key, value) ->
+                records.add(new String[]{topic, key, value})), settings, objectMapper);
+    }
+
+    @Test
+    void shouldWriteAnOrderAndItsItemsAsOneTransaction() throws Exception {
+        // Given
+        Product desk = target.createProduct(new Product(null, "Desk", new BigDecimal("120.00"), null));
+        records.clear();
+
+        // When
+        long orderId = target.createOrder(new NewOrder(7, List.of(
+                new NewOrder.Item(desk.getId(), 2, new BigDecimal("120.00")))));
+
+        // Then: BEGIN, the order, its item and END, keyed like the connector's events
+        assertEquals(1001L, orderId);
+        assertEquals(List.of("dbserver1.transaction", "dbserver1.public.orders", "dbserver1.public.order_items",
+                "dbserver1.transaction"), records.stream().map(record -> record[0]).toList());
+        assertEquals("{\"id\":1001}", records.get(1)[1]);
+
+        JsonNode order = objectMapper.readTree(records.get(1)[2]);
+        assertEquals("c", order.get("op").asText());
+        assertTrue(order.get("before").isNull());
+        assertEquals("240.00", order.at("/after/total_price").asText());
+        assertEquals("PENDING", order.at("/after/status").asText());
+        assertTrue(order.at("/after/ordered_at").isIntegralNumber());
+
+        JsonNode item = objectMapper.readTree(records.get(2)[2]);
+        assertEquals(1001L, item.at("/after/order_id").asLong());
+        assertEquals("120.00", item.at("/after/unit_price").asText());
+        assertTrue(item.at("/source/lsn").asLong() > order.at("/source/lsn").asLong());
+        assertEquals(order.at("/transaction/id"), item.at("/transaction/id"));
+
+        JsonNode end = objectMapper.readTree(records.get(3)[2]);
+        assertEquals("END", end.get("status").asText());
+        assertEquals(order.at("/transaction/id"), end.get("id"));
+        assertEquals(2, end.get("event_count").asInt());
+        assertEquals("public.orders", end.at("/data_collections/0/data_collection").asText());
+        assertEquals(1, end.at("/data_collections/1/event_count").asInt());
+    }
+
+    @Test
+    void shouldCarryBeforeImagesOfStatusAndProductUpdates() throws Exception {
+        // Given
+        Product desk = target.createProduct(new Product(null, "Desk", new BigDecimal("120.00"), null));
+        long orderId = target.createOrder(new NewOrder(7, List.of(
+                new NewOrder.Item(desk.getId(), 1, new BigDecimal("120.00")))));
+        records.clear();
+
+        // When
+        target.changeStatus(new StatusChange(orderId, "PAID", true));
+        target.changeProduct(new ProductChange(desk.getId(), "Standing desk", new BigDecimal("150.00"), null));
+
+        // Then
+        JsonNode status = objectMapper.readTree(records.get(1)[2]);
+        assertEquals("u", status.get("op").asText());
+        assertEquals("PENDING", status.at("/before/status").asText());
+        assertEquals("PAID", status.at("/after/status").asText());
+        JsonNode product = objectMapper.readTree(records.get(4)[2]);
+        assertEquals("Desk", product.at("/before/name").asText());
+        assertEquals("150.00", product.at("/after/price").asText());
+
+        // And: The terminal status forgot the order
+        assertThrows(IllegalStateException.class,
+                () -> target.changeStatus(new StatusChange(orderId, "SHIPPED", true)));
+    }
+}
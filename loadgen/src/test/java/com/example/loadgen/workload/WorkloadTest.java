@@ -0,0 +1,111 @@
+package com.example.loadgen.workload;
+
+import com.example.loadgen.config.LoadProperties;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkloadTest {
+
+    @Test
+    void shouldGenerateOrdersOfDistinctCatalogProductsWithinTheConfiguredBounds() {
+        // Given
+        LoadProperties properties = new LoadProperties();
+        properties.getOrders().setMeanItems(4.0);
+        properties.getOrders().setMaxItems(6);
+        properties.getOrders().setMaxQuantity(3);
+        Workload workload = new Workload(properties, catalog(50), new Random(1));
+
+        // When
+        int totalItems = 0;
+        for (int i = 0; i < 2_000; i++) {
+            NewOrder order = workload.nextOrder();
+
+            // Then
+            Set<Long> productIds = new HashSet<>();
+            for (NewOrder.Item item : order.getItems()) {
+                assertTrue(productIds.add(item.getProductId()));
+                assertTrue(item.getQuantity() >= 1 && item.getQuantity() <= 3);
+                assertEquals(BigDecimal.valueOf(item.getProductId(), 2), item.getUnitPrice());
+            }
+            assertTrue(order.getItems().size() >= 1 && order.getItems().size() <= 6);
+            assertTrue(order.getUserId() >= 1 && order.getUserId() <= 10_000);
+            totalItems += order.getItems().size();
+        }
+
+        // And: 1 + geometric with mean 3, capped at 6, averages about 3.3
+        assertEquals(3.3, totalItems / 2_000.0, 0.15);
+    }
+
+    @Test
+    void shouldRepeatTheSameOperationsForTheSameSeed() {
+        LoadProperties properties = new LoadProperties();
+
+        Workload first = new Workload(properties, catalog(20), new Random(7));
+        Workload second = new Workload(properties, catalog(20), new Random(7));
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first.nextOrder(), second.nextOrder());
+            assertEquals(first.nextProductChange(), second.nextProductChange());
+        }
+    }
+
+    @Test
+    void shouldMoveEachOrderThroughTheStatusChainOneUpdateAtATime() {
+        // Given: A created order
+        LoadProperties properties = new LoadProperties();
+        properties.setStatusChain(List.of("PAID", "SHIPPED"));
+        Workload workload = new Workload(properties, catalog(5), new Random(3));
+        assertNull(workload.nextStatusChange());
+        workload.orderCreated(100L);
+
+        // When: Its first update is in flight
+        StatusChange paid = workload.nextStatusChange();
+
+        // Then: It gets no second update until the first is done
+        assertEquals(new StatusChange(100L, "PAID", false), paid);
+        assertNull(workload.nextStatusChange());
+
+        // When: The updates complete one after the other
+        workload.statusChanged(paid);
+        StatusChange shipped = workload.nextStatusChange();
+        workload.statusChanged(shipped);
+
+        // Then: The last status ends the chain
+        assertEquals(new StatusChange(100L, "SHIPPED", true), shipped);
+        assertNull(workload.nextStatusChange());
+        assertEquals(0, workload.openOrders());
+    }
+
+    @Test
+    void shouldChangeProductPricesWithinTheConfiguredRange() {
+        LoadProperties properties = new LoadProperties();
+        properties.getCatalog().setMinPrice(new BigDecimal("0.05"));
+        properties.getCatalog().setMaxPrice(new BigDecimal("0.20"));
+        Workload workload = new Workload(properties, catalog(10), new Random(4));
+
+        for (int i = 0; i < 500; i++) {
+            ProductChange change = workload.nextProductChange();
+            assertTrue(change.getPrice().compareTo(new BigDecimal("0.05")) >= 0);
+            assertTrue(change.getPrice().compareTo(new BigDecimal("0.20")) <= 0);
+            assertEquals(2, change.getPrice().scale());
+            assertTrue(change.getName().matches("Product \\d+ \\(rev \\d+\\)"));
+        }
+    }
+
+    // Product i costs i cents
+    private static List<Product> catalog(int size) {
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= size; id++) {
+            products.add(new Product(id, "Product " + id, BigDecimal.valueOf(id, 2), null));
+        }
+        return products;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.loadgen.workload;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZipfDistributionTest {
+
+    @Test
+    void shouldFavorLowRanksInProportionToTheExponent() {
+        // Given
+        ZipfDistribution zipf = new ZipfDistribution(100, 1.0);
+        Random random = new Random(1);
+
+        // When
+        int[] counts = new int[100];
+        for (int i = 0; i < 100_000; i++) {
+            counts[zipf.sample(random)]++;
+        }
+
+        // Then: Rank 0 is drawn about twice as often as rank 1 and ten times as often as rank 9
+        assertEquals(2.0, (double) counts[0] / counts[1], 0.2);
+        assertEquals(10.0, (double) counts[0] / counts[9], 1.5);
+        assertTrue(counts[99] > 0);
+    }
+
+    @Test
+    void shouldBeUniformWithExponentZero() {
+        ZipfDistribution zipf = new ZipfDistribution(4, 0.0);
+        Random random = new Random(2);
+
+        int[] counts = new int[4];
+        for (int i = 0; i < 40_000; i++) {
+            counts[zipf.sample(random)]++;
+        }
+
+        for (int count : counts) {
+            assertEquals(10_000, count, 500);
+        }
+    }
+
+    @Test
+    void shouldRejectEmptyRangesAndNegativeExponents() {
+        assertThrows(IllegalArgumentException.class, () -> new ZipfDistribution(0, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new ZipfDistribution(10, -0.5));
+        assertEquals(0, new ZipfDistribution(1, 1.0).sample(new Random(3)));
+    }
+}
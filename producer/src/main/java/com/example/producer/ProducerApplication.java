@@ -1,9 +1,12 @@
 package com.example.producer;
 
+import com.example.producer.config.OutboxProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
 @SpringBootApplication
+@EnableConfigurationProperties(OutboxProperties.class)
 public class ProducerApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,42 @@
+package com.example.producer.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Sets up the Hikari pool from {@link DataSourceTuningProperties} (over {@code spring.datasource.hikari})
+ * while it is still unopened. Spring Boot registers its {@code hikaricp.connections.*} metrics, tagged
+ * {@code pool=producer}; compare {@code pending} with {@code active} before raising the pool size.
+ */
+@Configuration
+@EnableConfigurationProperties(DataSourceTuningProperties.class)
+public class DataSourceTuningConfig {
+
+    @Bean
+    public static BeanPostProcessor dataSourceTuningPostProcessor(ObjectProvider<DataSourceTuningProperties> tuning) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    apply(tuning.getObject(), dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    static void apply(DataSourceTuningProperties tuning, HikariDataSource dataSource) {
+        dataSource.setMaximumPoolSize(tuning.getPoolSize());
+        dataSource.setMinimumIdle(tuning.getMinimumIdle() != null ? tuning.getMinimumIdle() : tuning.getPoolSize());
+        dataSource.setConnectionTimeout(tuning.getConnectionTimeout().toMillis());
+        dataSource.addDataSourceProperty("prepareThreshold", tuning.getPrepareThreshold());
+        dataSource.addDataSourceProperty("preparedStatementCacheQueries", tuning.getPreparedStatementCacheQueries());
+        dataSource.addDataSourceProperty("preparedStatementCacheSizeMiB", tuning.getPreparedStatementCacheSizeMib());
+        dataSource.addDataSourceProperty("defaultRowFetchSize", tuning.getDefaultRowFetchSize());
+        dataSource.addDataSourceProperty("reWriteBatchedInserts", tuning.isReWriteBatchedInserts());
+    }
+}
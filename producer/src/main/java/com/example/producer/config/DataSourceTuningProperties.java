@@ -0,0 +1,56 @@
+package com.example.producer.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "producer.datasource")
+public class DataSourceTuningProperties {
+
+    /**
+     * Connections in the pool. A request holds one only for its transaction, so this is far below the
+     * number of request threads.
+     */
+    private int poolSize = 20;
+
+    /**
+     * Idle connections kept open; unset keeps all {@link #poolSize} open (a fixed-size pool, as
+     * HikariCP recommends), so a burst of orders does not wait for new connections.
+     */
+    private Integer minimumIdle;
+
+    /**
+     * How long a request waits for a connection before it fails.
+     */
+    private Duration connectionTimeout = Duration.ofSeconds(5);
+
+    /**
+     * PgJDBC {@code prepareThreshold}: executions of a statement on a connection after which it is
+     * prepared on the server and its plan reused; 0 never prepares.
+     */
+    private int prepareThreshold = 5;
+
+    /**
+     * PgJDBC {@code preparedStatementCacheQueries}: statements cached per connection.
+     */
+    private int preparedStatementCacheQueries = 256;
+
+    /**
+     * PgJDBC {@code preparedStatementCacheSizeMiB}: memory cap of that cache per connection.
+     */
+    private int preparedStatementCacheSizeMib = 5;
+
+    /**
+     * PgJDBC {@code defaultRowFetchSize}: rows per round trip for queries inside a transaction, so
+     * listing all orders streams them instead of reading them into memory at once; 0 reads at once.
+     */
+    private int defaultRowFetchSize = 1_000;
+
+    /**
+     * PgJDBC {@code reWriteBatchedInserts}: send the batched INSERT of an order's items as one
+     * multi-row INSERT.
+     */
+    private boolean reWriteBatchedInserts = true;
+}
@@ -0,0 +1,21 @@
+package com.example.producer.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "producer.outbox")
+public class OutboxProperties {
+
+    /**
+     * Write a pre-assembled order document to the {@code outbox} table in the transaction that
+     * creates the order, for consumers that write documents without joining the table topics.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Delete each outbox row again in the same transaction. Debezium still captures the insert from
+     * the WAL, and the table never grows.
+     */
+    private boolean deleteAfterWrite = true;
+}
@@ -0,0 +1,46 @@
+package com.example.producer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Outbox payload of a new order: the complete denormalized document, in the JSON layout the consumer
+ * stores in {@code document_store}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderCreatedEvent {
+    private Long orderId;
+    private Long userId;
+    private String status;
+    private BigDecimal totalPrice;
+    private List<Item> items;
+    private LocalDateTime orderedAt;
+    private ProductSummary productSummary;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long productId;
+        private String name;
+        private BigDecimal unitPrice;
+        private Integer qty;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProductSummary {
+        private int uniqueProductCount;
+        private Set<Long> productIds;
+        private int totalQuantity;
+    }
+}
@@ -16,8 +16,11 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class OrderItem {
 
+    // Ids from the column's sequence, 50 at a time (it increments by 50), so the items of an order are
+    // inserted in one JDBC batch instead of one round trip each
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_id")
+    @SequenceGenerator(name = "order_items_id", sequenceName = "order_items_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -1,21 +1,31 @@
 package com.example.producer.service;
 
+import com.example.producer.config.OutboxProperties;
 import com.example.producer.dto.CreateOrderRequest;
+import com.example.producer.dto.OrderCreatedEvent;
 import com.example.producer.dto.OrderItemRequest;
 import com.example.producer.dto.OrderItemResponse;
 import com.example.producer.dto.OrderResponse;
 import com.example.producer.entity.Order;
 import com.example.producer.entity.OrderItem;
+import com.example.producer.entity.OutboxEvent;
 import com.example.producer.entity.Product;
 import com.example.producer.repository.OrderRepository;
+import com.example.producer.repository.OutboxEventRepository;
 import com.example.producer.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,6 +34,9 @@ public class OrderService {
 
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxProperties outboxProperties;
+    private final ObjectMapper objectMapper;
 
     @Transactional
     public OrderResponse createOrder(CreateOrderRequest request) {
@@ -62,9 +75,54 @@ public class OrderService {
         order.setTotalPrice(totalPrice);
 
         Order savedOrder = orderRepository.save(order);
+        if (outboxProperties.isEnabled()) {
+            writeOutboxEvent(savedOrder, productMap);
+        }
         return convertToResponse(savedOrder);
     }
 
+    /**
+     * Stores the finished document of a new order in the outbox, in the order's transaction: it is
+     * captured exactly when the order commits, and the consumer writes it without joining the order,
+     * item and product topics.
+     */
+    private void writeOutboxEvent(Order order, Map<Long, Product> productMap) {
+        List<OrderCreatedEvent.Item> items = new ArrayList<>(order.getItems().size());
+        Set<Long> productIds = new LinkedHashSet<>();
+        int totalQuantity = 0;
+        for (OrderItem item : order.getItems()) {
+            items.add(new OrderCreatedEvent.Item(item.getProductId(),
+                    productMap.get(item.getProductId()).getName(), item.getUnitPrice(), item.getQuantity()));
+            productIds.add(item.getProductId());
+            totalQuantity += item.getQuantity();
+        }
+
+        // PostgreSQL keeps microseconds: the document must match the one built from the table rows
+        OrderCreatedEvent event = new OrderCreatedEvent(
+                order.getId(),
+                order.getUserId(),
+                order.getStatus(),
+                order.getTotalPrice(),
+                items,
+                order.getOrderedAt().truncatedTo(ChronoUnit.MICROS),
+                new OrderCreatedEvent.ProductSummary(productIds.size(), productIds, totalQuantity));
+
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setAggregateType(OutboxEvent.ORDER_AGGREGATE);
+        outboxEvent.setAggregateId(order.getId());
+        outboxEvent.setEventType(OutboxEvent.ORDER_CREATED);
+        try {
+            outboxEvent.setPayload(objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize outbox event of order " + order.getId(), e);
+        }
+
+        OutboxEvent savedEvent = outboxEventRepository.save(outboxEvent);
+        if (outboxProperties.isDeleteAfterWrite()) {
+            outboxEventRepository.delete(savedEvent);
+        }
+    }
+
     @Transactional
     public OrderResponse updateOrderStatus(Long orderId, String status) {
         Order order = orderRepository.findById(orderId)
@@ -74,12 +132,14 @@ public class OrderService {
         return convertToResponse(savedOrder);
     }
 
+    @Transactional(readOnly = true)
     public OrderResponse getOrder(Long orderId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
         return convertToResponse(order);
     }
 
+    @Transactional(readOnly = true)
     public List<OrderResponse> getAllOrders() {
         return orderRepository.findAll().stream()
                 .map(this::convertToResponse)